@@ -1,36 +1,508 @@
 package com.quizapp;
 
+import com.quizapp.dao.DatabaseBackup;
 import com.quizapp.dao.DatabaseInitializer;
+import com.quizapp.dao.DeletionService;
+import com.quizapp.dao.ItemAnalyzer;
+import com.quizapp.dao.Leaderboard;
+import com.quizapp.dao.OrphanCollector;
+import com.quizapp.dao.QuizBundle;
+import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.ResultArchiver;
+import com.quizapp.dao.ResultMerger;
+import com.quizapp.dao.ResultOutbox;
+import com.quizapp.dao.QuizStatsDAO;
 import com.quizapp.ui.LoginFrame;
+import com.quizapp.util.StartupTimer;
 import com.quizapp.util.ThemeManager;
 
+import com.quizapp.model.Quiz;
+
 import javax.swing.*;
-import java.awt.*;
+import java.awt.Frame;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main class that serves as the entry point for the Online Quiz Application.
+ * <p>
+ * Startup work is split across threads: the database is prepared on a background
+ * thread, the classes behind the login window are loaded on another, and the look
+ * and feel is installed on the main thread. The login window is built as soon as the
+ * look and feel is in place; logging in waits for the database if it is not ready yet.
  */
 public class Main {
+
+    /**
+     * Classes needed to show and use the login window, loaded ahead of time.
+     */
+    private static final String[] PRELOAD_CLASSES = {
+        "com.quizapp.ui.LoginFrame",
+        "com.quizapp.ui.RegisterFrame",
+        "com.quizapp.dao.UserDAO",
+        "com.quizapp.util.PasswordUtil",
+        "org.mindrot.jbcrypt.BCrypt",
+        "javax.swing.JPasswordField",
+        "javax.swing.JFrame",
+        "java.awt.GridBagLayout"
+    };
+
+    /**
+     * Longest time between online backups accepted by {@code --backup-every}: one week.
+     */
+    private static final long MAX_BACKUP_INTERVAL_MINUTES = 7 * 24 * 60;
+
     public static void main(String[] args) {
-        try {
-            // Initialize database
-            DatabaseInitializer.initializeDatabase();
+        if (hasFlag(args, "--training-run")) {
+            runTraining();
+            return;
+        }
+        
+        if (hasFlag(args, "--rebuild-stats")) {
+            rebuildStats();
+            return;
+        }
+        
+        if (hasFlag(args, "--analyze-items")) {
+            analyzeItems(hasFlag(args, "--full"));
+            return;
+        }
+        
+        if (hasFlag(args, "--export-bundle")) {
+            exportBundle(args);
+            return;
+        }
+        
+        if (hasFlag(args, "--merge")) {
+            mergeDatabase(args);
+            return;
+        }
+        
+        if (hasFlag(args, "--archive-results")) {
+            archiveResults(args);
+            return;
+        }
+        
+        if (hasFlag(args, "--collect-orphans")) {
+            collectOrphans();
+            return;
+        }
+        
+        if (hasFlag(args, "--backup") || hasFlag(args, "--verify-backup") || hasFlag(args, "--restore-backup")) {
+            runBackupCommand(args);
+            return;
+        }
+        
+        if (hasFlag(args, "--startup-timing")) {
+            StartupTimer.enable();
+        }
+        boolean exitAfterStartup = hasFlag(args, "--exit-after-startup");
+        long backupIntervalMinutes = backupInterval(args);
+
+        // Keep users, quizzes and results in memory instead, e.g. for demos and load simulations
+        boolean inMemory = hasFlag(args, "--in-memory");
+        if (inMemory) {
+            if (hasFlag(args, "--offline")) {
+                // Results kept offline are uploaded to the database, not to the memory store
+                System.err.println("Usage: --in-memory cannot be combined with --offline");
+                System.exit(2);
+            }
+            useInMemoryStorage();
+        }
+        
+        // Upload results kept offline by an earlier run, and any saved offline from now on
+        ResultOutbox.setOfflineMode(hasFlag(args, "--offline"));
+        ResultOutbox.shared().start();
+        
+        // Prepare the database in the background
+        long databaseStart = StartupTimer.begin();
+        CompletableFuture<Void> database = DatabaseInitializer.initializeAsync()
+                .whenComplete((ignored, error) -> StartupTimer.end("database preparation", databaseStart));
+
+        // Users, quizzes and results in the database are left alone while kept in memory
+        if (!inMemory) {
+            // Seed the leaderboards once the database is ready
+            database.thenRunAsync(Main::seedLeaderboard);
             
-            // Set application look and feel
-            ThemeManager.setLookAndFeel();
+            // Remove rows left behind by deletions made before foreign keys were enforced
+            database.thenRun(() -> OrphanCollector.shared().start());
             
-            // Start with the login screen
+            // Finish deleting quizzes and users whose deletion was cut short by closing the application
+            database.thenRunAsync(Main::resumeDeletions);
+        }
+        
+        // Take online backups while the application runs
+        if (backupIntervalMinutes > 0) {
+            database.thenRun(() -> DatabaseBackup.shared().schedule(backupIntervalMinutes));
+        }
+        
+        database.exceptionally(error -> {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
             SwingUtilities.invokeLater(() -> {
-                LoginFrame loginFrame = new LoginFrame();
-                loginFrame.setVisible(true);
+                // The application cannot be used without its database
+                for (Frame frame : Frame.getFrames()) {
+                    frame.dispose();
+                }
+                showStartupError(cause);
             });
+            return null;
+        });
+
+        // Load login window classes while the look and feel is being installed
+        Thread preloader = new Thread(Main::preloadClasses, "class-preload");
+        preloader.setDaemon(true);
+        preloader.start();
+
+        // Set application look and feel
+        long lookAndFeelStart = StartupTimer.begin();
+        ThemeManager.setLookAndFeel();
+        StartupTimer.end("look and feel", lookAndFeelStart);
+
+        // Start with the login screen
+        SwingUtilities.invokeLater(() -> {
+            if (database.isCompletedExceptionally()) {
+                if (exitAfterStartup) {
+                    StartupTimer.printReport();
+                    System.exit(1);
+                }
+                return; // The startup error is shown instead
+            }
+            
+            long loginStart = StartupTimer.begin();
+            LoginFrame loginFrame = new LoginFrame();
+            loginFrame.setVisible(true);
+            StartupTimer.end("login window", loginStart);
+            StartupTimer.milestone("login window visible");
+
+            if (StartupTimer.isEnabled() || exitAfterStartup) {
+                // Report once the database phase has finished as well
+                database.handle((ignored, error) -> {
+                    StartupTimer.printReport();
+                    if (exitAfterStartup) {
+                        System.exit(error == null ? 0 : 1);
+                    }
+                    return null;
+                });
+            }
+        });
+    }
+
+    private static void runTraining() {
+        try {
+            TrainingRun.run();
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Recomputes the per-quiz statistics from all saved results, then exits.
+     */
+    private static void rebuildStats() {
+        try {
+            DatabaseInitializer.initializeDatabase();
+            int quizCount = new QuizStatsDAO().rebuildStats();
+            System.out.println("Rebuilt statistics for " + quizCount + " quizzes.");
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Updates the per-question item analysis of all quizzes, then exits.
+     *
+     * @param full true to recompute from scratch instead of adding new attempts only
+     */
+    private static void analyzeItems(boolean full) {
+        try {
+            DatabaseInitializer.initializeDatabase();
+            long start = System.nanoTime();
+            int attemptCount = new ItemAnalyzer().analyzeAll(full);
+            System.out.printf("Analyzed %d attempts in %.1f s.%n", attemptCount, (System.nanoTime() - start) / 1e9);
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Writes quizzes to a bundle file for exam kiosks, then exits. The arguments after
+     * the flag are the file name and, optionally, the IDs of the quizzes to include
+     * (all quizzes if none are given).
+     */
+    private static void exportBundle(String[] args) {
+        int flagIndex = Arrays.asList(args).indexOf("--export-bundle");
+        List<String> values = Arrays.asList(args).subList(flagIndex + 1, args.length);
+        if (values.isEmpty()) {
+            System.err.println("Usage: --export-bundle <file> [quiz id ...]");
+            System.exit(2);
+        }
+        
+        try {
+            DatabaseInitializer.initializeDatabase();
+            QuizDAO quizDAO = new QuizDAO();
+            
+            List<Integer> quizIds = new ArrayList<>();
+            for (String value : values.subList(1, values.size())) {
+                quizIds.add(Integer.parseInt(value));
+            }
+            if (quizIds.isEmpty()) {
+                for (Quiz quiz : quizDAO.getAllQuizzes()) {
+                    quizIds.add(quiz.getId());
+                }
+            }
+            
+            List<Quiz> quizzes = new ArrayList<>();
+            int questionCount = 0;
+            for (int quizId : quizIds) {
+                Quiz quiz = quizDAO.getQuizById(quizId);
+                if (quiz == null) {
+                    System.err.println("Quiz " + quizId + " not found.");
+                    System.exit(1);
+                }
+                quizzes.add(quiz);
+                questionCount += quiz.getQuestionCount();
+            }
+            
+            QuizBundle.write(Paths.get(values.get(0)), quizzes);
+            System.out.println("Wrote " + quizzes.size() + " quizzes with " + questionCount
+                    + " questions to " + values.get(0) + ".");
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Merges the users, quizzes and results of another database file into this one, then
+     * exits. The argument after the flag is the file name.
+     */
+    private static void mergeDatabase(String[] args) {
+        int flagIndex = Arrays.asList(args).indexOf("--merge");
+        if (flagIndex + 1 >= args.length) {
+            System.err.println("Usage: --merge <database file>");
+            System.exit(2);
+        }
+        
+        try {
+            DatabaseInitializer.initializeDatabase();
+            ResultMerger.MergeReport report = new ResultMerger().merge(Paths.get(args[flagIndex + 1]),
+                    (processed, total, elapsedNanos) -> System.out.printf("%d of %d results (%.1f s)%n",
+                            processed, total, elapsedNanos / 1e9));
+            
+            System.out.printf("Users: %d added, %d matched. Quizzes: %d added, %d matched.%n",
+                    report.getUsersAdded(), report.getUsersMatched(),
+                    report.getQuizzesAdded(), report.getQuizzesMatched());
+            System.out.printf("Copied %d results with %d answers in %.1f s (%.0f results/s); "
+                    + "skipped %d already present and %d of unmerged users or quizzes.%n",
+                    report.getResultsCopied(), report.getAnswersCopied(), report.getElapsedNanos() / 1e9,
+                    report.getResultsPerSecond(), report.getResultsAlreadyPresent(), report.getResultsUnmapped());
+            for (String conflict : report.getConflicts()) {
+                System.out.println("  " + conflict);
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Moves results older than the given number of days (the argument after the flag)
+     * into the archive file, then exits. With {@code --full-vacuum}, a database that does
+     * not use incremental vacuum yet is compacted in full, blocking all writers meanwhile.
+     */
+    private static void archiveResults(String[] args) {
+        int flagIndex = Arrays.asList(args).indexOf("--archive-results");
+        if (flagIndex + 1 >= args.length) {
+            System.err.println("Usage: --archive-results <days to keep>");
+            System.exit(2);
+        }
+        
+        try {
+            DatabaseInitializer.initializeDatabase();
+            LocalDateTime cutoff = LocalDate.now().minusDays(Integer.parseInt(args[flagIndex + 1])).atStartOfDay();
+            boolean fullVacuum = hasFlag(args, "--full-vacuum");
+            ResultArchiver.ArchiveReport report = new ResultArchiver().archive(cutoff, fullVacuum);
+            System.out.printf("Archived %d results with %d answers completed before %s in %.1f s; "
+                    + "freed %d pages%s.%n", report.getResultsMoved(), report.getQuestionResultsMoved(), cutoff,
+                    report.getElapsedNanos() / 1e9, report.getPagesFreed(),
+                    report.isFullVacuum() ? " (full vacuum to enable incremental vacuum)" : "");
+            if (report.getPagesKept() > 0) {
+                System.out.println(report.getPagesKept() + " free pages are kept for new results. To return them "
+                        + "to the file system, run again with --full-vacuum while the application is closed.");
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Deletes rows left behind by deleted quizzes, questions and users, then exits.
+     */
+    private static void collectOrphans() {
+        try {
+            DatabaseInitializer.initializeDatabase();
+            OrphanCollector.CollectReport report = OrphanCollector.shared().collect();
+            for (Map.Entry<String, Long> entry : report.getDeletedRows().entrySet()) {
+                System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+            }
+            System.out.printf("Deleted %d orphaned rows in %.1f s, freeing %d pages (%d returned to the "
+                    + "file system).%n", report.getTotalRows(), report.getElapsedNanos() / 1e9,
+                    report.getPagesFreed(), report.getPagesReturned());
+            if (report.getQuizzesWithoutCreator() > 0) {
+                System.out.println(report.getQuizzesWithoutCreator() + " quiz(zes) belong to deleted users "
+                        + "and were kept.");
+            }
+            System.exit(0);
+        } catch (Exception e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Takes, verifies or restores a database backup, then exits. {@code --backup} takes a
+     * snapshot now; {@code --verify-backup} and {@code --restore-backup} take the snapshot
+     * file as the next argument.
+     */
+    private static void runBackupCommand(String[] args) {
+        try {
+            DatabaseBackup backup = DatabaseBackup.shared();
+            if (hasFlag(args, "--backup")) {
+                DatabaseInitializer.initializeDatabase();
+                long start = System.nanoTime();
+                Path snapshot = backup.backup();
+                System.out.printf("Wrote %s (%d bytes) in %.1f s.%n", snapshot, Files.size(snapshot),
+                        (System.nanoTime() - start) / 1e9);
+                System.exit(0);
+            }
+            
+            String flag = hasFlag(args, "--verify-backup") ? "--verify-backup" : "--restore-backup";
+            int flagIndex = Arrays.asList(args).indexOf(flag);
+            if (flagIndex + 1 >= args.length) {
+                System.err.println("Usage: " + flag + " <snapshot file>");
+                System.exit(2);
+            }
+            Path snapshot = Paths.get(args[flagIndex + 1]);
             
+            if (flag.equals("--verify-backup")) {
+                backup.verify(snapshot);
+                System.out.println(snapshot + " is intact.");
+            } else {
+                backup.restore(snapshot);
+                System.out.println("Restored the database from " + snapshot + ".");
+            }
+            System.exit(0);
         } catch (Exception e) {
-            JOptionPane.showMessageDialog(null,
-                    "An error occurred during application startup: " + e.getMessage(),
-                    "Startup Error",
-                    JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    /**
+     * Reads the minutes between online backups given after {@code --backup-every}, or 0
+     * if the flag is not given. Exits with the usage if the value is missing or out of range.
+     */
+    private static long backupInterval(String[] args) {
+        int flagIndex = Arrays.asList(args).indexOf("--backup-every");
+        if (flagIndex < 0) {
+            return 0;
+        }
+        
+        long intervalMinutes = 0;
+        if (flagIndex + 1 < args.length) {
+            try {
+                intervalMinutes = Long.parseLong(args[flagIndex + 1]);
+            } catch (NumberFormatException e) {
+                // Reported with the usage below
+            }
+        }
+        if (intervalMinutes < 1 || intervalMinutes > MAX_BACKUP_INTERVAL_MINUTES) {
+            System.err.println("Usage: --backup-every <minutes, 1 to " + MAX_BACKUP_INTERVAL_MINUTES + ">");
+            System.exit(2);
+        }
+        return intervalMinutes;
+    }
+    
+    private static void seedLeaderboard() {
+        try {
+            Leaderboard.shared().seed();
+        } catch (SQLException e) {
+            // Boards are loaded on first view instead
+            System.err.println("Error seeding leaderboards: " + e.getMessage());
+        }
+    }
+    
+    private static void useInMemoryStorage() {
+        try {
+            Repositories.useInMemory(Repositories.newStoreWithAdmin());
+            System.out.println("Users, quizzes and results are kept in memory and lost on exit.");
+        } catch (SQLException e) {
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+    
+    private static void resumeDeletions() {
+        try {
+            int count = DeletionService.shared().resume();
+            if (count > 0) {
+                System.out.println("Continuing " + count + " unfinished deletion(s) in the background.");
+            }
+        } catch (SQLException e) {
+            // Tried again at the next start
+            System.err.println("Error resuming deletions: " + e.getMessage());
+        }
+    }
+    
+    private static void preloadClasses() {
+        long start = StartupTimer.begin();
+        ClassLoader loader = Main.class.getClassLoader();
+
+        for (String className : PRELOAD_CLASSES) {
+            try {
+                Class.forName(className, true, loader);
+            } catch (ClassNotFoundException | LinkageError e) {
+                // Only a warm-up; the class will be loaded (or fail) normally later
+            }
+        }
+
+        StartupTimer.end("class preload", start);
+    }
+
+    private static void showStartupError(Throwable e) {
+        JOptionPane.showMessageDialog(null,
+                "An error occurred during application startup: " + e.getMessage(),
+                "Startup Error",
+                JOptionPane.ERROR_MESSAGE);
+        e.printStackTrace();
+    }
+
+    private static boolean hasFlag(String[] args, String flag) {
+        for (String arg : args) {
+            if (arg.equals(flag)) {
+                return true;
+            }
         }
+        return false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,85 @@
+package com.quizapp;
+
+import com.quizapp.dao.DatabaseInitializer;
+import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.UserDAO;
+import com.quizapp.model.Question;
+import com.quizapp.model.Question.Option;
+import com.quizapp.model.Quiz;
+import com.quizapp.model.User;
+import com.quizapp.ui.LoginFrame;
+import com.quizapp.ui.MainFrame;
+import com.quizapp.ui.quiz.QuizSessionFrame;
+import com.quizapp.util.ThemeManager;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * Scripted walk through the common startup path, used to record a class-data-sharing
+ * archive (see the {@code cds} Maven profile).
+ * <p>
+ * It logs in as the default admin, lists the quizzes and opens one, building the same
+ * windows a real user would see without showing them, then exits. Every class loaded
+ * along the way ends up in the archive. It needs a display (or {@code xvfb-run}) because
+ * Swing frames cannot be created in headless mode, and it should be run from a scratch
+ * directory since it creates a {@code quiz_app.db} there.
+ */
+public class TrainingRun {
+    
+    private static final String ADMIN_USERNAME = "admin";
+    private static final String ADMIN_PASSWORD = "admin123";
+    
+    public static void run() throws Exception {
+        DatabaseInitializer.initializeDatabase();
+        ThemeManager.setLookAndFeel();
+        
+        UserDAO userDAO = new UserDAO();
+        QuizDAO quizDAO = new QuizDAO();
+        
+        User admin = userDAO.authenticateUser(ADMIN_USERNAME, ADMIN_PASSWORD);
+        if (admin == null) {
+            throw new IllegalStateException("Training run needs the default admin account");
+        }
+        
+        List<Quiz> quizzes = quizDAO.getAllQuizzes();
+        if (quizzes.isEmpty()) {
+            quizzes.add(quizDAO.createQuiz(createSampleQuiz(admin)));
+        }
+        Quiz quiz = quizDAO.getQuizById(quizzes.get(0).getId());
+        
+        SwingUtilities.invokeAndWait(() -> {
+            // Login window
+            LoginFrame loginFrame = new LoginFrame();
+            loginFrame.pack();
+            loginFrame.dispose();
+            
+            // Main window, which opens on the quiz list
+            MainFrame mainFrame = new MainFrame(admin);
+            mainFrame.pack();
+            
+            // Quiz session
+            QuizSessionFrame sessionFrame = new QuizSessionFrame(mainFrame, admin, quiz);
+            sessionFrame.pack();
+            sessionFrame.dispose();
+            mainFrame.dispose();
+        });
+    }
+    
+    private static Quiz createSampleQuiz(User creator) {
+        Quiz quiz = new Quiz("Training Quiz", "Sample quiz for the startup training run", creator.getId(), 10);
+        
+        Question single = new Question(0, "Which planet is closest to the sun?", 1);
+        single.addOption(new Option(0, "Mercury", true));
+        single.addOption(new Option(0, "Venus", false));
+        quiz.addQuestion(single);
+        
+        Question multiple = new Question(0, "Which of these are prime numbers?", 2);
+        multiple.addOption(new Option(0, "2", true));
+        multiple.addOption(new Option(0, "3", true));
+        multiple.addOption(new Option(0, "4", false));
+        quiz.addQuestion(multiple);
+        
+        return quiz;
+    }
+}
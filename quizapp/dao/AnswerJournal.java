@@ -0,0 +1,397 @@
+package com.quizapp.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the answers given during one quiz attempt.
+ * <p>
+ * A quiz session records every answer change and, periodically, how much time has been
+ * used. Changes are coalesced in memory and written by a shared background thread at
+ * most every {@value #FLUSH_DELAY_MILLIS} ms, with one {@code fsync} per write, so rapid
+ * clicking produces few disk writes. After a crash the attempt can be recovered with
+ * {@link #recover(int, int)}; a torn record at the end of the file is ignored. When the
+ * attempt is submitted and saved as a quiz result the journal is deleted.
+ * <p>
+ * Each record is stored as {@code [length][type][payload][crc32]}.
+ */
+public class AnswerJournal implements AutoCloseable {
+    private static final Path JOURNAL_DIR = Paths.get("journals");
+    
+    private static final byte RECORD_HEADER = 1;
+    private static final byte RECORD_ANSWER = 2;
+    private static final byte RECORD_ELAPSED = 3;
+    
+    private static final int FORMAT_VERSION = 1;
+    private static final long FLUSH_DELAY_MILLIS = 250;
+    private static final long ELAPSED_CHECKPOINT_MILLIS = 5000;
+    
+    private static final ScheduledExecutorService writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "answer-journal-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final Path path;
+    private final FileChannel channel;
+    
+    // Guarded by this
+    private final Map<Integer, int[]> pendingAnswers = new LinkedHashMap<>();
+    private long pendingElapsedMillis = -1;
+    private long persistedElapsedMillis;
+    private boolean flushScheduled;
+    private boolean closed;
+    
+    private AnswerJournal(Path path, FileChannel channel, long persistedElapsedMillis) {
+        this.path = path;
+        this.channel = channel;
+        this.persistedElapsedMillis = persistedElapsedMillis;
+    }
+    
+    /**
+     * Starts a new journal for an attempt, replacing any previous one for the same user and quiz.
+     *
+     * @param userId the ID of the user taking the quiz
+     * @param quizId the ID of the quiz
+     * @return the open journal
+     * @throws IOException if the journal cannot be created
+     */
+    public static AnswerJournal create(int userId, int quizId) throws IOException {
+        Files.createDirectories(JOURNAL_DIR);
+        Path path = journalPath(userId, quizId);
+        
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            channel.write(ByteBuffer.wrap(headerRecord(userId, quizId, System.currentTimeMillis())));
+            channel.force(false);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new AnswerJournal(path, channel, 0);
+    }
+    
+    /**
+     * Reads the journal of an unfinished attempt, if there is one.
+     *
+     * @param userId the ID of the user
+     * @param quizId the ID of the quiz
+     * @return the recovered attempt, or null if there is no usable journal
+     * @throws IOException if the journal exists but cannot be read
+     */
+    public static RecoveredAttempt recover(int userId, int quizId) throws IOException {
+        Path path = journalPath(userId, quizId);
+        if (!Files.exists(path)) {
+            return null;
+        }
+        
+        RecoveredAttempt attempt = null;
+        
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+            while (true) {
+                byte[] record = readRecord(in);
+                if (record == null) {
+                    break; // End of file or torn tail
+                }
+                
+                DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record));
+                byte type = payload.readByte();
+                
+                if (type == RECORD_HEADER) {
+                    int version = payload.readInt();
+                    if (version != FORMAT_VERSION || payload.readInt() != userId || payload.readInt() != quizId) {
+                        return null;
+                    }
+                    attempt = new RecoveredAttempt(userId, quizId, payload.readLong());
+                } else if (attempt == null) {
+                    return null; // Records without a header are unusable
+                } else if (type == RECORD_ANSWER) {
+                    int questionId = payload.readInt();
+                    int[] optionIds = new int[payload.readInt()];
+                    for (int i = 0; i < optionIds.length; i++) {
+                        optionIds[i] = payload.readInt();
+                    }
+                    attempt.answers.put(questionId, optionIds);
+                } else if (type == RECORD_ELAPSED) {
+                    attempt.elapsedMillis = Math.max(attempt.elapsedMillis, payload.readLong());
+                }
+            }
+        }
+        
+        return attempt;
+    }
+    
+    /**
+     * Reopens a recovered attempt for further answers. The journal is first compacted to one
+     * record per answered question, written to a temporary file and atomically renamed.
+     *
+     * @param attempt the recovered attempt
+     * @return the open journal
+     * @throws IOException if the journal cannot be rewritten
+     */
+    public static AnswerJournal reopen(RecoveredAttempt attempt) throws IOException {
+        Path path = journalPath(attempt.userId, attempt.quizId);
+        Path compacted = path.resolveSibling(path.getFileName() + ".tmp");
+        
+        try (FileChannel out = FileChannel.open(compacted, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            out.write(ByteBuffer.wrap(headerRecord(attempt.userId, attempt.quizId, attempt.startedAtMillis)));
+            for (Map.Entry<Integer, int[]> answer : attempt.answers.entrySet()) {
+                out.write(ByteBuffer.wrap(answerRecord(answer.getKey(), answer.getValue())));
+            }
+            out.write(ByteBuffer.wrap(elapsedRecord(attempt.elapsedMillis)));
+            out.force(false);
+        }
+        Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return new AnswerJournal(path, channel, attempt.elapsedMillis);
+    }
+    
+    /**
+     * Deletes the journal of an attempt without opening it.
+     */
+    public static void delete(int userId, int quizId) throws IOException {
+        Files.deleteIfExists(journalPath(userId, quizId));
+    }
+    
+    /**
+     * Records the current selection for a question. Only the latest selection per question
+     * is written if several changes arrive before the next flush.
+     *
+     * @param questionId the ID of the question
+     * @param optionIds the IDs of the selected options
+     */
+    public synchronized void recordAnswer(int questionId, int[] optionIds) {
+        if (closed) {
+            return;
+        }
+        pendingAnswers.put(questionId, Arrays.copyOf(optionIds, optionIds.length));
+        scheduleFlush();
+    }
+    
+    /**
+     * Records how much time the attempt has used so far. Written together with the next
+     * answer change, or on its own every few seconds.
+     *
+     * @param elapsedMillis the time used so far in milliseconds
+     */
+    public synchronized void recordElapsed(long elapsedMillis) {
+        if (closed) {
+            return;
+        }
+        pendingElapsedMillis = elapsedMillis;
+        if (elapsedMillis - persistedElapsedMillis >= ELAPSED_CHECKPOINT_MILLIS) {
+            scheduleFlush();
+        }
+    }
+    
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            writer.schedule(this::flushQuietly, FLUSH_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException e) {
+            System.err.println("Error writing answer journal: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Writes all pending changes and forces them to disk.
+     *
+     * @throws IOException if writing fails
+     */
+    public synchronized void flush() throws IOException {
+        flushScheduled = false;
+        if (closed || (pendingAnswers.isEmpty() && pendingElapsedMillis < 0)) {
+            return;
+        }
+        
+        ByteArrayOutputStream batch = new ByteArrayOutputStream();
+        for (Map.Entry<Integer, int[]> answer : pendingAnswers.entrySet()) {
+            batch.write(answerRecord(answer.getKey(), answer.getValue()));
+        }
+        if (pendingElapsedMillis >= 0) {
+            batch.write(elapsedRecord(pendingElapsedMillis));
+        }
+        
+        ByteBuffer buffer = ByteBuffer.wrap(batch.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        
+        pendingAnswers.clear();
+        if (pendingElapsedMillis >= 0) {
+            persistedElapsedMillis = pendingElapsedMillis;
+            pendingElapsedMillis = -1;
+        }
+    }
+    
+    /**
+     * Flushes pending changes and closes the journal, keeping the file for recovery.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        try {
+            flush();
+        } finally {
+            closed = true;
+            channel.close();
+        }
+    }
+    
+    /**
+     * Closes the journal and deletes its file, e.g. once the attempt has been saved
+     * as a quiz result or deliberately abandoned.
+     */
+    public synchronized void discard() throws IOException {
+        closed = true;
+        pendingAnswers.clear();
+        channel.close();
+        Files.deleteIfExists(path);
+    }
+    
+    private static Path journalPath(int userId, int quizId) {
+        return JOURNAL_DIR.resolve("attempt-u" + userId + "-q" + quizId + ".journal");
+    }
+    
+    private static byte[] headerRecord(int userId, int quizId, long startedAtMillis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_HEADER);
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(userId);
+        out.writeInt(quizId);
+        out.writeLong(startedAtMillis);
+        return frame(bytes.toByteArray());
+    }
+    
+    private static byte[] answerRecord(int questionId, int[] optionIds) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_ANSWER);
+        out.writeInt(questionId);
+        out.writeInt(optionIds.length);
+        for (int optionId : optionIds) {
+            out.writeInt(optionId);
+        }
+        return frame(bytes.toByteArray());
+    }
+    
+    private static byte[] elapsedRecord(long elapsedMillis) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_ELAPSED);
+        out.writeLong(elapsedMillis);
+        return frame(bytes.toByteArray());
+    }
+    
+    /**
+     * Wraps a record body with its length and checksum.
+     */
+    private static byte[] frame(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(4 + body.length + 4);
+        buffer.putInt(body.length);
+        buffer.put(body);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+    
+    /**
+     * Reads one framed record body.
+     *
+     * @return the body, or null at the end of the file or at a damaged record
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > 1 << 20) {
+                return null;
+            }
+            
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int storedCrc = in.readInt();
+            
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            return (int) crc.getValue() == storedCrc ? body : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+    
+    /**
+     * State of an unfinished attempt read back from its journal.
+     */
+    public static class RecoveredAttempt {
+        private final int userId;
+        private final int quizId;
+        private final long startedAtMillis;
+        private final Map<Integer, int[]> answers = new LinkedHashMap<>();
+        private long elapsedMillis;
+        
+        private RecoveredAttempt(int userId, int quizId, long startedAtMillis) {
+            this.userId = userId;
+            this.quizId = quizId;
+            this.startedAtMillis = startedAtMillis;
+        }
+        
+        public int getUserId() {
+            return userId;
+        }
+        
+        public int getQuizId() {
+            return quizId;
+        }
+        
+        public long getStartedAtMillis() {
+            return startedAtMillis;
+        }
+        
+        /**
+         * Gets the last recorded selection per question ID.
+         */
+        public Map<Integer, int[]> getAnswers() {
+            return answers;
+        }
+        
+        /**
+         * Gets the time the attempt had used when it was last checkpointed.
+         */
+        public long getElapsedMillis() {
+            return elapsedMillis;
+        }
+    }
+}
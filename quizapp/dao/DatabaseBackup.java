@@ -0,0 +1,373 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.DatabaseUtil;
+import org.sqlite.SQLiteConnection;
+import org.sqlite.core.DB;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Online backups of the quiz database, taken while the application is in use.
+ * <p>
+ * A snapshot is copied with the SQLite online backup API, {@value #PAGES_PER_STEP} pages
+ * (half a megabyte with the default page size) per step, pausing
+ * {@value #DEFAULT_STEP_PAUSE_MILLIS} ms after every step. The database is only locked
+ * during a step, so quiz sessions saving results are never kept waiting for long. If
+ * another connection writes between two steps, SQLite starts the copy over, so the
+ * snapshot is always consistent. The copy is then gzip-compressed into the
+ * backup directory as {@code quiz_app-<date>-<time>.db.gz}, with a
+ * {@code .sha256} file next to it in {@code sha256sum} format. Only the newest
+ * {@value #DEFAULT_RETAINED_COUNT} snapshots are kept.
+ * <p>
+ * {@link #verify(Path)} checks a snapshot's checksum and runs SQLite's integrity check on
+ * its contents; {@link #restore(Path)} replaces the database with a verified snapshot.
+ */
+public class DatabaseBackup {
+    public static final Path BACKUP_DIR = Paths.get("backups");
+    
+    private static final int DEFAULT_RETAINED_COUNT = 14;
+    private static final long DEFAULT_STEP_PAUSE_MILLIS = 20;
+    private static final int PAGES_PER_STEP = 128;
+    
+    // A step that finds the database locked is retried this often, this far apart
+    private static final int BUSY_RETRY_LIMIT = 50;
+    private static final int BUSY_RETRY_MILLIS = 100;
+    
+    private static final String FILE_PREFIX = "quiz_app-";
+    private static final String FILE_SUFFIX = ".db.gz";
+    private static final String CHECKSUM_SUFFIX = ".sha256";
+    private static final DateTimeFormatter FILE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+    
+    private static final DatabaseBackup SHARED =
+            new DatabaseBackup(BACKUP_DIR, DEFAULT_RETAINED_COUNT, DEFAULT_STEP_PAUSE_MILLIS);
+    
+    private final Path directory;
+    private final int retainedCount;
+    private final long stepPauseMillis;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-backup");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Guarded by this
+    private boolean scheduled;
+    
+    // Written by the backup thread only
+    private volatile Path lastSnapshot;
+    private volatile String lastError;
+    
+    /**
+     * Creates a backup service.
+     *
+     * @param directory the directory snapshots are written to
+     * @param retainedCount the number of snapshots to keep
+     * @param stepPauseMillis the pause after every copied step, in milliseconds
+     */
+    public DatabaseBackup(Path directory, int retainedCount, long stepPauseMillis) {
+        this.directory = directory;
+        this.retainedCount = Math.max(1, retainedCount);
+        this.stepPauseMillis = Math.max(0, stepPauseMillis);
+    }
+    
+    /**
+     * Gets the backup service shared by the whole application.
+     */
+    public static DatabaseBackup shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Takes a snapshot every given number of minutes in the background, the first one
+     * after one interval. Calling it again has no effect.
+     *
+     * @param intervalMinutes the time between snapshots
+     */
+    public synchronized void schedule(long intervalMinutes) {
+        if (scheduled) {
+            return;
+        }
+        scheduled = true;
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                lastSnapshot = backup();
+                lastError = null;
+            } catch (IOException | SQLException e) {
+                lastError = e.getMessage();
+                System.err.println("Error backing up database: " + e.getMessage());
+            }
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+    
+    public Path getLastSnapshot() {
+        return lastSnapshot;
+    }
+    
+    public String getLastError() {
+        return lastError;
+    }
+    
+    /**
+     * Takes a snapshot of the database now and removes snapshots beyond the retained
+     * count.
+     *
+     * @return the snapshot file
+     * @throws IOException if the snapshot cannot be written
+     * @throws SQLException if the database cannot be copied
+     */
+    public synchronized Path backup() throws IOException, SQLException {
+        Files.createDirectories(directory);
+        
+        String name = FILE_PREFIX + LocalDateTime.now().format(FILE_TIME_FORMAT);
+        Path snapshot = directory.resolve(name + FILE_SUFFIX);
+        for (int i = 2; Files.exists(snapshot); i++) {
+            snapshot = directory.resolve(name + "-" + i + FILE_SUFFIX);
+        }
+        
+        Path copy = Files.createTempFile(directory, FILE_PREFIX, ".db.tmp");
+        Path compressed = Files.createTempFile(directory, FILE_PREFIX, ".gz.tmp");
+        try {
+            copyDatabase(copy);
+            
+            String checksum;
+            try (InputStream in = Files.newInputStream(copy);
+                 DigestOutputStream digestOut = new DigestOutputStream(Files.newOutputStream(compressed), sha256());
+                 GZIPOutputStream out = new GZIPOutputStream(digestOut, 1 << 16)) {
+                in.transferTo(out);
+                out.finish(); // Writes the gzip trailer, so the checksum covers the whole file
+                checksum = toHex(digestOut.getMessageDigest().digest());
+            }
+            
+            Files.move(compressed, snapshot, StandardCopyOption.ATOMIC_MOVE);
+            Files.write(checksumFile(snapshot),
+                    (checksum + "  " + snapshot.getFileName() + "\n").getBytes(StandardCharsets.US_ASCII));
+        } finally {
+            Files.deleteIfExists(copy);
+            Files.deleteIfExists(compressed);
+        }
+        
+        removeOldSnapshots();
+        return snapshot;
+    }
+    
+    /**
+     * Checks that a snapshot matches its checksum and holds an intact database.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if the snapshot cannot be read, does not match its checksum or
+     *         is not an intact database
+     */
+    public void verify(Path snapshot) throws IOException {
+        Path copy = decompressVerified(snapshot);
+        Files.deleteIfExists(copy);
+    }
+    
+    /**
+     * Replaces the database with the contents of a snapshot, after verifying it. The
+     * current database is backed up first. Run it while the application is closed, as
+     * open windows keep showing the old data.
+     *
+     * @param snapshot the snapshot file
+     * @throws IOException if the snapshot cannot be read or is damaged
+     * @throws SQLException if the database cannot be written
+     */
+    public synchronized void restore(Path snapshot) throws IOException, SQLException {
+        Path copy = decompressVerified(snapshot);
+        try {
+            backup();
+            
+            Connection conn = null;
+            try {
+                conn = DatabaseUtil.getConnection();
+                DB database = conn.unwrap(SQLiteConnection.class).getDatabase();
+                int rc = database.restore("main", copy.toString(), (remaining, pageCount) -> pause(),
+                        BUSY_RETRY_MILLIS, BUSY_RETRY_LIMIT, PAGES_PER_STEP);
+                if (rc != 0) {
+                    throw new SQLException("Restoring database failed (SQLite error " + rc + ")");
+                }
+            } finally {
+                DatabaseUtil.closeQuietly(conn);
+            }
+        } finally {
+            Files.deleteIfExists(copy);
+        }
+    }
+    
+    /**
+     * Gets the snapshots in the backup directory, newest first.
+     */
+    public List<Path> listSnapshots() throws IOException {
+        List<Path> snapshots = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return snapshots;
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : files) {
+                snapshots.add(file);
+            }
+        }
+        // The timestamp in the name sorts chronologically
+        snapshots.sort(Collections.reverseOrder());
+        return snapshots;
+    }
+    
+    private void copyDatabase(Path target) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = DatabaseUtil.getConnection();
+            copyDatabase(conn, target);
+        } finally {
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    /**
+     * Copies a database to a file with the online backup API, step by step. Other
+     * connections can read and write between steps.
+     *
+     * @param conn a connection to the database to copy
+     * @param target the file to copy to
+     * @return the number of steps taken
+     * @throws SQLException if the database cannot be copied
+     */
+    int copyDatabase(Connection conn, Path target) throws SQLException {
+        DB database = conn.unwrap(SQLiteConnection.class).getDatabase();
+        AtomicInteger stepCount = new AtomicInteger();
+        
+        // The observer is called after every step, once the step's locks are released
+        int rc = database.backup("main", target.toString(), (remaining, pageCount) -> {
+            stepCount.incrementAndGet();
+            pause();
+        }, BUSY_RETRY_MILLIS, BUSY_RETRY_LIMIT, PAGES_PER_STEP);
+        if (rc != 0) {
+            throw new SQLException("Backing up database failed (SQLite error " + rc + ")");
+        }
+        return stepCount.get();
+    }
+    
+    private void pause() {
+        if (stepPauseMillis == 0) {
+            return;
+        }
+        try {
+            Thread.sleep(stepPauseMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    /**
+     * Verifies a snapshot and decompresses it to a temporary file, which the caller
+     * deletes.
+     */
+    private Path decompressVerified(Path snapshot) throws IOException {
+        Path checksumFile = checksumFile(snapshot);
+        if (!Files.exists(checksumFile)) {
+            throw new IOException("Checksum file not found: " + checksumFile);
+        }
+        String expected;
+        try (BufferedReader reader = Files.newBufferedReader(checksumFile, StandardCharsets.US_ASCII)) {
+            String line = reader.readLine();
+            expected = line == null ? "" : line.split("\\s+")[0];
+        }
+        
+        Path copy = Files.createTempFile(snapshot.toAbsolutePath().getParent(), FILE_PREFIX, ".db.tmp");
+        try {
+            String actual;
+            try (DigestInputStream digestIn = new DigestInputStream(Files.newInputStream(snapshot), sha256());
+                 InputStream in = new GZIPInputStream(digestIn, 1 << 16)) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+                // Read anything after the gzip trailer, so the checksum covers the whole file
+                while (digestIn.read() != -1) {
+                    // Skip
+                }
+                actual = toHex(digestIn.getMessageDigest().digest());
+            }
+            if (!actual.equalsIgnoreCase(expected)) {
+                throw new IOException("Checksum mismatch for " + snapshot.getFileName());
+            }
+            
+            checkIntegrity(copy);
+            return copy;
+        } catch (IOException e) {
+            Files.deleteIfExists(copy);
+            throw e;
+        }
+    }
+    
+    private static void checkIntegrity(Path databaseFile) throws IOException {
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection(databaseFile);
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery("PRAGMA integrity_check");
+            String result = rs.next() ? rs.getString(1) : "no result";
+            if (!"ok".equals(result)) {
+                throw new IOException("Backup is damaged: " + result);
+            }
+        } catch (SQLException e) {
+            throw new IOException("Backup is not a readable database: " + e.getMessage(), e);
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    private void removeOldSnapshots() throws IOException {
+        List<Path> snapshots = listSnapshots();
+        for (Path snapshot : snapshots.subList(Math.min(retainedCount, snapshots.size()), snapshots.size())) {
+            Files.deleteIfExists(snapshot);
+            Files.deleteIfExists(checksumFile(snapshot));
+        }
+    }
+    
+    private static Path checksumFile(Path snapshot) {
+        return snapshot.resolveSibling(snapshot.getFileName() + CHECKSUM_SUFFIX);
+    }
+    
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            // Every Java platform supports SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+}
\ No newline at end of file
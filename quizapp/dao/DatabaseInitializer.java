@@ -3,21 +3,38 @@ package com.quizapp.dao;
 import com.quizapp.util.DatabaseUtil;
 
 import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.sql.Statement;
 import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 /**
  * Initializes the database schema.
  */
 public class DatabaseInitializer {
     
+    /**
+     * Version of the schema created by this class, stored in {@code PRAGMA user_version}.
+     * Bump it whenever a table, column or index is added.
+     */
+    public static final int SCHEMA_VERSION = 10;
+    
+    private static final int MIGRATION_BATCH_SIZE = 1000;
+    
+    private static CompletableFuture<Void> initialization;
+    
     private static final String CREATE_USERS_TABLE = 
             "CREATE TABLE IF NOT EXISTS users (" +
             "id INTEGER PRIMARY KEY AUTOINCREMENT," +
             "username TEXT NOT NULL UNIQUE," +
             "password TEXT NOT NULL," + // Hashed password
             "email TEXT NOT NULL UNIQUE," +
-            "is_admin INTEGER NOT NULL DEFAULT 0" + // Boolean: 0 = false, 1 = true
+            "is_admin INTEGER NOT NULL DEFAULT 0," + // Boolean: 0 = false, 1 = true
+            "deleted_at INTEGER" + // Unix seconds when deleted, NULL = live; see DeletionService
             ");";
     
     private static final String CREATE_QUIZZES_TABLE = 
@@ -28,6 +45,7 @@ public class DatabaseInitializer {
             "creator_id INTEGER NOT NULL," +
             "time_limit INTEGER DEFAULT 0," + // Time limit in minutes, 0 = no limit
             "created_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+            "deleted_at INTEGER," + // Unix seconds when deleted, NULL = live; see DeletionService
             "FOREIGN KEY (creator_id) REFERENCES users(id)" +
             ");";
     
@@ -57,7 +75,8 @@ public class DatabaseInitializer {
             "score INTEGER NOT NULL," +
             "max_score INTEGER NOT NULL," +
             "duration_seconds INTEGER," + // Time taken to complete the quiz in seconds
-            "completed_at TEXT DEFAULT CURRENT_TIMESTAMP," +
+            "completed_at INTEGER NOT NULL DEFAULT (CAST(strftime('%s', 'now') AS INTEGER))," + // Unix time in seconds (UTC)
+            "attempt_key TEXT," + // Idempotency key of results uploaded from an outbox
             "FOREIGN KEY (user_id) REFERENCES users(id)," +
             "FOREIGN KEY (quiz_id) REFERENCES quizzes(id)" +
             ");";
@@ -68,17 +87,111 @@ public class DatabaseInitializer {
             "quiz_result_id INTEGER NOT NULL," +
             "question_id INTEGER NOT NULL," +
             "is_correct INTEGER NOT NULL DEFAULT 0," + // Boolean: 0 = false, 1 = true
+            "selected_mask BLOB," + // Selected options, see SelectionMask
             "FOREIGN KEY (quiz_result_id) REFERENCES quiz_results(id) ON DELETE CASCADE," +
             "FOREIGN KEY (question_id) REFERENCES questions(id)" +
             ");";
     
-    private static final String CREATE_SELECTED_OPTIONS_TABLE = 
-            "CREATE TABLE IF NOT EXISTS selected_options (" +
-            "id INTEGER PRIMARY KEY AUTOINCREMENT," +
-            "question_result_id INTEGER NOT NULL," +
+    private static final String CREATE_QUIZ_STATS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS quiz_stats (" +
+            "quiz_id INTEGER PRIMARY KEY," +
+            "attempt_count INTEGER NOT NULL DEFAULT 0," +
+            "score_sum INTEGER NOT NULL DEFAULT 0," +
+            "score_square_sum INTEGER NOT NULL DEFAULT 0," +
+            "lowest_score INTEGER," +
+            "highest_score INTEGER," +
+            "percentage_sum REAL NOT NULL DEFAULT 0," +
+            "percentage_square_sum REAL NOT NULL DEFAULT 0," +
+            "FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE" +
+            ");";
+    
+    private static final String CREATE_QUIZ_SCORE_BUCKETS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS quiz_score_buckets (" +
+            "quiz_id INTEGER NOT NULL," +
+            "bucket INTEGER NOT NULL," + // Percentage of the maximum score, rounded down (0-100)
+            "attempt_count INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (quiz_id, bucket)," +
+            "FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE" +
+            ") WITHOUT ROWID;";
+    
+    private static final String CREATE_QUIZ_DURATION_BUCKETS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS quiz_duration_buckets (" +
+            "quiz_id INTEGER NOT NULL," +
+            "bucket INTEGER NOT NULL," + // See DurationHistogram.bucketOf
+            "attempt_count INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (quiz_id, bucket)," +
+            "FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE" +
+            ") WITHOUT ROWID;";
+    
+    private static final String CREATE_QUESTION_RESULTS_INDEX = 
+            "CREATE INDEX IF NOT EXISTS idx_question_results_quiz_result " +
+            "ON question_results (quiz_result_id);";
+    
+    private static final String CREATE_QUIZ_RESULTS_INDEX = 
+            "CREATE INDEX IF NOT EXISTS idx_quiz_results_quiz_completed " +
+            "ON quiz_results (quiz_id, completed_at);";
+    
+    private static final String CREATE_COMPLETED_AT_INDEX = 
+            "CREATE INDEX IF NOT EXISTS idx_quiz_results_completed " +
+            "ON quiz_results (completed_at);";
+    
+    // Deleting a user's results finds them without a scan
+    private static final String CREATE_QUIZ_RESULTS_USER_INDEX = 
+            "CREATE INDEX IF NOT EXISTS idx_quiz_results_user " +
+            "ON quiz_results (user_id);";
+    
+    // Partial, so the many results without a key take no space in it
+    private static final String CREATE_ATTEMPT_KEY_INDEX = 
+            "CREATE UNIQUE INDEX IF NOT EXISTS idx_quiz_results_attempt_key " +
+            "ON quiz_results (attempt_key) WHERE attempt_key IS NOT NULL;";
+    
+    // Shows completed_at in its old text form, for scripts and reports written against it
+    private static final String CREATE_QUIZ_RESULTS_LEGACY_VIEW = 
+            "CREATE VIEW IF NOT EXISTS quiz_results_legacy AS " +
+            "SELECT id, user_id, quiz_id, score, max_score, duration_seconds, " +
+            "datetime(completed_at, 'unixepoch') AS completed_at FROM quiz_results;";
+    
+    private static final String CREATE_ITEM_STATS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS item_stats (" +
+            "question_id INTEGER PRIMARY KEY," +
+            "attempt_count INTEGER NOT NULL DEFAULT 0," +
+            "correct_count INTEGER NOT NULL DEFAULT 0," +
+            "total_sum REAL NOT NULL DEFAULT 0," + // Sums over the attempts' percentage scores
+            "total_square_sum REAL NOT NULL DEFAULT 0," +
+            "correct_total_sum REAL NOT NULL DEFAULT 0," +
+            "FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE" +
+            ");";
+    
+    private static final String CREATE_ITEM_OPTION_STATS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS item_option_stats (" +
+            "question_id INTEGER NOT NULL," +
             "option_id INTEGER NOT NULL," +
-            "FOREIGN KEY (question_result_id) REFERENCES question_results(id) ON DELETE CASCADE," +
-            "FOREIGN KEY (option_id) REFERENCES options(id)" +
+            "pick_count INTEGER NOT NULL DEFAULT 0," +
+            "PRIMARY KEY (question_id, option_id)," +
+            "FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE," +
+            "FOREIGN KEY (option_id) REFERENCES options(id) ON DELETE CASCADE" +
+            ") WITHOUT ROWID;";
+    
+    private static final String CREATE_ITEM_STATS_PROGRESS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS item_stats_progress (" +
+            "quiz_id INTEGER PRIMARY KEY," +
+            "last_result_id INTEGER NOT NULL DEFAULT 0," + // Last quiz result included in item_stats
+            "FOREIGN KEY (quiz_id) REFERENCES quizzes(id) ON DELETE CASCADE" +
+            ");";
+    
+    private static final String CREATE_OPTION_COUNTERS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS option_counters (" +
+            "option_id INTEGER PRIMARY KEY," +
+            "pick_count INTEGER NOT NULL DEFAULT 0," +
+            "FOREIGN KEY (option_id) REFERENCES options(id) ON DELETE CASCADE" +
+            ");";
+    
+    private static final String CREATE_QUESTION_COUNTERS_TABLE = 
+            "CREATE TABLE IF NOT EXISTS question_counters (" +
+            "question_id INTEGER PRIMARY KEY," +
+            "attempt_count INTEGER NOT NULL DEFAULT 0," +
+            "correct_count INTEGER NOT NULL DEFAULT 0," +
+            "FOREIGN KEY (question_id) REFERENCES questions(id) ON DELETE CASCADE" +
             ");";
     
     private static final String CREATE_ADMIN_USER =
@@ -88,25 +201,291 @@ public class DatabaseInitializer {
     
     /**
      * Initializes the database schema by creating all necessary tables.
+     * Does nothing beyond a single pragma read when the schema is already current.
      * @throws SQLException if a database error occurs
      */
     public static void initializeDatabase() throws SQLException {
         try (Connection conn = DatabaseUtil.getConnection();
              Statement stmt = conn.createStatement()) {
             
-            // Create tables
-            stmt.executeUpdate(CREATE_USERS_TABLE);
-            stmt.executeUpdate(CREATE_QUIZZES_TABLE);
-            stmt.executeUpdate(CREATE_QUESTIONS_TABLE);
-            stmt.executeUpdate(CREATE_OPTIONS_TABLE);
-            stmt.executeUpdate(CREATE_QUIZ_RESULTS_TABLE);
-            stmt.executeUpdate(CREATE_QUESTION_RESULTS_TABLE);
-            stmt.executeUpdate(CREATE_SELECTED_OPTIONS_TABLE);
+            int version = getSchemaVersion(stmt);
+            if (version >= SCHEMA_VERSION) {
+                System.out.println("Database schema is current (version " + version + ").");
+                return;
+            }
+            
+            // Tables are rebuilt below, and dropping one would cascade to the rows referring to it
+            stmt.executeUpdate("PRAGMA foreign_keys = OFF");
             
-            // Create admin user
-            stmt.executeUpdate(CREATE_ADMIN_USER);
+            if (version == 0) {
+                // Lets the result archiver return freed pages in small steps; only takes effect in a new file
+                stmt.executeUpdate("PRAGMA auto_vacuum = INCREMENTAL");
+            }
+            
+            conn.setAutoCommit(false); // Start transaction
+            try {
+                // Create tables
+                stmt.executeUpdate(CREATE_USERS_TABLE);
+                stmt.executeUpdate(CREATE_QUIZZES_TABLE);
+                stmt.executeUpdate(CREATE_QUESTIONS_TABLE);
+                stmt.executeUpdate(CREATE_OPTIONS_TABLE);
+                stmt.executeUpdate(CREATE_QUIZ_RESULTS_TABLE);
+                stmt.executeUpdate(CREATE_QUESTION_RESULTS_TABLE);
+                stmt.executeUpdate(CREATE_QUIZ_STATS_TABLE);
+                stmt.executeUpdate(CREATE_QUIZ_SCORE_BUCKETS_TABLE);
+                stmt.executeUpdate(CREATE_ITEM_STATS_TABLE);
+                stmt.executeUpdate(CREATE_ITEM_OPTION_STATS_TABLE);
+                stmt.executeUpdate(CREATE_ITEM_STATS_PROGRESS_TABLE);
+                stmt.executeUpdate(CREATE_QUESTION_RESULTS_INDEX);
+                stmt.executeUpdate(CREATE_QUIZ_RESULTS_INDEX);
+                stmt.executeUpdate(CREATE_COMPLETED_AT_INDEX);
+                stmt.executeUpdate(CREATE_QUIZ_RESULTS_USER_INDEX);
+                stmt.executeUpdate(CREATE_OPTION_COUNTERS_TABLE);
+                stmt.executeUpdate(CREATE_QUESTION_COUNTERS_TABLE);
+                stmt.executeUpdate(CREATE_QUIZ_DURATION_BUCKETS_TABLE);
+                
+                // Create admin user
+                stmt.executeUpdate(CREATE_ADMIN_USER);
+                
+                // Upgrade tables created by older versions
+                if (version < 2) {
+                    migrateSelectedOptions(conn, stmt);
+                }
+                if (version < 3) {
+                    QuizStatsDAO.rebuildStats(conn); // Seed statistics from existing results
+                }
+                if (version < 5) {
+                    PickCounters.rebuildCounters(conn); // Seed counters from existing results
+                }
+                if (version < 7) {
+                    QuizStatsDAO.rebuildDurations(conn); // Seed duration histograms from existing results
+                }
+                if (version < 8) {
+                    migrateCompletedAt(stmt);
+                }
+                if (version < 9) {
+                    migrateAttemptKey(stmt);
+                }
+                if (version < 10) {
+                    migrateDeletedAt(stmt);
+                }
+                
+                // Views go last: renaming a table fails while a view refers to a missing one
+                stmt.executeUpdate(CREATE_QUIZ_RESULTS_LEGACY_VIEW);
+                
+                stmt.executeUpdate("PRAGMA user_version = " + SCHEMA_VERSION);
+                conn.commit(); // Commit transaction
+            } catch (SQLException e) {
+                conn.rollback(); // Rollback on error
+                throw e;
+            } finally {
+                conn.setAutoCommit(true); // Reset auto-commit
+            }
             
             System.out.println("Database initialized successfully.");
         }
     }
-}
\ No newline at end of file
+    
+    /**
+     * Starts database initialization on a background thread, if it has not been started yet.
+     *
+     * @return a future that completes when the database is ready to use
+     */
+    public static synchronized CompletableFuture<Void> initializeAsync() {
+        if (initialization == null) {
+            initialization = new CompletableFuture<>();
+            Thread thread = new Thread(() -> {
+                try {
+                    initializeDatabase();
+                    initialization.complete(null);
+                } catch (Throwable t) {
+                    initialization.completeExceptionally(t);
+                }
+            }, "database-init");
+            thread.setDaemon(true);
+            thread.start();
+        }
+        return initialization;
+    }
+    
+    /**
+     * Blocks until the database has been initialized, starting initialization if needed.
+     *
+     * @throws SQLException if initialization failed
+     */
+    public static void awaitInitialization() throws SQLException {
+        try {
+            initializeAsync().join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof SQLException) {
+                throw (SQLException) e.getCause();
+            }
+            throw new SQLException("Database initialization failed", e.getCause());
+        }
+    }
+    
+    /**
+     * Version 2: moves selected options from one {@code selected_options} row per option
+     * into a {@link SelectionMask} on each {@code question_results} row, then drops the
+     * old table.
+     */
+    private static void migrateSelectedOptions(Connection conn, Statement stmt) throws SQLException {
+        if (!hasColumn(stmt, "question_results", "selected_mask")) {
+            stmt.executeUpdate("ALTER TABLE question_results ADD COLUMN selected_mask BLOB");
+        }
+        if (!hasTable(stmt, "selected_options")) {
+            return;
+        }
+        
+        Map<Integer, int[]> optionIdsByQuestion;
+        try (ResultSet rs = stmt.executeQuery("SELECT question_id, id FROM options ORDER BY question_id, id")) {
+            optionIdsByQuestion = SelectionMask.readOptionIds(rs);
+        }
+        
+        String sqlSelected = "SELECT qr.id, qr.question_id, so.option_id FROM question_results qr " +
+                             "JOIN selected_options so ON so.question_result_id = qr.id ORDER BY qr.id";
+        String sqlUpdate = "UPDATE question_results SET selected_mask = ? WHERE id = ?";
+        
+        int convertedRows = 0;
+        try (Statement select = conn.createStatement();
+             ResultSet rs = select.executeQuery(sqlSelected);
+             PreparedStatement update = conn.prepareStatement(sqlUpdate)) {
+            
+            int questionResultId = 0;
+            int questionId = 0;
+            int[] optionIds = new int[8];
+            int count = 0;
+            
+            while (rs.next()) {
+                if (count > 0 && rs.getInt(1) != questionResultId) {
+                    addMaskUpdate(update, questionResultId, Arrays.copyOf(optionIds, count),
+                            SelectionMask.optionIdsOf(optionIdsByQuestion, questionId));
+                    count = 0;
+                }
+                questionResultId = rs.getInt(1);
+                questionId = rs.getInt(2);
+                
+                if (count == optionIds.length) {
+                    optionIds = Arrays.copyOf(optionIds, count * 2);
+                }
+                optionIds[count++] = rs.getInt(3);
+                
+                if (++convertedRows % MIGRATION_BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+            
+            if (count > 0) {
+                addMaskUpdate(update, questionResultId, Arrays.copyOf(optionIds, count),
+                        SelectionMask.optionIdsOf(optionIdsByQuestion, questionId));
+            }
+            update.executeBatch();
+        }
+        
+        // Questions that were left unanswered had no rows at all
+        stmt.executeUpdate("UPDATE question_results SET selected_mask = X'' WHERE selected_mask IS NULL");
+        stmt.executeUpdate("DROP TABLE selected_options");
+        
+        System.out.println("Converted " + convertedRows + " selected option rows to selection masks.");
+    }
+    
+    private static void addMaskUpdate(PreparedStatement update, int questionResultId, int[] selectedOptionIds,
+                                      int[] questionOptionIds) throws SQLException {
+        update.setBytes(1, SelectionMask.encode(selectedOptionIds, questionOptionIds));
+        update.setInt(2, questionResultId);
+        update.addBatch();
+    }
+    
+    /**
+     * Version 8: stores {@code quiz_results.completed_at} as Unix time in seconds instead
+     * of {@code CURRENT_TIMESTAMP} text, so date ranges are integer index ranges. SQLite
+     * cannot change a column's type, so the table is rebuilt and renamed into place.
+     */
+    private static void migrateCompletedAt(Statement stmt) throws SQLException {
+        if (!"TEXT".equalsIgnoreCase(getColumnType(stmt, "quiz_results", "completed_at"))) {
+            return;
+        }
+        
+        // Keep the AUTOINCREMENT counter, so IDs of deleted results are not handed out again
+        long sequence = 0;
+        try (ResultSet rs = stmt.executeQuery("SELECT seq FROM sqlite_sequence WHERE name = 'quiz_results'")) {
+            if (rs.next()) {
+                sequence = rs.getLong(1);
+            }
+        }
+        
+        stmt.executeUpdate(CREATE_QUIZ_RESULTS_TABLE.replace("quiz_results (", "quiz_results_new ("));
+        // CURRENT_TIMESTAMP text is UTC, which is what strftime('%s') assumes
+        stmt.executeUpdate("INSERT INTO quiz_results_new " +
+                "(id, user_id, quiz_id, score, max_score, duration_seconds, completed_at) " +
+                "SELECT id, user_id, quiz_id, score, max_score, duration_seconds, " +
+                "COALESCE(CAST(strftime('%s', completed_at) AS INTEGER), 0) FROM quiz_results");
+        stmt.executeUpdate("DROP TABLE quiz_results");
+        stmt.executeUpdate("ALTER TABLE quiz_results_new RENAME TO quiz_results");
+        stmt.executeUpdate("UPDATE sqlite_sequence SET seq = MAX(seq, " + sequence + ") WHERE name = 'quiz_results'");
+        
+        // Indexes were dropped with the old table
+        stmt.executeUpdate(CREATE_QUIZ_RESULTS_INDEX);
+        stmt.executeUpdate(CREATE_COMPLETED_AT_INDEX);
+        stmt.executeUpdate(CREATE_QUIZ_RESULTS_USER_INDEX);
+    }
+    
+    /**
+     * Version 9: adds the attempt key used to upload offline results only once.
+     */
+    private static void migrateAttemptKey(Statement stmt) throws SQLException {
+        if (!hasColumn(stmt, "quiz_results", "attempt_key")) {
+            stmt.executeUpdate("ALTER TABLE quiz_results ADD COLUMN attempt_key TEXT");
+        }
+        stmt.executeUpdate(CREATE_ATTEMPT_KEY_INDEX);
+    }
+    
+    /**
+     * Version 10: adds the deletion marks used by {@link DeletionService}.
+     */
+    private static void migrateDeletedAt(Statement stmt) throws SQLException {
+        for (String table : new String[] {"users", "quizzes"}) {
+            if (!hasColumn(stmt, table, "deleted_at")) {
+                stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN deleted_at INTEGER");
+            }
+        }
+    }
+    
+    private static boolean hasTable(Statement stmt, String table) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT 1 FROM sqlite_master WHERE type = 'table' AND name = '" + table + "'")) {
+            return rs.next();
+        }
+    }
+    
+    private static boolean hasColumn(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+    
+    private static String getColumnType(Statement stmt, String table, String column) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA table_info(" + table + ")")) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("name"))) {
+                    return rs.getString("type");
+                }
+            }
+            return null;
+        }
+    }
+    
+    /**
+     * Reads the schema version recorded in the database file.
+     */
+    private static int getSchemaVersion(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,350 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Deletes quizzes and users without holding up the application.
+ * <p>
+ * A quiz or user is first marked as deleted, which takes one short update: from then on
+ * it no longer appears anywhere, and a deleted user can no longer log in. Its results
+ * and answers are then removed in the background, {@value #BATCH_SIZE} results per
+ * transaction with a pause in between, so quiz sessions saving results are never kept
+ * waiting for long. Once no results are left, the quiz or user itself is deleted with
+ * {@link QuizDAO#deleteQuiz(int)} or {@link UserDAO#deleteUser(int)}, which also removes
+ * anything saved in the meantime; questions, options and statistics go by cascade.
+ * <p>
+ * Deletions run one at a time in the order they were requested. One that did not
+ * finish, e.g. because the application was closed, is continued by {@link #resume()}
+ * at the next start. Quizzes and users kept in memory (see {@link Repositories}) are
+ * deleted at once.
+ */
+public class DeletionService {
+    private static final int BATCH_SIZE = 500;
+    private static final long BATCH_PAUSE_MILLIS = 50;
+    
+    private static final DeletionService SHARED = new DeletionService();
+    
+    private final ExecutorService worker = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "deletion-service");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    private final QuizDAO quizDAO = new QuizDAO();
+    private final UserDAO userDAO = new UserDAO();
+    
+    /**
+     * Gets the deletion service shared by the whole application.
+     */
+    public static DeletionService shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Receives the progress of a deletion, on the deletion thread.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after every batch, and once more when the deletion finished or failed.
+         */
+        void progress(Deletion deletion);
+    }
+    
+    /**
+     * Marks a quiz as deleted and removes it with its results in the background.
+     *
+     * @param quizId the ID of the quiz
+     * @param title the title of the quiz, for progress messages
+     * @param listener receives the progress, or null
+     * @return the deletion, or null if the quiz does not exist or is already being deleted
+     * @throws SQLException if the quiz cannot be marked
+     */
+    public Deletion deleteQuiz(int quizId, String title, ProgressListener listener) throws SQLException {
+        if (Repositories.isInMemory()) {
+            return deleteNow(new Deletion(Kind.QUIZ, quizId, title), listener);
+        }
+        if (!quizDAO.markQuizDeleted(quizId)) {
+            return null;
+        }
+        return submit(new Deletion(Kind.QUIZ, quizId, title), listener);
+    }
+    
+    /**
+     * Marks a user as deleted and removes them with their results in the background.
+     *
+     * @param userId the ID of the user
+     * @param username the username, for progress messages
+     * @param listener receives the progress, or null
+     * @return the deletion, or null if the user does not exist or is already being deleted
+     * @throws SQLException if the user cannot be marked, e.g. because they created quizzes
+     */
+    public Deletion deleteUser(int userId, String username, ProgressListener listener) throws SQLException {
+        if (Repositories.isInMemory()) {
+            return deleteNow(new Deletion(Kind.USER, userId, username), listener);
+        }
+        if (!userDAO.markUserDeleted(userId)) {
+            return null;
+        }
+        return submit(new Deletion(Kind.USER, userId, username), listener);
+    }
+    
+    /**
+     * Continues the deletions that did not finish before the application was closed.
+     * Quizzes go first, as a user can only be deleted after their quizzes.
+     *
+     * @return the number of deletions continued
+     * @throws SQLException if a database error occurs
+     */
+    public int resume() throws SQLException {
+        List<Deletion> pending = new ArrayList<>();
+        
+        Connection conn = null;
+        Statement stmt = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT id, title FROM quizzes WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id")) {
+                while (rs.next()) {
+                    pending.add(new Deletion(Kind.QUIZ, rs.getInt("id"), rs.getString("title")));
+                }
+            }
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT id, username FROM users WHERE deleted_at IS NOT NULL ORDER BY deleted_at, id")) {
+                while (rs.next()) {
+                    pending.add(new Deletion(Kind.USER, rs.getInt("id"), rs.getString("username")));
+                }
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+        
+        for (Deletion deletion : pending) {
+            submit(deletion, null);
+        }
+        return pending.size();
+    }
+    
+    /**
+     * Deletes a quiz or user kept in memory at once, as that never holds up anyone.
+     */
+    private static Deletion deleteNow(Deletion deletion, ProgressListener listener) throws SQLException {
+        boolean deleted = deletion.kind == Kind.QUIZ
+                ? Repositories.quizzes().deleteQuiz(deletion.id)
+                : Repositories.users().deleteUser(deletion.id);
+        if (!deleted) {
+            return null;
+        }
+        deletion.done = true;
+        notify(deletion, listener);
+        return deletion;
+    }
+    
+    private Deletion submit(Deletion deletion, ProgressListener listener) {
+        worker.execute(() -> {
+            try {
+                purge(deletion, listener);
+                deletion.done = true;
+            } catch (SQLException e) {
+                deletion.error = e.getMessage();
+                System.err.println("Error deleting " + deletion.kind.label + " " + deletion.id + ": "
+                        + e.getMessage());
+            }
+            notify(deletion, listener);
+        });
+        return deletion;
+    }
+    
+    /**
+     * Removes the results of a marked quiz or user batch by batch, then the quiz or user.
+     */
+    private void purge(Deletion deletion, ProgressListener listener) throws SQLException {
+        String column = deletion.kind == Kind.QUIZ ? "quiz_id" : "user_id";
+        
+        Connection conn = null;
+        Statement stmt = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            boolean archived = ResultArchiver.attachArchive(conn);
+            stmt.executeUpdate("CREATE TEMP TABLE IF NOT EXISTS delete_batch (id INTEGER PRIMARY KEY)");
+            
+            deletion.totalResults = countResults(conn, "main", column, deletion.id);
+            if (archived) {
+                deletion.totalResults += countResults(conn, ResultArchiver.ARCHIVE_SCHEMA, column, deletion.id);
+            }
+            notify(deletion, listener);
+            
+            deleteResults(conn, stmt, "main", column, deletion, listener);
+            if (archived) {
+                deleteResults(conn, stmt, ResultArchiver.ARCHIVE_SCHEMA, column, deletion, listener);
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+        
+        // Also removes the results saved since the last batch, together with the row
+        boolean deleted = deletion.kind == Kind.QUIZ
+                ? quizDAO.deleteQuiz(deletion.id)
+                : userDAO.deleteUser(deletion.id);
+        if (!deleted) {
+            throw new SQLException("The " + deletion.kind.label + " " + deletion.id + " could not be deleted");
+        }
+    }
+    
+    private static long countResults(Connection conn, String schema, String column, int id) throws SQLException {
+        try (PreparedStatement count = conn.prepareStatement(
+                "SELECT COUNT(*) FROM " + schema + ".quiz_results WHERE " + column + " = ?")) {
+            count.setInt(1, id);
+            try (ResultSet rs = count.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+    
+    /**
+     * Deletes the results of one file in batches, one transaction each, until none are
+     * left.
+     */
+    private void deleteResults(Connection conn, Statement stmt, String schema, String column, Deletion deletion,
+                               ProgressListener listener) throws SQLException {
+        try (PreparedStatement selectBatch = conn.prepareStatement(
+                "INSERT INTO temp.delete_batch (id) SELECT id FROM " + schema + ".quiz_results " +
+                "WHERE " + column + " = ? LIMIT ?")) {
+            while (true) {
+                conn.setAutoCommit(false); // Start transaction
+                int batchCount;
+                try {
+                    stmt.executeUpdate("DELETE FROM temp.delete_batch");
+                    selectBatch.setInt(1, deletion.id);
+                    selectBatch.setInt(2, BATCH_SIZE);
+                    batchCount = selectBatch.executeUpdate();
+                    
+                    // A deleted quiz takes its statistics and counters with it by cascade at the end
+                    if (deletion.kind == Kind.USER) {
+                        QuizStatsDAO.removeResults(conn, schema, "SELECT id FROM temp.delete_batch");
+                    }
+                    
+                    // Answers first, as archived answers are not removed by a cascade
+                    stmt.executeUpdate("DELETE FROM " + schema + ".question_results " +
+                                       "WHERE quiz_result_id IN (SELECT id FROM temp.delete_batch)");
+                    stmt.executeUpdate("DELETE FROM " + schema + ".quiz_results " +
+                                       "WHERE id IN (SELECT id FROM temp.delete_batch)");
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback(); // Rollback this batch
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                }
+                
+                if (batchCount == 0) {
+                    return;
+                }
+                deletion.deletedResults += batchCount;
+                notify(deletion, listener);
+                
+                try {
+                    Thread.sleep(BATCH_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Deletion interrupted");
+                }
+            }
+        }
+    }
+    
+    private static void notify(Deletion deletion, ProgressListener listener) {
+        if (listener != null) {
+            listener.progress(deletion);
+        }
+    }
+    
+    private enum Kind {
+        QUIZ("quiz"),
+        USER("user");
+        
+        private final String label;
+        
+        Kind(String label) {
+            this.label = label;
+        }
+    }
+    
+    /**
+     * Progress of one deletion. Written by the deletion thread only.
+     */
+    public static class Deletion {
+        private final Kind kind;
+        private final int id;
+        private final String name;
+        private volatile long totalResults;
+        private volatile long deletedResults;
+        private volatile boolean done;
+        private volatile String error;
+        
+        private Deletion(Kind kind, int id, String name) {
+            this.kind = kind;
+            this.id = id;
+            this.name = name;
+        }
+        
+        public int getId() {
+            return id;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        /**
+         * Gets the number of results counted when the deletion started.
+         */
+        public long getTotalResults() {
+            return totalResults;
+        }
+        
+        public long getDeletedResults() {
+            return deletedResults;
+        }
+        
+        public boolean isDone() {
+            return done;
+        }
+        
+        /**
+         * Gets the error that stopped the deletion, or null. The deletion is continued at
+         * the next start.
+         */
+        public String getError() {
+            return error;
+        }
+        
+        /**
+         * Describes the progress in one line, for a status bar.
+         */
+        public String getStatusText() {
+            String subject = kind.label + " '" + name + "'";
+            if (error != null) {
+                return "Deleting " + subject + " failed: " + error;
+            }
+            if (done) {
+                return String.format("Deleted %s and %,d result(s).", subject, deletedResults);
+            }
+            return String.format("Deleting %s: %,d of %,d result(s) removed...", subject, deletedResults,
+                    Math.max(totalResults, deletedResults));
+        }
+    }
+}
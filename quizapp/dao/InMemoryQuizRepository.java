@@ -0,0 +1,225 @@
+package com.quizapp.dao;
+
+import com.quizapp.dao.InMemoryStore.AnswerRow;
+import com.quizapp.dao.InMemoryStore.OptionRow;
+import com.quizapp.dao.InMemoryStore.QuestionRow;
+import com.quizapp.dao.InMemoryStore.QuizRow;
+import com.quizapp.dao.InMemoryStore.ResultRow;
+import com.quizapp.dao.InMemoryStore.UserRow;
+import com.quizapp.model.Question;
+import com.quizapp.model.Question.Option;
+import com.quizapp.model.Quiz;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+
+/**
+ * Quizzes kept in an {@link InMemoryStore}, with the same behavior as {@link QuizDAO}:
+ * a quiz needs an existing creator, and deleting a quiz or question also deletes what
+ * belongs to it.
+ */
+public class InMemoryQuizRepository implements QuizRepository {
+    private final InMemoryStore store;
+    
+    public InMemoryQuizRepository(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public Quiz createQuiz(Quiz quiz) throws SQLException {
+        synchronized (store.writeLock) {
+            if (!store.users.containsKey(quiz.getCreatorId())) {
+                throw new SQLException("FOREIGN KEY constraint failed");
+            }
+            
+            int quizId = store.quizIds.incrementAndGet();
+            store.quizzes.put(quizId, new QuizRow(quizId, quiz.getTitle(), quiz.getDescription(),
+                    quiz.getCreatorId(), quiz.getTimeLimit()));
+            InMemoryStore.addId(store.quizIdsByCreator, quiz.getCreatorId(), quizId);
+            quiz.setId(quizId);
+            
+            for (Question question : quiz.getQuestions()) {
+                insertQuestion(quizId, question);
+            }
+            return quiz;
+        }
+    }
+    
+    @Override
+    public Quiz getQuizById(int quizId) {
+        Quiz quiz = toQuiz(store.quizzes.get(quizId));
+        if (quiz == null) {
+            return null;
+        }
+        
+        for (int questionId : InMemoryStore.idsOf(store.questionIdsByQuiz, quizId)) {
+            QuestionRow row = store.questions.get(questionId);
+            if (row == null) {
+                continue; // Deleted meanwhile
+            }
+            Question question = new Question(row.id, row.quizId, row.text, row.points);
+            for (int optionId : InMemoryStore.idsOf(store.optionIdsByQuestion, questionId)) {
+                OptionRow option = store.options.get(optionId);
+                if (option != null) {
+                    question.addOption(new Option(option.id, option.questionId, option.text, option.correct));
+                }
+            }
+            quiz.addQuestion(question);
+        }
+        return quiz;
+    }
+    
+    @Override
+    public List<Quiz> getAllQuizzes() {
+        List<Quiz> quizzes = new ArrayList<>();
+        for (QuizRow row : store.quizzes.values()) {
+            addIfPresent(quizzes, toQuiz(row));
+        }
+        return quizzes;
+    }
+    
+    @Override
+    public List<Quiz> getQuizzesByCreator(int creatorId) {
+        List<Quiz> quizzes = new ArrayList<>();
+        for (int quizId : InMemoryStore.idsOf(store.quizIdsByCreator, creatorId)) {
+            addIfPresent(quizzes, toQuiz(store.quizzes.get(quizId)));
+        }
+        return quizzes;
+    }
+    
+    @Override
+    public boolean updateQuiz(Quiz quiz) {
+        synchronized (store.writeLock) {
+            QuizRow old = store.quizzes.get(quiz.getId());
+            if (old == null) {
+                return false;
+            }
+            store.quizzes.put(old.id, new QuizRow(old.id, quiz.getTitle(), quiz.getDescription(), old.creatorId,
+                    quiz.getTimeLimit()));
+        }
+        
+        // Cached result histories show the quiz title
+        ResultSummaryCache.shared().invalidateAll();
+        return true;
+    }
+    
+    @Override
+    public boolean deleteQuiz(int quizId) {
+        synchronized (store.writeLock) {
+            QuizRow row = store.quizzes.remove(quizId);
+            if (row == null) {
+                return false;
+            }
+            InMemoryStore.removeId(store.quizIdsByCreator, row.creatorId, quizId);
+            
+            NavigableSet<ResultRow> quizResults = store.resultsByQuiz.remove(quizId);
+            if (quizResults != null) {
+                for (ResultRow result : quizResults) {
+                    store.removeResult(result);
+                }
+            }
+            
+            NavigableSet<Integer> questionIds = store.questionIdsByQuiz.remove(quizId);
+            if (questionIds != null) {
+                for (int questionId : questionIds) {
+                    store.removeQuestion(questionId);
+                }
+            }
+        }
+        
+        // Results of a deleted quiz no longer appear in any history
+        ResultSummaryCache.shared().invalidateAll();
+        return true;
+    }
+    
+    @Override
+    public boolean deleteQuestion(int questionId) {
+        synchronized (store.writeLock) {
+            QuestionRow question = store.questions.get(questionId);
+            if (question == null) {
+                return false;
+            }
+            
+            // Found through the results of the question's quiz, as in the database
+            NavigableSet<ResultRow> quizResults = store.resultsByQuiz.get(question.quizId);
+            if (quizResults != null) {
+                for (ResultRow result : new ArrayList<>(quizResults)) {
+                    List<AnswerRow> answers = new ArrayList<>(result.answers);
+                    if (answers.removeIf(answer -> answer.questionId == questionId)) {
+                        store.putResult(result.withAnswers(answers));
+                    }
+                }
+            }
+            store.removeQuestion(questionId);
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean updateQuestion(Question question) {
+        synchronized (store.writeLock) {
+            QuestionRow old = store.questions.get(question.getId());
+            if (old == null) {
+                return false;
+            }
+            store.questions.put(old.id, new QuestionRow(old.id, old.quizId, question.getText(),
+                    question.getPoints()));
+            return true;
+        }
+    }
+    
+    @Override
+    public Question addQuestionToQuiz(int quizId, Question question) throws SQLException {
+        synchronized (store.writeLock) {
+            if (!store.quizzes.containsKey(quizId)) {
+                throw new SQLException("FOREIGN KEY constraint failed");
+            }
+            insertQuestion(quizId, question);
+            return question;
+        }
+    }
+    
+    /**
+     * Inserts a question with its options and sets their IDs. Must be called holding
+     * the write lock.
+     */
+    private void insertQuestion(int quizId, Question question) {
+        int questionId = store.questionIds.incrementAndGet();
+        store.questions.put(questionId, new QuestionRow(questionId, quizId, question.getText(),
+                question.getPoints()));
+        InMemoryStore.addId(store.questionIdsByQuiz, quizId, questionId);
+        question.setId(questionId);
+        question.setQuizId(quizId);
+        
+        for (Option option : question.getOptions()) {
+            int optionId = store.optionIds.incrementAndGet();
+            store.options.put(optionId, new OptionRow(optionId, questionId, option.getText(), option.isCorrect()));
+            InMemoryStore.addId(store.optionIdsByQuestion, questionId, optionId);
+            option.setId(optionId);
+            option.setQuestionId(questionId);
+        }
+    }
+    
+    /**
+     * Makes a quiz without questions from a row, with the creator's name, or null if
+     * there is no row or creator.
+     */
+    private Quiz toQuiz(QuizRow row) {
+        if (row == null) {
+            return null;
+        }
+        UserRow creator = store.users.get(row.creatorId);
+        if (creator == null) {
+            return null; // The database joins quizzes with their creator
+        }
+        return new Quiz(row.id, row.title, row.description, row.creatorId, creator.username, row.timeLimit);
+    }
+    
+    private static void addIfPresent(List<Quiz> quizzes, Quiz quiz) {
+        if (quiz != null) {
+            quizzes.add(quiz);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.quizapp.dao;
+
+import com.quizapp.dao.InMemoryStore.AnswerRow;
+import com.quizapp.dao.InMemoryStore.QuestionRow;
+import com.quizapp.dao.InMemoryStore.QuizRow;
+import com.quizapp.dao.InMemoryStore.ResultRow;
+import com.quizapp.model.QuizResult;
+import com.quizapp.model.QuizResult.QuestionResult;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+
+/**
+ * Quiz results kept in an {@link InMemoryStore}, with the same behavior as
+ * {@link QuizResultDAO}: a result needs an existing user and quiz, an attempt key is
+ * saved only once, and results are read with the quiz's current title.
+ * <p>
+ * Only the results themselves are kept. Quiz statistics, option counters and
+ * leaderboards are maintained by the database alone.
+ */
+public class InMemoryQuizResultRepository implements QuizResultRepository {
+    // As in QuizResultDAO.getQuizResultsByQuiz: best score first, then fastest
+    private static final Comparator<QuizResult> BY_RANK =
+            Comparator.comparingInt(QuizResult::getScore).reversed()
+                    .thenComparingLong(QuizResult::getDurationInSeconds);
+    
+    private final InMemoryStore store;
+    
+    public InMemoryQuizResultRepository(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public QuizResult saveQuizResult(QuizResult result) throws SQLException {
+        synchronized (store.writeLock) {
+            insertQuizResult(result);
+            return result;
+        }
+    }
+    
+    @Override
+    public int saveQuizResults(List<QuizResult> results) throws SQLException {
+        synchronized (store.writeLock) {
+            // Checked up front, so a failing batch saves nothing
+            for (QuizResult result : results) {
+                checkReferences(result);
+            }
+            
+            int inserted = 0;
+            for (QuizResult result : results) {
+                if (insertQuizResult(result)) {
+                    inserted++;
+                }
+            }
+            return inserted;
+        }
+    }
+    
+    @Override
+    public List<QuizResult> getQuizResultsByUser(int userId) {
+        NavigableMap<Integer, ResultRow> userResults = store.resultsByUser.get(userId);
+        if (userResults == null) {
+            return new ArrayList<>();
+        }
+        List<QuizResult> results = toQuizResults(userResults.values());
+        results.sort(Comparator.comparing(QuizResult::getCompletedAt).reversed());
+        return results;
+    }
+    
+    @Override
+    public List<QuizResult> getQuizResultsByUserAfter(int userId, int afterResultId) {
+        NavigableMap<Integer, ResultRow> userResults = store.resultsByUser.get(userId);
+        if (userResults == null) {
+            return new ArrayList<>();
+        }
+        return toQuizResults(userResults.tailMap(afterResultId, false).values());
+    }
+    
+    @Override
+    public List<QuizResult> getQuizResultsByQuiz(int quizId) {
+        NavigableSet<ResultRow> quizResults = store.resultsByQuiz.get(quizId);
+        if (quizResults == null) {
+            return new ArrayList<>();
+        }
+        List<QuizResult> results = toQuizResults(quizResults);
+        results.sort(BY_RANK);
+        return results;
+    }
+    
+    @Override
+    public List<QuizResult> getQuizResultsByQuizBetween(int quizId, LocalDateTime from, LocalDateTime to) {
+        NavigableSet<ResultRow> quizResults = store.resultsByQuiz.get(quizId);
+        if (quizResults == null) {
+            return new ArrayList<>();
+        }
+        return toQuizResults(window(quizResults, from, to));
+    }
+    
+    @Override
+    public List<QuizResult> getQuizResultsBetween(LocalDateTime from, LocalDateTime to) {
+        return toQuizResults(window(store.resultsByCompletion, from, to));
+    }
+    
+    @Override
+    public QuizResult getQuizResultById(int resultId) {
+        ResultRow row = store.results.get(resultId);
+        QuizResult result = toQuizResult(row);
+        if (result == null) {
+            return null;
+        }
+        
+        List<QuestionResult> questionResults = new ArrayList<>();
+        for (AnswerRow answer : row.answers) {
+            QuestionRow question = store.questions.get(answer.questionId);
+            if (question == null) {
+                continue; // The database joins answers with their question
+            }
+            questionResults.add(new QuestionResult(answer.id, row.id, answer.questionId, question.text,
+                    answer.correct, answer.selectedOptionIds.clone(), question.points));
+        }
+        result.setQuestionResults(questionResults);
+        return result;
+    }
+    
+    /**
+     * Inserts a quiz result with its question results and sets their IDs. Must be
+     * called holding the write lock.
+     *
+     * @return true if the result was inserted, false if its attempt key was already saved
+     */
+    private boolean insertQuizResult(QuizResult result) throws SQLException {
+        if (result.getAttemptKey() != null) {
+            Integer existingId = store.resultIdsByAttemptKey.get(result.getAttemptKey());
+            if (existingId != null) {
+                result.setId(existingId);
+                return false; // Already uploaded
+            }
+        }
+        checkReferences(result);
+        
+        int resultId = store.resultIds.incrementAndGet();
+        List<AnswerRow> answers = new ArrayList<>(result.getQuestionResults().size());
+        for (QuestionResult questionResult : result.getQuestionResults()) {
+            int answerId = store.answerIds.incrementAndGet();
+            answers.add(new AnswerRow(answerId, questionResult.getQuestionId(), questionResult.isCorrect(),
+                    questionResult.getSelectedOptionIds().clone()));
+            questionResult.setId(answerId);
+            questionResult.setQuizResultId(resultId);
+        }
+        
+        long completedAt = result.getCompletedAt() != null
+                ? QuizResultDAO.toEpochSeconds(result.getCompletedAt())
+                : System.currentTimeMillis() / 1000;
+        store.putResult(new ResultRow(resultId, result.getUserId(), result.getQuizId(), result.getScore(),
+                result.getMaxScore(), result.getDurationInSeconds(), completedAt, result.getAttemptKey(),
+                Collections.unmodifiableList(answers)));
+        result.setId(resultId);
+        return true;
+    }
+    
+    /**
+     * Fails like the database's foreign keys if the user or quiz of a result does not
+     * exist.
+     */
+    private void checkReferences(QuizResult result) throws SQLException {
+        if (!store.users.containsKey(result.getUserId()) || !store.quizzes.containsKey(result.getQuizId())) {
+            throw new SQLException("FOREIGN KEY constraint failed");
+        }
+    }
+    
+    /**
+     * Gets the results completed in {@code [from, to)} from a set in order of completion.
+     */
+    private static NavigableSet<ResultRow> window(NavigableSet<ResultRow> results, LocalDateTime from,
+                                                  LocalDateTime to) {
+        ResultRow fromBound = InMemoryStore.completionBound(QuizResultDAO.toEpochSeconds(from));
+        ResultRow toBound = InMemoryStore.completionBound(QuizResultDAO.toEpochSeconds(to));
+        if (results.comparator().compare(fromBound, toBound) >= 0) {
+            return Collections.emptyNavigableSet();
+        }
+        return results.subSet(fromBound, true, toBound, false);
+    }
+    
+    private List<QuizResult> toQuizResults(Collection<ResultRow> rows) {
+        List<QuizResult> results = new ArrayList<>();
+        for (ResultRow row : rows) {
+            QuizResult result = toQuizResult(row);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+    
+    /**
+     * Makes a quiz result without question results from a row, with the quiz's current
+     * title, or null if there is no row or quiz.
+     */
+    private QuizResult toQuizResult(ResultRow row) {
+        if (row == null) {
+            return null;
+        }
+        QuizRow quiz = store.quizzes.get(row.quizId);
+        if (quiz == null) {
+            return null; // The database joins results with their quiz
+        }
+        return new QuizResult(row.id, row.userId, row.quizId, quiz.title, row.score, row.maxScore,
+                QuizResultDAO.toLocalDateTime(row.completedAt), row.durationSeconds);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,244 @@
+package com.quizapp.dao;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The tables of the in-memory repositories: concurrent maps of immutable rows by ID,
+ * with secondary indexes for every lookup the repositories make, so nothing is found
+ * by scanning.
+ * <p>
+ * Readers never lock: they see each row either before or after a change. Writers
+ * hold {@link #writeLock} while they change a row and its index entries, so changes
+ * spanning several maps (e.g. deleting a quiz with its results) are never interleaved.
+ * Rows are replaced rather than changed in place, and the repositories copy them into
+ * new model objects on every read.
+ * <p>
+ * A store starts empty. Create one per test or simulation, or install one for the
+ * whole application with {@link Repositories#useInMemory(InMemoryStore)}.
+ */
+public class InMemoryStore {
+    // Results of one quiz or in a time window, in order of completion
+    private static final Comparator<ResultRow> BY_COMPLETION =
+            Comparator.<ResultRow>comparingLong(row -> row.completedAt).thenComparingInt(row -> row.id);
+    
+    final Object writeLock = new Object();
+    
+    final AtomicInteger userIds = new AtomicInteger();
+    final AtomicInteger quizIds = new AtomicInteger();
+    final AtomicInteger questionIds = new AtomicInteger();
+    final AtomicInteger optionIds = new AtomicInteger();
+    final AtomicInteger resultIds = new AtomicInteger();
+    final AtomicInteger answerIds = new AtomicInteger();
+    
+    final Map<Integer, UserRow> users = new ConcurrentHashMap<>();
+    final Map<String, Integer> userIdsByUsername = new ConcurrentHashMap<>();
+    final Map<String, Integer> userIdsByEmail = new ConcurrentHashMap<>();
+    
+    final NavigableMap<Integer, QuizRow> quizzes = new ConcurrentSkipListMap<>();
+    final Map<Integer, NavigableSet<Integer>> quizIdsByCreator = new ConcurrentHashMap<>();
+    
+    final Map<Integer, QuestionRow> questions = new ConcurrentHashMap<>();
+    final Map<Integer, NavigableSet<Integer>> questionIdsByQuiz = new ConcurrentHashMap<>();
+    
+    final Map<Integer, OptionRow> options = new ConcurrentHashMap<>();
+    final Map<Integer, NavigableSet<Integer>> optionIdsByQuestion = new ConcurrentHashMap<>();
+    
+    final Map<Integer, ResultRow> results = new ConcurrentHashMap<>();
+    final Map<Integer, NavigableMap<Integer, ResultRow>> resultsByUser = new ConcurrentHashMap<>();
+    final Map<Integer, NavigableSet<ResultRow>> resultsByQuiz = new ConcurrentHashMap<>();
+    final NavigableSet<ResultRow> resultsByCompletion = new ConcurrentSkipListSet<>(BY_COMPLETION);
+    final Map<String, Integer> resultIdsByAttemptKey = new ConcurrentHashMap<>();
+    
+    /**
+     * Gets the IDs in an index entry, or an empty set if there is none.
+     */
+    static NavigableSet<Integer> idsOf(Map<Integer, NavigableSet<Integer>> index, int key) {
+        NavigableSet<Integer> ids = index.get(key);
+        return ids != null ? ids : Collections.emptyNavigableSet();
+    }
+    
+    static void addId(Map<Integer, NavigableSet<Integer>> index, int key, int id) {
+        index.computeIfAbsent(key, k -> new ConcurrentSkipListSet<>()).add(id);
+    }
+    
+    static void removeId(Map<Integer, NavigableSet<Integer>> index, int key, int id) {
+        NavigableSet<Integer> ids = index.get(key);
+        if (ids != null) {
+            ids.remove(id);
+        }
+    }
+    
+    /**
+     * Gets a key that sorts before every result completed at the given time, for
+     * ranges of {@link #resultsByCompletion} and {@link #resultsByQuiz}.
+     */
+    static ResultRow completionBound(long completedAt) {
+        return new ResultRow(Integer.MIN_VALUE, 0, 0, 0, 0, 0, completedAt, null, Collections.emptyList());
+    }
+    
+    // The methods below change rows and must be called holding writeLock
+    
+    void putResult(ResultRow row) {
+        ResultRow old = results.put(row.id, row);
+        if (old != null) {
+            unindexResult(old);
+        }
+        resultsByUser.computeIfAbsent(row.userId, k -> new ConcurrentSkipListMap<>()).put(row.id, row);
+        resultsByQuiz.computeIfAbsent(row.quizId, k -> new ConcurrentSkipListSet<>(BY_COMPLETION)).add(row);
+        resultsByCompletion.add(row);
+        if (row.attemptKey != null) {
+            resultIdsByAttemptKey.put(row.attemptKey, row.id);
+        }
+    }
+    
+    void removeResult(ResultRow row) {
+        results.remove(row.id);
+        unindexResult(row);
+    }
+    
+    private void unindexResult(ResultRow row) {
+        NavigableMap<Integer, ResultRow> userResults = resultsByUser.get(row.userId);
+        if (userResults != null) {
+            userResults.remove(row.id);
+        }
+        NavigableSet<ResultRow> quizResults = resultsByQuiz.get(row.quizId);
+        if (quizResults != null) {
+            quizResults.remove(row);
+        }
+        resultsByCompletion.remove(row);
+        if (row.attemptKey != null) {
+            resultIdsByAttemptKey.remove(row.attemptKey, row.id);
+        }
+    }
+    
+    void removeQuestion(int questionId) {
+        QuestionRow question = questions.remove(questionId);
+        if (question == null) {
+            return;
+        }
+        removeId(questionIdsByQuiz, question.quizId, questionId);
+        NavigableSet<Integer> questionOptionIds = optionIdsByQuestion.remove(questionId);
+        if (questionOptionIds != null) {
+            for (int optionId : questionOptionIds) {
+                options.remove(optionId);
+            }
+        }
+    }
+    
+    static class UserRow {
+        final int id;
+        final String username;
+        final String passwordHash;
+        final String email;
+        final boolean admin;
+        
+        UserRow(int id, String username, String passwordHash, String email, boolean admin) {
+            this.id = id;
+            this.username = username;
+            this.passwordHash = passwordHash;
+            this.email = email;
+            this.admin = admin;
+        }
+    }
+    
+    static class QuizRow {
+        final int id;
+        final String title;
+        final String description;
+        final int creatorId;
+        final int timeLimit;
+        
+        QuizRow(int id, String title, String description, int creatorId, int timeLimit) {
+            this.id = id;
+            this.title = title;
+            this.description = description;
+            this.creatorId = creatorId;
+            this.timeLimit = timeLimit;
+        }
+    }
+    
+    static class QuestionRow {
+        final int id;
+        final int quizId;
+        final String text;
+        final int points;
+        
+        QuestionRow(int id, int quizId, String text, int points) {
+            this.id = id;
+            this.quizId = quizId;
+            this.text = text;
+            this.points = points;
+        }
+    }
+    
+    static class OptionRow {
+        final int id;
+        final int questionId;
+        final String text;
+        final boolean correct;
+        
+        OptionRow(int id, int questionId, String text, boolean correct) {
+            this.id = id;
+            this.questionId = questionId;
+            this.text = text;
+            this.correct = correct;
+        }
+    }
+    
+    /**
+     * A quiz result with its answers, which are only ever read and deleted together
+     * with it.
+     */
+    static class ResultRow {
+        final int id;
+        final int userId;
+        final int quizId;
+        final int score;
+        final int maxScore;
+        final long durationSeconds;
+        final long completedAt; // Unix seconds, as in the database
+        final String attemptKey;
+        final List<AnswerRow> answers;
+        
+        ResultRow(int id, int userId, int quizId, int score, int maxScore, long durationSeconds, long completedAt,
+                  String attemptKey, List<AnswerRow> answers) {
+            this.id = id;
+            this.userId = userId;
+            this.quizId = quizId;
+            this.score = score;
+            this.maxScore = maxScore;
+            this.durationSeconds = durationSeconds;
+            this.completedAt = completedAt;
+            this.attemptKey = attemptKey;
+            this.answers = answers;
+        }
+        
+        ResultRow withAnswers(List<AnswerRow> newAnswers) {
+            return new ResultRow(id, userId, quizId, score, maxScore, durationSeconds, completedAt, attemptKey,
+                    newAnswers);
+        }
+    }
+    
+    static class AnswerRow {
+        final int id;
+        final int questionId;
+        final boolean correct;
+        final int[] selectedOptionIds;
+        
+        AnswerRow(int id, int questionId, boolean correct, int[] selectedOptionIds) {
+            this.id = id;
+            this.questionId = questionId;
+            this.correct = correct;
+            this.selectedOptionIds = selectedOptionIds;
+        }
+    }
+}
\ No newline at end of file
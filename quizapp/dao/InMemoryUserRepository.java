@@ -0,0 +1,154 @@
+package com.quizapp.dao;
+
+import com.quizapp.dao.InMemoryStore.ResultRow;
+import com.quizapp.dao.InMemoryStore.UserRow;
+import com.quizapp.model.User;
+import com.quizapp.util.PasswordUtil;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+
+/**
+ * User accounts kept in an {@link InMemoryStore}, with the same behavior as
+ * {@link UserDAO}: usernames and emails are unique, and passwords are stored hashed.
+ */
+public class InMemoryUserRepository implements UserRepository {
+    private final InMemoryStore store;
+    
+    public InMemoryUserRepository(InMemoryStore store) {
+        this.store = store;
+    }
+    
+    @Override
+    public User createUser(User user) throws SQLException {
+        String passwordHash = PasswordUtil.hashPassword(user.getPassword());
+        
+        synchronized (store.writeLock) {
+            checkUnique(user.getUsername(), user.getEmail(), 0);
+            
+            int id = store.userIds.incrementAndGet();
+            store.users.put(id, new UserRow(id, user.getUsername(), passwordHash, user.getEmail(), user.isAdmin()));
+            store.userIdsByUsername.put(user.getUsername(), id);
+            store.userIdsByEmail.put(user.getEmail(), id);
+            user.setId(id);
+            return user;
+        }
+    }
+    
+    @Override
+    public User getUserById(int id) {
+        return toUser(store.users.get(id));
+    }
+    
+    @Override
+    public User getUserByUsername(String username) {
+        Integer id = store.userIdsByUsername.get(username);
+        return id != null ? toUser(store.users.get(id)) : null;
+    }
+    
+    @Override
+    public List<User> getAllUsers() {
+        List<User> users = new ArrayList<>();
+        for (UserRow row : store.users.values()) {
+            users.add(toUser(row));
+        }
+        users.sort((a, b) -> Integer.compare(a.getId(), b.getId()));
+        return users;
+    }
+    
+    @Override
+    public boolean updateUser(User user) throws SQLException {
+        synchronized (store.writeLock) {
+            UserRow old = store.users.get(user.getId());
+            if (old == null) {
+                return false;
+            }
+            checkUnique(user.getUsername(), user.getEmail(), user.getId());
+            
+            store.users.put(old.id, new UserRow(old.id, user.getUsername(), old.passwordHash, user.getEmail(),
+                    user.isAdmin()));
+            store.userIdsByUsername.remove(old.username, old.id);
+            store.userIdsByEmail.remove(old.email, old.id);
+            store.userIdsByUsername.put(user.getUsername(), old.id);
+            store.userIdsByEmail.put(user.getEmail(), old.id);
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean updatePassword(int userId, String newPassword) {
+        String passwordHash = PasswordUtil.hashPassword(newPassword);
+        
+        synchronized (store.writeLock) {
+            UserRow old = store.users.get(userId);
+            if (old == null) {
+                return false;
+            }
+            store.users.put(userId, new UserRow(userId, old.username, passwordHash, old.email, old.admin));
+            return true;
+        }
+    }
+    
+    @Override
+    public boolean deleteUser(int userId) throws SQLException {
+        synchronized (store.writeLock) {
+            int quizCount = InMemoryStore.idsOf(store.quizIdsByCreator, userId).size();
+            if (quizCount > 0) {
+                throw new SQLException("The user created " + quizCount
+                        + " quiz(zes); delete them before deleting the user.");
+            }
+            
+            UserRow row = store.users.remove(userId);
+            if (row == null) {
+                return false;
+            }
+            store.userIdsByUsername.remove(row.username, userId);
+            store.userIdsByEmail.remove(row.email, userId);
+            
+            NavigableMap<Integer, ResultRow> userResults = store.resultsByUser.remove(userId);
+            if (userResults != null) {
+                for (ResultRow result : userResults.values()) {
+                    store.removeResult(result);
+                }
+            }
+        }
+        
+        ResultSummaryCache.shared().invalidate(userId);
+        return true;
+    }
+    
+    @Override
+    public User authenticateUser(String username, String password) {
+        User user = getUserByUsername(username);
+        
+        if (user != null && PasswordUtil.checkPassword(password, user.getPassword())) {
+            return user;
+        }
+        
+        return null;
+    }
+    
+    /**
+     * Fails like the database's unique constraints if another user has the username
+     * or email.
+     */
+    private void checkUnique(String username, String email, int userId) throws SQLException {
+        Integer usernameOwner = store.userIdsByUsername.get(username);
+        if (usernameOwner != null && usernameOwner != userId) {
+            throw new SQLException("UNIQUE constraint failed: users.username");
+        }
+        Integer emailOwner = store.userIdsByEmail.get(email);
+        if (emailOwner != null && emailOwner != userId) {
+            throw new SQLException("UNIQUE constraint failed: users.email");
+        }
+    }
+    
+    private static User toUser(UserRow row) {
+        if (row == null) {
+            return null;
+        }
+        return new User(row.id, row.username, row.passwordHash, row.email, row.admin);
+    }
+}
\ No newline at end of file
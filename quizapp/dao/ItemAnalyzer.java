@@ -0,0 +1,526 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.ItemStats;
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Computes per-question item analysis (difficulty, discrimination and option choices)
+ * and stores it in {@code item_stats} and {@code item_option_stats}.
+ * <p>
+ * Each quiz is analyzed on its own connection by a fork/join task that streams the
+ * quiz's question results in one forward-only pass. It keeps only a handful of running
+ * sums per question, so memory does not grow with the number of attempts. The sums are
+ * additive, which allows incremental runs: {@code item_stats_progress} records the
+ * last result analyzed per quiz, and an incremental run only reads newer results and
+ * adds them to the stored sums. Deleted results are taken out of the sums by
+ * {@link #removeResults(Connection, String, String)}. A full run starts the selected
+ * quizzes from scratch. Archived results are read along with the live ones.
+ */
+public class ItemAnalyzer {
+    
+    private static final int FETCH_SIZE = 1000;
+    
+    private static final String SQL_ADD_ITEM =
+            "INSERT INTO item_stats (question_id, attempt_count, correct_count, total_sum, " +
+            "total_square_sum, correct_total_sum) VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (question_id) DO UPDATE SET " +
+            "attempt_count = attempt_count + excluded.attempt_count, " +
+            "correct_count = correct_count + excluded.correct_count, " +
+            "total_sum = total_sum + excluded.total_sum, " +
+            "total_square_sum = total_square_sum + excluded.total_square_sum, " +
+            "correct_total_sum = correct_total_sum + excluded.correct_total_sum";
+    private static final String SQL_ADD_OPTION =
+            "INSERT INTO item_option_stats (question_id, option_id, pick_count) VALUES (?, ?, ?) " +
+            "ON CONFLICT (question_id, option_id) DO UPDATE SET " +
+            "pick_count = pick_count + excluded.pick_count";
+    private static final String SQL_DELETE_EMPTY_ITEM =
+            "DELETE FROM item_stats WHERE question_id = ? AND attempt_count = 0";
+    private static final String SQL_DELETE_EMPTY_OPTIONS =
+            "DELETE FROM item_option_stats WHERE question_id = ? AND pick_count = 0";
+    
+    private final ForkJoinPool pool;
+    
+    public ItemAnalyzer() {
+        this(ForkJoinPool.commonPool());
+    }
+    
+    public ItemAnalyzer(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+    
+    /**
+     * Analyzes every quiz.
+     *
+     * @param full true to recompute from scratch, false to only add new attempts
+     * @return the number of attempts analyzed
+     * @throws SQLException if a database error occurs
+     */
+    public int analyzeAll(boolean full) throws SQLException {
+        List<Integer> quizIds = new ArrayList<>();
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery("SELECT id FROM quizzes ORDER BY id");
+            while (rs.next()) {
+                quizIds.add(rs.getInt("id"));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+        
+        return analyze(quizIds, full);
+    }
+    
+    /**
+     * Analyzes the given quizzes in parallel and stores the results.
+     *
+     * @param quizIds the IDs of the quizzes to analyze
+     * @param full true to recompute from scratch, false to only add new attempts
+     * @return the number of attempts analyzed
+     * @throws SQLException if a database error occurs
+     */
+    public int analyze(Collection<Integer> quizIds, boolean full) throws SQLException {
+        int[] ids = quizIds.stream().mapToInt(Integer::intValue).toArray();
+        if (ids.length == 0) {
+            return 0;
+        }
+        
+        Map<Integer, Integer> watermarks = full ? new HashMap<>() : getWatermarks();
+        
+        List<QuizAnalysis> analyses;
+        try {
+            analyses = pool.invoke(new AnalyzeTask(ids, 0, ids.length, watermarks));
+        } catch (AnalysisException e) {
+            throw e.getCause();
+        }
+        
+        return saveAnalyses(analyses, full);
+    }
+    
+    /**
+     * Gets the stored item analysis of every question in a quiz, in question order.
+     *
+     * @param quizId the ID of the quiz
+     * @return the item statistics; questions without analyzed attempts are left out
+     * @throws SQLException if a database error occurs
+     */
+    public List<ItemStats> getItemStats(int quizId) throws SQLException {
+        String sqlItems = "SELECT s.question_id, q.text, s.attempt_count, s.correct_count, s.total_sum, " +
+                          "s.total_square_sum, s.correct_total_sum FROM item_stats s " +
+                          "JOIN questions q ON s.question_id = q.id WHERE q.quiz_id = ? ORDER BY q.id";
+        String sqlOptions = "SELECT o.question_id, o.id, COALESCE(s.pick_count, 0) AS pick_count FROM options o " +
+                            "JOIN questions q ON o.question_id = q.id " +
+                            "LEFT JOIN item_option_stats s ON s.question_id = o.question_id AND s.option_id = o.id " +
+                            "WHERE q.quiz_id = ? ORDER BY o.question_id, o.id";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            
+            // Option pick counts, grouped by question
+            Map<Integer, Map<Integer, Long>> picksByQuestion = new HashMap<>();
+            stmt = conn.prepareStatement(sqlOptions);
+            stmt.setInt(1, quizId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                picksByQuestion.computeIfAbsent(rs.getInt("question_id"), id -> new LinkedHashMap<>())
+                        .put(rs.getInt("id"), rs.getLong("pick_count"));
+            }
+            DatabaseUtil.closeQuietly(rs, stmt);
+            
+            List<ItemStats> items = new ArrayList<>();
+            stmt = conn.prepareStatement(sqlItems);
+            stmt.setInt(1, quizId);
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                int questionId = rs.getInt("question_id");
+                items.add(new ItemStats(
+                    questionId,
+                    rs.getString("text"),
+                    rs.getLong("attempt_count"),
+                    rs.getLong("correct_count"),
+                    rs.getDouble("total_sum"),
+                    rs.getDouble("total_square_sum"),
+                    rs.getDouble("correct_total_sum"),
+                    picksByQuestion.getOrDefault(questionId, new LinkedHashMap<>())
+                ));
+            }
+            
+            return items;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    private Map<Integer, Integer> getWatermarks() throws SQLException {
+        Map<Integer, Integer> watermarks = new HashMap<>();
+        Connection conn = null;
+        Statement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            rs = stmt.executeQuery("SELECT quiz_id, last_result_id FROM item_stats_progress");
+            while (rs.next()) {
+                watermarks.put(rs.getInt("quiz_id"), rs.getInt("last_result_id"));
+            }
+            return watermarks;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Streams the new results of one quiz and sums them up per question.
+     */
+    private static QuizAnalysis analyzeQuiz(int quizId, int afterResultId) throws SQLException {
+        String sqlOptions = "SELECT o.question_id, o.id FROM options o JOIN questions q ON o.question_id = q.id " +
+                            "WHERE q.quiz_id = ? ORDER BY o.question_id, o.id";
+        
+        QuizAnalysis analysis = new QuizAnalysis(quizId, afterResultId);
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            
+            // Each file is joined on its own, so the answers are found through its index
+            int schemaCount = 1;
+            String sqlResults = resultsOf("main");
+            if (ResultArchiver.attachArchive(conn)) {
+                schemaCount++;
+                sqlResults += " UNION ALL " + resultsOf(ResultArchiver.ARCHIVE_SCHEMA);
+            }
+            sqlResults += " ORDER BY 1";
+            
+            stmt = conn.prepareStatement(sqlOptions);
+            stmt.setInt(1, quizId);
+            rs = stmt.executeQuery();
+            analysis.optionIdsByQuestion = SelectionMask.readOptionIds(rs);
+            DatabaseUtil.closeQuietly(rs, stmt);
+            
+            stmt = conn.prepareStatement(sqlResults, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(FETCH_SIZE);
+            for (int i = 0; i < schemaCount; i++) {
+                stmt.setInt(2 * i + 1, quizId);
+                stmt.setInt(2 * i + 2, afterResultId);
+            }
+            rs = stmt.executeQuery();
+            
+            while (rs.next()) {
+                int resultId = rs.getInt(1);
+                int score = rs.getInt(2);
+                int maxScore = rs.getInt(3);
+                double total = maxScore > 0 ? score * 100.0 / maxScore : 0;
+                
+                ItemAccumulator item = analysis.items.computeIfAbsent(rs.getInt(4), id -> new ItemAccumulator());
+                item.add(total, rs.getInt(5) == 1, rs.getBytes(6));
+                
+                // Rows arrive grouped by attempt
+                if (resultId != analysis.lastResultId) {
+                    analysis.lastResultId = resultId;
+                    analysis.attemptCount++;
+                }
+            }
+            
+            return analysis;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Selects the new answers of one quiz in one file, as read by {@link #analyzeQuiz(int, int)}.
+     */
+    private static String resultsOf(String schema) {
+        return "SELECT r.id, r.score, r.max_score, qr.question_id, qr.is_correct, qr.selected_mask " +
+               "FROM " + schema + ".quiz_results r " +
+               "JOIN " + schema + ".question_results qr ON qr.quiz_result_id = r.id " +
+               "WHERE r.quiz_id = ? AND r.id > ?";
+    }
+    
+    /**
+     * Writes all analyses in one transaction.
+     */
+    private int saveAnalyses(List<QuizAnalysis> analyses, boolean full) throws SQLException {
+        String sqlProgress = "INSERT INTO item_stats_progress (quiz_id, last_result_id) VALUES (?, ?) " +
+                             "ON CONFLICT (quiz_id) DO UPDATE SET last_result_id = excluded.last_result_id";
+        String sqlClearItems = "DELETE FROM item_stats WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?)";
+        String sqlClearOptions = "DELETE FROM item_option_stats " +
+                                 "WHERE question_id IN (SELECT id FROM questions WHERE quiz_id = ?)";
+        
+        Connection conn = null;
+        int attemptCount = 0;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            try (PreparedStatement stmtItem = conn.prepareStatement(SQL_ADD_ITEM);
+                 PreparedStatement stmtOption = conn.prepareStatement(SQL_ADD_OPTION);
+                 PreparedStatement stmtProgress = conn.prepareStatement(sqlProgress);
+                 PreparedStatement stmtClearItems = conn.prepareStatement(sqlClearItems);
+                 PreparedStatement stmtClearOptions = conn.prepareStatement(sqlClearOptions)) {
+                
+                for (QuizAnalysis analysis : analyses) {
+                    if (full) {
+                        stmtClearItems.setInt(1, analysis.quizId);
+                        stmtClearItems.executeUpdate();
+                        stmtClearOptions.setInt(1, analysis.quizId);
+                        stmtClearOptions.executeUpdate();
+                    }
+                    
+                    addItems(stmtItem, stmtOption, analysis.items, analysis.optionIdsByQuestion, 1);
+                    
+                    stmtProgress.setInt(1, analysis.quizId);
+                    stmtProgress.setInt(2, analysis.lastResultId);
+                    stmtProgress.addBatch();
+                    
+                    attemptCount += analysis.attemptCount;
+                }
+                
+                stmtItem.executeBatch();
+                stmtOption.executeBatch();
+                stmtProgress.executeBatch();
+            }
+            
+            conn.commit(); // Commit transaction
+            return attemptCount;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    /**
+     * Takes results that are about to be deleted out of the stored item analysis, on the
+     * given connection and inside the deleting transaction. Only results up to the last
+     * one analyzed for their quiz are in it.
+     *
+     * @param conn the connection of the deleting transaction
+     * @param schema the database the results are in: {@code main} or the archive
+     * @param resultIds a query selecting the IDs of the results
+     * @throws SQLException if a database error occurs
+     */
+    static void removeResults(Connection conn, String schema, String resultIds) throws SQLException {
+        String sqlAnswers = "SELECT r.score, r.max_score, qr.question_id, qr.is_correct, qr.selected_mask " +
+                            "FROM " + schema + ".quiz_results r " +
+                            "JOIN item_stats_progress p ON p.quiz_id = r.quiz_id AND r.id <= p.last_result_id " +
+                            "JOIN " + schema + ".question_results qr ON qr.quiz_result_id = r.id " +
+                            "JOIN questions q ON q.id = qr.question_id " +
+                            "WHERE r.id IN (" + resultIds + ")";
+        
+        Map<Integer, ItemAccumulator> items = new HashMap<>();
+        Map<Integer, int[]> optionIdsByQuestion;
+        
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery(sqlAnswers)) {
+                while (rs.next()) {
+                    int score = rs.getInt(1);
+                    int maxScore = rs.getInt(2);
+                    double total = maxScore > 0 ? score * 100.0 / maxScore : 0;
+                    items.computeIfAbsent(rs.getInt(3), id -> new ItemAccumulator())
+                            .add(total, rs.getInt(4) == 1, rs.getBytes(5));
+                }
+            }
+            if (items.isEmpty()) {
+                return;
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT question_id, id FROM options WHERE question_id IN " +
+                                                  "(SELECT question_id FROM " + schema + ".question_results " +
+                                                  "WHERE quiz_result_id IN (" + resultIds + ")) " +
+                                                  "ORDER BY question_id, id")) {
+                optionIdsByQuestion = SelectionMask.readOptionIds(rs);
+            }
+        }
+        
+        try (PreparedStatement stmtItem = conn.prepareStatement(SQL_ADD_ITEM);
+             PreparedStatement stmtOption = conn.prepareStatement(SQL_ADD_OPTION)) {
+            addItems(stmtItem, stmtOption, items, optionIdsByQuestion, -1);
+            stmtItem.executeBatch();
+            stmtOption.executeBatch();
+        }
+        
+        // Rows brought down to zero go, as a full run would not write them
+        try (PreparedStatement stmtItem = conn.prepareStatement(SQL_DELETE_EMPTY_ITEM);
+             PreparedStatement stmtOption = conn.prepareStatement(SQL_DELETE_EMPTY_OPTIONS)) {
+            for (int questionId : items.keySet()) {
+                stmtItem.setInt(1, questionId);
+                stmtItem.addBatch();
+                stmtOption.setInt(1, questionId);
+                stmtOption.addBatch();
+            }
+            stmtItem.executeBatch();
+            stmtOption.executeBatch();
+        }
+    }
+    
+    /**
+     * Adds the sums of each question to the batches of the two statements, with the given
+     * sign: 1 to add them to the stored sums, -1 to take them out.
+     */
+    private static void addItems(PreparedStatement stmtItem, PreparedStatement stmtOption,
+                                 Map<Integer, ItemAccumulator> items, Map<Integer, int[]> optionIdsByQuestion,
+                                 int sign) throws SQLException {
+        for (Map.Entry<Integer, ItemAccumulator> entry : items.entrySet()) {
+            int questionId = entry.getKey();
+            ItemAccumulator item = entry.getValue();
+            
+            stmtItem.setInt(1, questionId);
+            stmtItem.setLong(2, sign * item.attemptCount);
+            stmtItem.setLong(3, sign * item.correctCount);
+            stmtItem.setDouble(4, sign * item.totalSum);
+            stmtItem.setDouble(5, sign * item.totalSquareSum);
+            stmtItem.setDouble(6, sign * item.correctTotalSum);
+            stmtItem.addBatch();
+            
+            int[] optionIds = SelectionMask.optionIdsOf(optionIdsByQuestion, questionId);
+            for (int position = 0; position < optionIds.length && position < item.pickCounts.length; position++) {
+                if (item.pickCounts[position] > 0) {
+                    stmtOption.setInt(1, questionId);
+                    stmtOption.setInt(2, optionIds[position]);
+                    stmtOption.setLong(3, sign * item.pickCounts[position]);
+                    stmtOption.addBatch();
+                }
+            }
+        }
+    }
+    
+    /**
+     * Splits the quizzes in halves until each task holds a single quiz.
+     */
+    private static class AnalyzeTask extends RecursiveTask<List<QuizAnalysis>> {
+        private final int[] quizIds;
+        private final int from;
+        private final int to;
+        private final Map<Integer, Integer> watermarks;
+        
+        private AnalyzeTask(int[] quizIds, int from, int to, Map<Integer, Integer> watermarks) {
+            this.quizIds = quizIds;
+            this.from = from;
+            this.to = to;
+            this.watermarks = watermarks;
+        }
+        
+        @Override
+        protected List<QuizAnalysis> compute() {
+            if (to - from == 1) {
+                int quizId = quizIds[from];
+                try {
+                    List<QuizAnalysis> analyses = new ArrayList<>(1);
+                    analyses.add(analyzeQuiz(quizId, watermarks.getOrDefault(quizId, 0)));
+                    return analyses;
+                } catch (SQLException e) {
+                    throw new AnalysisException(e);
+                }
+            }
+            
+            int middle = (from + to) >>> 1;
+            AnalyzeTask left = new AnalyzeTask(quizIds, from, middle, watermarks);
+            AnalyzeTask right = new AnalyzeTask(quizIds, middle, to, watermarks);
+            left.fork();
+            List<QuizAnalysis> analyses = right.compute();
+            analyses.addAll(left.join());
+            return analyses;
+        }
+    }
+    
+    /**
+     * Carries a database error out of a fork/join task.
+     */
+    private static class AnalysisException extends RuntimeException {
+        private AnalysisException(SQLException cause) {
+            super(cause);
+        }
+        
+        @Override
+        public synchronized SQLException getCause() {
+            return (SQLException) super.getCause();
+        }
+    }
+    
+    /**
+     * The running sums of one quiz.
+     */
+    private static class QuizAnalysis {
+        private final int quizId;
+        private final Map<Integer, ItemAccumulator> items = new HashMap<>();
+        private Map<Integer, int[]> optionIdsByQuestion;
+        private int lastResultId;
+        private int attemptCount;
+        
+        private QuizAnalysis(int quizId, int lastResultId) {
+            this.quizId = quizId;
+            this.lastResultId = lastResultId;
+        }
+    }
+    
+    /**
+     * The running sums of one question. The attempt total is its percentage score.
+     */
+    private static class ItemAccumulator {
+        private long attemptCount;
+        private long correctCount;
+        private double totalSum;
+        private double totalSquareSum;
+        private double correctTotalSum;
+        private long[] pickCounts = new long[8];
+        
+        private void add(double total, boolean correct, byte[] selectedMask) {
+            attemptCount++;
+            totalSum += total;
+            totalSquareSum += total * total;
+            if (correct) {
+                correctCount++;
+                correctTotalSum += total;
+            }
+            
+            if (selectedMask != null && selectedMask.length > 0) {
+                BitSet positions = BitSet.valueOf(selectedMask);
+                for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+                    if (i >= pickCounts.length) {
+                        pickCounts = Arrays.copyOf(pickCounts, Math.max(i + 1, pickCounts.length * 2));
+                    }
+                    pickCounts[i]++;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,316 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.QuizResult;
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Keeps the best {@link #TOP_K} students of every quiz in memory, so showing a
+ * leaderboard does not sort all of a quiz's results.
+ * <p>
+ * Each quiz has a {@link ConcurrentSkipListSet} ordered by score (highest first), then
+ * duration (fastest first), then result ID (earliest first), holding at most one entry
+ * per student: their best attempt. Readers walk the set without locking; saving a
+ * result offers it to its quiz's board, which only touches the set when the attempt
+ * makes the top {@link #TOP_K}. Boards are seeded from the database with
+ * {@link #seed()} at startup, and a quiz that is not seeded yet is loaded on first
+ * view. Changes that remove results (deleting a quiz or user) must call
+ * {@link #invalidate(int)} or {@link #invalidateAll()}.
+ */
+public class Leaderboard {
+    /**
+     * Number of students kept per quiz.
+     */
+    public static final int TOP_K = 10;
+    
+    private static final Leaderboard SHARED = new Leaderboard();
+    
+    // Best attempt of each student per quiz, ranked with window functions in SQL
+    private static final String RANKED_SQL =
+            "SELECT quiz_id, id, user_id, score, max_score, duration_seconds FROM (" +
+            "SELECT quiz_id, id, user_id, score, max_score, duration_seconds, " +
+            "ROW_NUMBER() OVER (PARTITION BY quiz_id ORDER BY score DESC, duration_seconds, id) AS position " +
+            "FROM (SELECT quiz_id, id, user_id, score, max_score, COALESCE(duration_seconds, 0) AS duration_seconds, " +
+            "ROW_NUMBER() OVER (PARTITION BY quiz_id, user_id ORDER BY score DESC, " +
+            "COALESCE(duration_seconds, 0), id) AS attempt " +
+            "FROM quiz_results WHERE user_id NOT IN (SELECT id FROM users WHERE deleted_at IS NOT NULL)%s) " +
+            "WHERE attempt = 1) WHERE position <= " + TOP_K;
+    
+    private final Map<Integer, Board> boards = new ConcurrentHashMap<>();
+    private final Map<Integer, String> usernames = new ConcurrentHashMap<>();
+    
+    /**
+     * Gets the leaderboard shared by the whole application.
+     */
+    public static Leaderboard shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Loads the boards of every quiz from the database in one query.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    public void seed() throws SQLException {
+        for (Board board : load(null, null)) {
+            board.loaded = true;
+        }
+    }
+    
+    /**
+     * Offers a newly saved result to the board of its quiz.
+     *
+     * @param result the result that was just saved
+     */
+    public void record(QuizResult result) {
+        // Offered even if the board is not loaded yet: a load running concurrently may
+        // have read the results before this one was committed
+        board(result.getQuizId()).offer(new Entry(result.getId(), result.getUserId(),
+                result.getScore(), result.getMaxScore(), result.getDurationInSeconds()));
+    }
+    
+    /**
+     * Gets the best students of a quiz, best first.
+     *
+     * @param quizId the ID of the quiz
+     * @return up to {@link #TOP_K} entries, one per student
+     * @throws SQLException if a database error occurs
+     */
+    public List<RankedEntry> getTopResults(int quizId) throws SQLException {
+        Board board = board(quizId);
+        if (!board.loaded) {
+            synchronized (board.loadLock) {
+                if (!board.loaded) {
+                    load(quizId, board);
+                    board.loaded = true;
+                }
+            }
+        }
+        
+        List<Entry> entries = new ArrayList<>(board.entries);
+        resolveUsernames(entries);
+        
+        List<RankedEntry> ranked = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            ranked.add(new RankedEntry(ranked.size() + 1, usernames.getOrDefault(entry.userId, "?"), entry));
+        }
+        return ranked;
+    }
+    
+    /**
+     * Drops the board of a quiz; it is loaded again on next view.
+     */
+    public void invalidate(int quizId) {
+        boards.remove(quizId);
+    }
+    
+    /**
+     * Drops the cached name of a student, e.g. after it was changed.
+     */
+    public void invalidateUsername(int userId) {
+        usernames.remove(userId);
+    }
+    
+    /**
+     * Drops every board and cached username.
+     */
+    public void invalidateAll() {
+        boards.clear();
+        usernames.clear();
+    }
+    
+    private Board board(int quizId) {
+        return boards.computeIfAbsent(quizId, id -> new Board());
+    }
+    
+    /**
+     * Offers the best attempts of one quiz to the given board, or of all quizzes to
+     * their boards if {@code quizId} is null.
+     *
+     * @return the boards that were offered entries
+     */
+    private Set<Board> load(Integer quizId, Board target) throws SQLException {
+        String sql = String.format(RANKED_SQL, quizId != null ? " AND quiz_id = ?" : "");
+        Set<Board> loadedBoards = new LinkedHashSet<>();
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            if (quizId != null) {
+                stmt.setInt(1, quizId);
+            }
+            
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                Board board = target != null ? target : board(rs.getInt("quiz_id"));
+                board.offer(new Entry(rs.getInt("id"), rs.getInt("user_id"), rs.getInt("score"),
+                        rs.getInt("max_score"), rs.getLong("duration_seconds")));
+                loadedBoards.add(board);
+            }
+            return loadedBoards;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    private void resolveUsernames(List<Entry> entries) throws SQLException {
+        List<Integer> missing = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (!usernames.containsKey(entry.userId)) {
+                missing.add(entry.userId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return;
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT id, username FROM users WHERE id IN (");
+        for (int i = 0; i < missing.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql.toString());
+            for (int i = 0; i < missing.size(); i++) {
+                stmt.setInt(i + 1, missing.get(i));
+            }
+            
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                usernames.put(rs.getInt("id"), rs.getString("username"));
+            }
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * The top entries of one quiz.
+     */
+    private static class Board {
+        private final ConcurrentSkipListSet<Entry> entries = new ConcurrentSkipListSet<>(Entry.ORDER);
+        private final Map<Integer, Entry> entriesByUser = new HashMap<>();
+        private final Object loadLock = new Object();
+        private volatile boolean loaded;
+        
+        /**
+         * Adds an entry if it is the student's best and makes the top {@link #TOP_K}.
+         * Offering the same entry twice has no effect.
+         */
+        synchronized void offer(Entry entry) {
+            Entry previous = entriesByUser.get(entry.userId);
+            if (previous != null) {
+                if (Entry.ORDER.compare(entry, previous) >= 0) {
+                    return; // Not better than the student's entry
+                }
+            } else if (entriesByUser.size() >= TOP_K && Entry.ORDER.compare(entry, entries.last()) >= 0) {
+                return; // Does not make the board
+            }
+            
+            // Add before removing so readers never see the board shrink
+            entries.add(entry);
+            entriesByUser.put(entry.userId, entry);
+            if (previous != null) {
+                entries.remove(previous);
+            } else if (entriesByUser.size() > TOP_K) {
+                Entry dropped = entries.pollLast();
+                entriesByUser.remove(dropped.userId);
+            }
+        }
+    }
+    
+    /**
+     * One student's best attempt at a quiz.
+     */
+    public static class Entry {
+        static final Comparator<Entry> ORDER = Comparator
+                .comparingInt((Entry entry) -> -entry.score)
+                .thenComparingLong(entry -> entry.durationInSeconds)
+                .thenComparingInt(entry -> entry.resultId);
+        
+        private final int resultId;
+        private final int userId;
+        private final int score;
+        private final int maxScore;
+        private final long durationInSeconds;
+        
+        Entry(int resultId, int userId, int score, int maxScore, long durationInSeconds) {
+            this.resultId = resultId;
+            this.userId = userId;
+            this.score = score;
+            this.maxScore = maxScore;
+            this.durationInSeconds = durationInSeconds;
+        }
+        
+        public int getResultId() {
+            return resultId;
+        }
+        
+        public int getUserId() {
+            return userId;
+        }
+        
+        public int getScore() {
+            return score;
+        }
+        
+        public int getMaxScore() {
+            return maxScore;
+        }
+        
+        public long getDurationInSeconds() {
+            return durationInSeconds;
+        }
+        
+        public double getPercentage() {
+            return maxScore > 0 ? (double) score / maxScore * 100 : 0;
+        }
+    }
+    
+    /**
+     * An entry with its position on the board and the student's name.
+     */
+    public static class RankedEntry {
+        private final int rank;
+        private final String username;
+        private final Entry entry;
+        
+        RankedEntry(int rank, String username, Entry entry) {
+            this.rank = rank;
+            this.username = username;
+            this.entry = entry;
+        }
+        
+        public int getRank() {
+            return rank;
+        }
+        
+        public String getUsername() {
+            return username;
+        }
+        
+        public Entry getEntry() {
+            return entry;
+        }
+    }
+}
\ No newline at end of file
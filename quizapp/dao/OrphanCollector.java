@@ -0,0 +1,324 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Finds and deletes rows left behind by quizzes, questions and users deleted while
+ * foreign keys were not enforced: questions of deleted quizzes, their options and
+ * answers, results of deleted quizzes or users, and the statistics kept for any of
+ * them. Archived results of deleted quizzes or users are removed as well.
+ * <p>
+ * Results of deleted users on live quizzes are first taken out of the statistics of
+ * their quiz. Children are deleted before their parents, so no row is removed by a
+ * cascade and the report counts every row. The large tables are checked in ranges of
+ * {@value #RANGE_SIZE} row IDs, one short transaction each with a pause in between, so
+ * the collector can run in the background while quizzes are taken. Quizzes whose
+ * creator was deleted are only counted; they may still be in use. The freed pages are
+ * returned to the file system if the file uses incremental vacuum.
+ */
+public class OrphanCollector {
+    private static final int RANGE_SIZE = 5000;
+    private static final long RANGE_PAUSE_MILLIS = 10;
+    private static final long FIRST_RUN_DELAY_MINUTES = 5;
+    private static final long RUN_INTERVAL_HOURS = 24;
+    
+    private static final String LIVE_QUIZ = "EXISTS (SELECT 1 FROM main.quizzes q WHERE q.id = %s)";
+    private static final String LIVE_USER = "EXISTS (SELECT 1 FROM main.users u WHERE u.id = %s)";
+    private static final String LIVE_QUESTION =
+            "EXISTS (SELECT 1 FROM main.questions qn JOIN main.quizzes q ON q.id = qn.quiz_id WHERE qn.id = %s)";
+    private static final String LIVE_OPTION =
+            "EXISTS (SELECT 1 FROM main.options o JOIN main.questions qn ON qn.id = o.question_id " +
+            "JOIN main.quizzes q ON q.id = qn.quiz_id WHERE o.id = %s)";
+    private static final String LIVE_RESULT =
+            "EXISTS (SELECT 1 FROM %s.quiz_results r JOIN main.quizzes q ON q.id = r.quiz_id " +
+            "JOIN main.users u ON u.id = r.user_id WHERE r.id = %s)";
+    
+    private static final OrphanCollector SHARED = new OrphanCollector();
+    
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "orphan-collector");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Guarded by this
+    private boolean started;
+    
+    // Written by the collector thread only
+    private volatile CollectReport lastReport;
+    
+    /**
+     * Gets the collector shared by the whole application.
+     */
+    public static OrphanCollector shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Collects orphans in the background a few minutes from now and then once a day.
+     * Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        scheduler.scheduleWithFixedDelay(() -> {
+            try {
+                lastReport = collect();
+            } catch (SQLException e) {
+                System.err.println("Error collecting orphaned rows: " + e.getMessage());
+            }
+        }, FIRST_RUN_DELAY_MINUTES, TimeUnit.HOURS.toMinutes(RUN_INTERVAL_HOURS), TimeUnit.MINUTES);
+    }
+    
+    /**
+     * Gets the report of the last background run, or null if there was none yet.
+     */
+    public CollectReport getLastReport() {
+        return lastReport;
+    }
+    
+    /**
+     * Deletes all orphaned rows now.
+     *
+     * @return a report of the rows and pages reclaimed
+     * @throws SQLException if a database error occurs; ranges committed before the error
+     *         stay deleted
+     */
+    public synchronized CollectReport collect() throws SQLException {
+        long start = System.nanoTime();
+        CollectReport report = new CollectReport();
+        
+        Connection conn = null;
+        Statement stmt = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            boolean archived = ResultArchiver.attachArchive(conn);
+            long freePagesBefore = ResultArchiver.pragma(stmt, "freelist_count");
+            
+            // Results of deleted users on live quizzes are counted in the statistics
+            deleteUserOrphans(conn, report, "main");
+            
+            // Children first
+            deleteInRanges(conn, report, "main", "question_results",
+                    "NOT " + String.format(LIVE_RESULT, "main", "question_results.quiz_result_id")
+                    + " OR NOT " + String.format(LIVE_QUESTION, "question_results.question_id"));
+            deleteInRanges(conn, report, "main", "quiz_results",
+                    "NOT " + String.format(LIVE_QUIZ, "quiz_results.quiz_id")
+                    + " OR NOT " + String.format(LIVE_USER, "quiz_results.user_id"));
+            deleteAll(stmt, report, "option_counters",
+                    "NOT " + String.format(LIVE_OPTION, "option_counters.option_id"));
+            deleteAll(stmt, report, "item_option_stats",
+                    "NOT " + String.format(LIVE_OPTION, "item_option_stats.option_id"));
+            deleteInRanges(conn, report, "main", "options",
+                    "NOT " + String.format(LIVE_QUESTION, "options.question_id"));
+            deleteAll(stmt, report, "item_stats", "NOT " + String.format(LIVE_QUESTION, "item_stats.question_id"));
+            deleteAll(stmt, report, "question_counters",
+                    "NOT " + String.format(LIVE_QUESTION, "question_counters.question_id"));
+            deleteInRanges(conn, report, "main", "questions",
+                    "NOT " + String.format(LIVE_QUIZ, "questions.quiz_id"));
+            for (String table : new String[] {"quiz_stats", "quiz_score_buckets", "quiz_duration_buckets",
+                                              "item_stats_progress"}) {
+                deleteAll(stmt, report, table, "NOT " + String.format(LIVE_QUIZ, table + ".quiz_id"));
+            }
+            
+            if (archived) {
+                String archive = ResultArchiver.ARCHIVE_SCHEMA;
+                deleteUserOrphans(conn, report, archive);
+                deleteInRanges(conn, report, archive, "question_results",
+                        "NOT " + String.format(LIVE_RESULT, archive, "question_results.quiz_result_id")
+                        + " OR NOT " + String.format(LIVE_QUESTION, "question_results.question_id"));
+                deleteInRanges(conn, report, archive, "quiz_results",
+                        "NOT " + String.format(LIVE_QUIZ, "quiz_results.quiz_id")
+                        + " OR NOT " + String.format(LIVE_USER, "quiz_results.user_id"));
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM main.quizzes WHERE NOT "
+                    + String.format(LIVE_USER, "quizzes.creator_id"))) {
+                report.quizzesWithoutCreator = rs.next() ? rs.getInt(1) : 0;
+            }
+            
+            report.pagesFreed = Math.max(0, ResultArchiver.pragma(stmt, "freelist_count") - freePagesBefore);
+            report.pagesReturned = ResultArchiver.incrementalVacuum(conn, stmt);
+            
+            if (report.getTotalRows() > 0) {
+                Leaderboard.shared().invalidateAll();
+                ResultSummaryCache.shared().invalidateAll();
+            }
+            
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+    }
+    
+    /**
+     * Deletes the results of deleted users on quizzes that still exist, with their
+     * answers, one range of result IDs per transaction. The results are taken out of the
+     * statistics, counters and item analysis of their quiz in the same transaction.
+     * Results of deleted quizzes are left to the other passes; their statistics are
+     * deleted with them.
+     */
+    private static void deleteUserOrphans(Connection conn, CollectReport report, String schema)
+            throws SQLException {
+        long minId;
+        long maxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(id), MAX(id) FROM " + schema + ".quiz_results")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            if (rs.wasNull()) {
+                return; // Empty table
+            }
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            for (long from = minId; from <= maxId; from += RANGE_SIZE) {
+                String resultIds = "SELECT id FROM " + schema + ".quiz_results WHERE id BETWEEN " + from
+                        + " AND " + (from + RANGE_SIZE - 1)
+                        + " AND NOT " + String.format(LIVE_USER, "quiz_results.user_id")
+                        + " AND " + String.format(LIVE_QUIZ, "quiz_results.quiz_id");
+                
+                conn.setAutoCommit(false); // Start transaction
+                try {
+                    QuizStatsDAO.removeResults(conn, schema, resultIds);
+                    report.add(schema, "question_results", stmt.executeUpdate(
+                            "DELETE FROM " + schema + ".question_results WHERE quiz_result_id IN (" + resultIds + ")"));
+                    report.add(schema, "quiz_results", stmt.executeUpdate(
+                            "DELETE FROM " + schema + ".quiz_results WHERE id IN (" + resultIds + ")"));
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback(); // Rollback this range
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                }
+                
+                try {
+                    Thread.sleep(RANGE_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Deletes the orphans of a large table, one range of row IDs per transaction.
+     */
+    private static void deleteInRanges(Connection conn, CollectReport report, String schema, String table,
+                                       String orphanCondition) throws SQLException {
+        long minId;
+        long maxId;
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT MIN(rowid), MAX(rowid) FROM " + schema + "." + table)) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            if (rs.wasNull()) {
+                return; // Empty table
+            }
+        }
+        
+        String sql = "DELETE FROM " + schema + "." + table + " WHERE rowid BETWEEN ? AND ? AND ("
+                + orphanCondition + ")";
+        try (PreparedStatement delete = conn.prepareStatement(sql)) {
+            for (long from = minId; from <= maxId; from += RANGE_SIZE) {
+                delete.setLong(1, from);
+                delete.setLong(2, from + RANGE_SIZE - 1);
+                // Each statement is its own short transaction
+                report.add(schema, table, delete.executeUpdate());
+                
+                try {
+                    Thread.sleep(RANGE_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+    
+    /**
+     * Deletes the orphans of a table holding at most one row per quiz, question or
+     * option in one statement.
+     */
+    private static void deleteAll(Statement stmt, CollectReport report, String table, String orphanCondition)
+            throws SQLException {
+        report.add("main", table, stmt.executeUpdate("DELETE FROM main." + table + " WHERE " + orphanCondition));
+    }
+    
+    /**
+     * Summary of a collector run.
+     */
+    public static class CollectReport {
+        private final Map<String, Long> deletedRows = new LinkedHashMap<>();
+        private int quizzesWithoutCreator;
+        private long pagesFreed;
+        private long pagesReturned;
+        private long elapsedNanos;
+        
+        private void add(String schema, String table, long count) {
+            if (count > 0) {
+                deletedRows.merge("main".equals(schema) ? table : schema + "." + table, count, Long::sum);
+            }
+        }
+        
+        /**
+         * Gets the number of rows deleted per table (tables without orphans are left out).
+         */
+        public Map<String, Long> getDeletedRows() {
+            return deletedRows;
+        }
+        
+        public long getTotalRows() {
+            long total = 0;
+            for (long count : deletedRows.values()) {
+                total += count;
+            }
+            return total;
+        }
+        
+        /**
+         * Gets the number of quizzes whose creator no longer exists. They are kept.
+         */
+        public int getQuizzesWithoutCreator() {
+            return quizzesWithoutCreator;
+        }
+        
+        /**
+         * Gets the number of database pages the deleted rows took up.
+         */
+        public long getPagesFreed() {
+            return pagesFreed;
+        }
+        
+        /**
+         * Gets the number of free pages returned to the file system.
+         */
+        public long getPagesReturned() {
+            return pagesReturned;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
\ No newline at end of file
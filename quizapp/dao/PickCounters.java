@@ -0,0 +1,437 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.QuizResult;
+import com.quizapp.model.QuizResult.QuestionResult;
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live counters of how often each option was picked and how often each question was
+ * answered correctly, stored in {@code option_counters} and {@code question_counters}.
+ * <p>
+ * Saving a result only bumps striped in-memory counters ({@link LongAdder}), so an exam
+ * burst where many students submit the same quiz does not queue up on the same
+ * counter rows. The accumulated deltas are written in one transaction every few
+ * seconds and when the application exits. Reads add the deltas not written yet, so
+ * they are exact within this process; a crash can lose at most the last few seconds
+ * of counts, which {@link #rebuildCounters(Connection)} recomputes from the results.
+ * Deleted results are subtracted in the deleting transaction instead.
+ */
+public class PickCounters {
+    private static final long FLUSH_INTERVAL_SECONDS = 5;
+    
+    // Counts of options and questions deleted since they were recorded are dropped
+    private static final String SQL_ADD_OPTION_PICKS =
+            "INSERT INTO option_counters (option_id, pick_count) " +
+            "SELECT ?, ? WHERE EXISTS (SELECT 1 FROM options WHERE id = ?) " +
+            "ON CONFLICT (option_id) DO UPDATE SET pick_count = pick_count + excluded.pick_count";
+    private static final String SQL_ADD_QUESTION_COUNTS =
+            "INSERT INTO question_counters (question_id, attempt_count, correct_count) " +
+            "SELECT ?, ?, ? WHERE EXISTS (SELECT 1 FROM questions WHERE id = ?) " +
+            "ON CONFLICT (question_id) DO UPDATE SET " +
+            "attempt_count = attempt_count + excluded.attempt_count, " +
+            "correct_count = correct_count + excluded.correct_count";
+    private static final String SQL_DELETE_EMPTY_OPTION =
+            "DELETE FROM option_counters WHERE option_id = ? AND pick_count = 0";
+    private static final String SQL_DELETE_EMPTY_QUESTION =
+            "DELETE FROM question_counters WHERE question_id = ? AND attempt_count = 0";
+    
+    private static final PickCounters SHARED = new PickCounters();
+    
+    private final Map<Integer, LongAdder> optionPicks = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> questionAttempts = new ConcurrentHashMap<>();
+    private final Map<Integer, LongAdder> questionCorrect = new ConcurrentHashMap<>();
+    private ScheduledExecutorService flusher;
+    
+    /**
+     * Gets the counters shared by the whole application.
+     */
+    public static PickCounters shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Counts the answers of a saved result.
+     *
+     * @param result the result that was just saved
+     */
+    public void record(QuizResult result) {
+        for (QuestionResult questionResult : result.getQuestionResults()) {
+            increment(questionAttempts, questionResult.getQuestionId(), 1);
+            if (questionResult.isCorrect()) {
+                increment(questionCorrect, questionResult.getQuestionId(), 1);
+            }
+            for (int optionId : questionResult.getSelectedOptionIds()) {
+                increment(optionPicks, optionId, 1);
+            }
+        }
+        startFlusher();
+    }
+    
+    /**
+     * Gets how often each option of the given questions was picked.
+     *
+     * @param questionIds the IDs of the questions
+     * @return pick counts by option ID (options never picked map to 0)
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, Long> getOptionPickCounts(Collection<Integer> questionIds) throws SQLException {
+        String sql = "SELECT o.id, COALESCE(c.pick_count, 0) FROM options o " +
+                     "LEFT JOIN option_counters c ON c.option_id = o.id " +
+                     "WHERE o.question_id IN (" + placeholders(questionIds.size()) + ")";
+        
+        Map<Integer, Long> pickCounts = new HashMap<>();
+        if (questionIds.isEmpty()) {
+            return pickCounts;
+        }
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            bindIds(stmt, questionIds);
+            
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                int optionId = rs.getInt(1);
+                pickCounts.put(optionId, rs.getLong(2) + pending(optionPicks, optionId));
+            }
+            return pickCounts;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Gets how often each of the given questions was answered, and answered correctly.
+     *
+     * @param questionIds the IDs of the questions
+     * @return the counts by question ID
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, QuestionCount> getQuestionCounts(Collection<Integer> questionIds) throws SQLException {
+        String sql = "SELECT question_id, attempt_count, correct_count FROM question_counters " +
+                     "WHERE question_id IN (" + placeholders(questionIds.size()) + ")";
+        
+        Map<Integer, QuestionCount> counts = new HashMap<>();
+        if (questionIds.isEmpty()) {
+            return counts;
+        }
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            bindIds(stmt, questionIds);
+            
+            Map<Integer, long[]> stored = new HashMap<>();
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                stored.put(rs.getInt(1), new long[]{rs.getLong(2), rs.getLong(3)});
+            }
+            
+            for (int questionId : questionIds) {
+                long[] values = stored.getOrDefault(questionId, new long[2]);
+                counts.put(questionId, new QuestionCount(
+                        values[0] + pending(questionAttempts, questionId),
+                        values[1] + pending(questionCorrect, questionId)));
+            }
+            return counts;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Writes the accumulated counts to the database in one transaction.
+     * If writing fails, the counts are kept for the next attempt.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    public synchronized void flush() throws SQLException {
+        // Take the deltas; new increments from here on go to the next flush
+        Map<Integer, Long> picks = drain(optionPicks);
+        Map<Integer, Long> attempts = drain(questionAttempts);
+        Map<Integer, Long> correct = drain(questionCorrect);
+        if (picks.isEmpty() && attempts.isEmpty()) {
+            return;
+        }
+        
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            addCounts(conn, picks, attempts, correct);
+            
+            conn.commit(); // Commit transaction
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            
+            // Put the deltas back so they are not lost
+            picks.forEach((id, delta) -> increment(optionPicks, id, delta));
+            attempts.forEach((id, delta) -> increment(questionAttempts, id, delta));
+            correct.forEach((id, delta) -> increment(questionCorrect, id, delta));
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    /**
+     * Recomputes all counters from the saved results on the given connection, without
+     * managing the transaction. Counts not flushed yet are discarded. Archived answers are
+     * counted if the archive is attached.
+     */
+    static void rebuildCounters(Connection conn) throws SQLException {
+        SHARED.discardPending();
+        String answers = ResultArchiver.allAnswers(conn);
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM question_counters");
+            stmt.executeUpdate("INSERT INTO question_counters (question_id, attempt_count, correct_count) " +
+                               "SELECT question_id, COUNT(*), SUM(is_correct) FROM " + answers + " " +
+                               "GROUP BY question_id");
+            
+            // Option picks are packed into the selection masks, so they are counted here
+            Map<Integer, int[]> optionIdsByQuestion;
+            try (ResultSet rs = stmt.executeQuery("SELECT question_id, id FROM options ORDER BY question_id, id")) {
+                optionIdsByQuestion = SelectionMask.readOptionIds(rs);
+            }
+            
+            Map<Integer, Long> picks = new HashMap<>();
+            try (Statement select = conn.createStatement();
+                 ResultSet rs = select.executeQuery("SELECT question_id, selected_mask FROM " + answers + " " +
+                                                    "WHERE LENGTH(selected_mask) > 0")) {
+                while (rs.next()) {
+                    int[] optionIds = SelectionMask.decode(rs.getBytes(2),
+                            SelectionMask.optionIdsOf(optionIdsByQuestion, rs.getInt(1)));
+                    for (int optionId : optionIds) {
+                        picks.merge(optionId, 1L, Long::sum);
+                    }
+                }
+            }
+            
+            stmt.executeUpdate("DELETE FROM option_counters");
+            try (PreparedStatement insert = conn.prepareStatement(
+                    "INSERT INTO option_counters (option_id, pick_count) VALUES (?, ?)")) {
+                for (Map.Entry<Integer, Long> entry : picks.entrySet()) {
+                    insert.setInt(1, entry.getKey());
+                    insert.setLong(2, entry.getValue());
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+    
+    /**
+     * Takes the answers of results that are about to be deleted out of the counters, on
+     * the given connection and inside the deleting transaction. The counts are subtracted
+     * from the stored counters; counts of these answers not flushed yet are added by the
+     * next flush, which evens them out.
+     *
+     * @param conn the connection of the deleting transaction
+     * @param schema the database the results are in: {@code main} or the archive
+     * @param resultIds a query selecting the IDs of the results
+     * @throws SQLException if a database error occurs
+     */
+    static void removeAnswers(Connection conn, String schema, String resultIds) throws SQLException {
+        String answers = " FROM " + schema + ".question_results WHERE quiz_result_id IN (" + resultIds + ")";
+        
+        Map<Integer, Long> picks = new HashMap<>();
+        Map<Integer, Long> attempts = new HashMap<>();
+        Map<Integer, Long> correct = new HashMap<>();
+        
+        try (Statement stmt = conn.createStatement()) {
+            Map<Integer, int[]> optionIdsByQuestion;
+            try (ResultSet rs = stmt.executeQuery("SELECT question_id, id FROM options " +
+                                                  "WHERE question_id IN (SELECT question_id" + answers + ") " +
+                                                  "ORDER BY question_id, id")) {
+                optionIdsByQuestion = SelectionMask.readOptionIds(rs);
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT question_id, is_correct, selected_mask" + answers)) {
+                while (rs.next()) {
+                    int questionId = rs.getInt(1);
+                    attempts.merge(questionId, -1L, Long::sum);
+                    if (rs.getInt(2) == 1) {
+                        correct.merge(questionId, -1L, Long::sum);
+                    }
+                    int[] optionIds = SelectionMask.decode(rs.getBytes(3),
+                            SelectionMask.optionIdsOf(optionIdsByQuestion, questionId));
+                    for (int optionId : optionIds) {
+                        picks.merge(optionId, -1L, Long::sum);
+                    }
+                }
+            }
+        }
+        
+        addCounts(conn, picks, attempts, correct);
+    }
+    
+    /**
+     * Adds counts to the stored counters, without managing the transaction.
+     */
+    private static void addCounts(Connection conn, Map<Integer, Long> picks, Map<Integer, Long> attempts,
+                                  Map<Integer, Long> correct) throws SQLException {
+        try (PreparedStatement stmtOption = conn.prepareStatement(SQL_ADD_OPTION_PICKS);
+             PreparedStatement stmtQuestion = conn.prepareStatement(SQL_ADD_QUESTION_COUNTS)) {
+            
+            for (Map.Entry<Integer, Long> entry : picks.entrySet()) {
+                stmtOption.setInt(1, entry.getKey());
+                stmtOption.setLong(2, entry.getValue());
+                stmtOption.setInt(3, entry.getKey());
+                stmtOption.addBatch();
+            }
+            for (Map.Entry<Integer, Long> entry : attempts.entrySet()) {
+                stmtQuestion.setInt(1, entry.getKey());
+                stmtQuestion.setLong(2, entry.getValue());
+                stmtQuestion.setLong(3, correct.getOrDefault(entry.getKey(), 0L));
+                stmtQuestion.setInt(4, entry.getKey());
+                stmtQuestion.addBatch();
+            }
+            
+            stmtOption.executeBatch();
+            stmtQuestion.executeBatch();
+        }
+        
+        // Counters that come out at zero go, as a rebuild would not have them. This happens
+        // when a flush evens out answers already taken out by a deletion.
+        try (PreparedStatement stmtOption = conn.prepareStatement(SQL_DELETE_EMPTY_OPTION);
+             PreparedStatement stmtQuestion = conn.prepareStatement(SQL_DELETE_EMPTY_QUESTION)) {
+            for (int optionId : picks.keySet()) {
+                stmtOption.setInt(1, optionId);
+                stmtOption.addBatch();
+            }
+            for (int questionId : attempts.keySet()) {
+                stmtQuestion.setInt(1, questionId);
+                stmtQuestion.addBatch();
+            }
+            stmtOption.executeBatch();
+            stmtQuestion.executeBatch();
+        }
+    }
+    
+    private synchronized void startFlusher() {
+        if (flusher != null) {
+            return;
+        }
+        
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "pick-counter-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly,
+                FLUSH_INTERVAL_SECONDS, FLUSH_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        
+        // Write what is left when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(this::flushQuietly, "pick-counter-shutdown"));
+    }
+    
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (SQLException e) {
+            System.err.println("Error writing pick counters: " + e.getMessage());
+        }
+    }
+    
+    private synchronized void discardPending() {
+        optionPicks.clear();
+        questionAttempts.clear();
+        questionCorrect.clear();
+    }
+    
+    private static void increment(Map<Integer, LongAdder> counters, int id, long delta) {
+        counters.computeIfAbsent(id, key -> new LongAdder()).add(delta);
+    }
+    
+    private static long pending(Map<Integer, LongAdder> counters, int id) {
+        LongAdder adder = counters.get(id);
+        return adder != null ? adder.sum() : 0;
+    }
+    
+    private static Map<Integer, Long> drain(Map<Integer, LongAdder> counters) {
+        Map<Integer, Long> deltas = new HashMap<>();
+        for (Map.Entry<Integer, LongAdder> entry : counters.entrySet()) {
+            long delta = entry.getValue().sumThenReset();
+            if (delta != 0) {
+                deltas.put(entry.getKey(), delta);
+            }
+        }
+        return deltas;
+    }
+    
+    private static String placeholders(int count) {
+        List<String> marks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            marks.add("?");
+        }
+        return String.join(", ", marks);
+    }
+    
+    private static void bindIds(PreparedStatement stmt, Collection<Integer> ids) throws SQLException {
+        int index = 1;
+        for (int id : ids) {
+            stmt.setInt(index++, id);
+        }
+    }
+    
+    /**
+     * How often a question was answered, and answered correctly.
+     */
+    public static class QuestionCount {
+        private final long attemptCount;
+        private final long correctCount;
+        
+        public QuestionCount(long attemptCount, long correctCount) {
+            this.attemptCount = attemptCount;
+            this.correctCount = correctCount;
+        }
+        
+        public long getAttemptCount() {
+            return attemptCount;
+        }
+        
+        public long getCorrectCount() {
+            return correctCount;
+        }
+        
+        public double getCorrectPercentage() {
+            return attemptCount == 0 ? 0 : correctCount * 100.0 / attemptCount;
+        }
+    }
+}
\ No newline at end of file
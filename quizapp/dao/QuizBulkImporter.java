@@ -0,0 +1,529 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.CsvUtil;
+import com.quizapp.util.DatabaseUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Imports whole quizzes, with their questions and options, from a CSV file.
+ * <p>
+ * Each line is one record, named by its first field:
+ * <pre>
+ * quiz,&lt;title&gt;,&lt;time limit in minutes, 0 or empty for none&gt;,&lt;description&gt;
+ * question,&lt;text&gt;,&lt;points, 1 if empty&gt;
+ * option,&lt;text&gt;,&lt;correct: 1/true/yes or 0/false/no&gt;
+ * </pre>
+ * A question belongs to the quiz above it and an option to the question above it;
+ * options keep their order. Every question needs at least two options and at least
+ * one correct one. Empty lines and lines starting with {@code #} are ignored, and
+ * fields follow the quoting rules of {@link CsvUtil}.
+ * <p>
+ * The file is read line by line and never held in memory. Each quiz is imported in its
+ * own transaction: questions and options are inserted as JDBC batches of
+ * {@code batchSize} questions, and question IDs are assigned here (the quiz insert
+ * holds the write lock, so the next free IDs are known) instead of being read back one
+ * row at a time. A quiz with any invalid record is rolled back and reported with every
+ * problem found in it; the other quizzes in the file are still imported.
+ */
+public class QuizBulkImporter {
+    
+    private static final int DEFAULT_BATCH_SIZE = 500;
+    
+    // Problems listed per rejected quiz; the rest are only counted
+    private static final int MAX_PROBLEMS_PER_QUIZ = 20;
+    
+    private static final String INSERT_QUIZ_SQL =
+            "INSERT INTO quizzes (title, description, creator_id, time_limit) VALUES (?, ?, ?, ?)";
+    
+    private static final String INSERT_QUESTION_SQL =
+            "INSERT INTO questions (id, quiz_id, text, points) VALUES (?, ?, ?, ?)";
+    
+    private static final String INSERT_OPTION_SQL =
+            "INSERT INTO options (question_id, text, is_correct) VALUES (?, ?, ?)";
+    
+    // The ID AUTOINCREMENT would hand out next, minus one
+    private static final String LAST_QUESTION_ID_SQL =
+            "SELECT MAX(COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'questions'), 0), " +
+            "COALESCE((SELECT MAX(id) FROM questions), 0))";
+    
+    private final int batchSize;
+    
+    public QuizBulkImporter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+    
+    public QuizBulkImporter(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    /**
+     * Imports all quizzes from the given CSV reader.
+     *
+     * @param reader the CSV source; it is read line by line and not closed
+     * @param creatorId the ID of the user the quizzes are created for
+     * @return a report of imported and rejected quizzes
+     * @throws IOException if the CSV cannot be read
+     * @throws SQLException if a database error occurs
+     */
+    public ImportReport importQuizzes(Reader reader, int creatorId) throws IOException, SQLException {
+        BufferedReader in = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        ImportReport report = new ImportReport();
+        long start = System.nanoTime();
+        
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            Batch batch = new Batch(conn);
+            
+            try {
+                QuizImport quiz = null;
+                int lineNumber = 0;
+                String line;
+                
+                while ((line = in.readLine()) != null) {
+                    lineNumber++;
+                    if (lineNumber == 1 && line.startsWith("\uFEFF")) {
+                        line = line.substring(1);
+                    }
+                    if (line.trim().isEmpty() || line.trim().startsWith("#")) {
+                        continue;
+                    }
+                    
+                    List<String> fields = CsvUtil.parseLine(line);
+                    String record = field(fields, 0).toLowerCase(Locale.ROOT);
+                    
+                    if (record.equals("quiz")) {
+                        finishQuiz(conn, batch, quiz, report);
+                        quiz = startQuiz(conn, lineNumber, fields, creatorId);
+                    } else if (quiz == null) {
+                        report.addProblem(lineNumber, "Record before the first quiz line");
+                    } else if (record.equals("question")) {
+                        finishQuestion(batch, quiz);
+                        startQuestion(quiz, lineNumber, fields);
+                    } else if (record.equals("option")) {
+                        addOption(quiz, lineNumber, fields);
+                    } else {
+                        quiz.addProblem(lineNumber, "Unknown record type '" + field(fields, 0) + "'");
+                    }
+                }
+                
+                finishQuiz(conn, batch, quiz, report);
+                report.elapsedNanos = System.nanoTime() - start;
+                return report;
+            } catch (IOException | SQLException e) {
+                try {
+                    conn.rollback(); // Rollback the quiz being imported
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+                throw e;
+            } finally {
+                batch.close();
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    private QuizImport startQuiz(Connection conn, int lineNumber, List<String> fields, int creatorId)
+            throws SQLException {
+        QuizImport quiz = new QuizImport(lineNumber, field(fields, 1));
+        
+        int timeLimit = parseNumber(field(fields, 2), 0);
+        if (quiz.title.isEmpty()) {
+            quiz.addProblem(lineNumber, "Quiz title is empty");
+        }
+        if (timeLimit < 0) {
+            quiz.addProblem(lineNumber, "Time limit must be a whole number of minutes, 0 or more");
+        }
+        if (quiz.failed) {
+            return quiz; // Nothing is written for this quiz
+        }
+        
+        conn.setAutoCommit(false); // Start transaction
+        
+        try (PreparedStatement stmt = conn.prepareStatement(INSERT_QUIZ_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            stmt.setString(1, quiz.title);
+            stmt.setString(2, field(fields, 3));
+            stmt.setInt(3, creatorId);
+            stmt.setInt(4, timeLimit);
+            stmt.executeUpdate();
+            
+            try (ResultSet rs = stmt.getGeneratedKeys()) {
+                if (!rs.next()) {
+                    throw new SQLException("Creating quiz failed, no ID obtained.");
+                }
+                quiz.id = rs.getInt(1);
+            }
+        }
+        
+        // This transaction now holds the write lock, so no one else can take these IDs
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(LAST_QUESTION_ID_SQL)) {
+            quiz.nextQuestionId = (rs.next() ? rs.getInt(1) : 0) + 1;
+        }
+        return quiz;
+    }
+    
+    private void startQuestion(QuizImport quiz, int lineNumber, List<String> fields) {
+        String text = field(fields, 1);
+        int points = parseNumber(field(fields, 2), 1);
+        
+        if (text.isEmpty()) {
+            quiz.addProblem(lineNumber, "Question text is empty");
+        }
+        if (points <= 0) {
+            quiz.addProblem(lineNumber, "Points must be a whole number above 0");
+        }
+        quiz.question = new QuestionImport(lineNumber, text, points);
+    }
+    
+    private void addOption(QuizImport quiz, int lineNumber, List<String> fields) {
+        if (quiz.question == null) {
+            quiz.addProblem(lineNumber, "Option before the first question of the quiz");
+            return;
+        }
+        
+        String text = field(fields, 1);
+        String correct = field(fields, 2).toLowerCase(Locale.ROOT);
+        
+        if (text.isEmpty()) {
+            quiz.addProblem(lineNumber, "Option text is empty");
+        }
+        boolean isCorrect = correct.equals("1") || correct.equals("true") || correct.equals("yes");
+        if (!isCorrect && !correct.isEmpty() && !correct.equals("0") && !correct.equals("false") && !correct.equals("no")) {
+            quiz.addProblem(lineNumber, "Correct must be 1/true/yes or 0/false/no");
+        }
+        
+        quiz.question.optionTexts.add(text);
+        quiz.question.optionCorrect.add(isCorrect);
+    }
+    
+    /**
+     * Validates the question being read and, if the quiz is still valid, adds it to the
+     * batch, writing the batch once it is full.
+     */
+    private void finishQuestion(Batch batch, QuizImport quiz) throws SQLException {
+        QuestionImport question = quiz.question;
+        if (question == null) {
+            return;
+        }
+        quiz.question = null;
+        
+        if (question.optionTexts.size() < 2) {
+            quiz.addProblem(question.lineNumber, "Question needs at least two options");
+        } else if (!question.optionCorrect.contains(Boolean.TRUE)) {
+            quiz.addProblem(question.lineNumber, "Question has no correct option");
+        }
+        if (quiz.failed) {
+            return; // The quiz will be rolled back, so stop writing it
+        }
+        
+        int questionId = quiz.nextQuestionId++;
+        batch.questions.setInt(1, questionId);
+        batch.questions.setInt(2, quiz.id);
+        batch.questions.setString(3, question.text);
+        batch.questions.setInt(4, question.points);
+        batch.questions.addBatch();
+        
+        for (int i = 0; i < question.optionTexts.size(); i++) {
+            batch.options.setInt(1, questionId);
+            batch.options.setString(2, question.optionTexts.get(i));
+            batch.options.setInt(3, question.optionCorrect.get(i) ? 1 : 0);
+            batch.options.addBatch();
+        }
+        quiz.optionCount += question.optionTexts.size();
+        quiz.questionCount++;
+        
+        if (++batch.size == batchSize) {
+            batch.execute();
+        }
+    }
+    
+    /**
+     * Commits a valid quiz, or rolls back and reports an invalid one.
+     */
+    private void finishQuiz(Connection conn, Batch batch, QuizImport quiz, ImportReport report)
+            throws SQLException {
+        if (quiz == null) {
+            return;
+        }
+        
+        finishQuestion(batch, quiz);
+        if (!quiz.failed && quiz.questionCount == 0) {
+            quiz.addProblem(quiz.lineNumber, "Quiz has no questions");
+        }
+        
+        if (quiz.failed) {
+            batch.clear();
+            if (!conn.getAutoCommit()) {
+                conn.rollback(); // Rollback the quiz row and any batches written
+                conn.setAutoCommit(true);
+            }
+            report.rejected.add(new RejectedQuiz(quiz.lineNumber, quiz.title, quiz.problems, quiz.problemCount));
+            return;
+        }
+        
+        batch.execute();
+        conn.commit(); // Commit transaction
+        conn.setAutoCommit(true);
+        report.imported.add(new ImportedQuiz(quiz.id, quiz.title, quiz.questionCount, quiz.optionCount));
+    }
+    
+    private static String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return "";
+        }
+        return fields.get(index).trim();
+    }
+    
+    private static int parseNumber(String value, int defaultValue) {
+        if (value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            return -1; // Reported as out of range by the caller
+        }
+    }
+    
+    /**
+     * The question and option inserts waiting to be executed.
+     */
+    private static class Batch {
+        private final PreparedStatement questions;
+        private final PreparedStatement options;
+        private int size;
+        
+        private Batch(Connection conn) throws SQLException {
+            this.questions = conn.prepareStatement(INSERT_QUESTION_SQL);
+            PreparedStatement optionStmt = null;
+            try {
+                optionStmt = conn.prepareStatement(INSERT_OPTION_SQL);
+            } finally {
+                if (optionStmt == null) {
+                    DatabaseUtil.closeQuietly(questions);
+                }
+            }
+            this.options = optionStmt;
+        }
+        
+        private void execute() throws SQLException {
+            if (size > 0) {
+                questions.executeBatch(); // Questions first, options refer to them
+                options.executeBatch();
+                size = 0;
+            }
+        }
+        
+        private void clear() throws SQLException {
+            questions.clearBatch();
+            options.clearBatch();
+            size = 0;
+        }
+        
+        private void close() {
+            DatabaseUtil.closeQuietly(options, questions);
+        }
+    }
+    
+    /**
+     * The quiz being read from the file.
+     */
+    private static class QuizImport {
+        private final int lineNumber;
+        private final String title;
+        private final List<String> problems = new ArrayList<>();
+        private int problemCount;
+        private boolean failed;
+        private int id;
+        private int nextQuestionId;
+        private int questionCount;
+        private int optionCount;
+        private QuestionImport question;
+        
+        private QuizImport(int lineNumber, String title) {
+            this.lineNumber = lineNumber;
+            this.title = title;
+        }
+        
+        private void addProblem(int lineNumber, String reason) {
+            failed = true;
+            if (problemCount++ < MAX_PROBLEMS_PER_QUIZ) {
+                problems.add("Line " + lineNumber + ": " + reason);
+            }
+        }
+    }
+    
+    /**
+     * The question being read from the file, with its options so far.
+     */
+    private static class QuestionImport {
+        private final int lineNumber;
+        private final String text;
+        private final int points;
+        private final List<String> optionTexts = new ArrayList<>();
+        private final List<Boolean> optionCorrect = new ArrayList<>();
+        
+        private QuestionImport(int lineNumber, String text, int points) {
+            this.lineNumber = lineNumber;
+            this.text = text;
+            this.points = points;
+        }
+    }
+    
+    /**
+     * Summary of a bulk quiz import.
+     */
+    public static class ImportReport {
+        private final List<ImportedQuiz> imported = new ArrayList<>();
+        private final List<RejectedQuiz> rejected = new ArrayList<>();
+        private final List<String> otherProblems = new ArrayList<>();
+        private long elapsedNanos;
+        
+        private void addProblem(int lineNumber, String reason) {
+            otherProblems.add("Line " + lineNumber + ": " + reason);
+        }
+        
+        public List<ImportedQuiz> getImportedQuizzes() {
+            return imported;
+        }
+        
+        public List<RejectedQuiz> getRejectedQuizzes() {
+            return rejected;
+        }
+        
+        /**
+         * Gets the number of questions in the imported quizzes.
+         */
+        public int getQuestionCount() {
+            int count = 0;
+            for (ImportedQuiz quiz : imported) {
+                count += quiz.questionCount;
+            }
+            return count;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        /**
+         * Gets problems with lines that do not belong to any quiz.
+         */
+        public List<String> getOtherProblems() {
+            return otherProblems;
+        }
+    }
+    
+    /**
+     * A quiz that was imported.
+     */
+    public static class ImportedQuiz {
+        private final int quizId;
+        private final String title;
+        private final int questionCount;
+        private final int optionCount;
+        
+        public ImportedQuiz(int quizId, String title, int questionCount, int optionCount) {
+            this.quizId = quizId;
+            this.title = title;
+            this.questionCount = questionCount;
+            this.optionCount = optionCount;
+        }
+        
+        public int getQuizId() {
+            return quizId;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        public int getQuestionCount() {
+            return questionCount;
+        }
+        
+        public int getOptionCount() {
+            return optionCount;
+        }
+        
+        @Override
+        public String toString() {
+            return "'" + title + "': " + questionCount + " questions, " + optionCount + " options";
+        }
+    }
+    
+    /**
+     * A quiz that was not imported, with the problems found in it.
+     */
+    public static class RejectedQuiz {
+        private final int lineNumber;
+        private final String title;
+        private final List<String> problems;
+        private final int problemCount;
+        
+        public RejectedQuiz(int lineNumber, String title, List<String> problems, int problemCount) {
+            this.lineNumber = lineNumber;
+            this.title = title;
+            this.problems = problems;
+            this.problemCount = problemCount;
+        }
+        
+        public int getLineNumber() {
+            return lineNumber;
+        }
+        
+        public String getTitle() {
+            return title;
+        }
+        
+        /**
+         * Gets the first problems found, each starting with its line number.
+         */
+        public List<String> getProblems() {
+            return problems;
+        }
+        
+        /**
+         * Gets the number of problems found, including those not listed.
+         */
+        public int getProblemCount() {
+            return problemCount;
+        }
+        
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("'").append(title).append("' (line ").append(lineNumber).append("):");
+            for (String problem : problems) {
+                sb.append("\n    ").append(problem);
+            }
+            if (problemCount > problems.size()) {
+                sb.append("\n    ... and ").append(problemCount - problems.size()).append(" more");
+            }
+            return sb.toString();
+        }
+    }
+}
\ No newline at end of file
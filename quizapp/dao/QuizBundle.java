@@ -0,0 +1,343 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.Question;
+import com.quizapp.model.Question.Option;
+import com.quizapp.model.Quiz;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Read-only file holding a set of quizzes with their questions and options, for exam
+ * kiosks that should not load quizzes from the database.
+ * <p>
+ * The file is opened with a memory-mapped {@link FileChannel}, so opening it reads only
+ * what is touched and a quiz is found by binary search over fixed-width records, without
+ * parsing the rest of the file. Layout (big-endian):
+ * <pre>
+ * header     magic, version, quiz/question/option counts, string table offset, CRC-32 of the rest
+ * quizzes    id, title, description, creator id, creator name, time limit, first question, question count
+ * questions  id, text, points, first option, option count, answer key
+ * options    id, text
+ * strings    [length][UTF-8 bytes] per distinct string, referenced by offset (-1 for null)
+ * </pre>
+ * Quizzes are sorted by ID; questions and options keep their database order, so option
+ * positions match the ones stored in selection masks. The answer key of a question is a
+ * 64-bit mask of its correct option positions, which is why a question may have at most
+ * {@value #MAX_OPTIONS} options.
+ */
+public class QuizBundle implements AutoCloseable {
+    public static final int MAX_OPTIONS = 64;
+    
+    private static final int MAGIC = 0x515A424E; // "QZBN"
+    private static final int FORMAT_VERSION = 1;
+    
+    private static final int HEADER_SIZE = 32;
+    private static final int QUIZ_RECORD_SIZE = 32;
+    private static final int QUESTION_RECORD_SIZE = 28;
+    private static final int OPTION_RECORD_SIZE = 8;
+    
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int quizCount;
+    private final int questionsOffset;
+    private final int optionsOffset;
+    private final int stringsOffset;
+    
+    private QuizBundle(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a quiz bundle");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IOException("Unsupported quiz bundle version " + buffer.getInt(4));
+        }
+        
+        this.quizCount = buffer.getInt(8);
+        int questionCount = buffer.getInt(12);
+        int optionCount = buffer.getInt(16);
+        this.questionsOffset = HEADER_SIZE + quizCount * QUIZ_RECORD_SIZE;
+        this.optionsOffset = questionsOffset + questionCount * QUESTION_RECORD_SIZE;
+        this.stringsOffset = buffer.getInt(20);
+        
+        if (quizCount < 0 || questionCount < 0 || optionCount < 0
+                || stringsOffset != optionsOffset + optionCount * OPTION_RECORD_SIZE
+                || stringsOffset > buffer.limit()) {
+            throw new IOException("Quiz bundle is damaged");
+        }
+        
+        // Reads the whole file once; bundles are small next to the database
+        CRC32 crc = new CRC32();
+        ByteBuffer body = buffer.duplicate();
+        body.position(HEADER_SIZE);
+        crc.update(body);
+        if ((int) crc.getValue() != buffer.getInt(24)) {
+            throw new IOException("Quiz bundle is damaged (checksum mismatch)");
+        }
+    }
+    
+    /**
+     * Opens a bundle for reading.
+     *
+     * @param file the bundle file
+     * @return the open bundle
+     * @throws IOException if the file cannot be read or is not a valid bundle
+     */
+    public static QuizBundle open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Quiz bundle is too large");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new QuizBundle(channel, buffer);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Writes quizzes, with their questions and options, to a bundle file. The file is
+     * written next to the target and renamed into place, so a kiosk never opens a
+     * half-written bundle.
+     *
+     * @param file the bundle file (replaced if it exists)
+     * @param quizzes the quizzes to write, with questions loaded
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if a question has more than {@value #MAX_OPTIONS} options
+     */
+    public static void write(Path file, List<Quiz> quizzes) throws IOException {
+        List<Quiz> sorted = new ArrayList<>(quizzes);
+        sorted.sort(Comparator.comparingInt(Quiz::getId));
+        
+        StringTable strings = new StringTable();
+        ByteArrayOutputStream quizBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream questionBytes = new ByteArrayOutputStream();
+        ByteArrayOutputStream optionBytes = new ByteArrayOutputStream();
+        DataOutputStream quizOut = new DataOutputStream(quizBytes);
+        DataOutputStream questionOut = new DataOutputStream(questionBytes);
+        DataOutputStream optionOut = new DataOutputStream(optionBytes);
+        
+        int questionCount = 0;
+        int optionCount = 0;
+        
+        for (Quiz quiz : sorted) {
+            quizOut.writeInt(quiz.getId());
+            quizOut.writeInt(strings.add(quiz.getTitle()));
+            quizOut.writeInt(strings.add(quiz.getDescription()));
+            quizOut.writeInt(quiz.getCreatorId());
+            quizOut.writeInt(strings.add(quiz.getCreatorName()));
+            quizOut.writeInt(quiz.getTimeLimit());
+            quizOut.writeInt(questionCount);
+            quizOut.writeInt(quiz.getQuestions().size());
+            
+            for (Question question : quiz.getQuestions()) {
+                List<Option> options = question.getOptions();
+                if (options.size() > MAX_OPTIONS) {
+                    throw new IllegalArgumentException("Question " + question.getId() + " has more than "
+                            + MAX_OPTIONS + " options");
+                }
+                
+                long answerKey = 0;
+                for (int i = 0; i < options.size(); i++) {
+                    if (options.get(i).isCorrect()) {
+                        answerKey |= 1L << i;
+                    }
+                }
+                
+                questionOut.writeInt(question.getId());
+                questionOut.writeInt(strings.add(question.getText()));
+                questionOut.writeInt(question.getPoints());
+                questionOut.writeInt(optionCount);
+                questionOut.writeInt(options.size());
+                questionOut.writeLong(answerKey);
+                questionCount++;
+                
+                for (Option option : options) {
+                    optionOut.writeInt(option.getId());
+                    optionOut.writeInt(strings.add(option.getText()));
+                    optionCount++;
+                }
+            }
+        }
+        
+        int stringsOffset = HEADER_SIZE + quizBytes.size() + questionBytes.size() + optionBytes.size();
+        
+        CRC32 crc = new CRC32();
+        crc.update(quizBytes.toByteArray());
+        crc.update(questionBytes.toByteArray());
+        crc.update(optionBytes.toByteArray());
+        crc.update(strings.bytes.toByteArray());
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(FORMAT_VERSION);
+        header.putInt(sorted.size());
+        header.putInt(questionCount);
+        header.putInt(optionCount);
+        header.putInt(stringsOffset);
+        header.putInt((int) crc.getValue());
+        header.putInt(0); // Reserved
+        header.flip();
+        
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (ByteBuffer part : new ByteBuffer[]{header, ByteBuffer.wrap(quizBytes.toByteArray()),
+                    ByteBuffer.wrap(questionBytes.toByteArray()), ByteBuffer.wrap(optionBytes.toByteArray()),
+                    ByteBuffer.wrap(strings.bytes.toByteArray())}) {
+                while (part.hasRemaining()) {
+                    out.write(part);
+                }
+            }
+            out.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    /**
+     * Gets the number of quizzes in the bundle.
+     */
+    public int getQuizCount() {
+        return quizCount;
+    }
+    
+    /**
+     * Gets all quizzes in the bundle, ordered by ID, without their questions.
+     */
+    public List<Quiz> getAllQuizzes() {
+        List<Quiz> quizzes = new ArrayList<>(quizCount);
+        for (int i = 0; i < quizCount; i++) {
+            quizzes.add(readQuiz(HEADER_SIZE + i * QUIZ_RECORD_SIZE));
+        }
+        return quizzes;
+    }
+    
+    /**
+     * Gets a quiz with its questions and options.
+     *
+     * @param quizId the ID of the quiz
+     * @return the quiz, or null if it is not in the bundle
+     */
+    public Quiz getQuizById(int quizId) {
+        int low = 0;
+        int high = quizCount - 1;
+        
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int record = HEADER_SIZE + middle * QUIZ_RECORD_SIZE;
+            int id = buffer.getInt(record);
+            
+            if (id < quizId) {
+                low = middle + 1;
+            } else if (id > quizId) {
+                high = middle - 1;
+            } else {
+                Quiz quiz = readQuiz(record);
+                int firstQuestion = buffer.getInt(record + 24);
+                int questionCount = buffer.getInt(record + 28);
+                for (int i = 0; i < questionCount; i++) {
+                    quiz.addQuestion(readQuestion(quizId, questionsOffset + (firstQuestion + i) * QUESTION_RECORD_SIZE));
+                }
+                return quiz;
+            }
+        }
+        return null;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        channel.close(); // The mapping stays valid until it is garbage collected
+    }
+    
+    private Quiz readQuiz(int record) {
+        return new Quiz(
+            buffer.getInt(record),
+            readString(buffer.getInt(record + 4)),
+            readString(buffer.getInt(record + 8)),
+            buffer.getInt(record + 12),
+            readString(buffer.getInt(record + 16)),
+            buffer.getInt(record + 20)
+        );
+    }
+    
+    private Question readQuestion(int quizId, int record) {
+        Question question = new Question(
+            buffer.getInt(record),
+            quizId,
+            readString(buffer.getInt(record + 4)),
+            buffer.getInt(record + 8)
+        );
+        
+        int firstOption = buffer.getInt(record + 12);
+        int optionCount = buffer.getInt(record + 16);
+        BitSet answerKey = BitSet.valueOf(new long[]{buffer.getLong(record + 20)});
+        
+        for (int i = 0; i < optionCount; i++) {
+            int option = optionsOffset + (firstOption + i) * OPTION_RECORD_SIZE;
+            question.addOption(new Option(buffer.getInt(option), question.getId(),
+                    readString(buffer.getInt(option + 4)), answerKey.get(i)));
+        }
+        return question;
+    }
+    
+    private String readString(int offset) {
+        if (offset < 0) {
+            return null;
+        }
+        int position = stringsOffset + offset;
+        byte[] bytes = new byte[buffer.getInt(position)];
+        ByteBuffer source = buffer.duplicate();
+        source.position(position + 4);
+        source.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Collects distinct strings while a bundle is written.
+     */
+    private static class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final DataOutputStream out = new DataOutputStream(bytes);
+        private final Map<String, Integer> offsets = new HashMap<>();
+        
+        /**
+         * Adds a string if it is new.
+         *
+         * @return its offset in the table, or -1 for null
+         */
+        int add(String value) throws IOException {
+            if (value == null) {
+                return -1;
+            }
+            Integer offset = offsets.get(value);
+            if (offset == null) {
+                offset = bytes.size();
+                byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(utf8.length);
+                out.write(utf8);
+                offsets.put(value, offset);
+            }
+            return offset;
+        }
+    }
+}
\ No newline at end of file
@@ -12,7 +12,7 @@ import java.util.List;
 /**
  * Data Access Object for Quiz operations.
  */
-public class QuizDAO {
+public class QuizDAO implements QuizRepository {
     
     /**
      * Creates a new quiz in the database.
@@ -21,6 +21,7 @@ public class QuizDAO {
      * @return the created quiz with ID set
      * @throws SQLException if a database error occurs
      */
+    @Override
     public Quiz createQuiz(Quiz quiz) throws SQLException {
         String sql = "INSERT INTO quizzes (title, description, creator_id, time_limit) VALUES (?, ?, ?, ?)";
         
@@ -182,9 +183,11 @@ public class QuizDAO {
      * @return the quiz, or null if not found
      * @throws SQLException if a database error occurs
      */
+    @Override
     public Quiz getQuizById(int quizId) throws SQLException {
         String sqlQuiz = "SELECT q.id, q.title, q.description, q.creator_id, u.username AS creator_name, " +
-                         "q.time_limit FROM quizzes q JOIN users u ON q.creator_id = u.id WHERE q.id = ?";
+                         "q.time_limit FROM quizzes q JOIN users u ON q.creator_id = u.id " +
+                         "WHERE q.id = ? AND q.deleted_at IS NULL";
         
         Connection conn = null;
         PreparedStatement stmtQuiz = null;
@@ -308,9 +311,11 @@ public class QuizDAO {
      * @return a list of all quizzes (without questions)
      * @throws SQLException if a database error occurs
      */
+    @Override
     public List<Quiz> getAllQuizzes() throws SQLException {
         String sql = "SELECT q.id, q.title, q.description, q.creator_id, u.username AS creator_name, " +
-                     "q.time_limit FROM quizzes q JOIN users u ON q.creator_id = u.id ORDER BY q.id";
+                     "q.time_limit FROM quizzes q JOIN users u ON q.creator_id = u.id " +
+                     "WHERE q.deleted_at IS NULL ORDER BY q.id";
         
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -350,10 +355,11 @@ public class QuizDAO {
      * @return a list of quizzes created by the user
      * @throws SQLException if a database error occurs
      */
+    @Override
     public List<Quiz> getQuizzesByCreator(int creatorId) throws SQLException {
         String sql = "SELECT q.id, q.title, q.description, q.creator_id, u.username AS creator_name, " +
                      "q.time_limit FROM quizzes q JOIN users u ON q.creator_id = u.id " +
-                     "WHERE q.creator_id = ? ORDER BY q.id";
+                     "WHERE q.creator_id = ? AND q.deleted_at IS NULL ORDER BY q.id";
         
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -394,6 +400,7 @@ public class QuizDAO {
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean updateQuiz(Quiz quiz) throws SQLException {
         String sql = "UPDATE quizzes SET title = ?, description = ?, time_limit = ? WHERE id = ?";
         
@@ -410,6 +417,9 @@ public class QuizDAO {
             stmt.setInt(4, quiz.getId());
             
             int affectedRows = stmt.executeUpdate();
+            
+            // Cached result histories show the quiz title
+            ResultSummaryCache.shared().invalidateAll();
             return affectedRows > 0;
         } finally {
             DatabaseUtil.closeQuietly(stmt, conn);
@@ -417,13 +427,18 @@ public class QuizDAO {
     }
     
     /**
-     * Deletes a quiz from the database.
+     * Deletes a quiz from the database with its results. Questions, options and
+     * statistics are removed by cascade.
      *
      * @param quizId the ID of the quiz to delete
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean deleteQuiz(int quizId) throws SQLException {
+        String sqlAnswers = "DELETE FROM question_results " +
+                            "WHERE quiz_result_id IN (SELECT id FROM quiz_results WHERE quiz_id = ?)";
+        String sqlResults = "DELETE FROM quiz_results WHERE quiz_id = ?";
         String sql = "DELETE FROM quizzes WHERE id = ?";
         
         Connection conn = null;
@@ -431,24 +446,90 @@ public class QuizDAO {
         
         try {
             conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            // Results refer to the quiz without a cascade, so they go first
+            for (String sqlDependents : new String[] {sqlAnswers, sqlResults}) {
+                try (PreparedStatement stmtDependents = conn.prepareStatement(sqlDependents)) {
+                    stmtDependents.setInt(1, quizId);
+                    stmtDependents.executeUpdate();
+                }
+            }
+            
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, quizId);
             
             int affectedRows = stmt.executeUpdate();
+            conn.commit(); // Commit transaction
+            
+            // Results of a deleted quiz no longer appear in any history
+            ResultSummaryCache.shared().invalidateAll();
+            Leaderboard.shared().invalidate(quizId);
             return affectedRows > 0;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
         } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
             DatabaseUtil.closeQuietly(stmt, conn);
         }
     }
     
     /**
-     * Deletes a question from the database.
+     * Marks a quiz as deleted, so it no longer appears anywhere. Its rows stay in the
+     * database until {@link DeletionService} removes them with {@link #deleteQuiz(int)}.
+     *
+     * @param quizId the ID of the quiz to mark
+     * @return true if the quiz was marked, false if it does not exist or is already marked
+     * @throws SQLException if a database error occurs
+     */
+    public boolean markQuizDeleted(int quizId) throws SQLException {
+        String sql = "UPDATE quizzes SET deleted_at = strftime('%s', 'now') WHERE id = ? AND deleted_at IS NULL";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, quizId);
+            
+            int affectedRows = stmt.executeUpdate();
+            
+            ResultSummaryCache.shared().invalidateAll();
+            Leaderboard.shared().invalidate(quizId);
+            return affectedRows > 0;
+        } finally {
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+    }
+    
+    /**
+     * Deletes a question from the database with the answers given to it. Options and
+     * statistics are removed by cascade.
      *
      * @param questionId the ID of the question to delete
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean deleteQuestion(int questionId) throws SQLException {
+        // Found through the results of the question's quiz, which are indexed
+        String sqlAnswers = "DELETE FROM question_results WHERE question_id = ? AND quiz_result_id IN " +
+                            "(SELECT id FROM quiz_results " +
+                            "WHERE quiz_id = (SELECT quiz_id FROM questions WHERE id = ?))";
         String sql = "DELETE FROM questions WHERE id = ?";
         
         Connection conn = null;
@@ -456,12 +537,37 @@ public class QuizDAO {
         
         try {
             conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            try (PreparedStatement stmtAnswers = conn.prepareStatement(sqlAnswers)) {
+                stmtAnswers.setInt(1, questionId);
+                stmtAnswers.setInt(2, questionId);
+                stmtAnswers.executeUpdate();
+            }
+            
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, questionId);
             
             int affectedRows = stmt.executeUpdate();
+            conn.commit(); // Commit transaction
             return affectedRows > 0;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
         } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
             DatabaseUtil.closeQuietly(stmt, conn);
         }
     }
@@ -473,6 +579,7 @@ public class QuizDAO {
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean updateQuestion(Question question) throws SQLException {
         String sql = "UPDATE questions SET text = ?, points = ? WHERE id = ?";
         
@@ -502,6 +609,7 @@ public class QuizDAO {
      * @return the created question with ID set
      * @throws SQLException if a database error occurs
      */
+    @Override
     public Question addQuestionToQuiz(int quizId, Question question) throws SQLException {
         String sql = "INSERT INTO questions (quiz_id, text, points) VALUES (?, ?, ?)";
         
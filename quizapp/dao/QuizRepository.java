@@ -0,0 +1,96 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.Question;
+import com.quizapp.model.Quiz;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Storage of quizzes with their questions and options. {@link QuizDAO} keeps them in
+ * the database, {@link InMemoryQuizRepository} in memory; {@link Repositories#quizzes()}
+ * gets the one selected at startup.
+ */
+public interface QuizRepository {
+    
+    /**
+     * Creates a new quiz with its questions and options.
+     *
+     * @param quiz the quiz to create
+     * @return the created quiz with the IDs of the quiz, questions and options set
+     * @throws SQLException if a storage error occurs or the creator does not exist
+     */
+    Quiz createQuiz(Quiz quiz) throws SQLException;
+    
+    /**
+     * Gets a quiz by ID, with its questions and options.
+     *
+     * @param quizId the ID of the quiz to get
+     * @return the quiz, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    Quiz getQuizById(int quizId) throws SQLException;
+    
+    /**
+     * Gets all quizzes, ordered by ID.
+     *
+     * @return a list of all quizzes (without questions)
+     * @throws SQLException if a storage error occurs
+     */
+    List<Quiz> getAllQuizzes() throws SQLException;
+    
+    /**
+     * Gets all quizzes created by a user, ordered by ID.
+     *
+     * @param creatorId the ID of the creator
+     * @return a list of quizzes created by the user (without questions)
+     * @throws SQLException if a storage error occurs
+     */
+    List<Quiz> getQuizzesByCreator(int creatorId) throws SQLException;
+    
+    /**
+     * Updates a quiz's title, description and time limit.
+     *
+     * @param quiz the quiz to update
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateQuiz(Quiz quiz) throws SQLException;
+    
+    /**
+     * Deletes a quiz with its questions, options and results.
+     *
+     * @param quizId the ID of the quiz to delete
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    boolean deleteQuiz(int quizId) throws SQLException;
+    
+    /**
+     * Deletes a question with its options and the answers given to it.
+     *
+     * @param questionId the ID of the question to delete
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    boolean deleteQuestion(int questionId) throws SQLException;
+    
+    /**
+     * Updates a question's text and points. Options are not changed.
+     *
+     * @param question the question to update
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updateQuestion(Question question) throws SQLException;
+    
+    /**
+     * Adds a question with its options to a quiz.
+     *
+     * @param quizId the ID of the quiz
+     * @param question the question to add
+     * @return the created question with the IDs of the question and options set
+     * @throws SQLException if a storage error occurs or the quiz does not exist
+     */
+    Question addQuestionToQuiz(int quizId, Question question) throws SQLException;
+}
\ No newline at end of file
@@ -5,66 +5,105 @@ import com.quizapp.model.QuizResult.QuestionResult;
 import com.quizapp.util.DatabaseUtil;
 
 import java.sql.*;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Data Access Object for QuizResult operations.
  */
-public class QuizResultDAO {
+public class QuizResultDAO implements QuizResultRepository {
+    
+    private final QuizStatsDAO quizStatsDAO = new QuizStatsDAO();
     
     /**
      * Saves a quiz result to the database.
+     * <p>
+     * If the result has an attempt key that is already in the database, nothing is
+     * inserted and the ID of the saved copy is set instead.
      *
      * @param result the quiz result to save
      * @return the saved quiz result with ID set
      * @throws SQLException if a database error occurs
      */
+    @Override
     public QuizResult saveQuizResult(QuizResult result) throws SQLException {
-        String sqlResult = "INSERT INTO quiz_results (user_id, quiz_id, score, max_score, duration_seconds) " +
-                          "VALUES (?, ?, ?, ?, ?)";
-        
         Connection conn = null;
-        PreparedStatement stmtResult = null;
-        ResultSet rsResult = null;
         
         try {
             conn = DatabaseUtil.getConnection();
             conn.setAutoCommit(false); // Start transaction
             
-            // Insert quiz result
-            stmtResult = conn.prepareStatement(sqlResult, Statement.RETURN_GENERATED_KEYS);
-            stmtResult.setInt(1, result.getUserId());
-            stmtResult.setInt(2, result.getQuizId());
-            stmtResult.setInt(3, result.getScore());
-            stmtResult.setInt(4, result.getMaxScore());
-            stmtResult.setLong(5, result.getDurationInSeconds());
+            boolean inserted = insertQuizResult(conn, result, new HashMap<>());
             
-            int affectedRows = stmtResult.executeUpdate();
+            conn.commit(); // Commit transaction
             
-            if (affectedRows == 0) {
-                throw new SQLException("Saving quiz result failed, no rows affected.");
+            if (inserted) {
+                // Count the answers (written to the database in the background)
+                PickCounters.shared().record(result);
+                Leaderboard.shared().record(result);
             }
             
-            rsResult = stmtResult.getGeneratedKeys();
-            if (rsResult.next()) {
-                int resultId = rsResult.getInt(1);
-                result.setId(resultId);
-                
-                // Save question results
-                for (QuestionResult questionResult : result.getQuestionResults()) {
-                    questionResult.setQuizResultId(resultId);
-                    saveQuestionResult(conn, questionResult);
+            return result;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
                 }
-                
-                conn.commit(); // Commit transaction
-            } else {
-                conn.rollback(); // Rollback if we didn't get an ID
-                throw new SQLException("Saving quiz result failed, no ID obtained.");
             }
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    /**
+     * Saves several quiz results in one transaction, e.g. when uploading results that
+     * were kept offline. Results whose attempt key is already in the database are
+     * skipped, so a batch can safely be sent again after a failed upload.
+     *
+     * @param results the quiz results to save
+     * @return the number of results inserted (the others were already saved)
+     * @throws SQLException if a database error occurs; nothing of the batch is saved then
+     */
+    @Override
+    public int saveQuizResults(List<QuizResult> results) throws SQLException {
+        List<QuizResult> inserted = new ArrayList<>();
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
             
-            return result;
+            // Results of the same quiz share one option lookup
+            Map<Integer, Map<Integer, int[]>> optionIdsByQuiz = new HashMap<>();
+            for (QuizResult result : results) {
+                if (insertQuizResult(conn, result, optionIdsByQuiz)) {
+                    inserted.add(result);
+                }
+            }
+            
+            conn.commit(); // Commit transaction
+            
+            for (QuizResult result : inserted) {
+                PickCounters.shared().record(result);
+                Leaderboard.shared().record(result);
+            }
+            
+            return inserted.size();
         } catch (SQLException e) {
             if (conn != null) {
                 try {
@@ -82,121 +121,220 @@ public class QuizResultDAO {
                     e.printStackTrace();
                 }
             }
-            DatabaseUtil.closeQuietly(rsResult, stmtResult, conn);
+            DatabaseUtil.closeQuietly(conn);
         }
     }
     
     /**
-     * Saves a question result to the database.
+     * Inserts a quiz result with its question results and updates the quiz statistics,
+     * within the caller's transaction.
      *
      * @param conn the database connection
-     * @param questionResult the question result to save
-     * @return the saved question result with ID set
+     * @param result the quiz result; its ID is set
+     * @param optionIdsByQuiz option IDs already read, by quiz ID; filled as needed
+     * @return true if the result was inserted, false if its attempt key was already saved
      * @throws SQLException if a database error occurs
      */
-    private QuestionResult saveQuestionResult(Connection conn, QuestionResult questionResult) throws SQLException {
-        String sqlQuestionResult = "INSERT INTO question_results (quiz_result_id, question_id, is_correct) " +
-                                  "VALUES (?, ?, ?)";
+    private boolean insertQuizResult(Connection conn, QuizResult result,
+                                     Map<Integer, Map<Integer, int[]>> optionIdsByQuiz) throws SQLException {
+        String sqlExisting = "SELECT id FROM quiz_results WHERE attempt_key = ?";
+        String sqlResult = "INSERT INTO quiz_results (user_id, quiz_id, score, max_score, duration_seconds, " +
+                          "completed_at, attempt_key) " +
+                          "VALUES (?, ?, ?, ?, ?, COALESCE(?, CAST(strftime('%s', 'now') AS INTEGER)), ?)";
         
-        PreparedStatement stmtQuestionResult = null;
-        ResultSet rsQuestionResult = null;
+        PreparedStatement stmtResult = null;
+        ResultSet rsResult = null;
         
         try {
-            // Insert question result
-            stmtQuestionResult = conn.prepareStatement(sqlQuestionResult, Statement.RETURN_GENERATED_KEYS);
-            stmtQuestionResult.setInt(1, questionResult.getQuizResultId());
-            stmtQuestionResult.setInt(2, questionResult.getQuestionId());
-            stmtQuestionResult.setInt(3, questionResult.isCorrect() ? 1 : 0);
+            if (result.getAttemptKey() != null) {
+                stmtResult = conn.prepareStatement(sqlExisting);
+                stmtResult.setString(1, result.getAttemptKey());
+                rsResult = stmtResult.executeQuery();
+                if (rsResult.next()) {
+                    result.setId(rsResult.getInt(1));
+                    return false; // Already uploaded
+                }
+                DatabaseUtil.closeQuietly(rsResult, stmtResult);
+            }
             
-            int affectedRows = stmtQuestionResult.executeUpdate();
+            // Insert quiz result
+            stmtResult = conn.prepareStatement(sqlResult, Statement.RETURN_GENERATED_KEYS);
+            stmtResult.setInt(1, result.getUserId());
+            stmtResult.setInt(2, result.getQuizId());
+            stmtResult.setInt(3, result.getScore());
+            stmtResult.setInt(4, result.getMaxScore());
+            stmtResult.setLong(5, result.getDurationInSeconds());
+            if (result.getCompletedAt() != null) {
+                stmtResult.setLong(6, toEpochSeconds(result.getCompletedAt()));
+            } else {
+                stmtResult.setNull(6, Types.INTEGER);
+            }
+            stmtResult.setString(7, result.getAttemptKey());
+            
+            int affectedRows = stmtResult.executeUpdate();
             
             if (affectedRows == 0) {
-                throw new SQLException("Saving question result failed, no rows affected.");
+                throw new SQLException("Saving quiz result failed, no rows affected.");
             }
             
-            rsQuestionResult = stmtQuestionResult.getGeneratedKeys();
-            if (rsQuestionResult.next()) {
-                int questionResultId = rsQuestionResult.getInt(1);
-                questionResult.setId(questionResultId);
+            rsResult = stmtResult.getGeneratedKeys();
+            if (!rsResult.next()) {
+                throw new SQLException("Saving quiz result failed, no ID obtained.");
+            }
+            result.setId(rsResult.getInt(1));
+            
+            // Save question results
+            Map<Integer, int[]> optionIdsByQuestion = optionIdsByQuiz.get(result.getQuizId());
+            if (optionIdsByQuestion == null) {
+                optionIdsByQuestion = getOptionIdsByQuiz(conn, result.getQuizId());
+                optionIdsByQuiz.put(result.getQuizId(), optionIdsByQuestion);
+            }
+            saveQuestionResults(conn, result, optionIdsByQuestion);
+            
+            // Keep the quiz statistics in step with the results
+            quizStatsDAO.recordResult(conn, result);
+            
+            return true;
+        } finally {
+            DatabaseUtil.closeQuietly(rsResult, stmtResult);
+        }
+    }
+    
+    /**
+     * Saves the question results of a quiz result in one batch.
+     * The selected options of each question are stored as a {@link SelectionMask}.
+     *
+     * @param conn the database connection
+     * @param result the saved quiz result
+     * @param optionIdsByQuestion the option IDs of the quiz's questions
+     * @throws SQLException if a database error occurs
+     */
+    private void saveQuestionResults(Connection conn, QuizResult result, Map<Integer, int[]> optionIdsByQuestion)
+            throws SQLException {
+        String sqlQuestionResult = "INSERT INTO question_results (quiz_result_id, question_id, is_correct, selected_mask) " +
+                                  "VALUES (?, ?, ?, ?)";
+        
+        PreparedStatement stmtQuestionResult = null;
+        
+        try {
+            stmtQuestionResult = conn.prepareStatement(sqlQuestionResult);
+            
+            for (QuestionResult questionResult : result.getQuestionResults()) {
+                questionResult.setQuizResultId(result.getId());
                 
-                // Save selected options
-                if (questionResult.getSelectedOptionIds() != null && !questionResult.getSelectedOptionIds().isEmpty()) {
-                    for (Integer optionId : questionResult.getSelectedOptionIds()) {
-                        saveSelectedOption(conn, questionResultId, optionId);
-                    }
-                }
-            } else {
-                throw new SQLException("Saving question result failed, no ID obtained.");
+                int[] questionOptionIds = SelectionMask.optionIdsOf(optionIdsByQuestion, questionResult.getQuestionId());
+                
+                stmtQuestionResult.setInt(1, questionResult.getQuizResultId());
+                stmtQuestionResult.setInt(2, questionResult.getQuestionId());
+                stmtQuestionResult.setInt(3, questionResult.isCorrect() ? 1 : 0);
+                stmtQuestionResult.setBytes(4, SelectionMask.encode(questionResult.getSelectedOptionIds(), questionOptionIds));
+                stmtQuestionResult.addBatch();
             }
             
-            return questionResult;
+            int[] affectedRows = stmtQuestionResult.executeBatch();
+            
+            if (affectedRows.length != result.getQuestionResults().size()) {
+                throw new SQLException("Saving question results failed, not all rows were inserted.");
+            }
         } finally {
-            DatabaseUtil.closeQuietly(rsQuestionResult, stmtQuestionResult);
+            DatabaseUtil.closeQuietly(stmtQuestionResult);
         }
     }
     
     /**
-     * Saves a selected option to the database.
+     * Gets the option IDs of every question in a quiz, in the order used by {@link SelectionMask}.
      *
      * @param conn the database connection
-     * @param questionResultId the ID of the question result
-     * @param optionId the ID of the selected option
+     * @param quizId the ID of the quiz
+     * @return the option IDs by question ID
      * @throws SQLException if a database error occurs
      */
-    private void saveSelectedOption(Connection conn, int questionResultId, int optionId) throws SQLException {
-        String sqlSelectedOption = "INSERT INTO selected_options (question_result_id, option_id) VALUES (?, ?)";
+    private Map<Integer, int[]> getOptionIdsByQuiz(Connection conn, int quizId) throws SQLException {
+        String sql = "SELECT o.question_id, o.id FROM options o JOIN questions q ON o.question_id = q.id " +
+                     "WHERE q.quiz_id = ? ORDER BY o.question_id, o.id";
         
-        PreparedStatement stmtSelectedOption = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
         
         try {
-            stmtSelectedOption = conn.prepareStatement(sqlSelectedOption);
-            stmtSelectedOption.setInt(1, questionResultId);
-            stmtSelectedOption.setInt(2, optionId);
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, quizId);
             
-            stmtSelectedOption.executeUpdate();
+            rs = stmt.executeQuery();
+            return SelectionMask.readOptionIds(rs);
         } finally {
-            DatabaseUtil.closeQuietly(stmtSelectedOption);
+            DatabaseUtil.closeQuietly(rs, stmt);
         }
     }
     
     /**
-     * Gets all quiz results for a user.
+     * Gets all quiz results for a user, including archived ones.
      *
      * @param userId the ID of the user
      * @return a list of quiz results
      * @throws SQLException if a database error occurs
      */
+    @Override
     public List<QuizResult> getQuizResultsByUser(int userId) throws SQLException {
-        String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
-                     "qr.duration_seconds, qr.completed_at FROM quiz_results qr " +
-                     "JOIN quizzes q ON qr.quiz_id = q.id WHERE qr.user_id = ? ORDER BY qr.completed_at DESC";
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
         
+        try {
+            conn = DatabaseUtil.getConnection();
+            String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
+                         "qr.duration_seconds, qr.completed_at FROM " + historyResults(conn) + " qr " +
+                         "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                         "WHERE qr.user_id = ? ORDER BY qr.completed_at DESC";
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, userId);
+            
+            rs = stmt.executeQuery();
+            
+            List<QuizResult> results = new ArrayList<>();
+            
+            while (rs.next()) {
+                results.add(readQuizResult(rs));
+            }
+            
+            return results;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Gets the quiz results of a user with an ID above the given one, oldest first,
+     * including archived ones. The ID range is read through the primary key, so this
+     * costs only the new rows.
+     *
+     * @param userId the ID of the user
+     * @param afterResultId only results with a larger ID are returned (0 for all)
+     * @return a list of quiz results
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public List<QuizResult> getQuizResultsByUserAfter(int userId, int afterResultId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
         try {
             conn = DatabaseUtil.getConnection();
+            String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
+                         "qr.duration_seconds, qr.completed_at FROM " + historyResults(conn) + " qr " +
+                         "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                         "WHERE qr.user_id = ? AND qr.id > ? ORDER BY qr.id";
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, userId);
+            stmt.setInt(2, afterResultId);
             
             rs = stmt.executeQuery();
             
             List<QuizResult> results = new ArrayList<>();
             
             while (rs.next()) {
-                QuizResult result = new QuizResult(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getInt("quiz_id"),
-                    rs.getString("quiz_title"),
-                    rs.getInt("score"),
-                    rs.getInt("max_score"),
-                    rs.getTimestamp("completed_at").toLocalDateTime(),
-                    rs.getLong("duration_seconds")
-                );
-                
-                results.add(result);
+                results.add(readQuizResult(rs));
             }
             
             return results;
@@ -212,11 +350,12 @@ public class QuizResultDAO {
      * @return a list of quiz results
      * @throws SQLException if a database error occurs
      */
+    @Override
     public List<QuizResult> getQuizResultsByQuiz(int quizId) throws SQLException {
         String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
                      "qr.duration_seconds, qr.completed_at, u.username FROM quiz_results qr " +
-                     "JOIN quizzes q ON qr.quiz_id = q.id " + 
-                     "JOIN users u ON qr.user_id = u.id " +
+                     "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                     "JOIN users u ON qr.user_id = u.id AND u.deleted_at IS NULL " +
                      "WHERE qr.quiz_id = ? ORDER BY qr.score DESC, qr.duration_seconds ASC";
         
         Connection conn = null;
@@ -233,18 +372,7 @@ public class QuizResultDAO {
             List<QuizResult> results = new ArrayList<>();
             
             while (rs.next()) {
-                QuizResult result = new QuizResult(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getInt("quiz_id"),
-                    rs.getString("quiz_title"),
-                    rs.getInt("score"),
-                    rs.getInt("max_score"),
-                    rs.getTimestamp("completed_at").toLocalDateTime(),
-                    rs.getLong("duration_seconds")
-                );
-                
-                results.add(result);
+                results.add(readQuizResult(rs));
             }
             
             return results;
@@ -254,39 +382,119 @@ public class QuizResultDAO {
     }
     
     /**
-     * Gets a quiz result by ID with all its question results.
+     * Gets the results of a quiz completed in a time window, oldest first.
+     * Only the window's range of the (quiz, completion time) index is read.
      *
-     * @param resultId the ID of the quiz result
-     * @return the quiz result, or null if not found
+     * @param quizId the ID of the quiz
+     * @param from the start of the window (inclusive)
+     * @param to the end of the window (exclusive)
+     * @return a list of quiz results
      * @throws SQLException if a database error occurs
      */
-    public QuizResult getQuizResultById(int resultId) throws SQLException {
+    @Override
+    public List<QuizResult> getQuizResultsByQuizBetween(int quizId, LocalDateTime from, LocalDateTime to)
+            throws SQLException {
+        String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
+                     "qr.duration_seconds, qr.completed_at FROM quiz_results qr " +
+                     "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                     "JOIN users u ON qr.user_id = u.id AND u.deleted_at IS NULL " +
+                     "WHERE qr.quiz_id = ? AND qr.completed_at >= ? AND qr.completed_at < ? " +
+                     "ORDER BY qr.completed_at";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, quizId);
+            stmt.setLong(2, toEpochSeconds(from));
+            stmt.setLong(3, toEpochSeconds(to));
+            
+            rs = stmt.executeQuery();
+            
+            List<QuizResult> results = new ArrayList<>();
+            
+            while (rs.next()) {
+                results.add(readQuizResult(rs));
+            }
+            
+            return results;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Gets the results of all quizzes completed in a time window, oldest first,
+     * e.g. for a report over a term. Only the window's range of the completion time
+     * index is read.
+     *
+     * @param from the start of the window (inclusive)
+     * @param to the end of the window (exclusive)
+     * @return a list of quiz results
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public List<QuizResult> getQuizResultsBetween(LocalDateTime from, LocalDateTime to) throws SQLException {
         String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
                      "qr.duration_seconds, qr.completed_at FROM quiz_results qr " +
-                     "JOIN quizzes q ON qr.quiz_id = q.id WHERE qr.id = ?";
+                     "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                     "JOIN users u ON qr.user_id = u.id AND u.deleted_at IS NULL " +
+                     "WHERE qr.completed_at >= ? AND qr.completed_at < ? ORDER BY qr.completed_at";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
         
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql);
+            stmt.setLong(1, toEpochSeconds(from));
+            stmt.setLong(2, toEpochSeconds(to));
+            
+            rs = stmt.executeQuery();
+            
+            List<QuizResult> results = new ArrayList<>();
+            
+            while (rs.next()) {
+                results.add(readQuizResult(rs));
+            }
+            
+            return results;
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Gets a quiz result by ID with all its question results, whether it is archived
+     * or not.
+     *
+     * @param resultId the ID of the quiz result
+     * @return the quiz result, or null if not found
+     * @throws SQLException if a database error occurs
+     */
+    @Override
+    public QuizResult getQuizResultById(int resultId) throws SQLException {
         Connection conn = null;
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
         try {
             conn = DatabaseUtil.getConnection();
+            String sql = "SELECT qr.id, qr.user_id, qr.quiz_id, q.title AS quiz_title, qr.score, qr.max_score, " +
+                         "qr.duration_seconds, qr.completed_at FROM " + historyResults(conn) + " qr " +
+                         "JOIN quizzes q ON qr.quiz_id = q.id AND q.deleted_at IS NULL " +
+                         "WHERE qr.id = ?";
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, resultId);
             
             rs = stmt.executeQuery();
             
             if (rs.next()) {
-                QuizResult result = new QuizResult(
-                    rs.getInt("id"),
-                    rs.getInt("user_id"),
-                    rs.getInt("quiz_id"),
-                    rs.getString("quiz_title"),
-                    rs.getInt("score"),
-                    rs.getInt("max_score"),
-                    rs.getTimestamp("completed_at").toLocalDateTime(),
-                    rs.getLong("duration_seconds")
-                );
+                QuizResult result = readQuizResult(rs);
                 
                 // Get question results for this quiz result
                 List<QuestionResult> questionResults = getQuestionResults(conn, resultId);
@@ -301,6 +509,55 @@ public class QuizResultDAO {
         }
     }
     
+    /**
+     * Gets the table a user's history is read from: {@code quiz_results}, or its union
+     * with the archived results if results have been archived. Conditions on the union
+     * are applied to both tables, so each is searched through its own indexes.
+     */
+    private static String historyResults(Connection conn) throws SQLException {
+        ResultArchiver.attachArchive(conn);
+        return ResultArchiver.allResults(conn);
+    }
+    
+    /**
+     * Gets the question results table matching {@link #historyResults(Connection)}.
+     */
+    private static String historyQuestionResults(Connection conn) throws SQLException {
+        ResultArchiver.attachArchive(conn);
+        return ResultArchiver.allAnswers(conn);
+    }
+    
+    /**
+     * Reads the quiz result at the current row of a result set selecting the columns
+     * used above.
+     */
+    private QuizResult readQuizResult(ResultSet rs) throws SQLException {
+        return new QuizResult(
+            rs.getInt("id"),
+            rs.getInt("user_id"),
+            rs.getInt("quiz_id"),
+            rs.getString("quiz_title"),
+            rs.getInt("score"),
+            rs.getInt("max_score"),
+            toLocalDateTime(rs.getLong("completed_at")),
+            rs.getLong("duration_seconds")
+        );
+    }
+    
+    /**
+     * Converts a stored completion time (Unix time in seconds) to local time.
+     */
+    static LocalDateTime toLocalDateTime(long epochSeconds) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds), ZoneId.systemDefault());
+    }
+    
+    /**
+     * Converts a local time to the stored form of a completion time.
+     */
+    static long toEpochSeconds(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+    
     /**
      * Gets all question results for a quiz result.
      *
@@ -311,8 +568,10 @@ public class QuizResultDAO {
      */
     private List<QuestionResult> getQuestionResults(Connection conn, int quizResultId) throws SQLException {
         String sql = "SELECT qr.id, qr.quiz_result_id, qr.question_id, q.text AS question_text, " +
-                     "qr.is_correct, q.points FROM question_results qr " +
-                     "JOIN questions q ON qr.question_id = q.id WHERE qr.quiz_result_id = ?";
+                     "qr.is_correct, qr.selected_mask, q.points FROM " + historyQuestionResults(conn) + " qr " +
+                     "JOIN questions q ON qr.question_id = q.id WHERE qr.quiz_result_id = ? ORDER BY qr.id";
+        
+        Map<Integer, int[]> optionIdsByQuestion = getOptionIdsByQuizResult(conn, quizResultId);
         
         PreparedStatement stmt = null;
         ResultSet rs = null;
@@ -326,15 +585,16 @@ public class QuizResultDAO {
             List<QuestionResult> questionResults = new ArrayList<>();
             
             while (rs.next()) {
-                int questionResultId = rs.getInt("id");
+                int questionId = rs.getInt("question_id");
                 
-                // Get selected options for this question result
-                List<Integer> selectedOptionIds = getSelectedOptions(conn, questionResultId);
+                // Decode the selected options for this question result
+                int[] selectedOptionIds = SelectionMask.decode(rs.getBytes("selected_mask"),
+                        SelectionMask.optionIdsOf(optionIdsByQuestion, questionId));
                 
                 QuestionResult questionResult = new QuestionResult(
-                    questionResultId,
+                    rs.getInt("id"),
                     rs.getInt("quiz_result_id"),
-                    rs.getInt("question_id"),
+                    questionId,
                     rs.getString("question_text"),
                     rs.getInt("is_correct") == 1,
                     selectedOptionIds,
@@ -351,32 +611,28 @@ public class QuizResultDAO {
     }
     
     /**
-     * Gets all selected option IDs for a question result.
+     * Gets the option IDs of every question answered in a quiz result.
      *
      * @param conn the database connection
-     * @param questionResultId the ID of the question result
-     * @return a list of selected option IDs
+     * @param quizResultId the ID of the quiz result
+     * @return the option IDs by question ID
      * @throws SQLException if a database error occurs
      */
-    private List<Integer> getSelectedOptions(Connection conn, int questionResultId) throws SQLException {
-        String sql = "SELECT option_id FROM selected_options WHERE question_result_id = ?";
+    private Map<Integer, int[]> getOptionIdsByQuizResult(Connection conn, int quizResultId) throws SQLException {
+        String sql = "SELECT o.question_id, o.id FROM options o " +
+                     "WHERE o.question_id IN (SELECT question_id FROM " + historyQuestionResults(conn) +
+                     " qr WHERE qr.quiz_result_id = ?) " +
+                     "ORDER BY o.question_id, o.id";
         
         PreparedStatement stmt = null;
         ResultSet rs = null;
         
         try {
             stmt = conn.prepareStatement(sql);
-            stmt.setInt(1, questionResultId);
+            stmt.setInt(1, quizResultId);
             
             rs = stmt.executeQuery();
-            
-            List<Integer> selectedOptionIds = new ArrayList<>();
-            
-            while (rs.next()) {
-                selectedOptionIds.add(rs.getInt("option_id"));
-            }
-            
-            return selectedOptionIds;
+            return SelectionMask.readOptionIds(rs);
         } finally {
             DatabaseUtil.closeQuietly(rs, stmt);
         }
@@ -0,0 +1,95 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.QuizResult;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Storage of quiz results with the answers given. {@link QuizResultDAO} keeps them in
+ * the database, {@link InMemoryQuizResultRepository} in memory;
+ * {@link Repositories#results()} gets the one selected at startup.
+ */
+public interface QuizResultRepository {
+    
+    /**
+     * Saves a quiz result with its question results. If the result has an attempt key
+     * that is already saved, nothing is inserted and the ID of the saved copy is set
+     * instead.
+     *
+     * @param result the quiz result to save
+     * @return the saved quiz result with ID set
+     * @throws SQLException if a storage error occurs or the user or quiz does not exist
+     */
+    QuizResult saveQuizResult(QuizResult result) throws SQLException;
+    
+    /**
+     * Saves several quiz results at once, skipping those whose attempt key is already
+     * saved. Either all or none of them are saved.
+     *
+     * @param results the quiz results to save
+     * @return the number of results inserted (the others were already saved)
+     * @throws SQLException if a storage error occurs
+     */
+    int saveQuizResults(List<QuizResult> results) throws SQLException;
+    
+    /**
+     * Gets all quiz results of a user, newest first.
+     *
+     * @param userId the ID of the user
+     * @return a list of quiz results
+     * @throws SQLException if a storage error occurs
+     */
+    List<QuizResult> getQuizResultsByUser(int userId) throws SQLException;
+    
+    /**
+     * Gets the quiz results of a user with an ID above the given one, oldest first.
+     *
+     * @param userId the ID of the user
+     * @param afterResultId only results with a larger ID are returned (0 for all)
+     * @return a list of quiz results
+     * @throws SQLException if a storage error occurs
+     */
+    List<QuizResult> getQuizResultsByUserAfter(int userId, int afterResultId) throws SQLException;
+    
+    /**
+     * Gets all quiz results of a quiz, best score first, faster first among equal scores.
+     *
+     * @param quizId the ID of the quiz
+     * @return a list of quiz results
+     * @throws SQLException if a storage error occurs
+     */
+    List<QuizResult> getQuizResultsByQuiz(int quizId) throws SQLException;
+    
+    /**
+     * Gets the results of a quiz completed in a time window, oldest first.
+     *
+     * @param quizId the ID of the quiz
+     * @param from the start of the window (inclusive)
+     * @param to the end of the window (exclusive)
+     * @return a list of quiz results
+     * @throws SQLException if a storage error occurs
+     */
+    List<QuizResult> getQuizResultsByQuizBetween(int quizId, LocalDateTime from, LocalDateTime to)
+            throws SQLException;
+    
+    /**
+     * Gets the results of all quizzes completed in a time window, oldest first.
+     *
+     * @param from the start of the window (inclusive)
+     * @param to the end of the window (exclusive)
+     * @return a list of quiz results
+     * @throws SQLException if a storage error occurs
+     */
+    List<QuizResult> getQuizResultsBetween(LocalDateTime from, LocalDateTime to) throws SQLException;
+    
+    /**
+     * Gets a quiz result by ID, with its question results.
+     *
+     * @param resultId the ID of the quiz result
+     * @return the quiz result, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    QuizResult getQuizResultById(int resultId) throws SQLException;
+}
\ No newline at end of file
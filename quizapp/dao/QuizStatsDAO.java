@@ -0,0 +1,410 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.DurationHistogram;
+import com.quizapp.model.QuizResult;
+import com.quizapp.model.QuizStats;
+import com.quizapp.util.DatabaseUtil;
+
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data Access Object for the per-quiz statistics kept in {@code quiz_stats},
+ * {@code quiz_score_buckets} and {@code quiz_duration_buckets}.
+ * <p>
+ * The statistics are updated in the same transaction that saves each quiz result, so
+ * reading them never has to scan {@code quiz_results}, and in the same transaction that
+ * deletes results through {@link #removeResults(Connection, String, String)}. If they
+ * ever get out of step (for example after results were edited by hand),
+ * {@link #rebuildStats()} recomputes them from scratch, archived results included.
+ */
+public class QuizStatsDAO {
+    
+    private static final String PERCENTAGE_SQL =
+            "CASE WHEN max_score > 0 THEN score * 100.0 / max_score ELSE 0 END";
+    
+    // Must match QuizStats.bucketOf
+    private static final String BUCKET_SQL =
+            "CASE WHEN max_score > 0 THEN MAX(0, MIN(100, score * 100 / max_score)) ELSE 0 END";
+    
+    /**
+     * Adds a newly saved result to the statistics of its quiz.
+     * Must be called inside the transaction that saves the result.
+     *
+     * @param conn the connection of the saving transaction
+     * @param result the saved result
+     * @throws SQLException if a database error occurs
+     */
+    void recordResult(Connection conn, QuizResult result) throws SQLException {
+        String sqlStats = "INSERT INTO quiz_stats (quiz_id, attempt_count, score_sum, score_square_sum, " +
+                          "lowest_score, highest_score, percentage_sum, percentage_square_sum) " +
+                          "VALUES (?, 1, ?, ?, ?, ?, ?, ?) " +
+                          "ON CONFLICT (quiz_id) DO UPDATE SET " +
+                          "attempt_count = attempt_count + 1, " +
+                          "score_sum = score_sum + excluded.score_sum, " +
+                          "score_square_sum = score_square_sum + excluded.score_square_sum, " +
+                          "lowest_score = MIN(lowest_score, excluded.lowest_score), " +
+                          "highest_score = MAX(highest_score, excluded.highest_score), " +
+                          "percentage_sum = percentage_sum + excluded.percentage_sum, " +
+                          "percentage_square_sum = percentage_square_sum + excluded.percentage_square_sum";
+        String sqlBucket = "INSERT INTO quiz_score_buckets (quiz_id, bucket, attempt_count) VALUES (?, ?, 1) " +
+                           "ON CONFLICT (quiz_id, bucket) DO UPDATE SET attempt_count = attempt_count + 1";
+        String sqlDuration = "INSERT INTO quiz_duration_buckets (quiz_id, bucket, attempt_count) VALUES (?, ?, 1) " +
+                             "ON CONFLICT (quiz_id, bucket) DO UPDATE SET attempt_count = attempt_count + 1";
+        
+        long score = result.getScore();
+        double percentage = result.getMaxScore() > 0 ? score * 100.0 / result.getMaxScore() : 0;
+        
+        try (PreparedStatement stmtStats = conn.prepareStatement(sqlStats);
+             PreparedStatement stmtBucket = conn.prepareStatement(sqlBucket);
+             PreparedStatement stmtDuration = conn.prepareStatement(sqlDuration)) {
+            
+            stmtStats.setInt(1, result.getQuizId());
+            stmtStats.setLong(2, score);
+            stmtStats.setLong(3, score * score);
+            stmtStats.setLong(4, score);
+            stmtStats.setLong(5, score);
+            stmtStats.setDouble(6, percentage);
+            stmtStats.setDouble(7, percentage * percentage);
+            stmtStats.executeUpdate();
+            
+            stmtBucket.setInt(1, result.getQuizId());
+            stmtBucket.setInt(2, QuizStats.bucketOf(result.getScore(), result.getMaxScore()));
+            stmtBucket.executeUpdate();
+            
+            stmtDuration.setInt(1, result.getQuizId());
+            stmtDuration.setInt(2, DurationHistogram.bucketOf(result.getDurationInSeconds()));
+            stmtDuration.executeUpdate();
+        }
+    }
+    
+    /**
+     * Gets the statistics of a quiz. Reads one summary row and at most
+     * {@link QuizStats#BUCKET_COUNT} score and {@link DurationHistogram#BUCKET_COUNT}
+     * duration bucket rows, however many attempts there are.
+     *
+     * @param quizId the ID of the quiz
+     * @return the statistics (empty if the quiz has no attempts)
+     * @throws SQLException if a database error occurs
+     */
+    public QuizStats getQuizStats(int quizId) throws SQLException {
+        String sqlStats = "SELECT attempt_count, score_sum, score_square_sum, lowest_score, highest_score, " +
+                          "percentage_sum, percentage_square_sum FROM quiz_stats WHERE quiz_id = ?";
+        String sqlBuckets = "SELECT bucket, attempt_count FROM quiz_score_buckets WHERE quiz_id = ?";
+        String sqlDurations = "SELECT bucket, attempt_count FROM quiz_duration_buckets WHERE quiz_id = ?";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sqlStats);
+            stmt.setInt(1, quizId);
+            
+            rs = stmt.executeQuery();
+            if (!rs.next()) {
+                return QuizStats.empty(quizId);
+            }
+            
+            long attemptCount = rs.getLong("attempt_count");
+            long scoreSum = rs.getLong("score_sum");
+            long scoreSquareSum = rs.getLong("score_square_sum");
+            int lowestScore = rs.getInt("lowest_score");
+            int highestScore = rs.getInt("highest_score");
+            double percentageSum = rs.getDouble("percentage_sum");
+            double percentageSquareSum = rs.getDouble("percentage_square_sum");
+            DatabaseUtil.closeQuietly(rs, stmt);
+            
+            long[] buckets = new long[QuizStats.BUCKET_COUNT];
+            stmt = conn.prepareStatement(sqlBuckets);
+            stmt.setInt(1, quizId);
+            
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                int bucket = rs.getInt("bucket");
+                if (bucket >= 0 && bucket < buckets.length) {
+                    buckets[bucket] = rs.getLong("attempt_count");
+                }
+            }
+            DatabaseUtil.closeQuietly(rs, stmt);
+            
+            DurationHistogram durations = new DurationHistogram();
+            stmt = conn.prepareStatement(sqlDurations);
+            stmt.setInt(1, quizId);
+            
+            rs = stmt.executeQuery();
+            while (rs.next()) {
+                int bucket = rs.getInt("bucket");
+                if (bucket >= 0 && bucket < DurationHistogram.BUCKET_COUNT) {
+                    durations.addToBucket(bucket, rs.getLong("attempt_count"));
+                }
+            }
+            
+            return new QuizStats(quizId, attemptCount, scoreSum, scoreSquareSum, lowestScore, highestScore,
+                    percentageSum, percentageSquareSum, buckets, durations);
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    /**
+     * Recomputes the statistics of every quiz, and the option and question counters,
+     * from the saved results, live and archived.
+     *
+     * @return the number of quizzes that have statistics afterwards
+     * @throws SQLException if a database error occurs
+     */
+    public int rebuildStats() throws SQLException {
+        Connection conn = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            ResultArchiver.attachArchive(conn); // Attaching is not possible inside a transaction
+            conn.setAutoCommit(false); // Start transaction
+            
+            int quizCount = rebuildStats(conn);
+            PickCounters.rebuildCounters(conn);
+            
+            conn.commit(); // Commit transaction
+            return quizCount;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(conn);
+        }
+    }
+    
+    /**
+     * Recomputes the statistics of every quiz on the given connection, without
+     * managing the transaction. Archived results are counted if the archive is attached.
+     */
+    static int rebuildStats(Connection conn) throws SQLException {
+        String results = ResultArchiver.allResults(conn);
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM quiz_score_buckets");
+            stmt.executeUpdate("DELETE FROM quiz_stats");
+            int quizCount = rebuild(stmt, results, "");
+            
+            stmt.executeUpdate("DELETE FROM quiz_duration_buckets");
+            rebuildDurations(conn, results, "");
+            return quizCount;
+        }
+    }
+    
+    /**
+     * Recomputes the duration histograms of every quiz on the given connection, without
+     * managing the transaction. Archived results are counted if the archive is attached.
+     */
+    static void rebuildDurations(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM quiz_duration_buckets");
+        }
+        rebuildDurations(conn, ResultArchiver.allResults(conn), "");
+    }
+    
+    /**
+     * Recomputes the statistics of one quiz on the given connection, e.g. after some of
+     * its results were removed. Archived results are counted if the archive is attached.
+     */
+    static void rebuildQuizStats(Connection conn, int quizId) throws SQLException {
+        String results = ResultArchiver.allResults(conn);
+        String whereClause = " WHERE quiz_id = " + quizId;
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM quiz_score_buckets WHERE quiz_id = " + quizId);
+            stmt.executeUpdate("DELETE FROM quiz_stats WHERE quiz_id = " + quizId);
+            rebuild(stmt, results, whereClause);
+            
+            stmt.executeUpdate("DELETE FROM quiz_duration_buckets WHERE quiz_id = " + quizId);
+            rebuildDurations(conn, results, whereClause);
+        }
+    }
+    
+    /**
+     * Takes results that are about to be deleted out of the statistics of their quizzes,
+     * the option and question counters and the item analysis. Must be called inside the
+     * deleting transaction, before the results and their answers are deleted.
+     *
+     * @param conn the connection of the deleting transaction
+     * @param schema the database the results are in: {@code main} or the archive
+     * @param resultIds a query selecting the IDs of the results
+     * @throws SQLException if a database error occurs
+     */
+    static void removeResults(Connection conn, String schema, String resultIds) throws SQLException {
+        String removed = " FROM " + schema + ".quiz_results WHERE id IN (" + resultIds + ")";
+        String sqlStats = "UPDATE quiz_stats SET attempt_count = attempt_count - ?, score_sum = score_sum - ?, " +
+                          "score_square_sum = score_square_sum - ?, percentage_sum = percentage_sum - ?, " +
+                          "percentage_square_sum = percentage_square_sum - ? WHERE quiz_id = ?";
+        // Only a removed lowest or highest score needs a look at the remaining results
+        String sqlExtremes = "UPDATE quiz_stats SET (lowest_score, highest_score) = " +
+                             "(SELECT MIN(score), MAX(score) FROM " + ResultArchiver.allResults(conn) + " " +
+                             "WHERE quiz_id = ? AND id NOT IN (" + resultIds + ")) " +
+                             "WHERE quiz_id = ? AND (lowest_score >= ? OR highest_score <= ?)";
+        String sqlBucket = "UPDATE quiz_score_buckets SET attempt_count = attempt_count - ? " +
+                           "WHERE quiz_id = ? AND bucket = ?";
+        String sqlDuration = "UPDATE quiz_duration_buckets SET attempt_count = attempt_count - ? " +
+                             "WHERE quiz_id = ? AND bucket = ?";
+        
+        List<Integer> quizIds = new ArrayList<>();
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement stmtStats = conn.prepareStatement(sqlStats);
+             PreparedStatement stmtExtremes = conn.prepareStatement(sqlExtremes)) {
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT quiz_id, COUNT(*), SUM(score), SUM(score * score), MIN(score), MAX(score), " +
+                    "SUM(" + PERCENTAGE_SQL + "), SUM((" + PERCENTAGE_SQL + ") * (" + PERCENTAGE_SQL + "))" +
+                    removed + " GROUP BY quiz_id")) {
+                while (rs.next()) {
+                    int quizId = rs.getInt(1);
+                    quizIds.add(quizId);
+                    
+                    stmtStats.setLong(1, rs.getLong(2));
+                    stmtStats.setLong(2, rs.getLong(3));
+                    stmtStats.setLong(3, rs.getLong(4));
+                    stmtStats.setDouble(4, rs.getDouble(7));
+                    stmtStats.setDouble(5, rs.getDouble(8));
+                    stmtStats.setInt(6, quizId);
+                    stmtStats.addBatch();
+                    
+                    stmtExtremes.setInt(1, quizId);
+                    stmtExtremes.setInt(2, quizId);
+                    stmtExtremes.setInt(3, rs.getInt(5));
+                    stmtExtremes.setInt(4, rs.getInt(6));
+                    stmtExtremes.addBatch();
+                }
+            }
+            stmtStats.executeBatch();
+            stmtExtremes.executeBatch();
+        }
+        
+        try (Statement stmt = conn.createStatement();
+             PreparedStatement stmtBucket = conn.prepareStatement(sqlBucket);
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT quiz_id, " + BUCKET_SQL + " AS bucket, COUNT(*)" + removed +
+                     " GROUP BY quiz_id, bucket")) {
+            while (rs.next()) {
+                stmtBucket.setLong(1, rs.getLong(3));
+                stmtBucket.setInt(2, rs.getInt(1));
+                stmtBucket.setInt(3, rs.getInt(2));
+                stmtBucket.addBatch();
+            }
+            stmtBucket.executeBatch();
+        }
+        
+        // Durations are grouped in SQL first, as in rebuildDurations
+        Map<Integer, DurationHistogram> histograms = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT quiz_id, COALESCE(duration_seconds, 0), COUNT(*)" + removed +
+                                              " GROUP BY quiz_id, COALESCE(duration_seconds, 0)")) {
+            while (rs.next()) {
+                histograms.computeIfAbsent(rs.getInt(1), id -> new DurationHistogram())
+                        .addToBucket(DurationHistogram.bucketOf(rs.getLong(2)), rs.getLong(3));
+            }
+        }
+        try (PreparedStatement stmtDuration = conn.prepareStatement(sqlDuration)) {
+            for (Map.Entry<Integer, DurationHistogram> entry : histograms.entrySet()) {
+                DurationHistogram histogram = entry.getValue();
+                for (int bucket = 0; bucket < DurationHistogram.BUCKET_COUNT; bucket++) {
+                    if (histogram.getBucketCount(bucket) > 0) {
+                        stmtDuration.setLong(1, histogram.getBucketCount(bucket));
+                        stmtDuration.setInt(2, entry.getKey());
+                        stmtDuration.setInt(3, bucket);
+                        stmtDuration.addBatch();
+                    }
+                }
+            }
+            stmtDuration.executeBatch();
+        }
+        
+        // Emptied rows go, as a rebuild would not have them
+        try (PreparedStatement stmtStats = conn.prepareStatement(
+                     "DELETE FROM quiz_stats WHERE quiz_id = ? AND attempt_count <= 0");
+             PreparedStatement stmtBuckets = conn.prepareStatement(
+                     "DELETE FROM quiz_score_buckets WHERE quiz_id = ? AND attempt_count <= 0");
+             PreparedStatement stmtDurations = conn.prepareStatement(
+                     "DELETE FROM quiz_duration_buckets WHERE quiz_id = ? AND attempt_count <= 0")) {
+            for (int quizId : quizIds) {
+                for (PreparedStatement stmt : new PreparedStatement[] {stmtStats, stmtBuckets, stmtDurations}) {
+                    stmt.setInt(1, quizId);
+                    stmt.addBatch();
+                }
+            }
+            stmtStats.executeBatch();
+            stmtBuckets.executeBatch();
+            stmtDurations.executeBatch();
+        }
+        
+        PickCounters.removeAnswers(conn, schema, resultIds);
+        ItemAnalyzer.removeResults(conn, schema, resultIds);
+    }
+    
+    private static int rebuild(Statement stmt, String results, String whereClause) throws SQLException {
+        int quizCount = stmt.executeUpdate(
+                "INSERT INTO quiz_stats (quiz_id, attempt_count, score_sum, score_square_sum, " +
+                "lowest_score, highest_score, percentage_sum, percentage_square_sum) " +
+                "SELECT quiz_id, COUNT(*), SUM(score), SUM(score * score), MIN(score), MAX(score), " +
+                "SUM(" + PERCENTAGE_SQL + "), SUM((" + PERCENTAGE_SQL + ") * (" + PERCENTAGE_SQL + ")) " +
+                "FROM " + results + whereClause + " GROUP BY quiz_id");
+        
+        stmt.executeUpdate(
+                "INSERT INTO quiz_score_buckets (quiz_id, bucket, attempt_count) " +
+                "SELECT quiz_id, " + BUCKET_SQL + " AS bucket, COUNT(*) " +
+                "FROM " + results + whereClause + " GROUP BY quiz_id, bucket");
+        
+        return quizCount;
+    }
+    
+    /**
+     * Fills {@code quiz_duration_buckets} from the results in the given table matching the
+     * where clause. The buckets are logarithmic, so they are computed here rather than in SQL.
+     */
+    private static void rebuildDurations(Connection conn, String results, String whereClause)
+            throws SQLException {
+        String sqlInsert = "INSERT INTO quiz_duration_buckets (quiz_id, bucket, attempt_count) VALUES (?, ?, ?)";
+        
+        // Durations are grouped in SQL first, so only distinct values cross over
+        Map<Integer, DurationHistogram> histograms = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                     "SELECT quiz_id, COALESCE(duration_seconds, 0), COUNT(*) FROM " + results +
+                     whereClause + " GROUP BY quiz_id, COALESCE(duration_seconds, 0)")) {
+            while (rs.next()) {
+                histograms.computeIfAbsent(rs.getInt(1), id -> new DurationHistogram())
+                        .addToBucket(DurationHistogram.bucketOf(rs.getLong(2)), rs.getLong(3));
+            }
+        }
+        
+        try (PreparedStatement insert = conn.prepareStatement(sqlInsert)) {
+            for (Map.Entry<Integer, DurationHistogram> entry : histograms.entrySet()) {
+                DurationHistogram histogram = entry.getValue();
+                for (int bucket = 0; bucket < DurationHistogram.BUCKET_COUNT; bucket++) {
+                    if (histogram.getBucketCount(bucket) > 0) {
+                        insert.setInt(1, entry.getKey());
+                        insert.setInt(2, bucket);
+                        insert.setLong(3, histogram.getBucketCount(bucket));
+                        insert.addBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,82 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.User;
+
+import java.sql.SQLException;
+
+/**
+ * Gets the repositories selected at startup: the database ones by default, or ones
+ * kept in memory after {@link #useInMemory(InMemoryStore)}, e.g. with the
+ * {@code --in-memory} flag, in tests or in load simulations.
+ * <p>
+ * The selection applies to users, quizzes and results only. Statistics, item analysis,
+ * leaderboards, pick counters, imports, exports, the result outbox and the maintenance
+ * commands always work on the database, so callers check {@link #isInMemory()} before
+ * showing them.
+ */
+public final class Repositories {
+    private static volatile QuizRepository quizzes = new QuizDAO();
+    private static volatile UserRepository users = new UserDAO();
+    private static volatile QuizResultRepository results = new QuizResultDAO();
+    private static volatile boolean inMemory;
+    
+    private Repositories() {
+    }
+    
+    public static QuizRepository quizzes() {
+        return quizzes;
+    }
+    
+    public static UserRepository users() {
+        return users;
+    }
+    
+    public static QuizResultRepository results() {
+        return results;
+    }
+    
+    /**
+     * Checks if users, quizzes and results are kept in memory rather than in the database.
+     */
+    public static boolean isInMemory() {
+        return inMemory;
+    }
+    
+    /**
+     * Keeps users, quizzes and results in the given store from now on. Call it before
+     * any window is opened; windows already open keep the repositories they got.
+     *
+     * @param store the store, e.g. a new one or one filled by a simulation
+     */
+    public static synchronized void useInMemory(InMemoryStore store) {
+        quizzes = new InMemoryQuizRepository(store);
+        users = new InMemoryUserRepository(store);
+        results = new InMemoryQuizResultRepository(store);
+        inMemory = true;
+        ResultSummaryCache.shared().invalidateAll();
+    }
+    
+    /**
+     * Keeps users, quizzes and results in the database again.
+     */
+    public static synchronized void useDatabase() {
+        quizzes = new QuizDAO();
+        users = new UserDAO();
+        results = new QuizResultDAO();
+        inMemory = false;
+        ResultSummaryCache.shared().invalidateAll();
+    }
+    
+    /**
+     * Creates an empty store with the default admin account of a new database
+     * (admin / admin123).
+     *
+     * @return the store
+     * @throws SQLException if the account cannot be created
+     */
+    public static InMemoryStore newStoreWithAdmin() throws SQLException {
+        InMemoryStore store = new InMemoryStore();
+        new InMemoryUserRepository(store).createUser(new User("admin", "admin123", "admin@example.com", true));
+        return store;
+    }
+}
\ No newline at end of file
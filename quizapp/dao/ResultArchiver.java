@@ -0,0 +1,396 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.DatabaseUtil;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+
+/**
+ * Moves old quiz results into a separate archive database file, so the main file (and
+ * every query and backup of it) stays small.
+ * <p>
+ * Results completed before a cutoff are moved with their question results in
+ * transactions of {@value #DEFAULT_BATCH_SIZE} results, so saving new results is never
+ * held up for long; if the job is stopped, the next run continues where it left off.
+ * Result IDs are kept, and since result IDs are never reused, archived and live results
+ * never collide. The freed pages are then returned to the file system with
+ * {@code PRAGMA incremental_vacuum}, a few at a time. A file created before incremental
+ * vacuum was enabled keeps its free pages for new rows, unless a full {@code VACUUM} is
+ * asked for; that blocks every writer until it is done, so it is only run on request.
+ * <p>
+ * The archive file sits next to the main file under a fixed name, so that every
+ * connection that attaches it finds the same one.
+ * <p>
+ * {@link QuizResultDAO} reads a user's history from both files through
+ * {@link #attachArchive(Connection)}. Per-quiz statistics, counters and item analysis
+ * keep counting archived results, and are rebuilt from both files through
+ * {@link #allResults(Connection)} and {@link #allAnswers(Connection)}. Leaderboards only
+ * see the results left in the main file.
+ */
+public class ResultArchiver {
+    public static final Path ARCHIVE_FILE = Paths.get("quiz_app_archive.db");
+    
+    static final String ARCHIVE_SCHEMA = "archive";
+    
+    // Result and question result columns, in the same order in both files
+    static final String RESULT_COLUMNS =
+            "id, user_id, quiz_id, score, max_score, duration_seconds, completed_at, attempt_key";
+    static final String QUESTION_RESULT_COLUMNS = "id, quiz_result_id, question_id, is_correct, selected_mask";
+    
+    private static final int DEFAULT_BATCH_SIZE = 2000;
+    private static final int VACUUM_PAGES_PER_STEP = 1000;
+    private static final long VACUUM_PAUSE_MILLIS = 20;
+    
+    // Users and quizzes stay in the main file, so the archive has no foreign keys
+    static final String[] CREATE_ARCHIVE_TABLES = {
+        "CREATE TABLE IF NOT EXISTS " + ARCHIVE_SCHEMA + ".quiz_results (" +
+        "id INTEGER PRIMARY KEY," +
+        "user_id INTEGER NOT NULL," +
+        "quiz_id INTEGER NOT NULL," +
+        "score INTEGER NOT NULL," +
+        "max_score INTEGER NOT NULL," +
+        "duration_seconds INTEGER," +
+        "completed_at INTEGER NOT NULL," +
+        "attempt_key TEXT)",
+        "CREATE TABLE IF NOT EXISTS " + ARCHIVE_SCHEMA + ".question_results (" +
+        "id INTEGER PRIMARY KEY," +
+        "quiz_result_id INTEGER NOT NULL," +
+        "question_id INTEGER NOT NULL," +
+        "is_correct INTEGER NOT NULL," +
+        "selected_mask BLOB)",
+        "CREATE INDEX IF NOT EXISTS " + ARCHIVE_SCHEMA + ".idx_archived_results_user " +
+        "ON quiz_results (user_id)",
+        "CREATE INDEX IF NOT EXISTS " + ARCHIVE_SCHEMA + ".idx_archived_results_quiz_completed " +
+        "ON quiz_results (quiz_id, completed_at)",
+        "CREATE UNIQUE INDEX IF NOT EXISTS " + ARCHIVE_SCHEMA + ".idx_archived_results_attempt_key " +
+        "ON quiz_results (attempt_key) WHERE attempt_key IS NOT NULL",
+        "CREATE INDEX IF NOT EXISTS " + ARCHIVE_SCHEMA + ".idx_archived_question_results_quiz_result " +
+        "ON question_results (quiz_result_id)"
+    };
+    
+    private final int batchSize;
+    
+    public ResultArchiver() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+    
+    public ResultArchiver(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    /**
+     * Attaches the archive file to a connection as {@code archive}, if results have been
+     * archived. Does nothing if it is already attached.
+     *
+     * @param conn the connection to the main database
+     * @return true if the archive is attached, false if there is no archive
+     * @throws SQLException if a database error occurs
+     */
+    static boolean attachArchive(Connection conn) throws SQLException {
+        if (!Files.exists(ARCHIVE_FILE)) {
+            return false;
+        }
+        if (isAttached(conn)) {
+            return true;
+        }
+        try (PreparedStatement attach = conn.prepareStatement("ATTACH DATABASE ? AS " + ARCHIVE_SCHEMA)) {
+            attach.setString(1, ARCHIVE_FILE.toString());
+            attach.execute();
+        }
+        return true;
+    }
+    
+    /**
+     * Checks if the archive file is attached to a connection. Unlike attaching, this also
+     * works inside a transaction.
+     */
+    static boolean isAttached(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                if (ARCHIVE_SCHEMA.equals(rs.getString("name"))) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Gets a table of every result, live and archived, if the archive is attached to the
+     * connection, or of the live results otherwise.
+     */
+    static String allResults(Connection conn) throws SQLException {
+        if (!isAttached(conn)) {
+            return "main.quiz_results";
+        }
+        return "(SELECT " + RESULT_COLUMNS + " FROM main.quiz_results UNION ALL SELECT " +
+               RESULT_COLUMNS + " FROM " + ARCHIVE_SCHEMA + ".quiz_results)";
+    }
+    
+    /**
+     * Gets a table of every question result matching {@link #allResults(Connection)}.
+     */
+    static String allAnswers(Connection conn) throws SQLException {
+        if (!isAttached(conn)) {
+            return "main.question_results";
+        }
+        return "(SELECT " + QUESTION_RESULT_COLUMNS + " FROM main.question_results UNION ALL SELECT " +
+               QUESTION_RESULT_COLUMNS + " FROM " + ARCHIVE_SCHEMA + ".question_results)";
+    }
+    
+    /**
+     * Moves the results completed before a cutoff into the archive file, then returns
+     * the freed space of the main file to the file system if it uses incremental vacuum.
+     *
+     * @param cutoff results completed before this time are moved
+     * @return a report of what was moved
+     * @throws SQLException if a database error occurs; batches committed before the error
+     *         stay archived
+     */
+    public ArchiveReport archive(LocalDateTime cutoff) throws SQLException {
+        return archive(cutoff, false);
+    }
+    
+    /**
+     * Moves the results completed before a cutoff into the archive file, then returns
+     * the freed space of the main file to the file system.
+     *
+     * @param cutoff results completed before this time are moved
+     * @param fullVacuum true to compact a file that does not use incremental vacuum yet
+     *        with a full {@code VACUUM}, which blocks all writers while it runs
+     * @return a report of what was moved
+     * @throws SQLException if a database error occurs; batches committed before the error
+     *         stay archived
+     */
+    public ArchiveReport archive(LocalDateTime cutoff, boolean fullVacuum) throws SQLException {
+        long start = System.nanoTime();
+        ArchiveReport report = new ArchiveReport();
+        long cutoffSeconds = QuizResultDAO.toEpochSeconds(cutoff);
+        
+        Connection conn = null;
+        Statement stmt = null;
+        boolean attached = false;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            
+            try (PreparedStatement attach = conn.prepareStatement("ATTACH DATABASE ? AS " + ARCHIVE_SCHEMA)) {
+                attach.setString(1, ARCHIVE_FILE.toString());
+                attach.execute();
+            }
+            attached = true;
+            
+            for (String sql : CREATE_ARCHIVE_TABLES) {
+                stmt.executeUpdate(sql);
+            }
+            stmt.executeUpdate("CREATE TEMP TABLE IF NOT EXISTS archive_batch (id INTEGER PRIMARY KEY)");
+            
+            moveResults(conn, stmt, cutoffSeconds, report);
+            
+            stmt.execute("DETACH DATABASE " + ARCHIVE_SCHEMA);
+            attached = false;
+            
+            report.pagesFreed = vacuum(conn, stmt, fullVacuum, report);
+            
+            // Leaderboards are seeded from the main file only
+            Leaderboard.shared().invalidateAll();
+            
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            if (attached) {
+                try {
+                    conn.setAutoCommit(true);
+                    stmt.execute("DETACH DATABASE " + ARCHIVE_SCHEMA);
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+    }
+    
+    /**
+     * Moves the oldest results in batches, one transaction each.
+     */
+    private void moveResults(Connection conn, Statement stmt, long cutoffSeconds, ArchiveReport report)
+            throws SQLException {
+        try (PreparedStatement selectBatch = conn.prepareStatement(
+                "INSERT INTO temp.archive_batch (id) SELECT id FROM main.quiz_results " +
+                "WHERE completed_at < ? ORDER BY completed_at LIMIT ?")) {
+            
+            conn.setAutoCommit(false); // Start transaction
+            try {
+                while (true) {
+                    stmt.executeUpdate("DELETE FROM temp.archive_batch");
+                    selectBatch.setLong(1, cutoffSeconds);
+                    selectBatch.setInt(2, batchSize);
+                    int batchCount = selectBatch.executeUpdate();
+                    if (batchCount == 0) {
+                        conn.commit();
+                        break;
+                    }
+                    
+                    report.resultsMoved += stmt.executeUpdate(
+                            "INSERT INTO " + ARCHIVE_SCHEMA + ".quiz_results (" + RESULT_COLUMNS + ") " +
+                            "SELECT " + RESULT_COLUMNS + " FROM main.quiz_results " +
+                            "WHERE id IN (SELECT id FROM temp.archive_batch) ORDER BY id");
+                    report.questionResultsMoved += stmt.executeUpdate(
+                            "INSERT INTO " + ARCHIVE_SCHEMA + ".question_results (" +
+                            QUESTION_RESULT_COLUMNS + ") SELECT " + QUESTION_RESULT_COLUMNS +
+                            " FROM main.question_results WHERE quiz_result_id IN (SELECT id FROM temp.archive_batch) " +
+                            "ORDER BY id");
+                    
+                    stmt.executeUpdate("DELETE FROM main.question_results " +
+                                       "WHERE quiz_result_id IN (SELECT id FROM temp.archive_batch)");
+                    stmt.executeUpdate("DELETE FROM main.quiz_results WHERE id IN (SELECT id FROM temp.archive_batch)");
+                    
+                    // Both files are committed together
+                    conn.commit();
+                }
+            } catch (SQLException e) {
+                conn.rollback(); // Rollback this batch
+                throw e;
+            } finally {
+                conn.setAutoCommit(true); // Reset auto-commit
+            }
+        }
+    }
+    
+    /**
+     * Returns the free pages of the main file to the file system. A file created before
+     * incremental vacuum was enabled keeps them, unless a full vacuum is asked for, which
+     * also converts it to incremental vacuum.
+     *
+     * @return the number of pages freed
+     */
+    private static long vacuum(Connection conn, Statement stmt, boolean fullVacuum, ArchiveReport report)
+            throws SQLException {
+        long freePages = pragma(stmt, "freelist_count");
+        if (freePages == 0) {
+            return 0;
+        }
+        
+        if (pragma(stmt, "auto_vacuum") != 2) {
+            if (!fullVacuum) {
+                report.pagesKept = freePages; // Reused by SQLite for new rows
+                return 0;
+            }
+            stmt.executeUpdate("PRAGMA auto_vacuum = INCREMENTAL");
+            stmt.executeUpdate("VACUUM");
+            report.fullVacuum = true;
+            return freePages;
+        }
+        
+        return incrementalVacuum(conn, stmt);
+    }
+    
+    /**
+     * Returns the free pages of the main file to the file system in small steps, if the
+     * file uses incremental vacuum. Each step is a short transaction of its own.
+     *
+     * @param conn the connection to the main database, in auto-commit mode
+     * @param stmt a statement of the connection
+     * @return the number of pages freed
+     * @throws SQLException if a database error occurs
+     */
+    static long incrementalVacuum(Connection conn, Statement stmt) throws SQLException {
+        if (pragma(stmt, "auto_vacuum") != 2) {
+            return 0;
+        }
+        long freePages = pragma(stmt, "freelist_count");
+        
+        // Each execution frees one page, so a step of many pages is one short transaction
+        long freed = 0;
+        try (PreparedStatement freePage = conn.prepareStatement("PRAGMA main.incremental_vacuum(1)")) {
+            while (freePages > 0) {
+                long stepPages = Math.min(freePages, VACUUM_PAGES_PER_STEP);
+                conn.setAutoCommit(false); // Start transaction
+                try {
+                    for (long i = 0; i < stepPages; i++) {
+                        freePage.execute();
+                    }
+                    conn.commit();
+                } catch (SQLException e) {
+                    conn.rollback(); // Rollback on error
+                    throw e;
+                } finally {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                }
+                
+                long remaining = pragma(stmt, "freelist_count");
+                if (remaining >= freePages) {
+                    break;
+                }
+                freed += freePages - remaining;
+                freePages = remaining;
+                
+                try {
+                    Thread.sleep(VACUUM_PAUSE_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        return freed;
+    }
+    
+    static long pragma(Statement stmt, String name) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA main." + name)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * Summary of an archiving run.
+     */
+    public static class ArchiveReport {
+        private long resultsMoved;
+        private long questionResultsMoved;
+        private long pagesFreed;
+        private long pagesKept;
+        private boolean fullVacuum;
+        private long elapsedNanos;
+        
+        public long getResultsMoved() {
+            return resultsMoved;
+        }
+        
+        public long getQuestionResultsMoved() {
+            return questionResultsMoved;
+        }
+        
+        public long getPagesFreed() {
+            return pagesFreed;
+        }
+        
+        /**
+         * Gets the number of free pages left in a main file that does not use incremental
+         * vacuum, because no full vacuum was asked for.
+         */
+        public long getPagesKept() {
+            return pagesKept;
+        }
+        
+        /**
+         * Checks if the main file had to be vacuumed in full to enable incremental vacuum.
+         */
+        public boolean isFullVacuum() {
+            return fullVacuum;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+    }
+}
\ No newline at end of file
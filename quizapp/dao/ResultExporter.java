@@ -0,0 +1,327 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.CsvUtil;
+import com.quizapp.util.DatabaseUtil;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Exports quiz results, with the answer given to every question, as CSV or JSON.
+ * <p>
+ * Results are read through one forward-only cursor joined with their question results
+ * and written as they arrive, so memory use does not grow with the number of results:
+ * only the current row and the writer's buffer are held. The query reads
+ * {@code quiz_results} in index order, so no sort is needed either. Answers are written
+ * as the option letters shown to the student ("A;C"), decoded straight from the
+ * selection mask. Results of deleted users and quizzes, which are waiting to be removed,
+ * are left out.
+ * <p>
+ * CSV has one line per answered question, repeating the attempt's columns; an attempt
+ * without question results gets one line with empty answer columns. JSON is an array
+ * with one object per attempt holding an {@code answers} array.
+ */
+public class ResultExporter {
+    
+    /**
+     * Output format of an export.
+     */
+    public enum Format {
+        CSV,
+        JSON
+    }
+    
+    /**
+     * Receives progress while an export runs.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after every {@link #PROGRESS_INTERVAL} results.
+         *
+         * @param resultCount the number of results written so far
+         * @param elapsedNanos the time since the export started
+         */
+        void progress(long resultCount, long elapsedNanos);
+    }
+    
+    public static final int PROGRESS_INTERVAL = 1000;
+    
+    private static final int DEFAULT_FETCH_SIZE = 1000;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+    
+    private static final String CSV_HEADER = "result_id,user_id,username,quiz_id,quiz_title,score,max_score," +
+            "duration_seconds,completed_at,question_id,is_correct,selected_options";
+    
+    private static final String EXPORT_SQL =
+            "SELECT r.id, r.user_id, u.username, r.quiz_id, q.title, r.score, r.max_score, " +
+            "r.duration_seconds, r.completed_at, a.question_id, a.is_correct, a.selected_mask " +
+            "FROM quiz_results r " +
+            "LEFT JOIN users u ON u.id = r.user_id " +
+            "LEFT JOIN quizzes q ON q.id = r.quiz_id " +
+            "LEFT JOIN question_results a ON a.quiz_result_id = r.id " +
+            "WHERE u.deleted_at IS NULL AND q.deleted_at IS NULL ";
+    
+    private final int fetchSize;
+    
+    public ResultExporter() {
+        this(DEFAULT_FETCH_SIZE);
+    }
+    
+    public ResultExporter(int fetchSize) {
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+    
+    /**
+     * Opens a buffered UTF-8 writer for an export file.
+     *
+     * @param file the file to write (replaced if it exists)
+     * @param gzip true to compress the file with gzip
+     * @return the writer; closing it finishes the file
+     * @throws IOException if the file cannot be created
+     */
+    public static Writer openWriter(Path file, boolean gzip) throws IOException {
+        OutputStream out = Files.newOutputStream(file);
+        try {
+            if (gzip) {
+                out = new GZIPOutputStream(out, WRITE_BUFFER_SIZE);
+            }
+            return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+    }
+    
+    /**
+     * Exports the results of one quiz, or of all quizzes, oldest first.
+     *
+     * @param quizId the ID of the quiz, or null for all quizzes
+     * @param format the output format
+     * @param out where to write; it is not closed
+     * @param listener receives progress (may be null)
+     * @return a report of what was written
+     * @throws IOException if writing fails
+     * @throws SQLException if a database error occurs
+     */
+    public ExportReport export(Integer quizId, Format format, Writer out, ProgressListener listener)
+            throws IOException, SQLException {
+        // Both orders follow an index, so rows stream without a sort
+        String sql = EXPORT_SQL + (quizId != null
+                ? "AND r.quiz_id = ? ORDER BY r.completed_at, r.id, a.id"
+                : "ORDER BY r.id, a.id");
+        
+        long start = System.nanoTime();
+        long resultCount = 0;
+        long answerCount = 0;
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet rs = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(fetchSize);
+            if (quizId != null) {
+                stmt.setInt(1, quizId);
+            }
+            
+            rs = stmt.executeQuery();
+            
+            if (format == Format.CSV) {
+                out.write(CSV_HEADER);
+                out.write('\n');
+            } else {
+                out.write('[');
+            }
+            
+            int currentResultId = 0;
+            while (rs.next()) {
+                int resultId = rs.getInt(1);
+                boolean newResult = resultId != currentResultId;
+                if (newResult) {
+                    if (format == Format.JSON && currentResultId != 0) {
+                        out.write("]}");
+                    }
+                    currentResultId = resultId;
+                    resultCount++;
+                    if (listener != null && resultCount % PROGRESS_INTERVAL == 0) {
+                        listener.progress(resultCount, System.nanoTime() - start);
+                    }
+                }
+                
+                boolean hasAnswer = rs.getObject(10) != null;
+                if (hasAnswer) {
+                    answerCount++;
+                }
+                
+                if (format == Format.CSV) {
+                    writeCsvRow(out, rs, hasAnswer);
+                } else {
+                    writeJson(out, rs, newResult, resultCount == 1, hasAnswer);
+                }
+            }
+            
+            if (format == Format.JSON) {
+                out.write(currentResultId != 0 ? "]}\n]\n" : "]\n");
+            }
+            out.flush();
+            
+            return new ExportReport(resultCount, answerCount, System.nanoTime() - start);
+        } finally {
+            DatabaseUtil.closeQuietly(rs, stmt, conn);
+        }
+    }
+    
+    private void writeCsvRow(Writer out, ResultSet rs, boolean hasAnswer) throws IOException, SQLException {
+        out.write(Integer.toString(rs.getInt(1)));
+        out.write(',');
+        out.write(Integer.toString(rs.getInt(2)));
+        out.write(',');
+        out.write(CsvUtil.escape(rs.getString(3)));
+        out.write(',');
+        out.write(Integer.toString(rs.getInt(4)));
+        out.write(',');
+        out.write(CsvUtil.escape(rs.getString(5)));
+        out.write(',');
+        out.write(Integer.toString(rs.getInt(6)));
+        out.write(',');
+        out.write(Integer.toString(rs.getInt(7)));
+        out.write(',');
+        out.write(Long.toString(rs.getLong(8)));
+        out.write(',');
+        out.write(Instant.ofEpochSecond(rs.getLong(9)).toString());
+        out.write(',');
+        if (hasAnswer) {
+            out.write(Integer.toString(rs.getInt(10)));
+            out.write(',');
+            out.write(rs.getInt(11) == 1 ? "true" : "false");
+            out.write(',');
+            out.write(SelectionMask.labels(rs.getBytes(12)));
+        } else {
+            out.write(",,");
+        }
+        out.write('\n');
+    }
+    
+    private void writeJson(Writer out, ResultSet rs, boolean newResult, boolean firstResult, boolean hasAnswer)
+            throws IOException, SQLException {
+        if (newResult) {
+            out.write(firstResult ? "\n{" : ",\n{");
+            out.write("\"resultId\":");
+            out.write(Integer.toString(rs.getInt(1)));
+            out.write(",\"userId\":");
+            out.write(Integer.toString(rs.getInt(2)));
+            out.write(",\"username\":");
+            writeJsonString(out, rs.getString(3));
+            out.write(",\"quizId\":");
+            out.write(Integer.toString(rs.getInt(4)));
+            out.write(",\"quizTitle\":");
+            writeJsonString(out, rs.getString(5));
+            out.write(",\"score\":");
+            out.write(Integer.toString(rs.getInt(6)));
+            out.write(",\"maxScore\":");
+            out.write(Integer.toString(rs.getInt(7)));
+            out.write(",\"durationSeconds\":");
+            out.write(Long.toString(rs.getLong(8)));
+            out.write(",\"completedAt\":\"");
+            out.write(Instant.ofEpochSecond(rs.getLong(9)).toString());
+            out.write("\",\"answers\":[");
+        }
+        
+        if (hasAnswer) {
+            if (!newResult) {
+                out.write(',');
+            }
+            out.write("{\"questionId\":");
+            out.write(Integer.toString(rs.getInt(10)));
+            out.write(",\"correct\":");
+            out.write(rs.getInt(11) == 1 ? "true" : "false");
+            out.write(",\"selected\":\"");
+            out.write(SelectionMask.labels(rs.getBytes(12)));
+            out.write("\"}");
+        }
+    }
+    
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+    
+    /**
+     * Summary of a finished export.
+     */
+    public static class ExportReport {
+        private final long resultCount;
+        private final long answerCount;
+        private final long elapsedNanos;
+        
+        public ExportReport(long resultCount, long answerCount, long elapsedNanos) {
+            this.resultCount = resultCount;
+            this.answerCount = answerCount;
+            this.elapsedNanos = elapsedNanos;
+        }
+        
+        public long getResultCount() {
+            return resultCount;
+        }
+        
+        public long getAnswerCount() {
+            return answerCount;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        /**
+         * Gets the export speed in results per second.
+         */
+        public double getResultsPerSecond() {
+            return elapsedNanos > 0 ? resultCount * 1e9 / elapsedNanos : 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,645 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.Question;
+import com.quizapp.model.Question.Option;
+import com.quizapp.model.Quiz;
+import com.quizapp.util.DatabaseUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Merges the users, quizzes and results of another quiz database into this one, e.g. to
+ * combine the copies used in several labs at the end of a term.
+ * <p>
+ * The other file is attached to the connection. Users are matched by username and
+ * quizzes by title, creator and content (questions and options in order), and the IDs
+ * of the other file are mapped to IDs here in temporary tables; users and quizzes that
+ * do not exist here yet are added. Results and their answers are then copied with
+ * set-based {@code INSERT ... SELECT} statements, in transactions of
+ * {@value #DEFAULT_BATCH_SIZE} results, so the copy never passes through Java. Selection
+ * masks refer to option positions, which match once the quiz content matches, so they
+ * are copied as they are.
+ * <p>
+ * A result is skipped if a result with the same attempt key, or the same user, quiz,
+ * completion time and score, is already here or in the archive, so merging the same
+ * file twice adds nothing, even if results were archived in between. Statistics and
+ * counters are rebuilt at the end, from the archived results as well.
+ */
+public class ResultMerger {
+    
+    /**
+     * Receives progress while results are copied.
+     */
+    public interface ProgressListener {
+        /**
+         * Called after every committed batch.
+         *
+         * @param processedCount the number of results of the other file looked at so far
+         * @param totalCount the number of results in the other file
+         * @param elapsedNanos the time since the merge started
+         */
+        void progress(long processedCount, long totalCount, long elapsedNanos);
+    }
+    
+    private static final int DEFAULT_BATCH_SIZE = 50_000;
+    
+    private static final String SOURCE = "merge_source";
+    
+    private static final String[] CREATE_MAP_TABLES = {
+        "CREATE TEMP TABLE IF NOT EXISTS merge_user_map (src_id INTEGER PRIMARY KEY, dst_id INTEGER NOT NULL)",
+        "CREATE TEMP TABLE IF NOT EXISTS merge_quiz_map (src_id INTEGER PRIMARY KEY, dst_id INTEGER NOT NULL)",
+        "CREATE TEMP TABLE IF NOT EXISTS merge_question_map (src_id INTEGER PRIMARY KEY, dst_id INTEGER NOT NULL)",
+        "CREATE TEMP TABLE IF NOT EXISTS merge_result_map (src_id INTEGER PRIMARY KEY, dst_id INTEGER NOT NULL)"
+    };
+    
+    // Results of the batch that are not here yet, with the IDs they get here, in order.
+    // Followed by NOT_MERGED_SQL for the main file and, if there is one, the archive.
+    private static final String MAP_RESULTS_SQL =
+            "INSERT INTO temp.merge_result_map (src_id, dst_id) " +
+            "SELECT s.id, ? + ROW_NUMBER() OVER (ORDER BY s.id) FROM " + SOURCE + ".quiz_results s " +
+            "JOIN temp.merge_user_map um ON um.src_id = s.user_id " +
+            "JOIN temp.merge_quiz_map qm ON qm.src_id = s.quiz_id " +
+            "WHERE s.id BETWEEN ? AND ?";
+    private static final String NOT_MERGED_SQL =
+            " AND (s.attempt_key IS NULL OR NOT EXISTS " +
+            "(SELECT 1 FROM %1$s.quiz_results r WHERE r.attempt_key = s.attempt_key)) " +
+            "AND NOT EXISTS (SELECT 1 FROM %1$s.quiz_results r WHERE r.quiz_id = qm.dst_id " +
+            "AND r.completed_at = s.completed_at AND r.user_id = um.dst_id " +
+            "AND r.score = s.score AND r.max_score = s.max_score)";
+    
+    private static final String COPY_RESULTS_SQL =
+            "INSERT INTO main.quiz_results (id, user_id, quiz_id, score, max_score, duration_seconds, " +
+            "completed_at, attempt_key) " +
+            "SELECT rm.dst_id, um.dst_id, qm.dst_id, s.score, s.max_score, s.duration_seconds, " +
+            "s.completed_at, s.attempt_key FROM temp.merge_result_map rm " +
+            "JOIN " + SOURCE + ".quiz_results s ON s.id = rm.src_id " +
+            "JOIN temp.merge_user_map um ON um.src_id = s.user_id " +
+            "JOIN temp.merge_quiz_map qm ON qm.src_id = s.quiz_id " +
+            "ORDER BY rm.src_id";
+    
+    // CROSS JOIN keeps the batch's map as the outer loop, so only its answers are read
+    private static final String COPY_ANSWERS_SQL =
+            "INSERT INTO main.question_results (quiz_result_id, question_id, is_correct, selected_mask) " +
+            "SELECT rm.dst_id, qn.dst_id, a.is_correct, a.selected_mask FROM temp.merge_result_map rm " +
+            "CROSS JOIN " + SOURCE + ".question_results a ON a.quiz_result_id = rm.src_id " +
+            "JOIN temp.merge_question_map qn ON qn.src_id = a.question_id " +
+            "ORDER BY rm.src_id, a.quiz_result_id, a.id";
+    
+    private static final String COUNT_ANSWERS_SQL =
+            "SELECT COUNT(*) FROM temp.merge_result_map rm " +
+            "CROSS JOIN " + SOURCE + ".question_results a ON a.quiz_result_id = rm.src_id";
+    
+    private static final String COUNT_UNMAPPED_SQL =
+            "SELECT COUNT(*) FROM " + SOURCE + ".quiz_results s WHERE s.id BETWEEN ? AND ? " +
+            "AND (NOT EXISTS (SELECT 1 FROM temp.merge_user_map um WHERE um.src_id = s.user_id) " +
+            "OR NOT EXISTS (SELECT 1 FROM temp.merge_quiz_map qm WHERE qm.src_id = s.quiz_id))";
+    
+    // The ID AUTOINCREMENT would hand out next, minus one
+    private static final String LAST_RESULT_ID_SQL =
+            "SELECT MAX(COALESCE((SELECT seq FROM main.sqlite_sequence WHERE name = 'quiz_results'), 0), " +
+            "COALESCE((SELECT MAX(id) FROM main.quiz_results), 0))";
+    
+    private final int batchSize;
+    
+    public ResultMerger() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+    
+    public ResultMerger(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+    
+    /**
+     * Merges another quiz database into this one.
+     *
+     * @param sourceFile the other database file; it is only read
+     * @param listener receives progress (may be null)
+     * @return a report of what was merged and what was not
+     * @throws IOException if the other file does not exist or is this database
+     * @throws SQLException if a database error occurs, or the other file has a different
+     *         schema version; batches committed before the error stay merged, and merging
+     *         again continues where it stopped
+     */
+    public MergeReport merge(Path sourceFile, ProgressListener listener) throws IOException, SQLException {
+        if (!Files.isRegularFile(sourceFile)) {
+            throw new IOException("Database file not found: " + sourceFile);
+        }
+        
+        long start = System.nanoTime();
+        MergeReport report = new MergeReport();
+        
+        Connection conn = null;
+        Statement stmt = null;
+        boolean attached = false;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            stmt = conn.createStatement();
+            
+            // Attaching is not possible inside a transaction
+            try (PreparedStatement attach = conn.prepareStatement("ATTACH DATABASE ? AS " + SOURCE)) {
+                attach.setString(1, sourceFile.toString());
+                attach.execute();
+            }
+            attached = true;
+            
+            // Archived results count as merged already; older archives get the attempt key index
+            if (ResultArchiver.attachArchive(conn)) {
+                for (String sql : ResultArchiver.CREATE_ARCHIVE_TABLES) {
+                    stmt.executeUpdate(sql);
+                }
+            }
+            
+            checkSource(stmt, sourceFile);
+            for (String sql : CREATE_MAP_TABLES) {
+                stmt.executeUpdate(sql);
+            }
+            
+            conn.setAutoCommit(false); // Start transaction
+            try {
+                mergeUsers(conn, stmt, report);
+                mergeQuizzes(conn, report);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback(); // Rollback on error
+                throw e;
+            }
+            
+            copyResults(conn, stmt, report, listener, start);
+            
+            // Everything derived from results is recomputed once, not per batch
+            try {
+                QuizStatsDAO.rebuildStats(conn);
+                PickCounters.rebuildCounters(conn);
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback(); // Rollback on error
+                throw e;
+            }
+            Leaderboard.shared().invalidateAll();
+            ResultSummaryCache.shared().invalidateAll();
+            
+            report.elapsedNanos = System.nanoTime() - start;
+            return report;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                    if (attached) {
+                        stmt.execute("DETACH DATABASE " + SOURCE);
+                    }
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+    }
+    
+    private void checkSource(Statement stmt, Path sourceFile) throws IOException, SQLException {
+        try (ResultSet rs = stmt.executeQuery("PRAGMA database_list")) {
+            while (rs.next()) {
+                String file = rs.getString("file");
+                if ("main".equals(rs.getString("name")) && file != null && !file.isEmpty()
+                        && Files.isSameFile(sourceFile, Paths.get(file))) {
+                    throw new IOException("Cannot merge the database into itself");
+                }
+            }
+        }
+        
+        try (ResultSet rs = stmt.executeQuery("PRAGMA " + SOURCE + ".user_version")) {
+            int version = rs.next() ? rs.getInt(1) : 0;
+            if (version != DatabaseInitializer.SCHEMA_VERSION) {
+                throw new SQLException("The other database has schema version " + version + ", this one "
+                        + DatabaseInitializer.SCHEMA_VERSION + ". Open it once with this version of the "
+                        + "application to upgrade it, then merge again.");
+            }
+        }
+    }
+    
+    /**
+     * Adds users that are not here yet and maps every user by username. A user whose
+     * email is taken here by someone else cannot be added; their results are skipped.
+     */
+    private void mergeUsers(Connection conn, Statement stmt, MergeReport report) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT s.username, s.email, u.username FROM " + SOURCE + ".users s " +
+                "JOIN main.users u ON u.email = s.email AND u.username <> s.username " +
+                "WHERE NOT EXISTS (SELECT 1 FROM main.users m WHERE m.username = s.username)")) {
+            while (rs.next()) {
+                report.conflicts.add("User '" + rs.getString(1) + "' not merged: email " + rs.getString(2)
+                        + " belongs to '" + rs.getString(3) + "' here; their results are skipped");
+            }
+        }
+        
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT s.username, u.email, s.email FROM " + SOURCE + ".users s " +
+                "JOIN main.users u ON u.username = s.username WHERE u.email <> s.email")) {
+            while (rs.next()) {
+                report.conflicts.add("User '" + rs.getString(1) + "' has email " + rs.getString(2)
+                        + " here and " + rs.getString(3) + " there; kept " + rs.getString(2));
+            }
+        }
+        
+        report.usersAdded = stmt.executeUpdate(
+                "INSERT INTO main.users (username, password, email, is_admin) " +
+                "SELECT s.username, s.password, s.email, s.is_admin FROM " + SOURCE + ".users s " +
+                "WHERE NOT EXISTS (SELECT 1 FROM main.users u WHERE u.username = s.username) " +
+                "AND NOT EXISTS (SELECT 1 FROM main.users u WHERE u.email = s.email) " +
+                "ORDER BY s.id");
+        
+        stmt.executeUpdate("DELETE FROM temp.merge_user_map");
+        int mappedCount = stmt.executeUpdate(
+                "INSERT INTO temp.merge_user_map (src_id, dst_id) SELECT s.id, u.id FROM " + SOURCE + ".users s " +
+                "JOIN main.users u ON u.username = s.username");
+        report.usersMatched = mappedCount - report.usersAdded;
+    }
+    
+    /**
+     * Maps every quiz of the other file to a quiz here with the same title, creator and
+     * content, adding it if there is none. Questions are mapped by position.
+     */
+    private void mergeQuizzes(Connection conn, MergeReport report) throws SQLException {
+        Map<Integer, Integer> userMap = readMap(conn, "merge_user_map");
+        Map<Integer, Quiz> sourceQuizzes = loadQuizzes(conn, SOURCE);
+        Map<Integer, Quiz> targetQuizzes = loadQuizzes(conn, "main");
+        
+        // Quizzes here by title and creator
+        Map<String, List<Quiz>> targetsByKey = new HashMap<>();
+        for (Quiz quiz : targetQuizzes.values()) {
+            targetsByKey.computeIfAbsent(quiz.getTitle() + '\0' + quiz.getCreatorId(), key -> new ArrayList<>())
+                    .add(quiz);
+        }
+        
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM temp.merge_quiz_map");
+            stmt.executeUpdate("DELETE FROM temp.merge_question_map");
+        }
+        
+        try (PreparedStatement quizMap = conn.prepareStatement(
+                     "INSERT INTO temp.merge_quiz_map (src_id, dst_id) VALUES (?, ?)");
+             PreparedStatement questionMap = conn.prepareStatement(
+                     "INSERT INTO temp.merge_question_map (src_id, dst_id) VALUES (?, ?)")) {
+            
+            for (Quiz source : sourceQuizzes.values()) {
+                Integer creatorId = userMap.get(source.getCreatorId());
+                if (creatorId == null) {
+                    report.conflicts.add("Quiz '" + source.getTitle() + "' not merged: its creator was not "
+                            + "merged; its results are skipped");
+                    continue;
+                }
+                
+                List<Quiz> candidates = targetsByKey.getOrDefault(source.getTitle() + '\0' + creatorId,
+                        new ArrayList<>());
+                Quiz target = null;
+                for (Quiz candidate : candidates) {
+                    if (sameContent(source, candidate)) {
+                        target = candidate;
+                        break;
+                    }
+                }
+                
+                if (target != null) {
+                    report.quizzesMatched++;
+                } else {
+                    if (!candidates.isEmpty()) {
+                        report.conflicts.add("Quiz '" + source.getTitle() + "' differs from the quiz with the "
+                                + "same title here; added as a separate quiz");
+                    }
+                    target = insertQuiz(conn, source, creatorId);
+                    candidates.add(target);
+                    targetsByKey.put(source.getTitle() + '\0' + creatorId, candidates);
+                    report.quizzesAdded++;
+                }
+                
+                quizMap.setInt(1, source.getId());
+                quizMap.setInt(2, target.getId());
+                quizMap.addBatch();
+                
+                for (int i = 0; i < source.getQuestions().size(); i++) {
+                    questionMap.setInt(1, source.getQuestions().get(i).getId());
+                    questionMap.setInt(2, target.getQuestions().get(i).getId());
+                    questionMap.addBatch();
+                }
+            }
+            
+            quizMap.executeBatch();
+            questionMap.executeBatch();
+        }
+    }
+    
+    /**
+     * Checks if two quizzes have the same questions and options, in the same order.
+     */
+    private static boolean sameContent(Quiz a, Quiz b) {
+        if (a.getQuestions().size() != b.getQuestions().size()) {
+            return false;
+        }
+        for (int i = 0; i < a.getQuestions().size(); i++) {
+            Question questionA = a.getQuestions().get(i);
+            Question questionB = b.getQuestions().get(i);
+            if (!questionA.getText().equals(questionB.getText()) || questionA.getPoints() != questionB.getPoints()
+                    || questionA.getOptions().size() != questionB.getOptions().size()) {
+                return false;
+            }
+            for (int j = 0; j < questionA.getOptions().size(); j++) {
+                Option optionA = questionA.getOptions().get(j);
+                Option optionB = questionB.getOptions().get(j);
+                if (!optionA.getText().equals(optionB.getText()) || optionA.isCorrect() != optionB.isCorrect()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+    
+    /**
+     * Adds a copy of a quiz of the other file, keeping question and option order.
+     *
+     * @return the added quiz with the IDs it got here
+     */
+    private Quiz insertQuiz(Connection conn, Quiz source, int creatorId) throws SQLException {
+        Quiz quiz = new Quiz(0, source.getTitle(), source.getDescription(), creatorId, null, source.getTimeLimit());
+        
+        try (PreparedStatement insertQuiz = conn.prepareStatement(
+                     "INSERT INTO main.quizzes (title, description, creator_id, time_limit) VALUES (?, ?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertQuestion = conn.prepareStatement(
+                     "INSERT INTO main.questions (quiz_id, text, points) VALUES (?, ?, ?)",
+                     Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertOption = conn.prepareStatement(
+                     "INSERT INTO main.options (question_id, text, is_correct) VALUES (?, ?, ?)")) {
+            
+            insertQuiz.setString(1, source.getTitle());
+            insertQuiz.setString(2, source.getDescription());
+            insertQuiz.setInt(3, creatorId);
+            insertQuiz.setInt(4, source.getTimeLimit());
+            insertQuiz.executeUpdate();
+            quiz.setId(generatedId(insertQuiz));
+            
+            for (Question sourceQuestion : source.getQuestions()) {
+                insertQuestion.setInt(1, quiz.getId());
+                insertQuestion.setString(2, sourceQuestion.getText());
+                insertQuestion.setInt(3, sourceQuestion.getPoints());
+                insertQuestion.executeUpdate();
+                Question question = new Question(generatedId(insertQuestion), quiz.getId(),
+                        sourceQuestion.getText(), sourceQuestion.getPoints());
+                
+                // Inserted in order, so option positions stay the same
+                for (Option option : sourceQuestion.getOptions()) {
+                    insertOption.setInt(1, question.getId());
+                    insertOption.setString(2, option.getText());
+                    insertOption.setInt(3, option.isCorrect() ? 1 : 0);
+                    insertOption.addBatch();
+                    question.addOption(new Option(0, question.getId(), option.getText(), option.isCorrect()));
+                }
+                insertOption.executeBatch();
+                quiz.addQuestion(question);
+            }
+        }
+        return quiz;
+    }
+    
+    /**
+     * Copies results and their answers in batches of source IDs, one transaction each.
+     */
+    private void copyResults(Connection conn, Statement stmt, MergeReport report, ProgressListener listener,
+                             long start) throws SQLException {
+        long minId;
+        long maxId;
+        long totalCount;
+        try (ResultSet rs = stmt.executeQuery(
+                "SELECT MIN(id), MAX(id), COUNT(*) FROM " + SOURCE + ".quiz_results")) {
+            rs.next();
+            minId = rs.getLong(1);
+            maxId = rs.getLong(2);
+            totalCount = rs.getLong(3);
+        }
+        if (totalCount == 0) {
+            return;
+        }
+        
+        long processedCount = 0;
+        
+        String sqlMapResults = MAP_RESULTS_SQL + String.format(NOT_MERGED_SQL, "main");
+        if (ResultArchiver.isAttached(conn)) {
+            sqlMapResults += String.format(NOT_MERGED_SQL, ResultArchiver.ARCHIVE_SCHEMA);
+        }
+        
+        try (PreparedStatement mapResults = conn.prepareStatement(sqlMapResults);
+             PreparedStatement countUnmapped = conn.prepareStatement(COUNT_UNMAPPED_SQL);
+             PreparedStatement countInRange = conn.prepareStatement(
+                     "SELECT COUNT(*) FROM " + SOURCE + ".quiz_results WHERE id BETWEEN ? AND ?")) {
+            
+            for (long from = minId; from <= maxId; from += batchSize) {
+                long to = Math.min(maxId, from + batchSize - 1);
+                
+                try {
+                    stmt.executeUpdate("DELETE FROM temp.merge_result_map");
+                    
+                    // The first write of the batch takes the write lock, so these IDs stay free
+                    long lastId;
+                    try (ResultSet rs = stmt.executeQuery(LAST_RESULT_ID_SQL)) {
+                        lastId = rs.next() ? rs.getLong(1) : 0;
+                    }
+                    
+                    mapResults.setLong(1, lastId);
+                    mapResults.setLong(2, from);
+                    mapResults.setLong(3, to);
+                    mapResults.executeUpdate();
+                    
+                    int copied = stmt.executeUpdate(COPY_RESULTS_SQL);
+                    long answerCount = count(stmt, COUNT_ANSWERS_SQL);
+                    int answersCopied = stmt.executeUpdate(COPY_ANSWERS_SQL);
+                    
+                    countUnmapped.setLong(1, from);
+                    countUnmapped.setLong(2, to);
+                    long unmapped = count(countUnmapped);
+                    countInRange.setLong(1, from);
+                    countInRange.setLong(2, to);
+                    long inRange = count(countInRange);
+                    
+                    conn.commit();
+                    
+                    report.resultsCopied += copied;
+                    report.answersCopied += answersCopied;
+                    report.answersSkipped += answerCount - answersCopied;
+                    report.resultsUnmapped += unmapped;
+                    report.resultsAlreadyPresent += inRange - unmapped - copied;
+                    processedCount += inRange;
+                } catch (SQLException e) {
+                    conn.rollback(); // Rollback this batch
+                    throw e;
+                }
+                
+                if (listener != null) {
+                    listener.progress(processedCount, totalCount, System.nanoTime() - start);
+                }
+            }
+        }
+        
+        if (report.answersSkipped > 0) {
+            report.conflicts.add(report.answersSkipped + " answer(s) refer to questions that no longer exist "
+                    + "in the other database and were skipped");
+        }
+    }
+    
+    /**
+     * Loads the quizzes of one attached database, with questions and options in order.
+     */
+    private static Map<Integer, Quiz> loadQuizzes(Connection conn, String schema) throws SQLException {
+        Map<Integer, Quiz> quizzes = new LinkedHashMap<>();
+        Map<Integer, Question> questions = new HashMap<>();
+        
+        try (Statement stmt = conn.createStatement()) {
+            try (ResultSet rs = stmt.executeQuery("SELECT id, title, description, creator_id, time_limit FROM "
+                    + schema + ".quizzes ORDER BY id")) {
+                while (rs.next()) {
+                    quizzes.put(rs.getInt(1), new Quiz(rs.getInt(1), rs.getString(2), rs.getString(3),
+                            rs.getInt(4), null, rs.getInt(5)));
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT id, quiz_id, text, points FROM " + schema
+                    + ".questions ORDER BY quiz_id, id")) {
+                while (rs.next()) {
+                    Quiz quiz = quizzes.get(rs.getInt(2));
+                    if (quiz != null) {
+                        Question question = new Question(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4));
+                        quiz.addQuestion(question);
+                        questions.put(question.getId(), question);
+                    }
+                }
+            }
+            
+            try (ResultSet rs = stmt.executeQuery("SELECT id, question_id, text, is_correct FROM " + schema
+                    + ".options ORDER BY question_id, id")) {
+                while (rs.next()) {
+                    Question question = questions.get(rs.getInt(2));
+                    if (question != null) {
+                        question.addOption(new Option(rs.getInt(1), rs.getInt(2), rs.getString(3), rs.getInt(4) == 1));
+                    }
+                }
+            }
+        }
+        return quizzes;
+    }
+    
+    private static Map<Integer, Integer> readMap(Connection conn, String table) throws SQLException {
+        Map<Integer, Integer> map = new HashMap<>();
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT src_id, dst_id FROM temp." + table)) {
+            while (rs.next()) {
+                map.put(rs.getInt(1), rs.getInt(2));
+            }
+        }
+        return map;
+    }
+    
+    private static int generatedId(Statement stmt) throws SQLException {
+        try (ResultSet rs = stmt.getGeneratedKeys()) {
+            if (!rs.next()) {
+                throw new SQLException("Merging quiz failed, no ID obtained.");
+            }
+            return rs.getInt(1);
+        }
+    }
+    
+    private static long count(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    private static long count(PreparedStatement stmt) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery()) {
+            return rs.next() ? rs.getLong(1) : 0;
+        }
+    }
+    
+    /**
+     * Summary of a finished merge.
+     */
+    public static class MergeReport {
+        private final List<String> conflicts = new ArrayList<>();
+        private int usersAdded;
+        private int usersMatched;
+        private int quizzesAdded;
+        private int quizzesMatched;
+        private long resultsCopied;
+        private long answersCopied;
+        private long answersSkipped;
+        private long resultsAlreadyPresent;
+        private long resultsUnmapped;
+        private long elapsedNanos;
+        
+        public int getUsersAdded() {
+            return usersAdded;
+        }
+        
+        public int getUsersMatched() {
+            return usersMatched;
+        }
+        
+        public int getQuizzesAdded() {
+            return quizzesAdded;
+        }
+        
+        public int getQuizzesMatched() {
+            return quizzesMatched;
+        }
+        
+        public long getResultsCopied() {
+            return resultsCopied;
+        }
+        
+        public long getAnswersCopied() {
+            return answersCopied;
+        }
+        
+        /**
+         * Gets the number of results skipped because they were already here.
+         */
+        public long getResultsAlreadyPresent() {
+            return resultsAlreadyPresent;
+        }
+        
+        /**
+         * Gets the number of results skipped because their user or quiz was not merged.
+         */
+        public long getResultsUnmapped() {
+            return resultsUnmapped;
+        }
+        
+        /**
+         * Gets descriptions of users and quizzes that could not be merged as they were.
+         */
+        public List<String> getConflicts() {
+            return conflicts;
+        }
+        
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+        
+        /**
+         * Gets the copy speed in results per second.
+         */
+        public double getResultsPerSecond() {
+            return elapsedNanos > 0 ? resultsCopied * 1e9 / elapsedNanos : 0;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,447 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.QuizResult;
+import com.quizapp.model.QuizResult.QuestionResult;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Local append-only outbox for quiz results that could not be saved to the database,
+ * e.g. in classrooms with unreliable access to the shared database file.
+ * <p>
+ * A result is written to the outbox file and forced to disk before the student is told
+ * it was saved. A background thread uploads pending results every
+ * {@value #SYNC_INTERVAL_SECONDS} seconds (and right after a result is added) in
+ * transactions of up to {@value #BATCH_SIZE} results. Every result carries a random
+ * attempt key, stored with it in {@code quiz_results}; a result whose key is already
+ * there is skipped, so a batch that was committed but not yet marked as uploaded here
+ * (e.g. after a crash) never creates a duplicate. Uploaded results are marked with a
+ * small record, and the file is truncated once nothing is pending.
+ * <p>
+ * Each record is stored as {@code [length][type][payload][crc32]}, as in
+ * {@link AnswerJournal}; a torn record at the end of the file is dropped on load.
+ */
+public class ResultOutbox {
+    public static final int BATCH_SIZE = 500;
+    
+    private static final Path OUTBOX_FILE = Paths.get("outbox", "results.outbox");
+    
+    private static final byte RECORD_RESULT = 1;
+    private static final byte RECORD_UPLOADED = 2;
+    
+    private static final int FORMAT_VERSION = 1;
+    private static final long SYNC_INTERVAL_SECONDS = 10;
+    private static final int MAX_RECORD_LENGTH = 16 << 20;
+    private static final int MAX_FAILURES_IN_ROW = 3;
+    private static final int SQLITE_CONSTRAINT = 19;
+    
+    private static final ResultOutbox SHARED = new ResultOutbox(OUTBOX_FILE);
+    
+    // Set with --offline: sessions write to the outbox without trying the database first
+    private static volatile boolean offlineMode;
+    
+    private final Path path;
+    private final ScheduledExecutorService syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "result-outbox-sync");
+        thread.setDaemon(true);
+        return thread;
+    });
+    
+    // Guarded by this
+    private final Map<String, QuizResult> pending = new LinkedHashMap<>();
+    private FileChannel channel;
+    private boolean started;
+    
+    // Written by the sync thread only
+    private volatile long uploadedCount;
+    private volatile int lastBatchCount;
+    private volatile double lastResultsPerSecond;
+    private volatile String lastError;
+    
+    private ResultOutbox(Path path) {
+        this.path = path;
+    }
+    
+    /**
+     * Gets the outbox shared by the whole application.
+     */
+    public static ResultOutbox shared() {
+        return SHARED;
+    }
+    
+    public static boolean isOfflineMode() {
+        return offlineMode;
+    }
+    
+    public static void setOfflineMode(boolean offline) {
+        offlineMode = offline;
+    }
+    
+    /**
+     * Loads results left pending by an earlier run and starts uploading in the
+     * background. Calling it again has no effect.
+     */
+    public synchronized void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        syncer.execute(() -> {
+            try {
+                open();
+            } catch (IOException e) {
+                lastError = e.getMessage();
+                System.err.println("Error reading result outbox: " + e.getMessage());
+            }
+        });
+        syncer.scheduleWithFixedDelay(this::sync, SYNC_INTERVAL_SECONDS, SYNC_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+    
+    /**
+     * Adds a finished result. It is on disk when this method returns. An attempt key is
+     * assigned if the result has none.
+     *
+     * @param result the result to upload later
+     * @throws IOException if the outbox cannot be written
+     */
+    public void add(QuizResult result) throws IOException {
+        if (result.getAttemptKey() == null) {
+            result.setAttemptKey(UUID.randomUUID().toString());
+        }
+        if (result.getCompletedAt() == null) {
+            result.setCompletedAt(LocalDateTime.now());
+        }
+        
+        synchronized (this) {
+            open();
+            append(resultRecord(result));
+            pending.put(result.getAttemptKey(), result);
+        }
+        
+        if (started) {
+            syncer.execute(this::sync); // Try right away; the database may be back
+        }
+    }
+    
+    /**
+     * Gets the number of results waiting to be uploaded.
+     */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+    
+    /**
+     * Gets the number of results uploaded since the application started.
+     */
+    public long getUploadedCount() {
+        return uploadedCount;
+    }
+    
+    /**
+     * Gets the number of results inserted by the last upload that sent any.
+     */
+    public int getLastBatchCount() {
+        return lastBatchCount;
+    }
+    
+    /**
+     * Gets the speed of the last upload that sent any, in results per second.
+     */
+    public double getLastResultsPerSecond() {
+        return lastResultsPerSecond;
+    }
+    
+    /**
+     * Gets the error of the last upload attempt, or null if it succeeded.
+     */
+    public String getLastError() {
+        return lastError;
+    }
+    
+    /**
+     * Uploads all pending results in batches. A batch that fails is retried one result
+     * at a time, so a single result the database refuses does not hold back the others;
+     * results that still fail stay pending.
+     */
+    private void sync() {
+        List<QuizResult> snapshot;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            snapshot = new ArrayList<>(pending.values());
+        }
+        
+        QuizResultDAO quizResultDAO = new QuizResultDAO();
+        long start = System.nanoTime();
+        int sentCount = 0;
+        String error = null;
+        
+        for (int from = 0; from < snapshot.size(); from += BATCH_SIZE) {
+            List<QuizResult> batch = snapshot.subList(from, Math.min(snapshot.size(), from + BATCH_SIZE));
+            List<QuizResult> uploaded = new ArrayList<>(batch);
+            
+            try {
+                quizResultDAO.saveQuizResults(batch);
+            } catch (SQLException e) {
+                error = e.getMessage();
+                uploaded.clear();
+                int failuresInRow = 0;
+                for (QuizResult result : batch) {
+                    try {
+                        quizResultDAO.saveQuizResult(result);
+                        uploaded.add(result);
+                        failuresInRow = 0;
+                    } catch (SQLException single) {
+                        error = single.getMessage();
+                        if (single.getErrorCode() == SQLITE_CONSTRAINT) {
+                            // The quiz or user was deleted meanwhile, so it can never be saved
+                            System.err.println("Dropping result " + result.getAttemptKey() + ": " + error);
+                            uploaded.add(result);
+                        } else if (++failuresInRow == MAX_FAILURES_IN_ROW && uploaded.isEmpty()) {
+                            break;
+                        }
+                    }
+                }
+                if (uploaded.isEmpty()) {
+                    break; // The database is most likely unreachable; try again later
+                }
+            }
+            
+            try {
+                markUploaded(uploaded);
+            } catch (IOException e) {
+                // The results are in the database; they are skipped by key when sent again
+                error = e.getMessage();
+                System.err.println("Error writing result outbox: " + e.getMessage());
+                break;
+            }
+            sentCount += uploaded.size();
+        }
+        
+        if (sentCount > 0) {
+            long elapsedNanos = System.nanoTime() - start;
+            uploadedCount += sentCount;
+            lastBatchCount = sentCount;
+            lastResultsPerSecond = elapsedNanos > 0 ? sentCount * 1e9 / elapsedNanos : 0;
+        }
+        lastError = error;
+        if (error != null) {
+            System.err.println("Error uploading results: " + error);
+        }
+    }
+    
+    private synchronized void markUploaded(List<QuizResult> results) throws IOException {
+        ByteArrayOutputStream records = new ByteArrayOutputStream();
+        for (QuizResult result : results) {
+            records.write(uploadedRecord(result.getAttemptKey()));
+        }
+        append(records.toByteArray());
+        
+        for (QuizResult result : results) {
+            pending.remove(result.getAttemptKey());
+        }
+        if (pending.isEmpty()) {
+            channel.truncate(0); // Nothing left to keep
+            channel.force(false);
+        }
+    }
+    
+    /**
+     * Opens the outbox file if it is not open yet, loading its pending results and
+     * cutting off a torn record at the end.
+     */
+    private synchronized void open() throws IOException {
+        if (channel != null) {
+            return;
+        }
+        
+        Files.createDirectories(path.getParent());
+        long validLength = 0;
+        
+        if (Files.exists(path)) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(path))) {
+                while (true) {
+                    byte[] record = readRecord(in);
+                    if (record == null) {
+                        break; // End of file or torn tail
+                    }
+                    validLength += 8 + record.length;
+                    
+                    DataInputStream payload = new DataInputStream(new ByteArrayInputStream(record));
+                    byte type = payload.readByte();
+                    if (type == RECORD_RESULT) {
+                        QuizResult result = readResult(payload);
+                        pending.put(result.getAttemptKey(), result);
+                    } else if (type == RECORD_UPLOADED) {
+                        pending.remove(payload.readUTF());
+                    }
+                }
+            }
+        }
+        
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+    }
+    
+    private void append(byte[] bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+    
+    private static byte[] resultRecord(QuizResult result) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_RESULT);
+        out.writeInt(FORMAT_VERSION);
+        out.writeUTF(result.getAttemptKey());
+        out.writeInt(result.getUserId());
+        out.writeInt(result.getQuizId());
+        writeString(out, result.getQuizTitle());
+        out.writeInt(result.getScore());
+        out.writeInt(result.getMaxScore());
+        out.writeLong(result.getDurationInSeconds());
+        out.writeLong(QuizResultDAO.toEpochSeconds(result.getCompletedAt()));
+        
+        out.writeInt(result.getQuestionResults().size());
+        for (QuestionResult questionResult : result.getQuestionResults()) {
+            out.writeInt(questionResult.getQuestionId());
+            writeString(out, questionResult.getQuestionText());
+            out.writeBoolean(questionResult.isCorrect());
+            out.writeInt(questionResult.getPoints());
+            int[] optionIds = questionResult.getSelectedOptionIds();
+            out.writeInt(optionIds.length);
+            for (int optionId : optionIds) {
+                out.writeInt(optionId);
+            }
+        }
+        return frame(bytes.toByteArray());
+    }
+    
+    private static QuizResult readResult(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new IOException("Unsupported result outbox version " + version);
+        }
+        
+        String attemptKey = in.readUTF();
+        int userId = in.readInt();
+        int quizId = in.readInt();
+        String quizTitle = readString(in);
+        int score = in.readInt();
+        int maxScore = in.readInt();
+        long durationInSeconds = in.readLong();
+        LocalDateTime completedAt = QuizResultDAO.toLocalDateTime(in.readLong());
+        
+        QuizResult result = new QuizResult(0, userId, quizId, quizTitle, score, maxScore, completedAt, durationInSeconds);
+        result.setAttemptKey(attemptKey);
+        
+        int questionCount = in.readInt();
+        for (int i = 0; i < questionCount; i++) {
+            int questionId = in.readInt();
+            String questionText = readString(in);
+            boolean correct = in.readBoolean();
+            int points = in.readInt();
+            int[] optionIds = new int[in.readInt()];
+            for (int j = 0; j < optionIds.length; j++) {
+                optionIds[j] = in.readInt();
+            }
+            result.addQuestionResult(new QuestionResult(0, questionId, questionText, correct, optionIds, points));
+        }
+        return result;
+    }
+    
+    private static byte[] uploadedRecord(String attemptKey) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(RECORD_UPLOADED);
+        out.writeUTF(attemptKey);
+        return frame(bytes.toByteArray());
+    }
+    
+    // Unlike writeUTF, not limited to 64 KB and allows null
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+    
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+    
+    /**
+     * Wraps a record body with its length and checksum.
+     */
+    private static byte[] frame(byte[] body) {
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        
+        ByteBuffer buffer = ByteBuffer.allocate(4 + body.length + 4);
+        buffer.putInt(body.length);
+        buffer.put(body);
+        buffer.putInt((int) crc.getValue());
+        return buffer.array();
+    }
+    
+    /**
+     * Reads one framed record body.
+     *
+     * @return the body, or null at the end of the file or at a damaged record
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                return null;
+            }
+            
+            byte[] body = new byte[length];
+            in.readFully(body);
+            int storedCrc = in.readInt();
+            
+            CRC32 crc = new CRC32();
+            crc.update(body);
+            return (int) crc.getValue() == storedCrc ? body : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+}
\ No newline at end of file
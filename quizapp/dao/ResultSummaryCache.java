@@ -0,0 +1,175 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.QuizResult;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Caches each user's quiz history as ready-to-display rows.
+ * <p>
+ * The first request for a user loads the whole history. Later requests only load
+ * results with an ID above the highest one already cached, so refreshing after a new
+ * attempt costs one row rather than the whole history. Rows are kept in order of
+ * completion, as in {@link QuizResultDAO#getQuizResultsByUser(int)}, even for results
+ * saved later than they were completed (uploaded from the outbox or merged from
+ * another database). Changes that can alter rows
+ * already cached (deleting or renaming a quiz, deleting a user) must call
+ * {@link #invalidate(int)} or {@link #invalidateAll()}; the next request then starts a
+ * new {@link UserHistory}, which tells views that hold the old one to rebuild.
+ */
+public class ResultSummaryCache {
+    // Reads from the repository selected at startup
+    private static final ResultSummaryCache SHARED = new ResultSummaryCache(null);
+    
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+    
+    private final QuizResultRepository quizResults;
+    private final Map<Integer, UserHistory> histories = new ConcurrentHashMap<>();
+    
+    /**
+     * Creates a cache reading from the given repository, or from
+     * {@link Repositories#results()} if it is null.
+     */
+    ResultSummaryCache(QuizResultRepository quizResults) {
+        this.quizResults = quizResults;
+    }
+    
+    /**
+     * Gets the cache shared by the whole application.
+     */
+    public static ResultSummaryCache shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Gets a user's history, loading any results added since the last call.
+     *
+     * @param userId the ID of the user
+     * @return the user's history, oldest result first
+     * @throws SQLException if a database error occurs
+     */
+    public UserHistory getHistory(int userId) throws SQLException {
+        UserHistory history = histories.computeIfAbsent(userId, id -> new UserHistory());
+        QuizResultRepository repository = quizResults != null ? quizResults : Repositories.results();
+        
+        synchronized (history) {
+            List<QuizResult> newResults = repository.getQuizResultsByUserAfter(userId, history.lastResultId);
+            for (QuizResult result : newResults) {
+                history.add(new ResultSummary(result));
+                history.lastResultId = Math.max(history.lastResultId, result.getId());
+            }
+        }
+        return history;
+    }
+    
+    /**
+     * Drops the cached history of a user.
+     */
+    public void invalidate(int userId) {
+        histories.remove(userId);
+    }
+    
+    /**
+     * Drops the cached history of every user.
+     */
+    public void invalidateAll() {
+        histories.clear();
+    }
+    
+    /**
+     * The cached history of one user, oldest result first. Rows are usually appended;
+     * a result completed before the newest cached one is inserted in its place and
+     * changes the {@link #getRevision() revision}.
+     */
+    public static class UserHistory {
+        private final List<ResultSummary> summaries = new ArrayList<>();
+        private int lastResultId;
+        private int revision;
+        
+        public synchronized int size() {
+            return summaries.size();
+        }
+        
+        /**
+         * Gets a number that changes whenever a row is inserted before the end, so
+         * views that only add the rows after those they show must rebuild.
+         */
+        public synchronized int getRevision() {
+            return revision;
+        }
+        
+        private synchronized void add(ResultSummary summary) {
+            int index = Collections.binarySearch(summaries, summary, ResultSummary.BY_COMPLETION);
+            index = index >= 0 ? index : -index - 1;
+            if (index < summaries.size()) {
+                revision++;
+            }
+            summaries.add(index, summary);
+        }
+        
+        /**
+         * Gets the rows from the given index on, oldest first.
+         */
+        public synchronized List<ResultSummary> getSummariesFrom(int fromIndex) {
+            return new ArrayList<>(summaries.subList(Math.min(fromIndex, summaries.size()), summaries.size()));
+        }
+    }
+    
+    /**
+     * A quiz result formatted for display.
+     */
+    public static class ResultSummary {
+        // As in the database: by completion time, then by ID
+        private static final Comparator<ResultSummary> BY_COMPLETION =
+                Comparator.comparing((ResultSummary summary) -> summary.completedAt)
+                        .thenComparingInt(summary -> summary.resultId);
+        
+        private final int resultId;
+        private final LocalDateTime completedAt;
+        private final String quizTitle;
+        private final String score;
+        private final String percentage;
+        private final String completionDate;
+        private final String duration;
+        
+        private ResultSummary(QuizResult result) {
+            this.resultId = result.getId();
+            this.completedAt = result.getCompletedAt();
+            this.quizTitle = result.getQuizTitle();
+            this.score = result.getScore() + " / " + result.getMaxScore();
+            this.percentage = String.format("%.1f%%", result.getPercentageScore());
+            this.completionDate = result.getCompletedAt().format(DATE_FORMATTER);
+            this.duration = formatDuration(result.getDurationInSeconds());
+        }
+        
+        public int getResultId() {
+            return resultId;
+        }
+        
+        /**
+         * Gets the row values: quiz, score, percentage, completion date and duration.
+         */
+        public Object[] toRow() {
+            return new Object[]{quizTitle, score, percentage, completionDate, duration};
+        }
+        
+        private static String formatDuration(long seconds) {
+            long minutes = seconds / 60;
+            long remainingSeconds = seconds % 60;
+            
+            if (minutes > 0) {
+                return String.format("%d min %d sec", minutes, remainingSeconds);
+            } else {
+                return String.format("%d seconds", seconds);
+            }
+        }
+    }
+}
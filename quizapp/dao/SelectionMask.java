@@ -0,0 +1,129 @@
+package com.quizapp.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the options selected for a question as a compact bitmask.
+ * <p>
+ * Bit {@code i} stands for the question's {@code i}-th option when its options are
+ * ordered by ID. Options are only ever appended to a question, so a position keeps its
+ * meaning for the lifetime of the question. The mask is stored little-endian in the
+ * {@code question_results.selected_mask} column (the format of {@link BitSet#toByteArray()}),
+ * so most selections take a single byte and an unanswered question takes none.
+ */
+class SelectionMask {
+
+    private static final int[] NO_OPTIONS = new int[0];
+
+    /**
+     * Encodes selected option IDs as a mask.
+     *
+     * @param selectedOptionIds the selected option IDs
+     * @param questionOptionIds all option IDs of the question, in ascending order
+     * @return the mask; IDs that do not belong to the question are dropped
+     */
+    static byte[] encode(int[] selectedOptionIds, int[] questionOptionIds) {
+        BitSet positions = new BitSet(questionOptionIds.length);
+        for (int optionId : selectedOptionIds) {
+            int position = Arrays.binarySearch(questionOptionIds, optionId);
+            if (position >= 0) {
+                positions.set(position);
+            }
+        }
+        return positions.toByteArray();
+    }
+
+    /**
+     * Decodes a mask back to option IDs.
+     *
+     * @param mask the stored mask (may be null)
+     * @param questionOptionIds all option IDs of the question, in ascending order
+     * @return the selected option IDs, in ascending order
+     */
+    static int[] decode(byte[] mask, int[] questionOptionIds) {
+        if (mask == null || mask.length == 0) {
+            return NO_OPTIONS;
+        }
+
+        BitSet positions = BitSet.valueOf(mask);
+        int[] optionIds = new int[positions.cardinality()];
+        int count = 0;
+        for (int i = positions.nextSetBit(0); i >= 0 && i < questionOptionIds.length; i = positions.nextSetBit(i + 1)) {
+            optionIds[count++] = questionOptionIds[i];
+        }
+        return count == optionIds.length ? optionIds : Arrays.copyOf(optionIds, count);
+    }
+
+    /**
+     * Describes a mask by option position, as the letters shown next to the options
+     * ("A", "B", ...), separated by semicolons. Needs no option IDs.
+     *
+     * @param mask the stored mask (may be null)
+     * @return the labels, or an empty string for no answer
+     */
+    static String labels(byte[] mask) {
+        if (mask == null || mask.length == 0) {
+            return "";
+        }
+
+        BitSet positions = BitSet.valueOf(mask);
+        StringBuilder labels = new StringBuilder();
+        for (int i = positions.nextSetBit(0); i >= 0; i = positions.nextSetBit(i + 1)) {
+            if (labels.length() > 0) {
+                labels.append(';');
+            }
+            if (i < 26) {
+                labels.append((char) ('A' + i));
+            } else {
+                labels.append('#').append(i + 1); // Past Z, fall back to the 1-based position
+            }
+        }
+        return labels.toString();
+    }
+
+    /**
+     * Reads option IDs grouped by question.
+     *
+     * @param rs rows of (question_id, option id), ordered by question_id and then option id
+     * @return the option IDs of each question, in ascending order
+     * @throws SQLException if a database error occurs
+     */
+    static Map<Integer, int[]> readOptionIds(ResultSet rs) throws SQLException {
+        Map<Integer, int[]> optionIdsByQuestion = new HashMap<>();
+        int currentQuestionId = 0;
+        int[] optionIds = new int[8];
+        int count = 0;
+
+        while (rs.next()) {
+            int questionId = rs.getInt(1);
+            if (count > 0 && questionId != currentQuestionId) {
+                optionIdsByQuestion.put(currentQuestionId, Arrays.copyOf(optionIds, count));
+                count = 0;
+            }
+            currentQuestionId = questionId;
+
+            if (count == optionIds.length) {
+                optionIds = Arrays.copyOf(optionIds, count * 2);
+            }
+            optionIds[count++] = rs.getInt(2);
+        }
+
+        if (count > 0) {
+            optionIdsByQuestion.put(currentQuestionId, Arrays.copyOf(optionIds, count));
+        }
+        return optionIdsByQuestion;
+    }
+
+    /**
+     * Gets the option IDs of a question from a map built by {@link #readOptionIds(ResultSet)}.
+     */
+    static int[] optionIdsOf(Map<Integer, int[]> optionIdsByQuestion, int questionId) {
+        int[] optionIds = optionIdsByQuestion.get(questionId);
+        return optionIds != null ? optionIds : NO_OPTIONS;
+    }
+}
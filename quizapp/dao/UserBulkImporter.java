@@ -0,0 +1,348 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.CsvUtil;
+import com.quizapp.util.DatabaseUtil;
+import com.quizapp.util.PasswordUtil;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Imports user accounts in bulk from a CSV file.
+ * <p>
+ * The file must start with a header row naming at least the {@code username},
+ * {@code email} and {@code password} columns; an optional {@code is_admin} column
+ * accepts {@code 1}/{@code true}/{@code yes}. Rows are read in chunks, passwords in
+ * a chunk are hashed in parallel while the previous chunk is being inserted, and
+ * each chunk is inserted as one JDBC batch in its own transaction. Rows that clash
+ * with an existing username or email are reported individually and do not abort
+ * the import.
+ */
+public class UserBulkImporter {
+
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    private static final String INSERT_SQL =
+            "INSERT OR IGNORE INTO users (username, password, email, is_admin) VALUES (?, ?, ?, ?)";
+
+    private static final String CONFLICT_SQL =
+            "SELECT username, email FROM users WHERE username = ? OR email = ?";
+
+    private final int batchSize;
+
+    public UserBulkImporter() {
+        this(DEFAULT_BATCH_SIZE);
+    }
+
+    public UserBulkImporter(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Imports all users from the given CSV reader.
+     *
+     * @param reader the CSV source; it is read line by line and not closed
+     * @return a report of imported and rejected rows
+     * @throws IOException if the CSV cannot be read or has no valid header
+     * @throws SQLException if a database error occurs
+     */
+    public ImportReport importUsers(Reader reader) throws IOException, SQLException {
+        BufferedReader in = reader instanceof BufferedReader
+                ? (BufferedReader) reader : new BufferedReader(reader);
+        ImportReport report = new ImportReport();
+
+        String headerLine = in.readLine();
+        if (headerLine == null) {
+            throw new IOException("The CSV file is empty.");
+        }
+        int[] columns = resolveColumns(CsvUtil.parseLine(stripBom(headerLine)));
+
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService hashPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "user-import-hasher");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        Connection conn = null;
+        PreparedStatement insertStmt = null;
+        PreparedStatement conflictStmt = null;
+
+        try {
+            conn = DatabaseUtil.getConnection();
+            insertStmt = conn.prepareStatement(INSERT_SQL);
+            conflictStmt = conn.prepareStatement(CONFLICT_SQL);
+
+            List<Row> pending = null;
+            int lineNumber = 1;
+            String line;
+            List<Row> chunk = new ArrayList<>(batchSize);
+
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+
+                Row row = parseRow(lineNumber, line, columns, report);
+                if (row == null) {
+                    continue;
+                }
+
+                chunk.add(row);
+                if (chunk.size() == batchSize) {
+                    // Start hashing this chunk before inserting the previous one
+                    submitHashes(hashPool, chunk);
+                    if (pending != null) {
+                        insertChunk(conn, insertStmt, conflictStmt, pending, report);
+                    }
+                    pending = chunk;
+                    chunk = new ArrayList<>(batchSize);
+                }
+            }
+
+            if (!chunk.isEmpty()) {
+                submitHashes(hashPool, chunk);
+            }
+            if (pending != null) {
+                insertChunk(conn, insertStmt, conflictStmt, pending, report);
+            }
+            if (!chunk.isEmpty()) {
+                insertChunk(conn, insertStmt, conflictStmt, chunk, report);
+            }
+
+            return report;
+        } finally {
+            hashPool.shutdownNow();
+            DatabaseUtil.closeQuietly(conflictStmt, insertStmt, conn);
+        }
+    }
+
+    private int[] resolveColumns(List<String> header) throws IOException {
+        // username, email, password, is_admin
+        int[] columns = {-1, -1, -1, -1};
+        String[] names = {"username", "email", "password", "is_admin"};
+
+        for (int i = 0; i < header.size(); i++) {
+            String name = header.get(i).trim().toLowerCase(Locale.ROOT);
+            for (int c = 0; c < names.length; c++) {
+                if (names[c].equals(name)) {
+                    columns[c] = i;
+                }
+            }
+        }
+
+        for (int c = 0; c < 3; c++) {
+            if (columns[c] < 0) {
+                throw new IOException("CSV header is missing the '" + names[c] + "' column.");
+            }
+        }
+        return columns;
+    }
+
+    private Row parseRow(int lineNumber, String line, int[] columns, ImportReport report) {
+        List<String> fields = CsvUtil.parseLine(line);
+
+        String username = field(fields, columns[0]);
+        String email = field(fields, columns[1]);
+        String password = field(fields, columns[2]);
+        String admin = field(fields, columns[3]);
+
+        String problem = null;
+        if (username.isEmpty()) {
+            problem = "Username is empty";
+        } else if (email.isEmpty() || !email.contains("@")) {
+            problem = "Email address is missing or invalid";
+        } else if (password.isEmpty()) {
+            problem = "Password is empty";
+        }
+
+        if (problem != null) {
+            report.addRejected(lineNumber, username, problem);
+            return null;
+        }
+
+        boolean isAdmin = admin.equals("1") || admin.equalsIgnoreCase("true") || admin.equalsIgnoreCase("yes");
+        return new Row(lineNumber, username, email, password, isAdmin);
+    }
+
+    private String field(List<String> fields, int index) {
+        if (index < 0 || index >= fields.size()) {
+            return "";
+        }
+        return fields.get(index).trim();
+    }
+
+    private void submitHashes(ExecutorService hashPool, List<Row> chunk) {
+        for (Row row : chunk) {
+            final String plainText = row.password;
+            row.hashedPassword = hashPool.submit(() -> PasswordUtil.hashPassword(plainText));
+            row.password = null; // Don't keep the plain text longer than needed
+        }
+    }
+
+    private void insertChunk(Connection conn, PreparedStatement insertStmt, PreparedStatement conflictStmt,
+                             List<Row> chunk, ImportReport report) throws SQLException {
+        try {
+            conn.setAutoCommit(false); // Start transaction
+
+            for (Row row : chunk) {
+                insertStmt.setString(1, row.username);
+                insertStmt.setString(2, awaitHash(row));
+                insertStmt.setString(3, row.email);
+                insertStmt.setInt(4, row.isAdmin ? 1 : 0);
+                insertStmt.addBatch();
+            }
+
+            int[] counts = insertStmt.executeBatch();
+
+            for (int i = 0; i < chunk.size(); i++) {
+                Row row = chunk.get(i);
+                if (i < counts.length && counts[i] > 0) {
+                    report.imported++;
+                } else {
+                    report.addRejected(row.lineNumber, row.username, describeConflict(conflictStmt, row));
+                }
+            }
+
+            conn.commit(); // Commit transaction
+        } catch (SQLException e) {
+            try {
+                conn.rollback(); // Rollback on error
+            } catch (SQLException ex) {
+                ex.printStackTrace();
+            }
+            throw e;
+        } finally {
+            insertStmt.clearBatch();
+            try {
+                conn.setAutoCommit(true); // Reset auto-commit
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private String awaitHash(Row row) throws SQLException {
+        try {
+            return row.hashedPassword.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("User import was interrupted", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Hashing password failed for line " + row.lineNumber, e.getCause());
+        }
+    }
+
+    private String describeConflict(PreparedStatement conflictStmt, Row row) throws SQLException {
+        conflictStmt.setString(1, row.username);
+        conflictStmt.setString(2, row.email);
+
+        boolean usernameTaken = false;
+        boolean emailTaken = false;
+
+        try (ResultSet rs = conflictStmt.executeQuery()) {
+            while (rs.next()) {
+                usernameTaken |= row.username.equals(rs.getString("username"));
+                emailTaken |= row.email.equals(rs.getString("email"));
+            }
+        }
+
+        if (usernameTaken && emailTaken) {
+            return "Username and email already exist";
+        } else if (usernameTaken) {
+            return "Username already exists";
+        } else if (emailTaken) {
+            return "Email already exists";
+        }
+        return "Row was not inserted";
+    }
+
+    private static String stripBom(String line) {
+        return line.startsWith("\uFEFF") ? line.substring(1) : line;
+    }
+
+    /**
+     * A parsed CSV row waiting to be inserted.
+     */
+    private static class Row {
+        private final int lineNumber;
+        private final String username;
+        private final String email;
+        private final boolean isAdmin;
+        private String password;
+        private Future<String> hashedPassword;
+
+        private Row(int lineNumber, String username, String email, String password, boolean isAdmin) {
+            this.lineNumber = lineNumber;
+            this.username = username;
+            this.email = email;
+            this.password = password;
+            this.isAdmin = isAdmin;
+        }
+    }
+
+    /**
+     * Summary of a bulk import.
+     */
+    public static class ImportReport {
+        private int imported;
+        private final List<RejectedRow> rejectedRows = new ArrayList<>();
+
+        private void addRejected(int lineNumber, String username, String reason) {
+            rejectedRows.add(new RejectedRow(lineNumber, username, reason));
+        }
+
+        public int getImportedCount() {
+            return imported;
+        }
+
+        public List<RejectedRow> getRejectedRows() {
+            return rejectedRows;
+        }
+    }
+
+    /**
+     * A CSV row that could not be imported, with the reason why.
+     */
+    public static class RejectedRow {
+        private final int lineNumber;
+        private final String username;
+        private final String reason;
+
+        public RejectedRow(int lineNumber, String username, String reason) {
+            this.lineNumber = lineNumber;
+            this.username = username;
+            this.reason = reason;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + " (" + username + "): " + reason;
+        }
+    }
+}
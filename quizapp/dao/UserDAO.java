@@ -11,7 +11,7 @@ import java.util.List;
 /**
  * Data Access Object for User operations.
  */
-public class UserDAO {
+public class UserDAO implements UserRepository {
     
     /**
      * Creates a new user in the database.
@@ -20,6 +20,7 @@ public class UserDAO {
      * @return the created user with ID set
      * @throws SQLException if a database error occurs
      */
+    @Override
     public User createUser(User user) throws SQLException {
         String sql = "INSERT INTO users (username, password, email, is_admin) VALUES (?, ?, ?, ?)";
         
@@ -62,8 +63,10 @@ public class UserDAO {
      * @return the user, or null if not found
      * @throws SQLException if a database error occurs
      */
+    @Override
     public User getUserById(int id) throws SQLException {
-        String sql = "SELECT id, username, password, email, is_admin FROM users WHERE id = ?";
+        String sql = "SELECT id, username, password, email, is_admin FROM users " +
+                     "WHERE id = ? AND deleted_at IS NULL";
         
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -99,8 +102,10 @@ public class UserDAO {
      * @return the user, or null if not found
      * @throws SQLException if a database error occurs
      */
+    @Override
     public User getUserByUsername(String username) throws SQLException {
-        String sql = "SELECT id, username, password, email, is_admin FROM users WHERE username = ?";
+        String sql = "SELECT id, username, password, email, is_admin FROM users " +
+                     "WHERE username = ? AND deleted_at IS NULL";
         
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -135,8 +140,9 @@ public class UserDAO {
      * @return a list of all users
      * @throws SQLException if a database error occurs
      */
+    @Override
     public List<User> getAllUsers() throws SQLException {
-        String sql = "SELECT id, username, password, email, is_admin FROM users";
+        String sql = "SELECT id, username, password, email, is_admin FROM users WHERE deleted_at IS NULL";
         
         Connection conn = null;
         PreparedStatement stmt = null;
@@ -172,6 +178,7 @@ public class UserDAO {
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean updateUser(User user) throws SQLException {
         String sql = "UPDATE users SET username = ?, email = ?, is_admin = ? WHERE id = ?";
         
@@ -188,6 +195,7 @@ public class UserDAO {
             stmt.setInt(4, user.getId());
             
             int affectedRows = stmt.executeUpdate();
+            Leaderboard.shared().invalidateUsername(user.getId());
             return affectedRows > 0;
         } finally {
             DatabaseUtil.closeQuietly(stmt, conn);
@@ -202,6 +210,7 @@ public class UserDAO {
      * @return true if successful, false otherwise
      * @throws SQLException if a database error occurs
      */
+    @Override
     public boolean updatePassword(int userId, String newPassword) throws SQLException {
         String sql = "UPDATE users SET password = ? WHERE id = ?";
         
@@ -223,13 +232,19 @@ public class UserDAO {
     }
     
     /**
-     * Deletes a user from the database.
+     * Deletes a user from the database with their results. A user who created quizzes
+     * cannot be deleted until the quizzes are.
      *
      * @param userId the ID of the user to delete
      * @return true if successful, false otherwise
-     * @throws SQLException if a database error occurs
+     * @throws SQLException if a database error occurs or the user created quizzes
      */
+    @Override
     public boolean deleteUser(int userId) throws SQLException {
+        String sqlQuizCount = "SELECT COUNT(*) FROM quizzes WHERE creator_id = ?";
+        String sqlAnswers = "DELETE FROM question_results " +
+                            "WHERE quiz_result_id IN (SELECT id FROM quiz_results WHERE user_id = ?)";
+        String sqlResults = "DELETE FROM quiz_results WHERE user_id = ?";
         String sql = "DELETE FROM users WHERE id = ?";
         
         Connection conn = null;
@@ -237,12 +252,121 @@ public class UserDAO {
         
         try {
             conn = DatabaseUtil.getConnection();
+            
+            // Quiz statistics are rebuilt below from the remaining results, archived ones
+            // included, and the archive cannot be attached inside a transaction
+            ResultArchiver.attachArchive(conn);
+            conn.setAutoCommit(false); // Start transaction
+            
+            try (PreparedStatement stmtQuizCount = conn.prepareStatement(sqlQuizCount)) {
+                stmtQuizCount.setInt(1, userId);
+                try (ResultSet rs = stmtQuizCount.executeQuery()) {
+                    int quizCount = rs.next() ? rs.getInt(1) : 0;
+                    if (quizCount > 0) {
+                        throw new SQLException("The user created " + quizCount
+                                + " quiz(zes); delete them before deleting the user.");
+                    }
+                }
+            }
+            
+            // Results refer to the user without a cascade, so they go first, after being
+            // taken out of the statistics, counters and item analysis
+            QuizStatsDAO.removeResults(conn, "main", "SELECT id FROM main.quiz_results WHERE user_id = " + userId);
+            for (String sqlDependents : new String[] {sqlAnswers, sqlResults}) {
+                try (PreparedStatement stmtDependents = conn.prepareStatement(sqlDependents)) {
+                    stmtDependents.setInt(1, userId);
+                    stmtDependents.executeUpdate();
+                }
+            }
+            
             stmt = conn.prepareStatement(sql);
             stmt.setInt(1, userId);
             
             int affectedRows = stmt.executeUpdate();
+            conn.commit(); // Commit transaction
+            
+            ResultSummaryCache.shared().invalidate(userId);
+            Leaderboard.shared().invalidateAll();
             return affectedRows > 0;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
         } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            DatabaseUtil.closeQuietly(stmt, conn);
+        }
+    }
+    
+    /**
+     * Marks a user as deleted, so they can no longer log in and no longer appear
+     * anywhere. Their rows stay in the database until {@link DeletionService} removes
+     * them with {@link #deleteUser(int)}. A user who created quizzes cannot be marked
+     * until the quizzes are.
+     *
+     * @param userId the ID of the user to mark
+     * @return true if the user was marked, false if they do not exist or are already marked
+     * @throws SQLException if a database error occurs or the user created quizzes
+     */
+    public boolean markUserDeleted(int userId) throws SQLException {
+        String sqlQuizCount = "SELECT COUNT(*) FROM quizzes WHERE creator_id = ? AND deleted_at IS NULL";
+        String sql = "UPDATE users SET deleted_at = strftime('%s', 'now') WHERE id = ? AND deleted_at IS NULL";
+        
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        
+        try {
+            conn = DatabaseUtil.getConnection();
+            conn.setAutoCommit(false); // Start transaction
+            
+            try (PreparedStatement stmtQuizCount = conn.prepareStatement(sqlQuizCount)) {
+                stmtQuizCount.setInt(1, userId);
+                try (ResultSet rs = stmtQuizCount.executeQuery()) {
+                    int quizCount = rs.next() ? rs.getInt(1) : 0;
+                    if (quizCount > 0) {
+                        throw new SQLException("The user created " + quizCount
+                                + " quiz(zes); delete them before deleting the user.");
+                    }
+                }
+            }
+            
+            stmt = conn.prepareStatement(sql);
+            stmt.setInt(1, userId);
+            
+            int affectedRows = stmt.executeUpdate();
+            conn.commit(); // Commit transaction
+            
+            ResultSummaryCache.shared().invalidate(userId);
+            Leaderboard.shared().invalidateAll();
+            return affectedRows > 0;
+        } catch (SQLException e) {
+            if (conn != null) {
+                try {
+                    conn.rollback(); // Rollback on error
+                } catch (SQLException ex) {
+                    ex.printStackTrace();
+                }
+            }
+            throw e;
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(true); // Reset auto-commit
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
             DatabaseUtil.closeQuietly(stmt, conn);
         }
     }
@@ -255,6 +379,7 @@ public class UserDAO {
      * @return the authenticated user, or null if authentication fails
      * @throws SQLException if a database error occurs
      */
+    @Override
     public User authenticateUser(String username, String password) throws SQLException {
         User user = getUserByUsername(username);
         
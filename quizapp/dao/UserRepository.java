@@ -0,0 +1,88 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.User;
+
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Storage of user accounts. {@link UserDAO} keeps them in the database,
+ * {@link InMemoryUserRepository} in memory; {@link Repositories#users()} gets the one
+ * selected at startup.
+ */
+public interface UserRepository {
+    
+    /**
+     * Creates a new user.
+     *
+     * @param user the user to create, with a plain text password (it is stored hashed)
+     * @return the created user with ID set
+     * @throws SQLException if a storage error occurs or the username or email is taken
+     */
+    User createUser(User user) throws SQLException;
+    
+    /**
+     * Gets a user by ID.
+     *
+     * @param id the ID of the user to get
+     * @return the user, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    User getUserById(int id) throws SQLException;
+    
+    /**
+     * Gets a user by username.
+     *
+     * @param username the username of the user to get
+     * @return the user, or null if not found
+     * @throws SQLException if a storage error occurs
+     */
+    User getUserByUsername(String username) throws SQLException;
+    
+    /**
+     * Gets all users.
+     *
+     * @return a list of all users
+     * @throws SQLException if a storage error occurs
+     */
+    List<User> getAllUsers() throws SQLException;
+    
+    /**
+     * Updates a user's username, email and admin flag.
+     *
+     * @param user the user to update
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs or the username or email is taken
+     */
+    boolean updateUser(User user) throws SQLException;
+    
+    /**
+     * Updates a user's password.
+     *
+     * @param userId the ID of the user
+     * @param newPassword the new password (plain text, will be hashed)
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs
+     */
+    boolean updatePassword(int userId, String newPassword) throws SQLException;
+    
+    /**
+     * Deletes a user with their results. A user who created quizzes cannot be deleted
+     * until the quizzes are.
+     *
+     * @param userId the ID of the user to delete
+     * @return true if successful, false otherwise
+     * @throws SQLException if a storage error occurs or the user created quizzes
+     */
+    boolean deleteUser(int userId) throws SQLException;
+    
+    /**
+     * Authenticates a user with the given username and password.
+     *
+     * @param username the username
+     * @param password the plain text password
+     * @return the authenticated user, or null if authentication fails
+     * @throws SQLException if a storage error occurs
+     */
+    User authenticateUser(String username, String password) throws SQLException;
+}
\ No newline at end of file
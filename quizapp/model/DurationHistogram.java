@@ -0,0 +1,167 @@
+package com.quizapp.model;
+
+/**
+ * Histogram of attempt durations with a bounded relative error, in the style of an HDR
+ * histogram.
+ * <p>
+ * Durations below {@link #SUB_BUCKET_COUNT} seconds get a bucket each. Above that, every
+ * power-of-two range is split into {@code SUB_BUCKET_COUNT / 2} equal buckets, so a
+ * bucket is never wider than about 6% of the values in it. This keeps the histogram
+ * small (a few hundred buckets cover anything up to months) while percentiles stay
+ * accurate for both quick and slow attempts. Histograms are plain counts, so two of
+ * them can be merged by adding their buckets.
+ */
+public class DurationHistogram {
+    public static final int SUB_BUCKET_COUNT = 32;
+    
+    private static final int SUB_BUCKET_BITS = 5; // log2(SUB_BUCKET_COUNT)
+    private static final int HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final int MAX_EXPONENT = 24; // Durations of 2^24 seconds (194 days) and up share the last bucket
+    
+    public static final int BUCKET_COUNT = SUB_BUCKET_COUNT + (MAX_EXPONENT - SUB_BUCKET_BITS) * HALF_COUNT + 1;
+    
+    private final long[] counts;
+    private long totalCount;
+    
+    /**
+     * Creates an empty histogram.
+     */
+    public DurationHistogram() {
+        this.counts = new long[BUCKET_COUNT];
+    }
+    
+    /**
+     * Gets the bucket of a duration.
+     *
+     * @param seconds the duration in seconds (negative values count as 0)
+     * @return the bucket index, between 0 and {@link #BUCKET_COUNT} - 1
+     */
+    public static int bucketOf(long seconds) {
+        if (seconds < SUB_BUCKET_COUNT) {
+            return (int) Math.max(0, seconds);
+        }
+        
+        int shift = (63 - Long.numberOfLeadingZeros(seconds)) - (SUB_BUCKET_BITS - 1);
+        int bucket = SUB_BUCKET_COUNT + (shift - 1) * HALF_COUNT + (int) ((seconds >> shift) - HALF_COUNT);
+        return Math.min(BUCKET_COUNT - 1, bucket);
+    }
+    
+    /**
+     * Gets the shortest duration counted in a bucket.
+     */
+    public static long lowerBound(int bucket) {
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+        int shift = (bucket - SUB_BUCKET_COUNT) / HALF_COUNT + 1;
+        long subBucket = (bucket - SUB_BUCKET_COUNT) % HALF_COUNT + HALF_COUNT;
+        return subBucket << shift;
+    }
+    
+    /**
+     * Gets the longest duration counted in a bucket.
+     */
+    public static long upperBound(int bucket) {
+        if (bucket == BUCKET_COUNT - 1) {
+            return Long.MAX_VALUE;
+        }
+        return lowerBound(bucket + 1) - 1;
+    }
+    
+    /**
+     * Adds attempts to a bucket.
+     *
+     * @param bucket the bucket index
+     * @param count the number of attempts to add
+     */
+    public void addToBucket(int bucket, long count) {
+        counts[bucket] += count;
+        totalCount += count;
+    }
+    
+    /**
+     * Records one attempt.
+     *
+     * @param seconds the duration of the attempt
+     */
+    public void record(long seconds) {
+        addToBucket(bucketOf(seconds), 1);
+    }
+    
+    /**
+     * Adds all counts of another histogram to this one.
+     *
+     * @param other the histogram to merge in
+     */
+    public void merge(DurationHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+    }
+    
+    public long getBucketCount(int bucket) {
+        return counts[bucket];
+    }
+    
+    public long getTotalCount() {
+        return totalCount;
+    }
+    
+    /**
+     * Gets the duration at or below which the given share of attempts finished, e.g. 50
+     * for the median. Reported as the upper end of the bucket holding that attempt, so it
+     * may overstate the duration by up to one bucket width but never understates it.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the duration in seconds, or 0 if the histogram is empty
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (totalCount == 0) {
+            return 0;
+        }
+        
+        long target = Math.max(1, (long) Math.ceil(totalCount * Math.min(100, percentile) / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return i == BUCKET_COUNT - 1 ? lowerBound(i) : upperBound(i);
+            }
+        }
+        return 0;
+    }
+    
+    /**
+     * Gets the percentage of the other attempts that took longer than the given one.
+     * The given attempt is assumed to be counted in this histogram; attempts in the same
+     * bucket count as ties.
+     *
+     * @param seconds the duration of the attempt
+     * @return the percentage (0 when there are no other attempts)
+     */
+    public double getPercentFasterThan(long seconds) {
+        return getPercentFasterThan(seconds, true);
+    }
+    
+    /**
+     * Gets the percentage of the other attempts that took longer than the given one.
+     * Attempts in the same bucket count as ties.
+     *
+     * @param seconds the duration of the attempt
+     * @param counted whether the attempt is counted in this histogram, i.e. it was saved
+     * @return the percentage (0 when there are no other attempts)
+     */
+    public double getPercentFasterThan(long seconds, boolean counted) {
+        long otherCount = counted ? totalCount - 1 : totalCount;
+        if (otherCount < 1) {
+            return 0;
+        }
+        
+        long slower = 0;
+        for (int i = bucketOf(seconds) + 1; i < BUCKET_COUNT; i++) {
+            slower += counts[i];
+        }
+        return slower * 100.0 / otherCount;
+    }
+}
\ No newline at end of file
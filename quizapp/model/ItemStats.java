@@ -0,0 +1,95 @@
+package com.quizapp.model;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Item analysis of a single question across all analyzed attempts.
+ * <p>
+ * Difficulty is the share of attempts that answered the question correctly.
+ * Discrimination is the point-biserial correlation between answering the question
+ * correctly and the attempt's overall percentage: values near zero or below mean the
+ * question does not separate strong from weak students and should be reviewed.
+ */
+public class ItemStats {
+    private final int questionId;
+    private final String questionText;
+    private final long attemptCount;
+    private final long correctCount;
+    private final double totalSum;
+    private final double totalSquareSum;
+    private final double correctTotalSum;
+    private final Map<Integer, Long> optionPickCounts;
+    
+    public ItemStats(int questionId, String questionText, long attemptCount, long correctCount,
+                     double totalSum, double totalSquareSum, double correctTotalSum,
+                     Map<Integer, Long> optionPickCounts) {
+        this.questionId = questionId;
+        this.questionText = questionText;
+        this.attemptCount = attemptCount;
+        this.correctCount = correctCount;
+        this.totalSum = totalSum;
+        this.totalSquareSum = totalSquareSum;
+        this.correctTotalSum = correctTotalSum;
+        this.optionPickCounts = new LinkedHashMap<>(optionPickCounts);
+    }
+    
+    // Getters
+    public int getQuestionId() {
+        return questionId;
+    }
+    
+    public String getQuestionText() {
+        return questionText;
+    }
+    
+    public long getAttemptCount() {
+        return attemptCount;
+    }
+    
+    public long getCorrectCount() {
+        return correctCount;
+    }
+    
+    /**
+     * Gets the percentage of attempts that answered correctly (higher means easier).
+     */
+    public double getDifficulty() {
+        return attemptCount == 0 ? 0 : correctCount * 100.0 / attemptCount;
+    }
+    
+    /**
+     * Gets the point-biserial discrimination index, between -1 and 1.
+     * Returns 0 when it is undefined (everyone or no one answered correctly, or all
+     * attempts had the same total).
+     */
+    public double getDiscrimination() {
+        double n = attemptCount;
+        double covariance = n * correctTotalSum - totalSum * correctCount;
+        double totalVariance = n * totalSquareSum - totalSum * totalSum;
+        double itemVariance = n * correctCount - (double) correctCount * correctCount;
+        
+        if (totalVariance <= 0 || itemVariance <= 0) {
+            return 0;
+        }
+        return covariance / Math.sqrt(totalVariance * itemVariance);
+    }
+    
+    /**
+     * Gets how often each option was picked, by option ID in option order.
+     */
+    public Map<Integer, Long> getOptionPickCounts() {
+        return Collections.unmodifiableMap(optionPickCounts);
+    }
+    
+    @Override
+    public String toString() {
+        return "ItemStats{" +
+                "questionId=" + questionId +
+                ", attemptCount=" + attemptCount +
+                ", difficulty=" + getDifficulty() +
+                ", discrimination=" + getDiscrimination() +
+                '}';
+    }
+}
\ No newline at end of file
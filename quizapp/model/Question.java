@@ -1,6 +1,8 @@
 package com.quizapp.model;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 
 /**
@@ -89,20 +91,68 @@ public class Question {
     }
     
     /**
-     * Checks if the given options are correct.
+     * Gets the position of an option within this question's options.
+     *
+     * @param optionId the ID of the option
+     * @return the position, or -1 if the option does not belong to this question
      */
-    public boolean checkAnswer(List<Integer> selectedOptionIds) {
-        // Get all correct option IDs
-        List<Integer> correctOptionIds = new ArrayList<>();
-        for (Option option : options) {
-            if (option.isCorrect()) {
-                correctOptionIds.add(option.getId());
+    public int indexOfOption(int optionId) {
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).getId() == optionId) {
+                return i;
             }
         }
-        
-        // Check if the selected options match the correct options
-        return selectedOptionIds.containsAll(correctOptionIds) && 
-               correctOptionIds.containsAll(selectedOptionIds);
+        return -1;
+    }
+    
+    /**
+     * Gets the positions of the correct options.
+     */
+    public BitSet getCorrectPositions() {
+        BitSet correctPositions = new BitSet(options.size());
+        for (int i = 0; i < options.size(); i++) {
+            if (options.get(i).isCorrect()) {
+                correctPositions.set(i);
+            }
+        }
+        return correctPositions;
+    }
+    
+    /**
+     * Converts option positions to option IDs, in position order.
+     *
+     * @param positions the selected positions
+     * @return the IDs of the options at those positions
+     */
+    public int[] getOptionIds(BitSet positions) {
+        int[] optionIds = new int[positions.cardinality()];
+        int count = 0;
+        for (int i = positions.nextSetBit(0); i >= 0 && i < options.size(); i = positions.nextSetBit(i + 1)) {
+            optionIds[count++] = options.get(i).getId();
+        }
+        return count == optionIds.length ? optionIds : Arrays.copyOf(optionIds, count);
+    }
+    
+    /**
+     * Checks if the options at the given positions are exactly the correct ones.
+     */
+    public boolean checkAnswer(BitSet selectedPositions) {
+        return getCorrectPositions().equals(selectedPositions);
+    }
+    
+    /**
+     * Checks if the given options are exactly the correct ones.
+     */
+    public boolean checkAnswer(int[] selectedOptionIds) {
+        BitSet selectedPositions = new BitSet(options.size());
+        for (int optionId : selectedOptionIds) {
+            int position = indexOfOption(optionId);
+            if (position < 0) {
+                return false;
+            }
+            selectedPositions.set(position);
+        }
+        return checkAnswer(selectedPositions);
     }
     
     @Override
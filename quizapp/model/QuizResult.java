@@ -16,6 +16,7 @@ public class QuizResult {
     private int maxScore;
     private LocalDateTime completedAt;
     private long durationInSeconds;
+    private String attemptKey; // Set for results that may be uploaded more than once
     private List<QuestionResult> questionResults;
     
     // Constructor for new quiz results (no id yet)
@@ -108,6 +109,18 @@ public class QuizResult {
         this.durationInSeconds = durationInSeconds;
     }
     
+    /**
+     * Gets the key that identifies this attempt across uploads, or null if it has none.
+     * A result whose key is already in the database is not saved again.
+     */
+    public String getAttemptKey() {
+        return attemptKey;
+    }
+    
+    public void setAttemptKey(String attemptKey) {
+        this.attemptKey = attemptKey;
+    }
+    
     public List<QuestionResult> getQuestionResults() {
         return questionResults;
     }
@@ -151,17 +164,19 @@ public class QuizResult {
      * Represents the result of answering a single question within a quiz.
      */
     public static class QuestionResult {
+        private static final int[] NO_OPTIONS = new int[0];
+        
         private int id;
         private int quizResultId;
         private int questionId;
         private String questionText;
         private boolean isCorrect;
-        private List<Integer> selectedOptionIds;
+        private int[] selectedOptionIds;
         private int points;
         
         // Constructor for new question results (no id yet)
         public QuestionResult(int quizResultId, int questionId, String questionText, boolean isCorrect, 
-                             List<Integer> selectedOptionIds, int points) {
+                             int[] selectedOptionIds, int points) {
             this.quizResultId = quizResultId;
             this.questionId = questionId;
             this.questionText = questionText;
@@ -172,7 +187,7 @@ public class QuizResult {
         
         // Constructor for existing question results (with id)
         public QuestionResult(int id, int quizResultId, int questionId, String questionText, boolean isCorrect, 
-                             List<Integer> selectedOptionIds, int points) {
+                             int[] selectedOptionIds, int points) {
             this.id = id;
             this.quizResultId = quizResultId;
             this.questionId = questionId;
@@ -223,11 +238,14 @@ public class QuizResult {
             isCorrect = correct;
         }
         
-        public List<Integer> getSelectedOptionIds() {
-            return selectedOptionIds;
+        /**
+         * Gets the IDs of the options the user selected (never null).
+         */
+        public int[] getSelectedOptionIds() {
+            return selectedOptionIds != null ? selectedOptionIds : NO_OPTIONS;
         }
         
-        public void setSelectedOptionIds(List<Integer> selectedOptionIds) {
+        public void setSelectedOptionIds(int[] selectedOptionIds) {
             this.selectedOptionIds = selectedOptionIds;
         }
         
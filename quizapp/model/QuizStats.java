@@ -0,0 +1,165 @@
+package com.quizapp.model;
+
+/**
+ * Aggregate score statistics for all attempts of a quiz.
+ * <p>
+ * Scores are kept as raw points and as whole percentages; the distribution has one
+ * bucket per percentage point from 0 to 100. Durations are kept in a
+ * {@link DurationHistogram}. Percentile ranks are read from these buckets, so they cost
+ * the same however many attempts there are.
+ */
+public class QuizStats {
+    public static final int BUCKET_COUNT = 101;
+    
+    private final int quizId;
+    private final long attemptCount;
+    private final long scoreSum;
+    private final long scoreSquareSum;
+    private final int lowestScore;
+    private final int highestScore;
+    private final double percentageSum;
+    private final double percentageSquareSum;
+    private final long[] buckets;
+    private final DurationHistogram durations;
+    
+    public QuizStats(int quizId, long attemptCount, long scoreSum, long scoreSquareSum, int lowestScore, int highestScore,
+                     double percentageSum, double percentageSquareSum, long[] buckets, DurationHistogram durations) {
+        this.quizId = quizId;
+        this.attemptCount = attemptCount;
+        this.scoreSum = scoreSum;
+        this.scoreSquareSum = scoreSquareSum;
+        this.lowestScore = lowestScore;
+        this.highestScore = highestScore;
+        this.percentageSum = percentageSum;
+        this.percentageSquareSum = percentageSquareSum;
+        this.buckets = buckets;
+        this.durations = durations;
+    }
+    
+    /**
+     * Creates statistics for a quiz nobody has attempted yet.
+     */
+    public static QuizStats empty(int quizId) {
+        return new QuizStats(quizId, 0, 0, 0, 0, 0, 0, 0, new long[BUCKET_COUNT], new DurationHistogram());
+    }
+    
+    /**
+     * Gets the distribution bucket of a score: its percentage of the maximum, rounded down.
+     * Integer arithmetic keeps this identical to the SQL used to rebuild the statistics.
+     */
+    public static int bucketOf(int score, int maxScore) {
+        if (maxScore <= 0) {
+            return 0;
+        }
+        return Math.max(0, Math.min(BUCKET_COUNT - 1, score * 100 / maxScore));
+    }
+    
+    // Getters
+    public int getQuizId() {
+        return quizId;
+    }
+    
+    public long getAttemptCount() {
+        return attemptCount;
+    }
+    
+    public int getLowestScore() {
+        return lowestScore;
+    }
+    
+    public int getHighestScore() {
+        return highestScore;
+    }
+    
+    public double getMeanScore() {
+        return attemptCount == 0 ? 0 : (double) scoreSum / attemptCount;
+    }
+    
+    public double getScoreStandardDeviation() {
+        return standardDeviation(scoreSum, scoreSquareSum);
+    }
+    
+    public double getMeanPercentage() {
+        return attemptCount == 0 ? 0 : percentageSum / attemptCount;
+    }
+    
+    public double getPercentageStandardDeviation() {
+        return standardDeviation(percentageSum, percentageSquareSum);
+    }
+    
+    /**
+     * Gets the number of attempts whose percentage, rounded down, equals the given value.
+     */
+    public long getBucketCount(int percentage) {
+        return buckets[percentage];
+    }
+    
+    /**
+     * Gets the number of attempts with a rounded-down percentage in {@code [from, to]}.
+     */
+    public long getBucketCount(int from, int to) {
+        long count = 0;
+        for (int i = Math.max(0, from); i <= Math.min(BUCKET_COUNT - 1, to); i++) {
+            count += buckets[i];
+        }
+        return count;
+    }
+    
+    /**
+     * Gets the percentage of the other attempts that scored lower than the given score.
+     * The given attempt is assumed to be counted in these statistics; attempts in the
+     * same percentage bucket count as ties.
+     *
+     * @param score the score of the attempt
+     * @param maxScore the maximum score of the attempt
+     * @return the percentage (0 when there are no other attempts)
+     */
+    public double getPercentBetterThan(int score, int maxScore) {
+        return getPercentBetterThan(score, maxScore, true);
+    }
+    
+    /**
+     * Gets the percentage of the other attempts that scored lower than the given score.
+     * Attempts in the same percentage bucket count as ties.
+     *
+     * @param score the score of the attempt
+     * @param maxScore the maximum score of the attempt
+     * @param counted whether the attempt is counted in these statistics, i.e. it was saved
+     * @return the percentage (0 when there are no other attempts)
+     */
+    public double getPercentBetterThan(int score, int maxScore, boolean counted) {
+        long otherCount = counted ? attemptCount - 1 : attemptCount;
+        if (otherCount < 1) {
+            return 0;
+        }
+        long lower = getBucketCount(0, bucketOf(score, maxScore) - 1);
+        return lower * 100.0 / otherCount;
+    }
+    
+    /**
+     * Gets the distribution of attempt durations.
+     */
+    public DurationHistogram getDurations() {
+        return durations;
+    }
+    
+    private double standardDeviation(double sum, double squareSum) {
+        if (attemptCount < 2) {
+            return 0;
+        }
+        // Sample variance from the running sums
+        double variance = (squareSum - sum * sum / attemptCount) / (attemptCount - 1);
+        return Math.sqrt(Math.max(0, variance));
+    }
+    
+    @Override
+    public String toString() {
+        return "QuizStats{" +
+                "quizId=" + quizId +
+                ", attemptCount=" + attemptCount +
+                ", meanScore=" + getMeanScore() +
+                ", lowestScore=" + lowestScore +
+                ", highestScore=" + highestScore +
+                '}';
+    }
+}
\ No newline at end of file
@@ -0,0 +1,186 @@
+package com.quizapp.ui;
+
+import com.quizapp.dao.Leaderboard;
+import com.quizapp.dao.Leaderboard.Entry;
+import com.quizapp.dao.Leaderboard.RankedEntry;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.Repositories;
+import com.quizapp.model.Quiz;
+import com.quizapp.model.User;
+import com.quizapp.util.ThemeManager;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Panel to display the best students of each quiz.
+ */
+public class LeaderboardPanel extends JPanel {
+    
+    private User currentUser;
+    private QuizRepository quizDAO;
+    private List<Quiz> quizzes;
+    private List<RankedEntry> entries;
+    private JComboBox<String> quizComboBox;
+    private JTable leaderboardTable;
+    private DefaultTableModel tableModel;
+    private JLabel titleLabel;
+    private JLabel noteLabel;
+    private JButton refreshButton;
+    
+    public LeaderboardPanel(User currentUser) {
+        this.currentUser = currentUser;
+        this.quizDAO = Repositories.quizzes();
+        this.quizzes = new ArrayList<>();
+        this.entries = new ArrayList<>();
+        
+        setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
+        setBackground(ThemeManager.BACKGROUND_COLOR);
+        setBorder(BorderFactory.createEmptyBorder(
+                ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM,
+                ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
+        
+        // Initialize components
+        initializeComponents();
+        
+        // Set up layout
+        setupLayout();
+        
+        // Load quizzes, which shows the board of the first one
+        loadQuizzes();
+    }
+    
+    private void initializeComponents() {
+        titleLabel = ThemeManager.createTitleLabel("Leaderboard");
+        quizComboBox = new JComboBox<>();
+        quizComboBox.setFont(ThemeManager.BODY_FONT);
+        noteLabel = ThemeManager.createStyledLabel(
+                "Top " + Leaderboard.TOP_K + " students, best attempt each. Ties go to the faster attempt.");
+        
+        // Create table model with column names
+        String[] columnNames = {"Rank", "Student", "Score", "Percentage", "Duration"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false; // Make table cells non-editable
+            }
+        };
+        
+        // Create table with the model
+        leaderboardTable = new JTable(tableModel);
+        leaderboardTable.setRowHeight(ThemeManager.SPACING_LARGE);
+        leaderboardTable.getTableHeader().setFont(ThemeManager.BODY_FONT.deriveFont(Font.BOLD));
+        leaderboardTable.setFont(ThemeManager.BODY_FONT);
+        leaderboardTable.getColumnModel().getColumn(0).setMaxWidth(60);
+        
+        // Highlight the current user's row
+        leaderboardTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                         boolean isSelected, boolean hasFocus,
+                                                         int row, int column) {
+                Component c = super.getTableCellRendererComponent(
+                        table, value, isSelected, hasFocus, row, column);
+                
+                if (!isSelected) {
+                    boolean own = entries.get(row).getEntry().getUserId() == currentUser.getId();
+                    c.setBackground(own ? new Color(230, 240, 255) : Color.WHITE); // Light blue
+                }
+                
+                return c;
+            }
+        });
+        
+        // Create buttons
+        refreshButton = ThemeManager.createStyledButton("Refresh");
+    }
+    
+    private void setupLayout() {
+        // Create header panel with title, quiz selection and refresh button
+        JPanel headerPanel = new JPanel(new BorderLayout());
+        headerPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        headerPanel.add(titleLabel, BorderLayout.WEST);
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        buttonPanel.add(ThemeManager.createStyledLabel("Quiz:"));
+        buttonPanel.add(quizComboBox);
+        buttonPanel.add(refreshButton);
+        headerPanel.add(buttonPanel, BorderLayout.EAST);
+        
+        // Create scroll pane for table
+        JScrollPane scrollPane = new JScrollPane(leaderboardTable);
+        scrollPane.getViewport().setBackground(Color.WHITE);
+        scrollPane.setBorder(BorderFactory.createEmptyBorder());
+        
+        // Add components to panel
+        add(headerPanel, BorderLayout.NORTH);
+        add(scrollPane, BorderLayout.CENTER);
+        add(noteLabel, BorderLayout.SOUTH);
+        
+        // Add action listeners
+        quizComboBox.addActionListener(e -> loadLeaderboard());
+        refreshButton.addActionListener(e -> loadLeaderboard());
+    }
+    
+    private void loadQuizzes() {
+        try {
+            quizzes = quizDAO.getAllQuizzes();
+            for (Quiz quiz : quizzes) {
+                quizComboBox.addItem(quiz.getTitle());
+            }
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error loading quizzes: " + e.getMessage(),
+                    "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+    
+    private void loadLeaderboard() {
+        int selectedIndex = quizComboBox.getSelectedIndex();
+        if (selectedIndex == -1) {
+            return;
+        }
+        
+        try {
+            // Read from the in-memory board; no sort over the quiz's results
+            entries = Leaderboard.shared().getTopResults(quizzes.get(selectedIndex).getId());
+            
+            tableModel.setRowCount(0);
+            for (RankedEntry ranked : entries) {
+                Entry entry = ranked.getEntry();
+                tableModel.addRow(new Object[]{
+                    ranked.getRank(),
+                    ranked.getUsername(),
+                    entry.getScore() + "/" + entry.getMaxScore(),
+                    String.format("%.1f%%", entry.getPercentage()),
+                    formatDuration(entry.getDurationInSeconds())
+                });
+            }
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error loading leaderboard: " + e.getMessage(),
+                    "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+    
+    private String formatDuration(long seconds) {
+        long minutes = seconds / 60;
+        long remainingSeconds = seconds % 60;
+        
+        if (minutes > 0) {
+            return String.format("%d min %d sec", minutes, remainingSeconds);
+        } else {
+            return String.format("%d seconds", seconds);
+        }
+    }
+}
\ No newline at end of file
@@ -1,6 +1,8 @@
 package com.quizapp.ui;
 
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.DatabaseInitializer;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
@@ -8,6 +10,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Login frame for user authentication.
@@ -19,10 +22,10 @@ public class LoginFrame extends JFrame {
     private JButton loginButton;
     private JButton registerButton;
     
-    private UserDAO userDAO;
+    private UserRepository userDAO;
     
     public LoginFrame() {
-        userDAO = new UserDAO();
+        userDAO = Repositories.users();
         
         // Set up the frame
         setTitle("Quiz Application - Login");
@@ -140,6 +143,10 @@ public class LoginFrame extends JFrame {
     }
     
     private void login() {
+        if (!loginButton.isEnabled()) {
+            return; // Still waiting for the database
+        }
+        
         String username = usernameField.getText().trim();
         String password = new String(passwordField.getPassword());
         
@@ -151,6 +158,35 @@ public class LoginFrame extends JFrame {
             return;
         }
         
+        loginButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        // The schema is prepared in the background at startup; wait for it off the event thread
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws SQLException {
+                DatabaseInitializer.awaitInitialization();
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                loginButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                
+                try {
+                    get();
+                    authenticate(username, password);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showDatabaseError(e.getCause());
+                }
+            }
+        }.execute();
+    }
+    
+    private void authenticate(String username, String password) {
         try {
             User user = userDAO.authenticateUser(username, password);
             
@@ -165,14 +201,18 @@ public class LoginFrame extends JFrame {
                         JOptionPane.ERROR_MESSAGE);
             }
         } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Database error: " + ex.getMessage(),
-                    "Login Error",
-                    JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
+            showDatabaseError(ex);
         }
     }
     
+    private void showDatabaseError(Throwable ex) {
+        JOptionPane.showMessageDialog(this,
+                "Database error: " + ex.getMessage(),
+                "Login Error",
+                JOptionPane.ERROR_MESSAGE);
+        ex.printStackTrace();
+    }
+    
     private void openRegisterFrame() {
         RegisterFrame registerFrame = new RegisterFrame(this);
         registerFrame.setVisible(true);
@@ -1,5 +1,7 @@
 package com.quizapp.ui;
 
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.ResultOutbox;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 import com.quizapp.ui.admin.AdminPanel;
@@ -19,9 +21,12 @@ public class MainFrame extends JFrame {
     private JPanel contentPanel;
     private JButton quizListButton;
     private JButton myResultsButton;
+    private JButton leaderboardButton;
     private JButton profileButton;
     private JButton adminButton;
     private JButton logoutButton;
+    private JLabel outboxLabel;
+    private Timer outboxTimer;
     
     public MainFrame(User currentUser) {
         this.currentUser = currentUser;
@@ -52,6 +57,7 @@ public class MainFrame extends JFrame {
         
         quizListButton = ThemeManager.createStyledButton("Available Quizzes");
         myResultsButton = ThemeManager.createStyledButton("My Results");
+        leaderboardButton = ThemeManager.createStyledButton("Leaderboard");
         profileButton = ThemeManager.createStyledButton("Profile");
         adminButton = ThemeManager.createStyledButton("Admin Panel");
         logoutButton = ThemeManager.createStyledButton("Logout");
@@ -59,8 +65,18 @@ public class MainFrame extends JFrame {
         // Only show admin button for admin users
         adminButton.setVisible(currentUser.isAdmin());
         
+        // Boards are built from the database, which does not hold results kept in memory
+        leaderboardButton.setVisible(!Repositories.isInMemory());
+        
         // Style logout button differently
         logoutButton.setBackground(ThemeManager.ERROR_COLOR);
+        
+        // Shows results waiting to be uploaded from the outbox
+        outboxLabel = new JLabel();
+        outboxLabel.setForeground(Color.WHITE);
+        outboxLabel.setFont(ThemeManager.SMALL_FONT);
+        outboxLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
+        outboxLabel.setVisible(false);
     }
     
     private void setupLayout() {
@@ -91,7 +107,7 @@ public class MainFrame extends JFrame {
         sidebarPanel.add(titlePanel);
         
         // Add sidebar buttons
-        for (JButton button : new JButton[]{quizListButton, myResultsButton, profileButton, adminButton}) {
+        for (JButton button : new JButton[]{quizListButton, myResultsButton, leaderboardButton, profileButton, adminButton}) {
             styleNavigationButton(button);
             sidebarPanel.add(button);
             sidebarPanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
@@ -100,6 +116,10 @@ public class MainFrame extends JFrame {
         // Add spacer to push logout button to bottom
         sidebarPanel.add(Box.createVerticalGlue());
         
+        // Add upload status above the logout button
+        sidebarPanel.add(outboxLabel);
+        sidebarPanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
+        
         // Add logout button
         styleNavigationButton(logoutButton);
         sidebarPanel.add(logoutButton);
@@ -133,6 +153,10 @@ public class MainFrame extends JFrame {
             showMyResults();
         });
         
+        leaderboardButton.addActionListener((ActionEvent e) -> {
+            showLeaderboard();
+        });
+        
         profileButton.addActionListener((ActionEvent e) -> {
             showProfile();
         });
@@ -144,6 +168,36 @@ public class MainFrame extends JFrame {
         logoutButton.addActionListener((ActionEvent e) -> {
             logout();
         });
+        
+        // Refresh the upload status every second
+        outboxTimer = new Timer(1000, (ActionEvent e) -> {
+            updateOutboxStatus();
+        });
+        outboxTimer.start();
+    }
+    
+    private void updateOutboxStatus() {
+        ResultOutbox outbox = ResultOutbox.shared();
+        int pendingCount = outbox.getPendingCount();
+        boolean show = ResultOutbox.isOfflineMode() || pendingCount > 0 || outbox.getUploadedCount() > 0;
+        outboxLabel.setVisible(show);
+        if (!show) {
+            return;
+        }
+        
+        // Two lines keep the sidebar narrow
+        String lastSync = outbox.getLastBatchCount() > 0
+                ? String.format("Last upload: %,d at %,.0f/s", outbox.getLastBatchCount(), outbox.getLastResultsPerSecond())
+                : "Nothing uploaded yet";
+        outboxLabel.setText("<html>" + (ResultOutbox.isOfflineMode() ? "Offline mode<br>" : "")
+                + String.format("Uploads pending: %,d", pendingCount) + "<br>" + lastSync + "</html>");
+        outboxLabel.setToolTipText(outbox.getLastError() != null ? "Last error: " + outbox.getLastError() : null);
+    }
+    
+    @Override
+    public void dispose() {
+        outboxTimer.stop();
+        super.dispose();
     }
     
     private void showQuizList() {
@@ -164,6 +218,15 @@ public class MainFrame extends JFrame {
         contentPanel.repaint();
     }
     
+    private void showLeaderboard() {
+        setActiveButton(leaderboardButton);
+        contentPanel.removeAll();
+        LeaderboardPanel leaderboardPanel = new LeaderboardPanel(currentUser);
+        contentPanel.add(leaderboardPanel, BorderLayout.CENTER);
+        contentPanel.revalidate();
+        contentPanel.repaint();
+    }
+    
     private void showProfile() {
         setActiveButton(profileButton);
         contentPanel.removeAll();
@@ -205,7 +268,7 @@ public class MainFrame extends JFrame {
     
     private void setActiveButton(JButton activeButton) {
         // Reset all buttons
-        for (JButton button : new JButton[]{quizListButton, myResultsButton, profileButton, adminButton}) {
+        for (JButton button : new JButton[]{quizListButton, myResultsButton, leaderboardButton, profileButton, adminButton}) {
             if (button != activeButton) {
                 button.setBackground(new Color(60, 80, 110)); // Default color
             }
@@ -1,6 +1,8 @@
 package com.quizapp.ui;
 
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.DatabaseInitializer;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
@@ -8,6 +10,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.sql.SQLException;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Registration frame for new users.
@@ -21,12 +24,12 @@ public class RegisterFrame extends JFrame {
     private JButton registerButton;
     private JButton backButton;
     
-    private UserDAO userDAO;
+    private UserRepository userDAO;
     private JFrame parentFrame;
     
     public RegisterFrame(JFrame parentFrame) {
         this.parentFrame = parentFrame;
-        userDAO = new UserDAO();
+        userDAO = Repositories.users();
         
         // Set up the frame
         setTitle("Quiz Application - Register");
@@ -153,6 +156,10 @@ public class RegisterFrame extends JFrame {
     }
     
     private void register() {
+        if (!registerButton.isEnabled()) {
+            return; // Still waiting for the database
+        }
+        
         String username = usernameField.getText().trim();
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword());
@@ -191,6 +198,35 @@ public class RegisterFrame extends JFrame {
             return;
         }
         
+        registerButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        // The schema is prepared in the background at startup; wait for it off the event thread
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws SQLException {
+                DatabaseInitializer.awaitInitialization();
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                registerButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                
+                try {
+                    get();
+                    createAccount(username, email, password);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    showDatabaseError(e.getCause());
+                }
+            }
+        }.execute();
+    }
+    
+    private void createAccount(String username, String email, String password) {
         try {
             // Check if username already exists
             if (userDAO.getUserByUsername(username) != null) {
@@ -212,14 +248,18 @@ public class RegisterFrame extends JFrame {
             
             goBackToLogin();
         } catch (SQLException ex) {
-            JOptionPane.showMessageDialog(this,
-                    "Database error: " + ex.getMessage(),
-                    "Registration Error",
-                    JOptionPane.ERROR_MESSAGE);
-            ex.printStackTrace();
+            showDatabaseError(ex);
         }
     }
     
+    private void showDatabaseError(Throwable ex) {
+        JOptionPane.showMessageDialog(this,
+                "Database error: " + ex.getMessage(),
+                "Registration Error",
+                JOptionPane.ERROR_MESSAGE);
+        ex.printStackTrace();
+    }
+    
     private boolean isValidEmail(String email) {
         // Simple email validation
         return email.matches("^[A-Za-z0-9+_.-]+@(.+)$");
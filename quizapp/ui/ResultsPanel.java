@@ -1,7 +1,8 @@
 package com.quizapp.ui;
 
-import com.quizapp.dao.QuizResultDAO;
-import com.quizapp.model.QuizResult;
+import com.quizapp.dao.ResultSummaryCache;
+import com.quizapp.dao.ResultSummaryCache.ResultSummary;
+import com.quizapp.dao.ResultSummaryCache.UserHistory;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
@@ -9,8 +10,6 @@ import javax.swing.*;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.sql.SQLException;
-import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
  * Panel to display a user's quiz results.
@@ -18,16 +17,19 @@ import java.util.List;
 public class ResultsPanel extends JPanel {
     
     private User currentUser;
-    private QuizResultDAO quizResultDAO;
     private JTable resultsTable;
     private DefaultTableModel tableModel;
     private JLabel titleLabel;
     private JButton refreshButton;
     private JButton viewDetailsButton;
     
+    // The cached history currently shown, its revision and how many of its rows are in the table
+    private UserHistory shownHistory;
+    private int shownRevision;
+    private int shownCount;
+    
     public ResultsPanel(User currentUser) {
         this.currentUser = currentUser;
-        this.quizResultDAO = new QuizResultDAO();
         
         setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         setBackground(ThemeManager.BACKGROUND_COLOR);
@@ -96,32 +98,28 @@ public class ResultsPanel extends JPanel {
     }
     
     private void loadQuizResults() {
-        // Clear existing data
-        tableModel.setRowCount(0);
-        
         try {
-            // Get quiz results for the current user
-            List<QuizResult> results = quizResultDAO.getQuizResultsByUser(currentUser.getId());
+            // Get the cached history, which only loads results added since the last refresh
+            UserHistory history = ResultSummaryCache.shared().getHistory(currentUser.getId());
             
-            // Add results to table
-            DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+            // Rebuild the table only if the cache was invalidated or a result was inserted
+            // between rows already shown (e.g. one completed offline and uploaded later)
+            int revision = history.getRevision();
+            if (history != shownHistory || revision != shownRevision) {
+                tableModel.setRowCount(0);
+                shownHistory = history;
+                shownRevision = revision;
+                shownCount = 0;
+            }
             
-            for (QuizResult result : results) {
-                String quizTitle = result.getQuizTitle();
-                String score = result.getScore() + " / " + result.getMaxScore();
-                String percentage = String.format("%.1f%%", result.getPercentageScore());
-                String completionDate = result.getCompletedAt().format(dateFormatter);
-                
-                // Format duration
-                long durationSeconds = result.getDurationInSeconds();
-                String duration = formatDuration(durationSeconds);
-                
-                // Add row to table
-                tableModel.addRow(new Object[]{quizTitle, score, percentage, completionDate, duration});
+            // Add new results to the top of the table (newest first)
+            for (ResultSummary summary : history.getSummariesFrom(shownCount)) {
+                tableModel.insertRow(0, summary.toRow());
+                shownCount++;
             }
             
             // If no results, show message
-            if (results.isEmpty()) {
+            if (shownCount == 0) {
                 JOptionPane.showMessageDialog(this,
                         "You haven't taken any quizzes yet.",
                         "No Results",
@@ -136,17 +134,6 @@ public class ResultsPanel extends JPanel {
         }
     }
     
-    private String formatDuration(long seconds) {
-        long minutes = seconds / 60;
-        long remainingSeconds = seconds % 60;
-        
-        if (minutes > 0) {
-            return String.format("%d min %d sec", minutes, remainingSeconds);
-        } else {
-            return String.format("%d seconds", seconds);
-        }
-    }
-    
     private void viewResultDetails() {
         int selectedRow = resultsTable.getSelectedRow();
         
@@ -1,7 +1,8 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.QuizDAO;
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.Quiz;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
@@ -16,14 +17,14 @@ import java.awt.event.ActionEvent;
 public class AdminPanel extends JPanel {
     
     private User currentUser;
-    private QuizDAO quizDAO;
-    private UserDAO userDAO;
+    private QuizRepository quizDAO;
+    private UserRepository userDAO;
     private JTabbedPane tabbedPane;
     
     public AdminPanel(User currentUser) {
         this.currentUser = currentUser;
-        this.quizDAO = new QuizDAO();
-        this.userDAO = new UserDAO();
+        this.quizDAO = Repositories.quizzes();
+        this.userDAO = Repositories.users();
         
         // Verify admin status
         if (!currentUser.isAdmin()) {
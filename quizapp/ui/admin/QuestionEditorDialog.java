@@ -1,6 +1,8 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.PickCounters;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.Repositories;
 import com.quizapp.model.Question;
 import com.quizapp.model.Question.Option;
 import com.quizapp.util.ThemeManager;
@@ -12,7 +14,9 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Dialog for creating and editing questions.
@@ -20,7 +24,7 @@ import java.util.List;
 public class QuestionEditorDialog extends JDialog {
     
     private Question question;
-    private QuizDAO quizDAO;
+    private QuizRepository quizDAO;
     private boolean isNewQuestion;
     private boolean questionSaved;
     
@@ -34,6 +38,9 @@ public class QuestionEditorDialog extends JDialog {
     private JButton saveButton;
     private JButton cancelButton;
     
+    // How often students picked each saved option, by option ID
+    private Map<Integer, Long> optionPickCounts = Collections.emptyMap();
+    
     /**
      * Constructor for creating or editing a question.
      *
@@ -44,7 +51,7 @@ public class QuestionEditorDialog extends JDialog {
     public QuestionEditorDialog(JDialog parent, Question question, boolean isNewQuestion) {
         super(parent, "Question Editor", true);
         this.question = question;
-        this.quizDAO = new QuizDAO();
+        this.quizDAO = Repositories.quizzes();
         this.isNewQuestion = isNewQuestion;
         this.questionSaved = false;
         
@@ -80,7 +87,7 @@ public class QuestionEditorDialog extends JDialog {
         pointsSpinner = new JSpinner(spinnerModel);
         
         // Options table
-        String[] columnNames = {"ID", "Option Text", "Correct"};
+        String[] columnNames = {"ID", "Option Text", "Correct", "Picked"};
         optionsTableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -217,6 +224,16 @@ public class QuestionEditorDialog extends JDialog {
         questionTextArea.setText(question.getText());
         pointsSpinner.setValue(question.getPoints());
         
+        // Load how often the saved options were picked (counted in the database only)
+        if (!isNewQuestion && !Repositories.isInMemory()) {
+            try {
+                optionPickCounts = PickCounters.shared().getOptionPickCounts(
+                        Collections.singletonList(question.getId()));
+            } catch (SQLException e) {
+                System.err.println("Error loading option pick counts: " + e.getMessage());
+            }
+        }
+        
         // Load options
         updateOptionsTable();
     }
@@ -230,7 +247,8 @@ public class QuestionEditorDialog extends JDialog {
             optionsTableModel.addRow(new Object[]{
                 option.getId(),
                 option.getText(),
-                option.isCorrect()
+                option.isCorrect(),
+                optionPickCounts.getOrDefault(option.getId(), 0L)
             });
         }
     }
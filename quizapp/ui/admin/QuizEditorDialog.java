@@ -1,6 +1,7 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.Repositories;
 import com.quizapp.model.Quiz;
 import com.quizapp.model.Question;
 import com.quizapp.model.Question.Option;
@@ -23,7 +24,7 @@ public class QuizEditorDialog extends JDialog {
     
     private User currentUser;
     private Quiz quiz;
-    private QuizDAO quizDAO;
+    private QuizRepository quizDAO;
     private boolean isNewQuiz;
     
     private JTextField titleField;
@@ -47,7 +48,7 @@ public class QuizEditorDialog extends JDialog {
     public QuizEditorDialog(JFrame parent, User currentUser, Quiz quiz) {
         super(parent, "Quiz Editor", true);
         this.currentUser = currentUser;
-        this.quizDAO = new QuizDAO();
+        this.quizDAO = Repositories.quizzes();
         
         // Determine if we're creating a new quiz or editing an existing one
         if (quiz == null) {
@@ -1,16 +1,37 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.DeletionService;
+import com.quizapp.dao.DeletionService.Deletion;
+import com.quizapp.dao.ItemAnalyzer;
+import com.quizapp.dao.QuizBulkImporter;
+import com.quizapp.dao.QuizBulkImporter.ImportReport;
+import com.quizapp.dao.QuizBulkImporter.RejectedQuiz;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.QuizStatsDAO;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.ResultExporter;
+import com.quizapp.dao.ResultExporter.ExportReport;
+import com.quizapp.dao.ResultExporter.Format;
+import com.quizapp.model.ItemStats;
 import com.quizapp.model.Quiz;
+import com.quizapp.model.QuizStats;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panel for quiz management (creating, editing, and deleting quizzes).
@@ -18,17 +39,21 @@ import java.util.List;
 public class QuizManagementPanel extends JPanel {
     
     private User currentUser;
-    private QuizDAO quizDAO;
+    private QuizRepository quizDAO;
     private JTable quizTable;
     private DefaultTableModel tableModel;
     private JButton createQuizButton;
     private JButton editQuizButton;
     private JButton deleteQuizButton;
+    private JButton statsButton;
+    private JButton importButton;
+    private JButton exportButton;
     private JButton refreshButton;
+    private JLabel statusLabel;
     
     public QuizManagementPanel(User currentUser) {
         this.currentUser = currentUser;
-        this.quizDAO = new QuizDAO();
+        this.quizDAO = Repositories.quizzes();
         
         setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         setBackground(ThemeManager.BACKGROUND_COLOR);
@@ -70,10 +95,22 @@ public class QuizManagementPanel extends JPanel {
         createQuizButton = ThemeManager.createStyledButton("Create Quiz");
         editQuizButton = ThemeManager.createStyledButton("Edit Quiz");
         deleteQuizButton = ThemeManager.createStyledButton("Delete Quiz");
+        statsButton = ThemeManager.createStyledButton("Statistics");
+        importButton = ThemeManager.createStyledButton("Import Quizzes");
+        exportButton = ThemeManager.createStyledButton("Export Results");
         refreshButton = ThemeManager.createStyledButton("Refresh");
         
         // Set button colors
         deleteQuizButton.setBackground(ThemeManager.ERROR_COLOR);
+        
+        // These work on the database, which does not hold quizzes kept in memory
+        statsButton.setVisible(!Repositories.isInMemory());
+        importButton.setVisible(!Repositories.isInMemory());
+        exportButton.setVisible(!Repositories.isInMemory());
+        
+        // Shows the progress of a running import, export or deletion
+        statusLabel = ThemeManager.createStyledLabel(" ");
+        statusLabel.setFont(ThemeManager.SMALL_FONT);
     }
     
     private void setupLayout() {
@@ -88,6 +125,9 @@ public class QuizManagementPanel extends JPanel {
         buttonPanel.add(editQuizButton);
         buttonPanel.add(deleteQuizButton);
         buttonPanel.add(Box.createHorizontalStrut(ThemeManager.SPACING_LARGE));
+        buttonPanel.add(statsButton);
+        buttonPanel.add(importButton);
+        buttonPanel.add(exportButton);
         buttonPanel.add(refreshButton);
         
         // Create header panel
@@ -104,6 +144,7 @@ public class QuizManagementPanel extends JPanel {
         // Add components to panel
         add(headerPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
     }
     
     private void addEventListeners() {
@@ -119,6 +160,18 @@ public class QuizManagementPanel extends JPanel {
             deleteQuiz();
         });
         
+        statsButton.addActionListener((ActionEvent e) -> {
+            showQuizStats();
+        });
+        
+        importButton.addActionListener((ActionEvent e) -> {
+            importQuizzes();
+        });
+        
+        exportButton.addActionListener((ActionEvent e) -> {
+            exportResults();
+        });
+        
         refreshButton.addActionListener((ActionEvent e) -> {
             loadQuizzes();
         });
@@ -201,6 +254,209 @@ public class QuizManagementPanel extends JPanel {
         }
     }
     
+    private void showQuizStats() {
+        int selectedRow = quizTable.getSelectedRow();
+        
+        if (selectedRow == -1) {
+            JOptionPane.showMessageDialog(this,
+                    "Please select a quiz to view its statistics.",
+                    "No Selection",
+                    JOptionPane.WARNING_MESSAGE);
+            return;
+        }
+        
+        int quizId = (int) quizTable.getValueAt(selectedRow, 0);
+        String quizTitle = (String) quizTable.getValueAt(selectedRow, 1);
+        
+        try {
+            QuizStats stats = new QuizStatsDAO().getQuizStats(quizId);
+            
+            // Bring the item analysis up to date with attempts made since the last run
+            ItemAnalyzer itemAnalyzer = new ItemAnalyzer();
+            itemAnalyzer.analyze(Collections.singletonList(quizId), false);
+            List<ItemStats> items = itemAnalyzer.getItemStats(quizId);
+            
+            QuizStatsDialog statsDialog = new QuizStatsDialog(
+                    (JFrame) SwingUtilities.getWindowAncestor(this), quizTitle, stats, items);
+            statsDialog.setVisible(true);
+        } catch (SQLException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error loading quiz statistics: " + e.getMessage(),
+                    "Database Error",
+                    JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+    
+    private void importQuizzes() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Quizzes from CSV");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        File file = fileChooser.getSelectedFile();
+        importButton.setEnabled(false);
+        statusLabel.setText("Importing quizzes from " + file.getName() + "...");
+        
+        // Question banks can hold thousands of questions, so keep it off the event thread
+        new SwingWorker<ImportReport, Void>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return new QuizBulkImporter().importQuizzes(reader, currentUser.getId());
+                }
+            }
+            
+            @Override
+            protected void done() {
+                importButton.setEnabled(true);
+                
+                try {
+                    showImportReport(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    statusLabel.setText("Import failed.");
+                    String title = cause instanceof SQLException ? "Database Error" : "Import Error";
+                    JOptionPane.showMessageDialog(QuizManagementPanel.this,
+                            "Error importing quizzes: " + cause.getMessage(),
+                            title,
+                            JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+                
+                // Refresh table
+                loadQuizzes();
+            }
+        }.execute();
+    }
+    
+    private void showImportReport(ImportReport report) {
+        List<RejectedQuiz> rejectedQuizzes = report.getRejectedQuizzes();
+        String summary = String.format("%d quiz(zes) with %,d questions imported in %.1f s, %d quiz(zes) rejected.",
+                report.getImportedQuizzes().size(), report.getQuestionCount(),
+                report.getElapsedNanos() / 1e9, rejectedQuizzes.size());
+        statusLabel.setText(summary);
+        
+        if (rejectedQuizzes.isEmpty() && report.getOtherProblems().isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    summary,
+                    "Import Complete",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        StringBuilder details = new StringBuilder();
+        for (RejectedQuiz quiz : rejectedQuizzes) {
+            details.append(quiz).append('\n');
+        }
+        for (String problem : report.getOtherProblems()) {
+            details.append(problem).append('\n');
+        }
+        
+        JTextArea detailsArea = new JTextArea(details.toString(), 12, 50);
+        detailsArea.setEditable(false);
+        detailsArea.setFont(ThemeManager.SMALL_FONT);
+        
+        JPanel reportPanel = new JPanel(new BorderLayout(0, ThemeManager.SPACING_SMALL));
+        reportPanel.add(ThemeManager.createStyledLabel(summary), BorderLayout.NORTH);
+        reportPanel.add(new JScrollPane(detailsArea), BorderLayout.CENTER);
+        
+        JOptionPane.showMessageDialog(this,
+                reportPanel,
+                "Import Complete",
+                JOptionPane.WARNING_MESSAGE);
+    }
+    
+    private void exportResults() {
+        int selectedRow = quizTable.getSelectedRow();
+        Integer quizId = null;
+        String quizTitle = null;
+        
+        if (selectedRow != -1) {
+            quizId = (int) quizTable.getValueAt(selectedRow, 0);
+            quizTitle = (String) quizTable.getValueAt(selectedRow, 1);
+        } else {
+            int choice = JOptionPane.showConfirmDialog(this,
+                    "No quiz is selected. Export the results of all quizzes?",
+                    "Export Results",
+                    JOptionPane.YES_NO_OPTION);
+            if (choice != JOptionPane.YES_OPTION) {
+                return;
+            }
+        }
+        
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Export Results");
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("CSV files (.csv, .csv.gz)", "csv", "gz"));
+        fileChooser.addChoosableFileFilter(new FileNameExtensionFilter("JSON files (.json, .json.gz)", "json", "gz"));
+        fileChooser.setSelectedFile(new File("results.csv"));
+        
+        if (fileChooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        // The file name decides the format and whether to compress
+        File file = fileChooser.getSelectedFile();
+        String name = file.getName().toLowerCase();
+        boolean gzip = name.endsWith(".gz");
+        Format format = name.endsWith(".json") || name.endsWith(".json.gz") ? Format.JSON : Format.CSV;
+        
+        final Integer exportQuizId = quizId;
+        final String scope = quizTitle != null ? "'" + quizTitle + "'" : "all quizzes";
+        exportButton.setEnabled(false);
+        statusLabel.setText("Exporting results of " + scope + "...");
+        
+        // Large exports take a while, so keep them off the event thread
+        new SwingWorker<ExportReport, String>() {
+            @Override
+            protected ExportReport doInBackground() throws Exception {
+                try (Writer out = ResultExporter.openWriter(file.toPath(), gzip)) {
+                    return new ResultExporter().export(exportQuizId, format, out, (count, elapsedNanos) ->
+                            publish(String.format("Exported %,d results (%,.0f results/s)...",
+                                    count, count * 1e9 / elapsedNanos)));
+                }
+            }
+            
+            @Override
+            protected void process(List<String> updates) {
+                statusLabel.setText(updates.get(updates.size() - 1));
+            }
+            
+            @Override
+            protected void done() {
+                exportButton.setEnabled(true);
+                
+                try {
+                    ExportReport report = get();
+                    String summary = String.format("Exported %,d results with %,d answers in %.1f s (%,.0f results/s).",
+                            report.getResultCount(), report.getAnswerCount(),
+                            report.getElapsedNanos() / 1e9, report.getResultsPerSecond());
+                    statusLabel.setText(summary);
+                    JOptionPane.showMessageDialog(QuizManagementPanel.this,
+                            summary,
+                            "Export Complete",
+                            JOptionPane.INFORMATION_MESSAGE);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    statusLabel.setText("Export failed.");
+                    String title = cause instanceof SQLException ? "Database Error" : "Export Error";
+                    JOptionPane.showMessageDialog(QuizManagementPanel.this,
+                            "Error exporting results: " + cause.getMessage(),
+                            title,
+                            JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+            }
+        }.execute();
+    }
+    
     private void deleteQuiz() {
         int selectedRow = quizTable.getSelectedRow();
         
@@ -223,22 +479,19 @@ public class QuizManagementPanel extends JPanel {
         
         if (choice == JOptionPane.YES_OPTION) {
             try {
-                boolean success = quizDAO.deleteQuiz(quizId);
+                // The quiz disappears at once; its results are removed in the background
+                Deletion deletion = DeletionService.shared().deleteQuiz(quizId, quizTitle,
+                        progress -> SwingUtilities.invokeLater(() -> statusLabel.setText(progress.getStatusText())));
                 
-                if (success) {
-                    JOptionPane.showMessageDialog(this,
-                            "Quiz deleted successfully.",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // Refresh table
-                    loadQuizzes();
-                } else {
+                if (deletion == null) {
                     JOptionPane.showMessageDialog(this,
                             "Failed to delete quiz.",
                             "Error",
                             JOptionPane.ERROR_MESSAGE);
                 }
+                
+                // Refresh table
+                loadQuizzes();
             } catch (SQLException e) {
                 JOptionPane.showMessageDialog(this,
                         "Error deleting quiz: " + e.getMessage(),
@@ -0,0 +1,218 @@
+package com.quizapp.ui.admin;
+
+import com.quizapp.model.ItemStats;
+import com.quizapp.model.QuizStats;
+import com.quizapp.util.ThemeManager;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableCellRenderer;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Dialog to display the score statistics and item analysis of a quiz.
+ */
+public class QuizStatsDialog extends JDialog {
+    
+    private static final int RANGE_WIDTH = 10;
+    
+    // Questions below this discrimination index are highlighted for review
+    private static final double LOW_DISCRIMINATION = 0.2;
+    
+    private String quizTitle;
+    private QuizStats stats;
+    private List<ItemStats> items;
+    
+    private JPanel summaryPanel;
+    private JTable distributionTable;
+    private DefaultTableModel tableModel;
+    private JTable itemsTable;
+    private DefaultTableModel itemsTableModel;
+    private JButton closeButton;
+    
+    /**
+     * Constructor for the quiz statistics dialog.
+     *
+     * @param parent the parent frame
+     * @param quizTitle the title of the quiz
+     * @param stats the statistics to display
+     * @param items the item analysis of the quiz's questions
+     */
+    public QuizStatsDialog(JFrame parent, String quizTitle, QuizStats stats, List<ItemStats> items) {
+        super(parent, "Quiz Statistics", true);
+        this.quizTitle = quizTitle;
+        this.stats = stats;
+        this.items = items;
+        
+        // Set up the dialog
+        setSize(800, 550);
+        setLocationRelativeTo(parent);
+        setResizable(true);
+        setDefaultCloseOperation(JDialog.DISPOSE_ON_CLOSE);
+        
+        // Initialize components
+        initializeComponents();
+        
+        // Set up layout
+        setupLayout();
+        
+        // Add action listeners
+        closeButton.addActionListener((ActionEvent e) -> {
+            dispose();
+        });
+        
+        // Load statistics
+        loadStats();
+        loadItems();
+    }
+    
+    private void initializeComponents() {
+        summaryPanel = new JPanel(new GridLayout(0, 2, ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_SMALL));
+        summaryPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        
+        // Create table for the score distribution
+        String[] columnNames = {"Score Range", "Attempts", "Share"};
+        tableModel = new DefaultTableModel(columnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        
+        distributionTable = new JTable(tableModel);
+        distributionTable.setRowHeight(ThemeManager.SPACING_LARGE);
+        distributionTable.getTableHeader().setFont(ThemeManager.BODY_FONT.deriveFont(Font.BOLD));
+        distributionTable.setFont(ThemeManager.BODY_FONT);
+        
+        // Create table for the item analysis
+        String[] itemColumnNames = {"Question", "Attempts", "Correct", "Discrimination", "Option Picks"};
+        itemsTableModel = new DefaultTableModel(itemColumnNames, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        
+        itemsTable = new JTable(itemsTableModel);
+        itemsTable.setRowHeight(ThemeManager.SPACING_LARGE);
+        itemsTable.getTableHeader().setFont(ThemeManager.BODY_FONT.deriveFont(Font.BOLD));
+        itemsTable.setFont(ThemeManager.BODY_FONT);
+        itemsTable.getColumnModel().getColumn(0).setPreferredWidth(250);
+        itemsTable.getColumnModel().getColumn(4).setPreferredWidth(200);
+        
+        // Highlight questions that do not separate strong from weak students
+        itemsTable.setDefaultRenderer(Object.class, new DefaultTableCellRenderer() {
+            @Override
+            public Component getTableCellRendererComponent(JTable table, Object value,
+                                                         boolean isSelected, boolean hasFocus,
+                                                         int row, int column) {
+                Component c = super.getTableCellRendererComponent(
+                        table, value, isSelected, hasFocus, row, column);
+                
+                if (!isSelected) {
+                    ItemStats item = items.get(row);
+                    boolean needsReview = item.getAttemptCount() > 1
+                            && item.getDiscrimination() < LOW_DISCRIMINATION;
+                    c.setBackground(needsReview ? new Color(255, 240, 240) : Color.WHITE); // Light red
+                }
+                
+                return c;
+            }
+        });
+        
+        // Create close button
+        closeButton = ThemeManager.createStyledButton("Close");
+    }
+    
+    private void setupLayout() {
+        JPanel mainPanel = new JPanel(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(
+                ThemeManager.SPACING_LARGE, ThemeManager.SPACING_LARGE,
+                ThemeManager.SPACING_LARGE, ThemeManager.SPACING_LARGE));
+        mainPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        
+        // Create header with title and summary
+        JPanel headerPanel = new JPanel(new BorderLayout(0, ThemeManager.SPACING_MEDIUM));
+        headerPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        headerPanel.add(ThemeManager.createTitleLabel("Statistics: " + quizTitle), BorderLayout.NORTH);
+        headerPanel.add(summaryPanel, BorderLayout.CENTER);
+        
+        // Create button panel
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        buttonPanel.add(closeButton);
+        
+        // Add components to main panel
+        mainPanel.add(headerPanel, BorderLayout.NORTH);
+        JTabbedPane tabbedPane = new JTabbedPane();
+        tabbedPane.addTab("Score Distribution", new JScrollPane(distributionTable));
+        tabbedPane.addTab("Questions", new JScrollPane(itemsTable));
+        mainPanel.add(tabbedPane, BorderLayout.CENTER);
+        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        // Set content pane
+        setContentPane(mainPanel);
+    }
+    
+    private void loadStats() {
+        long attempts = stats.getAttemptCount();
+        
+        addSummaryRow("Attempts:", String.valueOf(attempts));
+        if (attempts == 0) {
+            return;
+        }
+        
+        addSummaryRow("Mean score:", String.format("%.2f (std. dev. %.2f)",
+                stats.getMeanScore(), stats.getScoreStandardDeviation()));
+        addSummaryRow("Lowest / highest score:", stats.getLowestScore() + " / " + stats.getHighestScore());
+        addSummaryRow("Mean percentage:", String.format("%.1f%% (std. dev. %.1f)",
+                stats.getMeanPercentage(), stats.getPercentageStandardDeviation()));
+        
+        // Group the per-percent buckets into ranges of ten, the last one including 100%
+        for (int from = 0; from < 100; from += RANGE_WIDTH) {
+            int to = from + RANGE_WIDTH - 1;
+            if (to == 99) {
+                to = 100;
+            }
+            
+            long count = stats.getBucketCount(from, to);
+            tableModel.addRow(new Object[]{
+                from + "% - " + to + "%",
+                count,
+                String.format("%.1f%%", count * 100.0 / attempts)
+            });
+        }
+    }
+    
+    private void loadItems() {
+        for (ItemStats item : items) {
+            // Options are labelled A, B, C... in the order they are shown
+            StringBuilder picks = new StringBuilder();
+            char label = 'A';
+            for (Map.Entry<Integer, Long> entry : item.getOptionPickCounts().entrySet()) {
+                if (picks.length() > 0) {
+                    picks.append(", ");
+                }
+                picks.append(label++).append(": ").append(entry.getValue());
+            }
+            
+            itemsTableModel.addRow(new Object[]{
+                item.getQuestionText(),
+                item.getAttemptCount(),
+                String.format("%.1f%%", item.getDifficulty()),
+                String.format("%.2f", item.getDiscrimination()),
+                picks.toString()
+            });
+        }
+    }
+    
+    private void addSummaryRow(String label, String value) {
+        summaryPanel.add(ThemeManager.createStyledLabel(label));
+        JLabel valueLabel = ThemeManager.createStyledLabel(value);
+        valueLabel.setFont(ThemeManager.BODY_FONT.deriveFont(Font.BOLD));
+        summaryPanel.add(valueLabel);
+    }
+}
\ No newline at end of file
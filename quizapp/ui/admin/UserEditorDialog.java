@@ -1,6 +1,7 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
@@ -15,7 +16,7 @@ import java.sql.SQLException;
 public class UserEditorDialog extends JDialog {
     
     private User user;
-    private UserDAO userDAO;
+    private UserRepository userDAO;
     
     private JTextField usernameField;
     private JTextField emailField;
@@ -32,7 +33,7 @@ public class UserEditorDialog extends JDialog {
     public UserEditorDialog(JFrame parent, User user) {
         super(parent, "Edit User", true);
         this.user = user;
-        this.userDAO = new UserDAO();
+        this.userDAO = Repositories.users();
         
         // Set up the dialog
         setTitle("Edit User: " + user.getUsername());
@@ -1,15 +1,27 @@
 package com.quizapp.ui.admin;
 
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.DeletionService;
+import com.quizapp.dao.DeletionService.Deletion;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserBulkImporter;
+import com.quizapp.dao.UserBulkImporter.ImportReport;
+import com.quizapp.dao.UserBulkImporter.RejectedRow;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
 
 /**
  * Panel for user management (viewing, editing, and deleting users).
@@ -17,16 +29,18 @@ import java.util.List;
 public class UserManagementPanel extends JPanel {
     
     private User currentUser;
-    private UserDAO userDAO;
+    private UserRepository userDAO;
     private JTable userTable;
     private DefaultTableModel tableModel;
     private JButton editUserButton;
     private JButton deleteUserButton;
+    private JButton importUsersButton;
     private JButton refreshButton;
+    private JLabel statusLabel;
     
     public UserManagementPanel(User currentUser) {
         this.currentUser = currentUser;
-        this.userDAO = new UserDAO();
+        this.userDAO = Repositories.users();
         
         setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         setBackground(ThemeManager.BACKGROUND_COLOR);
@@ -75,10 +89,18 @@ public class UserManagementPanel extends JPanel {
         // Create buttons
         editUserButton = ThemeManager.createStyledButton("Edit User");
         deleteUserButton = ThemeManager.createStyledButton("Delete User");
+        importUsersButton = ThemeManager.createStyledButton("Import Users");
         refreshButton = ThemeManager.createStyledButton("Refresh");
         
         // Set button colors
         deleteUserButton.setBackground(ThemeManager.ERROR_COLOR);
+        
+        // Imports go to the database, which does not hold users kept in memory
+        importUsersButton.setVisible(!Repositories.isInMemory());
+        
+        // Shows the progress of a running deletion
+        statusLabel = ThemeManager.createStyledLabel(" ");
+        statusLabel.setFont(ThemeManager.SMALL_FONT);
     }
     
     private void setupLayout() {
@@ -91,6 +113,7 @@ public class UserManagementPanel extends JPanel {
         buttonPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
         buttonPanel.add(editUserButton);
         buttonPanel.add(deleteUserButton);
+        buttonPanel.add(importUsersButton);
         buttonPanel.add(Box.createHorizontalStrut(ThemeManager.SPACING_LARGE));
         buttonPanel.add(refreshButton);
         
@@ -108,6 +131,7 @@ public class UserManagementPanel extends JPanel {
         // Add components to panel
         add(headerPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
+        add(statusLabel, BorderLayout.SOUTH);
     }
     
     private void addEventListeners() {
@@ -119,6 +143,10 @@ public class UserManagementPanel extends JPanel {
             deleteUser();
         });
         
+        importUsersButton.addActionListener((ActionEvent e) -> {
+            importUsers();
+        });
+        
         refreshButton.addActionListener((ActionEvent e) -> {
             loadUsers();
         });
@@ -228,22 +256,19 @@ public class UserManagementPanel extends JPanel {
         
         if (choice == JOptionPane.YES_OPTION) {
             try {
-                boolean success = userDAO.deleteUser(userId);
+                // The user disappears at once; their results are removed in the background
+                Deletion deletion = DeletionService.shared().deleteUser(userId, username,
+                        progress -> SwingUtilities.invokeLater(() -> statusLabel.setText(progress.getStatusText())));
                 
-                if (success) {
-                    JOptionPane.showMessageDialog(this,
-                            "User deleted successfully.",
-                            "Success",
-                            JOptionPane.INFORMATION_MESSAGE);
-                    
-                    // Refresh table
-                    loadUsers();
-                } else {
+                if (deletion == null) {
                     JOptionPane.showMessageDialog(this,
                             "Failed to delete user.",
                             "Error",
                             JOptionPane.ERROR_MESSAGE);
                 }
+                
+                // Refresh table
+                loadUsers();
             } catch (SQLException e) {
                 JOptionPane.showMessageDialog(this,
                         "Error deleting user: " + e.getMessage(),
@@ -253,4 +278,83 @@ public class UserManagementPanel extends JPanel {
             }
         }
     }
-}
\ No newline at end of file
+    
+    private void importUsers() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Import Users from CSV");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("CSV files", "csv"));
+        
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        File file = fileChooser.getSelectedFile();
+        importUsersButton.setEnabled(false);
+        setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        
+        // Hashing thousands of passwords takes a while, so keep it off the event thread
+        new SwingWorker<ImportReport, Void>() {
+            @Override
+            protected ImportReport doInBackground() throws Exception {
+                try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                    return new UserBulkImporter().importUsers(reader);
+                }
+            }
+            
+            @Override
+            protected void done() {
+                importUsersButton.setEnabled(true);
+                setCursor(Cursor.getDefaultCursor());
+                
+                try {
+                    showImportReport(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    String title = cause instanceof SQLException ? "Database Error" : "Import Error";
+                    JOptionPane.showMessageDialog(UserManagementPanel.this,
+                            "Error importing users: " + cause.getMessage(),
+                            title,
+                            JOptionPane.ERROR_MESSAGE);
+                    cause.printStackTrace();
+                }
+                
+                // Refresh table
+                loadUsers();
+            }
+        }.execute();
+    }
+    
+    private void showImportReport(ImportReport report) {
+        List<RejectedRow> rejectedRows = report.getRejectedRows();
+        String summary = report.getImportedCount() + " user(s) imported, " +
+                rejectedRows.size() + " row(s) rejected.";
+        
+        if (rejectedRows.isEmpty()) {
+            JOptionPane.showMessageDialog(this,
+                    summary,
+                    "Import Complete",
+                    JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+        
+        StringBuilder details = new StringBuilder();
+        for (RejectedRow row : rejectedRows) {
+            details.append(row).append('\n');
+        }
+        
+        JTextArea detailsArea = new JTextArea(details.toString(), 12, 50);
+        detailsArea.setEditable(false);
+        detailsArea.setFont(ThemeManager.SMALL_FONT);
+        
+        JPanel reportPanel = new JPanel(new BorderLayout(0, ThemeManager.SPACING_SMALL));
+        reportPanel.add(ThemeManager.createStyledLabel(summary), BorderLayout.NORTH);
+        reportPanel.add(new JScrollPane(detailsArea), BorderLayout.CENTER);
+        
+        JOptionPane.showMessageDialog(this,
+                reportPanel,
+                "Import Complete",
+                JOptionPane.WARNING_MESSAGE);
+    }
+}
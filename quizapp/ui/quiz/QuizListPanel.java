@@ -1,14 +1,21 @@
 package com.quizapp.ui.quiz;
 
-import com.quizapp.dao.QuizDAO;
+import com.quizapp.dao.AnswerJournal;
+import com.quizapp.dao.AnswerJournal.RecoveredAttempt;
+import com.quizapp.dao.QuizBundle;
+import com.quizapp.dao.QuizRepository;
+import com.quizapp.dao.Repositories;
 import com.quizapp.model.Quiz;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
 
 import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.util.List;
 
@@ -18,16 +25,19 @@ import java.util.List;
 public class QuizListPanel extends JPanel {
     
     private User currentUser;
-    private QuizDAO quizDAO;
+    private QuizRepository quizDAO;
+    private QuizBundle bundle; // Quizzes are read from here instead of the database when set
     private JTable quizTable;
     private DefaultTableModel tableModel;
     private JButton takeQuizButton;
     private JButton refreshButton;
+    private JButton openBundleButton;
+    private JLabel sourceLabel;
     private JTextField searchField;
     
     public QuizListPanel(User currentUser) {
         this.currentUser = currentUser;
-        this.quizDAO = new QuizDAO();
+        this.quizDAO = Repositories.quizzes();
         
         setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         setBackground(ThemeManager.BACKGROUND_COLOR);
@@ -75,6 +85,11 @@ public class QuizListPanel extends JPanel {
         // Create buttons
         takeQuizButton = ThemeManager.createStyledButton("Take Quiz");
         refreshButton = ThemeManager.createStyledButton("Refresh");
+        openBundleButton = ThemeManager.createStyledButton("Open Bundle");
+        
+        // Shows where the quizzes come from
+        sourceLabel = ThemeManager.createStyledLabel("Quizzes from the database");
+        sourceLabel.setFont(ThemeManager.SMALL_FONT);
     }
     
     private void setupLayout() {
@@ -101,9 +116,15 @@ public class QuizListPanel extends JPanel {
         // Create button panel
         JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
         buttonPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        buttonPanel.add(openBundleButton);
         buttonPanel.add(refreshButton);
         buttonPanel.add(takeQuizButton);
         
+        JPanel footerPanel = new JPanel(new BorderLayout());
+        footerPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
+        footerPanel.add(sourceLabel, BorderLayout.WEST);
+        footerPanel.add(buttonPanel, BorderLayout.EAST);
+        
         // Create scroll pane for table
         JScrollPane scrollPane = new JScrollPane(quizTable);
         scrollPane.getViewport().setBackground(Color.WHITE);
@@ -111,7 +132,7 @@ public class QuizListPanel extends JPanel {
         // Add components to main panel
         add(headerPanel, BorderLayout.NORTH);
         add(scrollPane, BorderLayout.CENTER);
-        add(buttonPanel, BorderLayout.SOUTH);
+        add(footerPanel, BorderLayout.SOUTH);
     }
     
     private void addEventListeners() {
@@ -123,6 +144,10 @@ public class QuizListPanel extends JPanel {
             loadQuizzes();
         });
         
+        openBundleButton.addActionListener((ActionEvent e) -> {
+            openBundle();
+        });
+        
         // Double-click on row to take quiz
         quizTable.addMouseListener(new java.awt.event.MouseAdapter() {
             @Override
@@ -145,7 +170,7 @@ public class QuizListPanel extends JPanel {
         
         try {
             // Get all quizzes
-            List<Quiz> quizzes = quizDAO.getAllQuizzes();
+            List<Quiz> quizzes = getAllQuizzes();
             
             // Add quizzes to table
             for (Quiz quiz : quizzes) {
@@ -185,7 +210,7 @@ public class QuizListPanel extends JPanel {
         
         try {
             // Get all quizzes
-            List<Quiz> quizzes = quizDAO.getAllQuizzes();
+            List<Quiz> quizzes = getAllQuizzes();
             
             // Filter and add quizzes to table
             for (Quiz quiz : quizzes) {
@@ -228,7 +253,7 @@ public class QuizListPanel extends JPanel {
         int quizId = (int) quizTable.getValueAt(selectedRow, 0);
         
         try {
-            Quiz quiz = quizDAO.getQuizById(quizId);
+            Quiz quiz = bundle != null ? bundle.getQuizById(quizId) : quizDAO.getQuizById(quizId);
             
             if (quiz != null) {
                 if (quiz.getQuestions().isEmpty()) {
@@ -239,9 +264,12 @@ public class QuizListPanel extends JPanel {
                     return;
                 }
                 
+                // Offer to resume an attempt that was interrupted by a crash
+                RecoveredAttempt recoveredAttempt = findUnfinishedAttempt(quiz);
+                
                 // Open quiz session in a new window
                 JFrame mainFrame = (JFrame) SwingUtilities.getWindowAncestor(this);
-                QuizSessionFrame sessionFrame = new QuizSessionFrame(mainFrame, currentUser, quiz);
+                QuizSessionFrame sessionFrame = new QuizSessionFrame(mainFrame, currentUser, quiz, recoveredAttempt);
                 sessionFrame.setVisible(true);
             } else {
                 JOptionPane.showMessageDialog(this,
@@ -257,4 +285,65 @@ public class QuizListPanel extends JPanel {
             e.printStackTrace();
         }
     }
+    
+    private List<Quiz> getAllQuizzes() throws SQLException {
+        return bundle != null ? bundle.getAllQuizzes() : quizDAO.getAllQuizzes();
+    }
+    
+    /**
+     * Switches the list to a quiz bundle, e.g. on an exam kiosk. Quizzes are then opened
+     * from the memory-mapped file without reading the database; results are still saved
+     * to it when a quiz is submitted.
+     */
+    private void openBundle() {
+        JFileChooser fileChooser = new JFileChooser();
+        fileChooser.setDialogTitle("Open Quiz Bundle");
+        fileChooser.setFileFilter(new FileNameExtensionFilter("Quiz bundles (.qzb)", "qzb"));
+        
+        if (fileChooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        
+        File file = fileChooser.getSelectedFile();
+        try {
+            QuizBundle opened = QuizBundle.open(file.toPath());
+            if (bundle != null) {
+                bundle.close();
+            }
+            bundle = opened;
+            sourceLabel.setText("Quizzes from bundle " + file.getName() + " (" + bundle.getQuizCount() + ")");
+            loadQuizzes();
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(this,
+                    "Error opening quiz bundle: " + e.getMessage(),
+                    "Bundle Error",
+                    JOptionPane.ERROR_MESSAGE);
+            e.printStackTrace();
+        }
+    }
+    
+    private RecoveredAttempt findUnfinishedAttempt(Quiz quiz) {
+        RecoveredAttempt recoveredAttempt;
+        try {
+            recoveredAttempt = AnswerJournal.recover(currentUser.getId(), quiz.getId());
+        } catch (IOException e) {
+            System.err.println("Error reading answer journal: " + e.getMessage());
+            return null;
+        }
+        
+        if (recoveredAttempt == null) {
+            return null;
+        }
+        
+        long usedSeconds = recoveredAttempt.getElapsedMillis() / 1000;
+        String usedTime = String.format("%d:%02d", usedSeconds / 60, usedSeconds % 60);
+        
+        int choice = JOptionPane.showConfirmDialog(this,
+                "You have an unfinished attempt at this quiz (" + recoveredAttempt.getAnswers().size() +
+                " question(s) answered, " + usedTime + " used).\nDo you want to resume it?",
+                "Resume Quiz",
+                JOptionPane.YES_NO_OPTION);
+        
+        return choice == JOptionPane.YES_OPTION ? recoveredAttempt : null;
+    }
 }
\ No newline at end of file
@@ -1,7 +1,13 @@
 package com.quizapp.ui.quiz;
 
+import com.quizapp.dao.PickCounters;
+import com.quizapp.dao.PickCounters.QuestionCount;
+import com.quizapp.dao.QuizStatsDAO;
+import com.quizapp.dao.Repositories;
+import com.quizapp.model.DurationHistogram;
 import com.quizapp.model.QuizResult;
 import com.quizapp.model.QuizResult.QuestionResult;
+import com.quizapp.model.QuizStats;
 import com.quizapp.util.ThemeManager;
 
 import javax.swing.*;
@@ -9,6 +15,11 @@ import javax.swing.table.DefaultTableCellRenderer;
 import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Dialog to display quiz results.
@@ -20,6 +31,8 @@ public class QuizResultDialog extends JDialog {
     private JLabel scoreLabel;
     private JLabel percentageLabel;
     private JLabel timeLabel;
+    private JLabel rankLabel;
+    private JLabel durationRankLabel;
     private JTable questionsTable;
     private DefaultTableModel tableModel;
     private JButton closeButton;
@@ -67,8 +80,16 @@ public class QuizResultDialog extends JDialog {
         timeLabel.setFont(ThemeManager.BODY_FONT);
         timeLabel.setHorizontalAlignment(SwingConstants.CENTER);
         
+        rankLabel = new JLabel("");
+        rankLabel.setFont(ThemeManager.BODY_FONT.deriveFont(Font.BOLD));
+        rankLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        
+        durationRankLabel = new JLabel("");
+        durationRankLabel.setFont(ThemeManager.BODY_FONT);
+        durationRankLabel.setHorizontalAlignment(SwingConstants.CENTER);
+        
         // Create table for questions and answers
-        String[] columnNames = {"Question", "Your Answer", "Correct", "Points"};
+        String[] columnNames = {"Question", "Your Answer", "Correct", "Points", "All Students Correct"};
         tableModel = new DefaultTableModel(columnNames, 0) {
             @Override
             public boolean isCellEditable(int row, int column) {
@@ -142,6 +163,10 @@ public class QuizResultDialog extends JDialog {
         scorePanel.add(percentageLabel);
         scorePanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
         scorePanel.add(timeLabel);
+        scorePanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
+        scorePanel.add(rankLabel);
+        scorePanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
+        scorePanel.add(durationRankLabel);
         
         // Create scroll pane for questions table
         JScrollPane tableScrollPane = new JScrollPane(questionsTable);
@@ -191,32 +216,96 @@ public class QuizResultDialog extends JDialog {
         long remainingSeconds = seconds % 60;
         timeLabel.setText(String.format("Time taken: %d:%02d", minutes, remainingSeconds));
         
+        // Statistics and counters are kept in the database, which does not hold results
+        // kept in memory, so the attempt is shown on its own then
+        Map<Integer, Long> optionPickCounts = Collections.emptyMap();
+        Map<Integer, QuestionCount> questionCounts = Collections.emptyMap();
+        if (!Repositories.isInMemory()) {
+            // Where this attempt stands among all attempts of the quiz
+            try {
+                loadRanks(new QuizStatsDAO().getQuizStats(result.getQuizId()));
+            } catch (SQLException e) {
+                // The result itself is still worth showing
+                System.err.println("Error loading quiz statistics: " + e.getMessage());
+            }
+            
+            // How other students answered the same questions
+            try {
+                List<Integer> questionIds = new ArrayList<>();
+                for (QuestionResult questionResult : result.getQuestionResults()) {
+                    questionIds.add(questionResult.getQuestionId());
+                }
+                optionPickCounts = PickCounters.shared().getOptionPickCounts(questionIds);
+                questionCounts = PickCounters.shared().getQuestionCounts(questionIds);
+            } catch (SQLException e) {
+                // The result itself is still worth showing
+                System.err.println("Error loading answer counts: " + e.getMessage());
+            }
+        }
+        
         // Load questions and answers
         for (QuestionResult questionResult : result.getQuestionResults()) {
+            QuestionCount questionCount = questionCounts.get(questionResult.getQuestionId());
+            String classCorrect = questionCount != null && questionCount.getAttemptCount() > 0
+                    ? String.format("%.0f%% of %d", questionCount.getCorrectPercentage(), questionCount.getAttemptCount())
+                    : "";
+            
             tableModel.addRow(new Object[]{
                 questionResult.getQuestionText(),
-                formatSelectedOptions(questionResult),
+                formatSelectedOptions(questionResult, optionPickCounts),
                 questionResult.isCorrect(),
-                questionResult.isCorrect() ? questionResult.getPoints() : 0
+                questionResult.isCorrect() ? questionResult.getPoints() : 0,
+                classCorrect
             });
         }
     }
     
-    private String formatSelectedOptions(QuestionResult questionResult) {
+    private void loadRanks(QuizStats stats) {
+        // A result kept in the outbox has no ID yet and is not in the statistics
+        boolean counted = result.getId() > 0;
+        long otherCount = counted ? stats.getAttemptCount() - 1 : stats.getAttemptCount();
+        if (otherCount < 1) {
+            rankLabel.setText(counted
+                    ? "You are the first to take this quiz."
+                    : "No other attempts at this quiz have been saved yet.");
+            return;
+        }
+        
+        rankLabel.setText(String.format("You scored better than %.0f%% of other attempts.",
+                stats.getPercentBetterThan(result.getScore(), result.getMaxScore(), counted)));
+        
+        DurationHistogram durations = stats.getDurations();
+        durationRankLabel.setText(String.format(
+                "Faster than %.0f%% of other attempts (median time %s, 90%% finish within %s)",
+                durations.getPercentFasterThan(result.getDurationInSeconds(), counted),
+                formatTime(durations.getValueAtPercentile(50)),
+                formatTime(durations.getValueAtPercentile(90))));
+    }
+    
+    private String formatTime(long seconds) {
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+    
+    private String formatSelectedOptions(QuestionResult questionResult, Map<Integer, Long> optionPickCounts) {
         // In a real implementation, this would show the actual text of selected options
         // Here we just show the option IDs
         StringBuilder sb = new StringBuilder();
-        List<Integer> selectedOptionIds = questionResult.getSelectedOptionIds();
+        int[] selectedOptionIds = questionResult.getSelectedOptionIds();
         
-        if (selectedOptionIds.isEmpty()) {
+        if (selectedOptionIds.length == 0) {
             return "No answer";
         }
         
-        for (int i = 0; i < selectedOptionIds.size(); i++) {
+        for (int i = 0; i < selectedOptionIds.length; i++) {
             if (i > 0) {
                 sb.append(", ");
             }
-            sb.append("Option ").append(selectedOptionIds.get(i));
+            sb.append("Option ").append(selectedOptionIds[i]);
+            
+            Long pickCount = optionPickCounts.get(selectedOptionIds[i]);
+            if (pickCount != null) {
+                sb.append(" (picked by ").append(pickCount).append(")");
+            }
         }
         
         return sb.toString();
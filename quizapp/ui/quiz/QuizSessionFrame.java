@@ -1,6 +1,10 @@
 package com.quizapp.ui.quiz;
 
-import com.quizapp.dao.QuizResultDAO;
+import com.quizapp.dao.AnswerJournal;
+import com.quizapp.dao.AnswerJournal.RecoveredAttempt;
+import com.quizapp.dao.QuizResultRepository;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.ResultOutbox;
 import com.quizapp.model.Quiz;
 import com.quizapp.model.Question;
 import com.quizapp.model.Question.Option;
@@ -8,6 +12,7 @@ import com.quizapp.model.QuizResult;
 import com.quizapp.model.QuizResult.QuestionResult;
 import com.quizapp.model.User;
 import com.quizapp.util.ThemeManager;
+import com.quizapp.util.TimingWheel;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
@@ -15,12 +20,15 @@ import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
+import java.io.IOException;
 import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Frame for taking a quiz.
@@ -29,12 +37,13 @@ public class QuizSessionFrame extends JFrame {
     
     private User currentUser;
     private Quiz quiz;
-    private QuizResultDAO quizResultDAO;
+    private QuizResultRepository quizResultDAO;
     
     private JPanel contentPanel;
     private JPanel questionPanel;
     private JLabel questionLabel;
     private JPanel optionsPanel;
+    private JScrollPane optionsScrollPane;
     private JPanel navigationPanel;
     private JButton previousButton;
     private JButton nextButton;
@@ -43,11 +52,23 @@ public class QuizSessionFrame extends JFrame {
     
     private List<Question> questions;
     private int currentQuestionIndex;
-    private List<List<Integer>> selectedOptionsByQuestion;
+    private BitSet[] selectedPositionsByQuestion;
+    private QuestionView[] questionViews;
     
-    private Timer quizTimer;
-    private long startTime;
-    private long elapsedTimeInSeconds;
+    // Option widgets are created once and reused for every question
+    private final List<JRadioButton> radioButtonPool = new ArrayList<>();
+    private final List<JCheckBox> checkBoxPool = new ArrayList<>();
+    private final ButtonGroup singleSelectionGroup = new ButtonGroup();
+    
+    private TimingWheel.Timeout deadlineTimeout;
+    private TimingWheel.Timeout tickTimeout;
+    private final AtomicBoolean sessionClosed = new AtomicBoolean(false);
+    private long startNanos;
+    private long timeLimitSeconds;
+    private long displayedSeconds = -1;
+    private long resumedElapsedMillis;
+    
+    private AnswerJournal answerJournal;
     
     /**
      * Constructor for a new quiz session.
@@ -57,9 +78,21 @@ public class QuizSessionFrame extends JFrame {
      * @param quiz the quiz to take
      */
     public QuizSessionFrame(JFrame parent, User currentUser, Quiz quiz) {
+        this(parent, currentUser, quiz, null);
+    }
+    
+    /**
+     * Constructor for a quiz session, optionally resuming an attempt recovered from its journal.
+     *
+     * @param parent the parent frame
+     * @param currentUser the current user
+     * @param quiz the quiz to take
+     * @param recoveredAttempt the unfinished attempt to resume, or null to start a new one
+     */
+    public QuizSessionFrame(JFrame parent, User currentUser, Quiz quiz, RecoveredAttempt recoveredAttempt) {
         this.currentUser = currentUser;
         this.quiz = quiz;
-        this.quizResultDAO = new QuizResultDAO();
+        this.quizResultDAO = Repositories.results();
         
         // Set up the frame
         setTitle("Quiz: " + quiz.getTitle());
@@ -71,13 +104,27 @@ public class QuizSessionFrame extends JFrame {
         // Initialize quiz state
         questions = quiz.getQuestions();
         currentQuestionIndex = 0;
-        selectedOptionsByQuestion = new ArrayList<>(questions.size());
+        selectedPositionsByQuestion = new BitSet[questions.size()];
         
-        // Initialize selected options for each question
+        // Initialize selected options (by position) for each question
         for (int i = 0; i < questions.size(); i++) {
-            selectedOptionsByQuestion.add(new ArrayList<>());
+            selectedPositionsByQuestion[i] = new BitSet(questions.get(i).getOptions().size());
         }
         
+        // Work out once what each question needs for display
+        questionViews = new QuestionView[questions.size()];
+        for (int i = 0; i < questions.size(); i++) {
+            questionViews[i] = new QuestionView(i, questions.get(i));
+        }
+        
+        // Restore answers and used time from an interrupted attempt
+        if (recoveredAttempt != null) {
+            restoreAttempt(recoveredAttempt);
+        }
+        
+        // Journal answers so a crash does not lose them
+        openAnswerJournal(recoveredAttempt);
+        
         // Initialize components
         initializeComponents();
         
@@ -94,6 +141,61 @@ public class QuizSessionFrame extends JFrame {
         showCurrentQuestion();
     }
     
+    private void restoreAttempt(RecoveredAttempt recoveredAttempt) {
+        resumedElapsedMillis = recoveredAttempt.getElapsedMillis();
+        
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            int[] savedOptionIds = recoveredAttempt.getAnswers().get(question.getId());
+            if (savedOptionIds == null) {
+                continue;
+            }
+            
+            // Ignore options that no longer belong to the question
+            for (int optionId : savedOptionIds) {
+                int position = question.indexOfOption(optionId);
+                if (position >= 0) {
+                    selectedPositionsByQuestion[i].set(position);
+                }
+            }
+        }
+    }
+    
+    private void openAnswerJournal(RecoveredAttempt recoveredAttempt) {
+        try {
+            answerJournal = recoveredAttempt != null
+                    ? AnswerJournal.reopen(recoveredAttempt)
+                    : AnswerJournal.create(currentUser.getId(), quiz.getId());
+        } catch (IOException e) {
+            // The quiz still works, it just isn't protected against crashes
+            System.err.println("Error opening answer journal: " + e.getMessage());
+        }
+    }
+    
+    private void journalAnswer(Question question, BitSet selectedPositions) {
+        if (answerJournal == null) {
+            return;
+        }
+        
+        answerJournal.recordAnswer(question.getId(), question.getOptionIds(selectedPositions));
+    }
+    
+    private void closeAnswerJournal(boolean keepForRecovery) {
+        if (answerJournal == null) {
+            return;
+        }
+        
+        try {
+            if (keepForRecovery) {
+                answerJournal.close();
+            } else {
+                answerJournal.discard();
+            }
+        } catch (IOException e) {
+            System.err.println("Error closing answer journal: " + e.getMessage());
+        }
+    }
+    
     private void initializeComponents() {
         contentPanel = new JPanel(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         contentPanel.setBackground(ThemeManager.BACKGROUND_COLOR);
@@ -129,11 +231,15 @@ public class QuizSessionFrame extends JFrame {
         questionLabel.setFont(ThemeManager.HEADING_FONT);
         questionPanel.add(questionLabel, BorderLayout.NORTH);
         
-        // Options panel
+        // Options panel (scrollable for questions with many options)
         optionsPanel = new JPanel();
         optionsPanel.setLayout(new BoxLayout(optionsPanel, BoxLayout.Y_AXIS));
         optionsPanel.setBackground(Color.WHITE);
-        questionPanel.add(optionsPanel, BorderLayout.CENTER);
+        optionsScrollPane = new JScrollPane(optionsPanel);
+        optionsScrollPane.setBorder(BorderFactory.createEmptyBorder());
+        optionsScrollPane.getViewport().setBackground(Color.WHITE);
+        optionsScrollPane.getVerticalScrollBar().setUnitIncrement(ThemeManager.SPACING_MEDIUM);
+        questionPanel.add(optionsScrollPane, BorderLayout.CENTER);
         
         // Navigation buttons
         previousButton = ThemeManager.createStyledButton("Previous");
@@ -177,160 +283,213 @@ public class QuizSessionFrame extends JFrame {
     }
     
     private void startQuizTimer() {
-        startTime = System.currentTimeMillis();
+        // Monotonic clock, so changing the system time cannot shorten or extend the quiz.
+        // A resumed attempt continues from the time it had already used.
+        startNanos = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(resumedElapsedMillis);
+        timeLimitSeconds = quiz.getTimeLimit() * 60L; // convert to seconds, 0 = no limit
+        
+        TimingWheel timingWheel = TimingWheel.shared();
+        
+        // If quiz has a time limit, schedule the deadline once
+        if (timeLimitSeconds > 0) {
+            long remainingMillis = TimeUnit.SECONDS.toMillis(timeLimitSeconds) - resumedElapsedMillis;
+            deadlineTimeout = timingWheel.newTimeout(this::onTimeExpired, remainingMillis, TimeUnit.MILLISECONDS);
+        }
+        
+        onClockTick();
+    }
+    
+    /**
+     * Updates the timer label and schedules the next update at the next whole second.
+     * Runs on the shared timing wheel thread (or the caller for the first tick).
+     */
+    private void onClockTick() {
+        if (sessionClosed.get()) {
+            return;
+        }
+        
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(elapsedNanos);
+        
+        if (answerJournal != null) {
+            answerJournal.recordElapsed(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        }
+        
+        // Only touch the label when the displayed second actually changes
+        if (elapsedSeconds != displayedSeconds) {
+            displayedSeconds = elapsedSeconds;
+            updateTimerLabel(elapsedSeconds);
+        }
         
-        // If quiz has a time limit, show countdown
-        if (quiz.getTimeLimit() > 0) {
-            final long timeLimit = quiz.getTimeLimit() * 60; // convert to seconds
+        long nanosToNextSecond = TimeUnit.SECONDS.toNanos(elapsedSeconds + 1) - elapsedNanos;
+        tickTimeout = TimingWheel.shared().newTimeout(this::onClockTick, nanosToNextSecond, TimeUnit.NANOSECONDS);
+    }
+    
+    private void updateTimerLabel(long elapsedSeconds) {
+        if (timeLimitSeconds > 0) {
+            // Show countdown
+            final long remainingSeconds = Math.max(0, timeLimitSeconds - elapsedSeconds);
+            final String timeString = String.format("Time left: %02d:%02d", remainingSeconds / 60, remainingSeconds % 60);
             
-            quizTimer = new Timer();
-            quizTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    long currentTime = System.currentTimeMillis();
-                    elapsedTimeInSeconds = (currentTime - startTime) / 1000;
-                    long remainingSeconds = timeLimit - elapsedTimeInSeconds;
-                    
-                    if (remainingSeconds <= 0) {
-                        // Time's up!
-                        SwingUtilities.invokeLater(() -> {
-                            quizTimer.cancel();
-                            JOptionPane.showMessageDialog(QuizSessionFrame.this,
-                                    "Time's up! Your quiz will be submitted now.",
-                                    "Time Expired",
-                                    JOptionPane.WARNING_MESSAGE);
-                            finishQuiz();
-                        });
-                    } else {
-                        // Update timer label
-                        long minutes = remainingSeconds / 60;
-                        long seconds = remainingSeconds % 60;
-                        final String timeString = String.format("Time left: %02d:%02d", minutes, seconds);
-                        
-                        SwingUtilities.invokeLater(() -> {
-                            timerLabel.setText(timeString);
-                            
-                            // Change color when time is running low
-                            if (remainingSeconds < 60) {
-                                timerLabel.setForeground(ThemeManager.ERROR_COLOR);
-                            } else if (remainingSeconds < 180) {
-                                timerLabel.setForeground(ThemeManager.WARNING_COLOR);
-                            }
-                        });
-                    }
+            SwingUtilities.invokeLater(() -> {
+                timerLabel.setText(timeString);
+                
+                // Change color when time is running low
+                if (remainingSeconds < 60) {
+                    timerLabel.setForeground(ThemeManager.ERROR_COLOR);
+                } else if (remainingSeconds < 180) {
+                    timerLabel.setForeground(ThemeManager.WARNING_COLOR);
                 }
-            }, 0, 1000); // Update every second
+            });
         } else {
             // No time limit, show elapsed time
-            quizTimer = new Timer();
-            quizTimer.scheduleAtFixedRate(new TimerTask() {
-                @Override
-                public void run() {
-                    long currentTime = System.currentTimeMillis();
-                    elapsedTimeInSeconds = (currentTime - startTime) / 1000;
-                    
-                    // Update timer label
-                    long minutes = elapsedTimeInSeconds / 60;
-                    long seconds = elapsedTimeInSeconds % 60;
-                    final String timeString = String.format("Time: %02d:%02d", minutes, seconds);
-                    
-                    SwingUtilities.invokeLater(() -> {
-                        timerLabel.setText(timeString);
-                    });
-                }
-            }, 0, 1000); // Update every second
+            final String timeString = String.format("Time: %02d:%02d", elapsedSeconds / 60, elapsedSeconds % 60);
+            
+            SwingUtilities.invokeLater(() -> {
+                timerLabel.setText(timeString);
+            });
         }
     }
     
+    /**
+     * Called exactly once by the timing wheel when the time limit is reached.
+     */
+    private void onTimeExpired() {
+        SwingUtilities.invokeLater(() -> {
+            // The quiz may have been submitted or abandoned in the meantime
+            if (sessionClosed.get()) {
+                return;
+            }
+            stopQuizTimer();
+            JOptionPane.showMessageDialog(QuizSessionFrame.this,
+                    "Time's up! Your quiz will be submitted now.",
+                    "Time Expired",
+                    JOptionPane.WARNING_MESSAGE);
+            finishQuiz();
+        });
+    }
+    
+    private void stopQuizTimer() {
+        if (deadlineTimeout != null) {
+            deadlineTimeout.cancel();
+        }
+        if (tickTimeout != null) {
+            tickTimeout.cancel();
+        }
+    }
+    
+    private long getElapsedSeconds() {
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - startNanos);
+        return timeLimitSeconds > 0 ? Math.min(elapsedSeconds, timeLimitSeconds) : elapsedSeconds;
+    }
+    
     private void showCurrentQuestion() {
-        Question currentQuestion = questions.get(currentQuestionIndex);
+        QuestionView view = questionViews[currentQuestionIndex];
         
         // Update question text
-        questionLabel.setText((currentQuestionIndex + 1) + ". " + currentQuestion.getText() + 
-                " (" + currentQuestion.getPoints() + " points)");
-        
-        // Clear options panel
-        optionsPanel.removeAll();
+        questionLabel.setText(view.heading);
         
         // Get selected options for this question
-        List<Integer> selectedOptions = selectedOptionsByQuestion.get(currentQuestionIndex);
-        
-        // Multiple selection needed for multiple correct answers
-        boolean multipleCorrectAnswers = false;
-        int correctCount = 0;
-        for (Option option : currentQuestion.getOptions()) {
-            if (option.isCorrect()) {
-                correctCount++;
+        BitSet selectedPositions = selectedPositionsByQuestion[currentQuestionIndex];
+        
+        // Checkboxes when there are multiple correct answers, radio buttons otherwise
+        List<? extends JToggleButton> activePool = view.multipleChoice ? checkBoxPool : radioButtonPool;
+        List<? extends JToggleButton> inactivePool = view.multipleChoice ? radioButtonPool : checkBoxPool;
+        ensurePoolSize(view.multipleChoice, view.optionTexts.length);
+        
+        if (!view.multipleChoice) {
+            singleSelectionGroup.clearSelection();
+        }
+        
+        // Rebind the pooled buttons to this question's options
+        for (int i = 0; i < activePool.size(); i++) {
+            JToggleButton optionButton = activePool.get(i);
+            
+            if (i < view.optionTexts.length) {
+                if (!view.optionTexts[i].equals(optionButton.getText())) {
+                    optionButton.setText(view.optionTexts[i]);
+                }
+                optionButton.setSelected(selectedPositions.get(i));
+                optionButton.setVisible(true);
+            } else {
+                optionButton.setVisible(false);
             }
         }
-        multipleCorrectAnswers = correctCount > 1;
         
-        // Create option components
-        ButtonGroup singleSelectionGroup = new ButtonGroup();
-        List<JToggleButton> toggleButtons = new ArrayList<>();
+        for (JToggleButton optionButton : inactivePool) {
+            optionButton.setVisible(false);
+        }
         
-        for (Option option : currentQuestion.getOptions()) {
+        // Update navigation buttons state
+        previousButton.setEnabled(currentQuestionIndex > 0);
+        boolean isLastQuestion = currentQuestionIndex == questions.size() - 1;
+        nextButton.setText(isLastQuestion ? "Finish Quiz" : "Next");
+        
+        // Update progress label
+        progressLabel.setText("Question " + (currentQuestionIndex + 1) + " of " + questions.size());
+        
+        // Repaint components
+        optionsPanel.revalidate();
+        optionsPanel.repaint();
+        optionsScrollPane.getVerticalScrollBar().setValue(0);
+    }
+    
+    /**
+     * Makes sure the pool for the given selection mode holds at least the given number of buttons.
+     */
+    private void ensurePoolSize(boolean multipleChoice, int size) {
+        List<? extends JToggleButton> pool = multipleChoice ? checkBoxPool : radioButtonPool;
+        
+        while (pool.size() < size) {
+            final int slot = pool.size();
             JToggleButton optionButton;
             
-            if (multipleCorrectAnswers) {
+            if (multipleChoice) {
                 // Checkbox for multiple selection
-                JCheckBox checkBox = new JCheckBox(option.getText());
-                checkBox.setFont(ThemeManager.BODY_FONT);
-                checkBox.setSelected(selectedOptions.contains(option.getId()));
-                
-                // Add action listener to update selected options
-                checkBox.addActionListener(e -> {
-                    if (checkBox.isSelected()) {
-                        if (!selectedOptions.contains(option.getId())) {
-                            selectedOptions.add(option.getId());
-                        }
-                    } else {
-                        selectedOptions.remove(Integer.valueOf(option.getId()));
-                    }
-                });
-                
+                JCheckBox checkBox = new JCheckBox();
+                checkBox.addActionListener(e -> onOptionToggled(slot, checkBox.isSelected()));
+                checkBoxPool.add(checkBox);
                 optionButton = checkBox;
             } else {
                 // Radio button for single selection
-                JRadioButton radioButton = new JRadioButton(option.getText());
-                radioButton.setFont(ThemeManager.BODY_FONT);
-                radioButton.setSelected(selectedOptions.contains(option.getId()));
+                JRadioButton radioButton = new JRadioButton();
+                radioButton.addActionListener(e -> onOptionToggled(slot, true));
                 singleSelectionGroup.add(radioButton);
-                
-                // Add action listener to update selected options
-                radioButton.addActionListener(e -> {
-                    selectedOptions.clear();
-                    selectedOptions.add(option.getId());
-                });
-                
+                radioButtonPool.add(radioButton);
                 optionButton = radioButton;
             }
             
-            // Style the option button
+            // Style the option button (the extra bottom space separates options)
+            optionButton.setFont(ThemeManager.BODY_FONT);
             optionButton.setBackground(Color.WHITE);
             optionButton.setBorder(BorderFactory.createEmptyBorder(
                     ThemeManager.SPACING_SMALL, ThemeManager.SPACING_SMALL, 
-                    ThemeManager.SPACING_SMALL, ThemeManager.SPACING_SMALL));
+                    ThemeManager.SPACING_SMALL * 2, ThemeManager.SPACING_SMALL));
             optionButton.setFocusPainted(false);
-            
-            toggleButtons.add(optionButton);
+            optionButton.setVisible(false);
             
             // Add to options panel
             optionsPanel.add(optionButton);
-            optionsPanel.add(Box.createRigidArea(new Dimension(0, ThemeManager.SPACING_SMALL)));
+        }
+    }
+    
+    /**
+     * Updates the selection of the current question when a pooled option button is clicked.
+     */
+    private void onOptionToggled(int slot, boolean selected) {
+        QuestionView view = questionViews[currentQuestionIndex];
+        if (slot >= view.optionTexts.length) {
+            return;
         }
         
-        // Update navigation buttons state
-        previousButton.setEnabled(currentQuestionIndex > 0);
-        boolean isLastQuestion = currentQuestionIndex == questions.size() - 1;
-        nextButton.setText(isLastQuestion ? "Finish Quiz" : "Next");
+        BitSet selectedPositions = selectedPositionsByQuestion[currentQuestionIndex];
         
-        // Update progress label
-        progressLabel.setText("Question " + (currentQuestionIndex + 1) + " of " + questions.size());
+        if (!view.multipleChoice) {
+            selectedPositions.clear();
+        }
+        selectedPositions.set(slot, selected);
         
-        // Repaint components
-        questionPanel.revalidate();
-        questionPanel.repaint();
+        journalAnswer(questions.get(currentQuestionIndex), selectedPositions);
     }
     
     private void navigateToPreviousQuestion() {
@@ -353,8 +512,8 @@ public class QuizSessionFrame extends JFrame {
     private void confirmFinish() {
         // Check if all questions have been answered
         boolean allAnswered = true;
-        for (List<Integer> selectedOptions : selectedOptionsByQuestion) {
-            if (selectedOptions.isEmpty()) {
+        for (BitSet selectedPositions : selectedPositionsByQuestion) {
+            if (selectedPositions.isEmpty()) {
                 allAnswered = false;
                 break;
             }
@@ -380,33 +539,37 @@ public class QuizSessionFrame extends JFrame {
                 "Confirm Quit",
                 JOptionPane.YES_NO_OPTION);
         
-        if (choice == JOptionPane.YES_OPTION) {
+        if (choice == JOptionPane.YES_OPTION && sessionClosed.compareAndSet(false, true)) {
             // Cancel timer
-            if (quizTimer != null) {
-                quizTimer.cancel();
-            }
+            stopQuizTimer();
+            
+            // The attempt is abandoned, so it should not be offered for recovery
+            closeAnswerJournal(false);
             dispose();
         }
     }
     
     private void finishQuiz() {
-        // Cancel timer
-        if (quizTimer != null) {
-            quizTimer.cancel();
+        // Submit only once, even if time runs out while the confirmation is open
+        if (!sessionClosed.compareAndSet(false, true)) {
+            return;
         }
         
+        // Cancel timer
+        stopQuizTimer();
+        
         // Calculate results
         QuizResult result = new QuizResult(currentUser.getId(), quiz.getId(), quiz.getTitle());
-        result.setDurationInSeconds(elapsedTimeInSeconds);
+        result.setDurationInSeconds(getElapsedSeconds());
         
         int totalPoints = 0;
         int earnedPoints = 0;
         
         for (int i = 0; i < questions.size(); i++) {
             Question question = questions.get(i);
-            List<Integer> selectedOptions = selectedOptionsByQuestion.get(i);
+            BitSet selectedPositions = selectedPositionsByQuestion[i];
             
-            boolean isCorrect = question.checkAnswer(selectedOptions);
+            boolean isCorrect = question.checkAnswer(selectedPositions);
             
             // Create question result
             QuestionResult questionResult = new QuestionResult(
@@ -414,7 +577,7 @@ public class QuizSessionFrame extends JFrame {
                     question.getId(),
                     question.getText(),
                     isCorrect,
-                    selectedOptions,
+                    question.getOptionIds(selectedPositions),
                     question.getPoints()
             );
             
@@ -430,16 +593,51 @@ public class QuizSessionFrame extends JFrame {
         result.setScore(earnedPoints);
         result.setMaxScore(totalPoints);
         
+        // Identifies the attempt, so it is never saved twice if it has to be uploaded later
+        result.setAttemptKey(UUID.randomUUID().toString());
+        
         try {
-            // Save result to database
-            result = quizResultDAO.saveQuizResult(result);
+            boolean savedOffline = false;
+            if (ResultOutbox.isOfflineMode()) {
+                ResultOutbox.shared().add(result);
+                savedOffline = true;
+            } else {
+                try {
+                    // Save result to database
+                    result = quizResultDAO.saveQuizResult(result);
+                } catch (SQLException e) {
+                    if (Repositories.isInMemory()) {
+                        // The outbox uploads to the database, which does not know this attempt
+                        throw new IOException(e.getMessage(), e);
+                    }
+                    
+                    // Keep it on this computer and upload it once the database is reachable
+                    System.err.println("Error saving quiz result, keeping it in the outbox: " + e.getMessage());
+                    ResultOutbox.shared().add(result);
+                    savedOffline = true;
+                }
+            }
+            
+            // The saved result now holds everything the journal did
+            closeAnswerJournal(false);
+            
+            if (savedOffline) {
+                JOptionPane.showMessageDialog(this,
+                        "Your result was saved on this computer and will be uploaded when the database is available.",
+                        "Result Saved Offline",
+                        JOptionPane.INFORMATION_MESSAGE);
+            }
             
             // Show results
             showQuizResults(result);
-        } catch (SQLException e) {
+        } catch (IOException e) {
+            // Keep the journal so the attempt can be resumed and submitted again
+            closeAnswerJournal(true);
+            
             JOptionPane.showMessageDialog(this,
-                    "Error saving quiz result: " + e.getMessage(),
-                    "Database Error",
+                    "Error saving quiz result: " + e.getMessage() +
+                    (answerJournal != null ? "\nYour answers are kept; open the quiz again to resume and resubmit." : ""),
+                    "Save Error",
                     JOptionPane.ERROR_MESSAGE);
             e.printStackTrace();
             dispose();
@@ -454,4 +652,32 @@ public class QuizSessionFrame extends JFrame {
         // Close quiz frame when results dialog is closed
         dispose();
     }
+    
+    /**
+     * Display data for a question, computed once when the quiz is opened.
+     */
+    private static class QuestionView {
+        private final String heading;
+        private final String[] optionTexts;
+        private final boolean multipleChoice;
+        
+        private QuestionView(int index, Question question) {
+            List<Option> options = question.getOptions();
+            
+            this.heading = (index + 1) + ". " + question.getText() + " (" + question.getPoints() + " points)";
+            this.optionTexts = new String[options.size()];
+            
+            int correctCount = 0;
+            for (int i = 0; i < options.size(); i++) {
+                Option option = options.get(i);
+                optionTexts[i] = option.getText();
+                if (option.isCorrect()) {
+                    correctCount++;
+                }
+            }
+            
+            // Multiple selection needed for multiple correct answers
+            this.multipleChoice = correctCount > 1;
+        }
+    }
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.quizapp.ui.user;
 
-import com.quizapp.dao.UserDAO;
+import com.quizapp.dao.Repositories;
+import com.quizapp.dao.UserRepository;
 import com.quizapp.model.User;
 import com.quizapp.util.PasswordUtil;
 import com.quizapp.util.ThemeManager;
@@ -16,7 +17,7 @@ import java.sql.SQLException;
 public class UserProfilePanel extends JPanel {
     
     private User currentUser;
-    private UserDAO userDAO;
+    private UserRepository userDAO;
     
     private JTextField usernameField;
     private JTextField emailField;
@@ -28,7 +29,7 @@ public class UserProfilePanel extends JPanel {
     
     public UserProfilePanel(User currentUser) {
         this.currentUser = currentUser;
-        this.userDAO = new UserDAO();
+        this.userDAO = Repositories.users();
         
         setLayout(new BorderLayout(ThemeManager.SPACING_MEDIUM, ThemeManager.SPACING_MEDIUM));
         setBackground(ThemeManager.BACKGROUND_COLOR);
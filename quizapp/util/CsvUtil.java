@@ -0,0 +1,78 @@
+package com.quizapp.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Utility class for reading and writing comma-separated values.
+ * <p>
+ * Records are expected to fit on a single line. Fields may be quoted with double
+ * quotes, and a doubled quote inside a quoted field stands for a literal quote.
+ */
+public class CsvUtil {
+
+    /**
+     * Splits a single CSV line into its fields.
+     *
+     * @param line the line to split
+     * @return the list of fields (unquoted)
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean inQuotes = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+
+            if (inQuotes) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        inQuotes = false;
+                    }
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                inQuotes = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Escapes a value for use as a CSV field, quoting it only when needed.
+     *
+     * @param value the value to escape (may be null)
+     * @return the escaped field
+     */
+    public static String escape(String value) {
+        if (value == null) {
+            return "";
+        }
+
+        boolean needsQuotes = false;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                needsQuotes = true;
+                break;
+            }
+        }
+
+        if (!needsQuotes) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
@@ -7,15 +7,17 @@ import java.util.Properties;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Path;
 
 /**
  * Utility class for database operations.
  */
 public class DatabaseUtil {
-    private static final String DB_URL = "jdbc:sqlite:quiz_app.db";
+    public static final String DB_FILE = "quiz_app.db";
+    private static final String DB_URL = "jdbc:sqlite:" + DB_FILE;
     
     /**
-     * Gets a connection to the database.
+     * Gets a connection to the database, with foreign keys enforced.
      *
      * @return a database connection
      * @throws SQLException if a connection cannot be established
@@ -25,8 +27,28 @@ public class DatabaseUtil {
             // Load the SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
             
+            // SQLite ignores foreign keys (and ON DELETE CASCADE) unless enabled per connection
+            Properties properties = new Properties();
+            properties.setProperty("foreign_keys", "true");
+            
             // Create and return a connection
-            return DriverManager.getConnection(DB_URL);
+            return DriverManager.getConnection(DB_URL, properties);
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite JDBC driver not found", e);
+        }
+    }
+    
+    /**
+     * Gets a connection to another database file, e.g. a backup.
+     *
+     * @param file the database file
+     * @return a database connection
+     * @throws SQLException if a connection cannot be established
+     */
+    public static Connection getConnection(Path file) throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            return DriverManager.getConnection("jdbc:sqlite:" + file);
         } catch (ClassNotFoundException e) {
             throw new SQLException("SQLite JDBC driver not found", e);
         }
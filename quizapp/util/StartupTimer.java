@@ -0,0 +1,122 @@
+package com.quizapp.util;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Records how long each startup phase takes so that regressions can be tracked.
+ * <p>
+ * Timing is off by default; it is switched on with the {@code --startup-timing}
+ * command-line flag or the {@code quizapp.startupTiming} system property. Phases may
+ * run on different threads, so each one records its own thread name, its start
+ * offset and its duration relative to the moment the timer was created.
+ */
+public class StartupTimer {
+    private static final long ORIGIN_NANOS = System.nanoTime();
+    private static final List<Phase> phases = new ArrayList<>();
+    private static final List<Phase> milestones = new ArrayList<>();
+    private static volatile boolean enabled = Boolean.getBoolean("quizapp.startupTiming");
+
+    /**
+     * Enables recording and reporting of startup phases.
+     */
+    public static void enable() {
+        enabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Marks the start of a phase.
+     *
+     * @return a token to pass to {@link #end(String, long)}
+     */
+    public static long begin() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records a finished phase.
+     *
+     * @param name the name of the phase
+     * @param beginToken the value returned by {@link #begin()} when the phase started
+     */
+    public static void end(String name, long beginToken) {
+        if (!enabled) {
+            return;
+        }
+        long now = System.nanoTime();
+        synchronized (phases) {
+            phases.add(new Phase(name, Thread.currentThread().getName(),
+                    beginToken - ORIGIN_NANOS, now - beginToken));
+        }
+    }
+
+    /**
+     * Records a point in time that the report should show relative to both
+     * {@code main()} and the start of the JVM process.
+     *
+     * @param name the name of the milestone, e.g. "login window visible"
+     */
+    public static void milestone(String name) {
+        if (!enabled) {
+            return;
+        }
+        long sinceMain = System.nanoTime() - ORIGIN_NANOS;
+        long sinceProcess = ProcessHandle.current().info().startInstant()
+                .map(start -> Duration.between(start, Instant.now()).toNanos())
+                .orElse(-1L);
+        synchronized (phases) {
+            milestones.add(new Phase(name, Thread.currentThread().getName(), sinceMain, sinceProcess));
+        }
+    }
+
+    /**
+     * Prints all recorded phases and milestones to standard output.
+     */
+    public static void printReport() {
+        if (!enabled) {
+            return;
+        }
+
+        StringBuilder sb = new StringBuilder("Startup timing report\n");
+        synchronized (phases) {
+            for (Phase phase : phases) {
+                sb.append(String.format("  %-28s %-22s start %7.1f ms  took %7.1f ms%n",
+                        phase.name, "[" + phase.thread + "]",
+                        phase.startNanos / 1e6, phase.durationNanos / 1e6));
+            }
+            for (Phase milestone : milestones) {
+                sb.append(String.format("  %-28s %-22s at    %7.1f ms", milestone.name,
+                        "[" + milestone.thread + "]", milestone.startNanos / 1e6));
+                if (milestone.durationNanos >= 0) {
+                    sb.append(String.format("  (%.1f ms after process start)", milestone.durationNanos / 1e6));
+                }
+                sb.append(System.lineSeparator());
+            }
+        }
+
+        System.out.print(sb);
+    }
+
+    /**
+     * A single timed startup phase or milestone.
+     */
+    private static class Phase {
+        private final String name;
+        private final String thread;
+        private final long startNanos;
+        private final long durationNanos;
+
+        private Phase(String name, String thread, long startNanos, long durationNanos) {
+            this.name = name;
+            this.thread = thread;
+            this.startNanos = startNanos;
+            this.durationNanos = durationNanos;
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.quizapp.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A hashed timing wheel that runs one-shot timeouts on a single shared thread.
+ * <p>
+ * Every open quiz session schedules its deadline and its clock ticks here instead of
+ * owning a {@link java.util.Timer} thread. Deadlines use {@link System#nanoTime()}, so
+ * they are not affected by changes to the wall clock. Tasks run on the wheel thread and
+ * must be short; UI work should be handed to the event dispatch thread.
+ * <p>
+ * A timeout fires at most once: firing and cancelling race on a single state field,
+ * and whichever wins decides the outcome.
+ */
+public class TimingWheel {
+    private static final long DEFAULT_TICK_MILLIS = 100;
+    private static final int DEFAULT_WHEEL_SIZE = 512;
+    
+    private static final TimingWheel SHARED = new TimingWheel(DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+    
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final Queue<Timeout> pendingTimeouts = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelledTimeouts = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger workerState = new AtomicInteger(WORKER_INIT);
+    
+    private static final int WORKER_INIT = 0;
+    private static final int WORKER_STARTED = 1;
+    
+    private volatile long startNanos;
+    private long tick;
+    
+    /**
+     * Creates a timing wheel.
+     *
+     * @param tickMillis the resolution of the wheel in milliseconds
+     * @param wheelSize the number of buckets; rounded up to a power of two
+     */
+    public TimingWheel(long tickMillis, int wheelSize) {
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, tickMillis));
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+    }
+    
+    /**
+     * Gets the wheel shared by all quiz sessions in this application.
+     */
+    public static TimingWheel shared() {
+        return SHARED;
+    }
+    
+    /**
+     * Schedules a task to run once after the given delay.
+     *
+     * @param task the task to run on the wheel thread
+     * @param delay the delay
+     * @param unit the unit of the delay
+     * @return a handle that can be used to cancel the task
+     */
+    public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+        startWorker();
+        long deadline = System.nanoTime() + unit.toNanos(Math.max(0, delay)) - startNanos;
+        Timeout timeout = new Timeout(this, task, deadline);
+        pendingTimeouts.add(timeout);
+        return timeout;
+    }
+    
+    private void startWorker() {
+        if (workerState.get() == WORKER_INIT && workerState.compareAndSet(WORKER_INIT, WORKER_STARTED)) {
+            long now = System.nanoTime();
+            startNanos = now == 0 ? 1 : now; // 0 means "not started yet"
+            Thread worker = new Thread(this::runWorker, "quiz-timing-wheel");
+            worker.setDaemon(true);
+            worker.start();
+        }
+        
+        // Another thread may be starting the worker; wait until it has published the start time
+        while (startNanos == 0) {
+            Thread.onSpinWait();
+        }
+    }
+    
+    private void runWorker() {
+        while (true) {
+            waitForNextTick();
+            int index = (int) (tick & mask);
+            
+            processCancelledTimeouts();
+            transferPendingTimeouts();
+            wheel[index].expireTimeouts();
+            tick++;
+        }
+    }
+    
+    /**
+     * Sleeps until the end of the current tick.
+     */
+    private void waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        
+        while (true) {
+            long currentTime = System.nanoTime() - startNanos;
+            long sleepNanos = deadline - currentTime;
+            
+            if (sleepNanos <= 0) {
+                return;
+            }
+            
+            try {
+                TimeUnit.NANOSECONDS.sleep(sleepNanos);
+            } catch (InterruptedException e) {
+                // The worker runs for the lifetime of the application
+            }
+        }
+    }
+    
+    private void transferPendingTimeouts() {
+        // Cap the work per tick so a burst of new timeouts cannot stall expiry
+        for (int i = 0; i < 100_000; i++) {
+            Timeout timeout = pendingTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() == Timeout.ST_CANCELLED) {
+                continue;
+            }
+            
+            long calculatedTicks = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (calculatedTicks - tick) / wheel.length;
+            
+            // Never schedule into the past
+            long ticks = Math.max(calculatedTicks, tick);
+            wheel[(int) (ticks & mask)].add(timeout);
+        }
+    }
+    
+    private void processCancelledTimeouts() {
+        Timeout timeout;
+        while ((timeout = cancelledTimeouts.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+    
+    /**
+     * A doubly linked list of timeouts that hash to the same slot.
+     * Only touched by the worker thread.
+     */
+    private static class Bucket {
+        private Timeout head;
+        private Timeout tail;
+        
+        private void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.prev = tail;
+                tail = timeout;
+            }
+        }
+        
+        private void expireTimeouts() {
+            Timeout timeout = head;
+            
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                
+                if (timeout.remainingRounds <= 0) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.state.get() == Timeout.ST_CANCELLED) {
+                    remove(timeout);
+                } else {
+                    timeout.remainingRounds--;
+                }
+                
+                timeout = next;
+            }
+        }
+        
+        private void remove(Timeout timeout) {
+            if (timeout.bucket != this) {
+                return;
+            }
+            
+            if (timeout.prev != null) {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.prev = timeout.prev;
+            }
+            
+            if (timeout == head) {
+                head = timeout.next;
+            }
+            if (timeout == tail) {
+                tail = timeout.prev;
+            }
+            
+            timeout.prev = null;
+            timeout.next = null;
+            timeout.bucket = null;
+        }
+    }
+    
+    /**
+     * Handle for a scheduled task.
+     */
+    public static class Timeout {
+        private static final int ST_INIT = 0;
+        private static final int ST_CANCELLED = 1;
+        private static final int ST_EXPIRED = 2;
+        
+        private final TimingWheel wheel;
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(ST_INIT);
+        
+        // Owned by the worker thread
+        private long remainingRounds;
+        private Timeout next;
+        private Timeout prev;
+        private Bucket bucket;
+        
+        private Timeout(TimingWheel wheel, Runnable task, long deadline) {
+            this.wheel = wheel;
+            this.task = task;
+            this.deadline = deadline;
+        }
+        
+        /**
+         * Cancels the task if it has not run yet.
+         *
+         * @return true if the task was cancelled, false if it already ran or was cancelled
+         */
+        public boolean cancel() {
+            if (!state.compareAndSet(ST_INIT, ST_CANCELLED)) {
+                return false;
+            }
+            wheel.cancelledTimeouts.add(this);
+            return true;
+        }
+        
+        public boolean isCancelled() {
+            return state.get() == ST_CANCELLED;
+        }
+        
+        public boolean isExpired() {
+            return state.get() == ST_EXPIRED;
+        }
+        
+        private void expire() {
+            if (!state.compareAndSet(ST_INIT, ST_EXPIRED)) {
+                return;
+            }
+            
+            try {
+                task.run();
+            } catch (Throwable t) {
+                System.err.println("Error running scheduled task: " + t.getMessage());
+                t.printStackTrace();
+            }
+        }
+    }
+}
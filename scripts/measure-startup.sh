@@ -0,0 +1,46 @@
+#!/bin/sh
+# Compares time-to-login-window with and without the startup-optimized distribution.
+#
+# Usage: scripts/measure-startup.sh [runs]
+#
+# Build first with `mvn clean package -Pcds`. Each configuration is started `runs`
+# times (default 10) with --startup-timing --exit-after-startup, and the "login window
+# visible" milestone (milliseconds after JVM process start) is averaged. Needs a
+# display, or run it under xvfb-run. The runs use a scratch database in target/.
+
+set -e
+
+RUNS="${1:-10}"
+TARGET="$(cd "$(dirname "$0")/../target" && pwd)"
+JAR="$TARGET/online-quiz-application-1.0-SNAPSHOT-jar-with-dependencies.jar"
+WORKDIR="$TARGET/startup-measurement"
+
+mkdir -p "$WORKDIR"
+cd "$WORKDIR"
+
+# Prints the average time-to-login-window of a command over $RUNS runs.
+measure() {
+    label="$1"
+    shift
+    total=0
+    i=0
+    while [ "$i" -lt "$RUNS" ]; do
+        ms=$("$@" -jar "$JAR" --startup-timing --exit-after-startup \
+            | sed -n 's/.*login window visible.*(\([0-9.]*\) ms after process start).*/\1/p')
+        if [ -z "$ms" ]; then
+            echo "$label: no timing reported" >&2
+            return 1
+        fi
+        total=$(echo "$total + $ms" | bc -l)
+        i=$((i + 1))
+    done
+    printf '%-40s %8.1f ms (average of %d runs)\n' "$label" "$(echo "$total / $RUNS" | bc -l)" "$RUNS"
+}
+
+# Warm the OS file cache and create the scratch database once
+java -jar "$JAR" --exit-after-startup > /dev/null
+
+measure "default JDK, no app archive" java -Xshare:auto
+measure "trimmed runtime, no app archive" "$TARGET/runtime/bin/java" -Xshare:auto
+measure "trimmed runtime + AppCDS archive" "$TARGET/runtime/bin/java" \
+    -XX:SharedArchiveFile="$TARGET/quizapp.jsa" -Xshare:auto
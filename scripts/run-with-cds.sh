@@ -0,0 +1,14 @@
+#!/bin/sh
+# Launches the application on the trimmed runtime with the class-data-sharing archive
+# produced by `mvn clean package -Pcds`. Extra arguments are passed to the application.
+#
+# The archive is only valid for the exact jar path it was recorded with, so rebuild
+# after moving the project directory.
+
+set -e
+
+TARGET="$(cd "$(dirname "$0")/../target" && pwd)"
+JAR="$TARGET/online-quiz-application-1.0-SNAPSHOT-jar-with-dependencies.jar"
+
+exec "$TARGET/runtime/bin/java" -XX:SharedArchiveFile="$TARGET/quizapp.jsa" -Xshare:auto \
+    -jar "$JAR" "$@"
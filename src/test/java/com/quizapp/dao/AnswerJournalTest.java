@@ -0,0 +1,127 @@
+package com.quizapp.dao;
+
+import com.quizapp.dao.AnswerJournal.RecoveredAttempt;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class AnswerJournalTest {
+    // Unlikely to belong to a real attempt in the working directory
+    private static final int USER_ID = 900_001;
+    private static final int QUIZ_ID = 900_002;
+
+    private static final Path JOURNAL = Paths.get("journals", "attempt-u" + USER_ID + "-q" + QUIZ_ID + ".journal");
+
+    @After
+    public void tearDown() throws IOException {
+        AnswerJournal.delete(USER_ID, QUIZ_ID);
+        Files.deleteIfExists(JOURNAL.resolveSibling(JOURNAL.getFileName() + ".tmp"));
+    }
+
+    @Test
+    public void recoversFlushedAnswers() throws IOException {
+        try (AnswerJournal journal = AnswerJournal.create(USER_ID, QUIZ_ID)) {
+            journal.recordAnswer(1, new int[] {10});
+            journal.recordAnswer(2, new int[] {20, 21});
+            journal.recordAnswer(1, new int[] {11});
+            journal.recordElapsed(42_000);
+        }
+
+        RecoveredAttempt attempt = AnswerJournal.recover(USER_ID, QUIZ_ID);
+
+        assertNotNull(attempt);
+        assertEquals(2, attempt.getAnswers().size());
+        assertArrayEquals(new int[] {11}, attempt.getAnswers().get(1));
+        assertArrayEquals(new int[] {20, 21}, attempt.getAnswers().get(2));
+        assertEquals(42_000, attempt.getElapsedMillis());
+    }
+
+    @Test
+    public void dropsTornRecordAtTheEnd() throws IOException {
+        try (AnswerJournal journal = AnswerJournal.create(USER_ID, QUIZ_ID)) {
+            journal.recordAnswer(1, new int[] {10});
+            journal.flush();
+            journal.recordAnswer(2, new int[] {20});
+        }
+
+        // Cut the last record short, as a crash in the middle of a write would
+        long size = Files.size(JOURNAL);
+        try (FileChannel channel = FileChannel.open(JOURNAL, StandardOpenOption.WRITE)) {
+            channel.truncate(size - 3);
+        }
+
+        RecoveredAttempt attempt = AnswerJournal.recover(USER_ID, QUIZ_ID);
+
+        assertNotNull(attempt);
+        assertEquals(1, attempt.getAnswers().size());
+        assertArrayEquals(new int[] {10}, attempt.getAnswers().get(1));
+        assertFalse(attempt.getAnswers().containsKey(2));
+    }
+
+    @Test
+    public void dropsRecordWithBadChecksum() throws IOException {
+        try (AnswerJournal journal = AnswerJournal.create(USER_ID, QUIZ_ID)) {
+            journal.recordAnswer(1, new int[] {10});
+            journal.flush();
+            journal.recordAnswer(2, new int[] {20});
+        }
+
+        // Flip a bit in the option ID of the last record, just before its checksum
+        byte[] bytes = Files.readAllBytes(JOURNAL);
+        bytes[bytes.length - 5] ^= 1;
+        Files.write(JOURNAL, bytes);
+
+        RecoveredAttempt attempt = AnswerJournal.recover(USER_ID, QUIZ_ID);
+
+        assertNotNull(attempt);
+        assertEquals(1, attempt.getAnswers().size());
+        assertArrayEquals(new int[] {10}, attempt.getAnswers().get(1));
+    }
+
+    @Test
+    public void continuesAfterTornRecordOnceReopened() throws IOException {
+        try (AnswerJournal journal = AnswerJournal.create(USER_ID, QUIZ_ID)) {
+            journal.recordAnswer(1, new int[] {10});
+            journal.flush();
+            journal.recordAnswer(2, new int[] {20});
+        }
+        Files.write(JOURNAL, new byte[] {0, 0, 0, 9, 2}, StandardOpenOption.APPEND);
+
+        try (AnswerJournal journal = AnswerJournal.reopen(AnswerJournal.recover(USER_ID, QUIZ_ID))) {
+            journal.recordAnswer(3, new int[] {30});
+        }
+
+        RecoveredAttempt attempt = AnswerJournal.recover(USER_ID, QUIZ_ID);
+        assertEquals(3, attempt.getAnswers().size());
+        assertArrayEquals(new int[] {30}, attempt.getAnswers().get(3));
+    }
+
+    @Test
+    public void ignoresJournalOfAnotherAttempt() throws IOException {
+        assertNull(AnswerJournal.recover(USER_ID, QUIZ_ID));
+
+        try (AnswerJournal journal = AnswerJournal.create(USER_ID, QUIZ_ID)) {
+            journal.recordAnswer(1, new int[] {10});
+        }
+        Files.move(JOURNAL, JOURNAL.resolveSibling("attempt-u" + USER_ID + "-q" + (QUIZ_ID + 1) + ".journal"));
+
+        try {
+            assertNull("header names another quiz", AnswerJournal.recover(USER_ID, QUIZ_ID + 1));
+        } finally {
+            AnswerJournal.delete(USER_ID, QUIZ_ID + 1);
+        }
+    }
+}
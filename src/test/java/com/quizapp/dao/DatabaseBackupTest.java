@@ -0,0 +1,85 @@
+package com.quizapp.dao;
+
+import com.quizapp.util.DatabaseUtil;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DatabaseBackupTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void copiesInSeveralSteps() throws Exception {
+        Path source = createDatabase(2000);
+        Path target = folder.getRoot().toPath().resolve("copy.db");
+
+        int stepCount;
+        try (Connection conn = DatabaseUtil.getConnection(source)) {
+            stepCount = new DatabaseBackup(folder.getRoot().toPath(), 1, 0).copyDatabase(conn, target);
+        }
+
+        // About 2000 pages of rows, copied 128 pages at a time
+        assertTrue("copied in " + stepCount + " step(s)", stepCount >= 10);
+        assertEquals(2000, countRows(target));
+    }
+
+    @Test
+    public void letsWritersInBetweenSteps() throws Exception {
+        Path source = createDatabase(2000);
+        Path target = folder.getRoot().toPath().resolve("copy.db");
+        DatabaseBackup backup = new DatabaseBackup(folder.getRoot().toPath(), 1, 20);
+
+        CompletableFuture<Integer> copy = CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = DatabaseUtil.getConnection(source)) {
+                return backup.copyDatabase(conn, target);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        try (Connection writer = DatabaseUtil.getConnection(source);
+             Statement stmt = writer.createStatement()) {
+            Thread.sleep(50); // Let the copy start
+            stmt.execute("PRAGMA busy_timeout = 200");
+            stmt.executeUpdate("INSERT INTO filler (data) VALUES (randomblob(100))");
+        }
+        assertFalse("the write waited for the whole copy", copy.isDone());
+
+        copy.get(60, TimeUnit.SECONDS);
+        // The copy started over after the write, so it holds the new row
+        assertEquals(2001, countRows(target));
+    }
+
+    private Path createDatabase(int rowCount) throws SQLException {
+        Path file = folder.getRoot().toPath().resolve("source.db");
+        try (Connection conn = DatabaseUtil.getConnection(file);
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("CREATE TABLE filler (id INTEGER PRIMARY KEY, data BLOB)");
+            stmt.executeUpdate("WITH RECURSIVE n(i) AS (SELECT 1 UNION ALL SELECT i + 1 FROM n WHERE i < "
+                    + rowCount + ") INSERT INTO filler (data) SELECT randomblob(3000) FROM n");
+        }
+        return file;
+    }
+
+    private static int countRows(Path file) throws SQLException {
+        try (Connection conn = DatabaseUtil.getConnection(file);
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COUNT(*) FROM filler")) {
+            return rs.getInt(1);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.quizapp.dao;
+
+import com.quizapp.model.Question;
+import com.quizapp.model.Question.Option;
+import com.quizapp.model.Quiz;
+import com.quizapp.model.QuizResult;
+import com.quizapp.model.QuizResult.QuestionResult;
+import com.quizapp.model.User;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Checks that the in-memory repositories keep the constraints of the database schema:
+ * unique usernames and emails, foreign keys, and deletes that cascade.
+ */
+public class InMemoryRepositoriesTest {
+    private InMemoryUserRepository users;
+    private InMemoryQuizRepository quizzes;
+    private InMemoryQuizResultRepository results;
+
+    @Before
+    public void setUp() {
+        InMemoryStore store = new InMemoryStore();
+        users = new InMemoryUserRepository(store);
+        quizzes = new InMemoryQuizRepository(store);
+        results = new InMemoryQuizResultRepository(store);
+    }
+
+    @Test
+    public void rejectsDuplicateUsernameAndEmail() throws SQLException {
+        users.createUser(new User("alice", "secret1", "alice@example.com", false));
+
+        assertFails("users.username", () -> users.createUser(new User("alice", "secret2", "other@example.com", false)));
+        assertFails("users.email", () -> users.createUser(new User("bob", "secret2", "alice@example.com", false)));
+
+        User bob = users.createUser(new User("bob", "secret2", "bob@example.com", false));
+        bob.setUsername("alice");
+        assertFails("users.username", () -> users.updateUser(bob));
+        assertEquals("bob", users.getUserById(bob.getId()).getUsername());
+    }
+
+    @Test
+    public void freesUsernameOfDeletedUser() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        assertTrue(users.deleteUser(alice.getId()));
+
+        assertNotNull(users.createUser(new User("alice", "secret1", "alice@example.com", false)));
+    }
+
+    @Test
+    public void rejectsMissingReferences() throws SQLException {
+        assertFails("FOREIGN KEY", () -> quizzes.createQuiz(new Quiz("Orphan", "", 42, 10)));
+        assertFails("FOREIGN KEY", () -> quizzes.addQuestionToQuiz(42, new Question(42, "Why?", 1)));
+
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        Quiz quiz = createQuiz(alice);
+        assertFails("FOREIGN KEY", () -> results.saveQuizResult(newResult(42, quiz)));
+
+        User bob = users.createUser(new User("bob", "secret2", "bob@example.com", false));
+        QuizResult unknownQuiz = new QuizResult(bob.getId(), 42, "Unknown");
+        assertFails("FOREIGN KEY", () -> results.saveQuizResults(Arrays.asList(newResult(bob.getId(), quiz),
+                unknownQuiz)));
+        assertTrue("a failing batch saves nothing", results.getQuizResultsByUser(bob.getId()).isEmpty());
+    }
+
+    @Test
+    public void refusesToDeleteCreatorOfQuizzes() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        Quiz quiz = createQuiz(alice);
+
+        assertFails("quiz", () -> users.deleteUser(alice.getId()));
+        assertNotNull(users.getUserById(alice.getId()));
+
+        assertTrue(quizzes.deleteQuiz(quiz.getId()));
+        assertTrue(users.deleteUser(alice.getId()));
+        assertNull(users.getUserById(alice.getId()));
+    }
+
+    @Test
+    public void deletingQuizDeletesQuestionsAndResults() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        User bob = users.createUser(new User("bob", "secret2", "bob@example.com", false));
+        Quiz quiz = createQuiz(alice);
+        QuizResult result = results.saveQuizResult(newResult(bob.getId(), quiz));
+
+        assertTrue(quizzes.deleteQuiz(quiz.getId()));
+
+        assertNull(quizzes.getQuizById(quiz.getId()));
+        assertNull(results.getQuizResultById(result.getId()));
+        assertTrue(results.getQuizResultsByUser(bob.getId()).isEmpty());
+        assertTrue(results.getQuizResultsByQuiz(quiz.getId()).isEmpty());
+        assertFails("FOREIGN KEY", () -> quizzes.addQuestionToQuiz(quiz.getId(), new Question(0, "Why?", 1)));
+    }
+
+    @Test
+    public void deletingQuestionDeletesItsAnswers() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        User bob = users.createUser(new User("bob", "secret2", "bob@example.com", false));
+        Quiz quiz = createQuiz(alice);
+        QuizResult result = results.saveQuizResult(newResult(bob.getId(), quiz));
+        int deletedQuestionId = quiz.getQuestions().get(0).getId();
+
+        assertTrue(quizzes.deleteQuestion(deletedQuestionId));
+        assertFalse(quizzes.deleteQuestion(deletedQuestionId));
+
+        assertEquals(1, quizzes.getQuizById(quiz.getId()).getQuestions().size());
+        QuizResult saved = results.getQuizResultById(result.getId());
+        assertEquals(1, saved.getQuestionResults().size());
+        assertEquals(quiz.getQuestions().get(1).getId(), saved.getQuestionResults().get(0).getQuestionId());
+    }
+
+    @Test
+    public void deletingUserDeletesTheirResultsOnly() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        User bob = users.createUser(new User("bob", "secret2", "bob@example.com", false));
+        User carol = users.createUser(new User("carol", "secret3", "carol@example.com", false));
+        Quiz quiz = createQuiz(alice);
+        QuizResult bobResult = results.saveQuizResult(newResult(bob.getId(), quiz));
+        QuizResult carolResult = results.saveQuizResult(newResult(carol.getId(), quiz));
+
+        assertTrue(users.deleteUser(bob.getId()));
+
+        assertNull(results.getQuizResultById(bobResult.getId()));
+        assertEquals(1, results.getQuizResultsByQuiz(quiz.getId()).size());
+        assertEquals(carolResult.getId(), results.getQuizResultsByQuiz(quiz.getId()).get(0).getId());
+        assertEquals(1, results.getQuizResultsBetween(LocalDateTime.now().minusDays(1),
+                LocalDateTime.now().plusDays(1)).size());
+    }
+
+    @Test
+    public void savesEachAttemptKeyOnce() throws SQLException {
+        User alice = users.createUser(new User("alice", "secret1", "alice@example.com", false));
+        Quiz quiz = createQuiz(alice);
+        QuizResult first = newResult(alice.getId(), quiz);
+        first.setAttemptKey("attempt-1");
+        QuizResult again = newResult(alice.getId(), quiz);
+        again.setAttemptKey("attempt-1");
+
+        assertEquals(1, results.saveQuizResults(Arrays.asList(first, again)));
+        assertEquals(first.getId(), again.getId());
+        assertEquals(1, results.getQuizResultsByUser(alice.getId()).size());
+    }
+
+    private Quiz createQuiz(User creator) throws SQLException {
+        Quiz quiz = new Quiz("Capitals", "European capitals", creator.getId(), 10);
+        for (String country : new String[] {"France", "Italy"}) {
+            Question question = new Question(0, "Capital of " + country + "?", 1);
+            question.addOption(new Option(0, "Paris", country.equals("France")));
+            question.addOption(new Option(0, "Rome", country.equals("Italy")));
+            quiz.addQuestion(question);
+        }
+        return quizzes.createQuiz(quiz);
+    }
+
+    private static QuizResult newResult(int userId, Quiz quiz) {
+        QuizResult result = new QuizResult(userId, quiz.getId(), quiz.getTitle());
+        for (Question question : quiz.getQuestions()) {
+            Option picked = question.getOptions().get(0);
+            result.addQuestionResult(new QuestionResult(0, question.getId(), question.getText(), picked.isCorrect(),
+                    new int[] {picked.getId()}, question.getPoints()));
+        }
+        result.setScore(1);
+        result.setMaxScore(2);
+        result.setDurationInSeconds(60);
+        result.setCompletedAt(LocalDateTime.now());
+        return result;
+    }
+
+    private static void assertFails(String messagePart, Action action) {
+        try {
+            action.run();
+            fail("Expected a constraint failure mentioning " + messagePart);
+        } catch (SQLException e) {
+            assertTrue(e.getMessage(), e.getMessage().contains(messagePart));
+        }
+    }
+
+    private interface Action {
+        void run() throws SQLException;
+    }
+}
@@ -0,0 +1,65 @@
+package com.quizapp.dao;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class SelectionMaskTest {
+    private static final int[] OPTION_IDS = {11, 12, 15, 20};
+
+    @Test
+    public void roundTripsEverySelection() {
+        // All 16 subsets of the four options
+        for (int bits = 0; bits < 1 << OPTION_IDS.length; bits++) {
+            int[] selected = new int[Integer.bitCount(bits)];
+            int count = 0;
+            for (int i = 0; i < OPTION_IDS.length; i++) {
+                if ((bits & 1 << i) != 0) {
+                    selected[count++] = OPTION_IDS[i];
+                }
+            }
+
+            byte[] mask = SelectionMask.encode(selected, OPTION_IDS);
+            assertArrayEquals(selected, SelectionMask.decode(mask, OPTION_IDS));
+        }
+    }
+
+    @Test
+    public void roundTripsPastTheFirstByte() {
+        int[] optionIds = new int[40];
+        for (int i = 0; i < optionIds.length; i++) {
+            optionIds[i] = 100 + i;
+        }
+        int[] selected = {100, 107, 108, 139};
+
+        byte[] mask = SelectionMask.encode(selected, optionIds);
+        assertEquals(5, mask.length);
+        assertArrayEquals(selected, SelectionMask.decode(mask, optionIds));
+    }
+
+    @Test
+    public void sortsSelectionAndDropsUnknownOptions() {
+        byte[] mask = SelectionMask.encode(new int[] {20, 99, 11}, OPTION_IDS);
+
+        assertArrayEquals(new int[] {11, 20}, SelectionMask.decode(mask, OPTION_IDS));
+        assertEquals("A;D", SelectionMask.labels(mask));
+    }
+
+    @Test
+    public void storesNoAnswerAsEmptyMask() {
+        byte[] mask = SelectionMask.encode(new int[0], OPTION_IDS);
+
+        assertEquals(0, mask.length);
+        assertArrayEquals(new int[0], SelectionMask.decode(mask, OPTION_IDS));
+        assertArrayEquals(new int[0], SelectionMask.decode(null, OPTION_IDS));
+        assertEquals("", SelectionMask.labels(mask));
+    }
+
+    @Test
+    public void ignoresPositionsOfRemovedOptions() {
+        byte[] mask = SelectionMask.encode(new int[] {12, 20}, OPTION_IDS);
+
+        assertArrayEquals(new int[] {12}, SelectionMask.decode(mask, new int[] {11, 12}));
+    }
+}
@@ -0,0 +1,98 @@
+package com.quizapp.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DurationHistogramTest {
+
+    @Test
+    public void keepsShortDurationsExact() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (long seconds = 1; seconds <= 20; seconds++) {
+            histogram.record(seconds);
+        }
+
+        assertEquals(10, histogram.getValueAtPercentile(50));
+        assertEquals(18, histogram.getValueAtPercentile(90));
+        assertEquals(20, histogram.getValueAtPercentile(100));
+        assertEquals(1, histogram.getValueAtPercentile(0));
+    }
+
+    @Test
+    public void boundsRelativeErrorOfLongDurations() {
+        DurationHistogram histogram = new DurationHistogram();
+        for (long seconds = 1; seconds <= 10_000; seconds++) {
+            histogram.record(seconds);
+        }
+
+        for (int percentile : new int[] {10, 25, 50, 75, 90, 99}) {
+            long exact = 10_000L * percentile / 100;
+            long reported = histogram.getValueAtPercentile(percentile);
+            assertTrue(percentile + "th percentile " + reported + " understates " + exact, reported >= exact);
+            assertTrue(percentile + "th percentile " + reported + " is far above " + exact,
+                    reported <= exact * 1.07);
+        }
+    }
+
+    @Test
+    public void bucketsCoverEveryDurationOnce() {
+        for (long seconds = 0; seconds < 100_000; seconds++) {
+            int bucket = DurationHistogram.bucketOf(seconds);
+            assertTrue(seconds + " below bucket " + bucket, DurationHistogram.lowerBound(bucket) <= seconds);
+            assertTrue(seconds + " above bucket " + bucket, DurationHistogram.upperBound(bucket) >= seconds);
+        }
+        assertEquals(0, DurationHistogram.bucketOf(-5));
+        assertEquals(DurationHistogram.BUCKET_COUNT - 1, DurationHistogram.bucketOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void mergesByAddingCounts() {
+        DurationHistogram quick = new DurationHistogram();
+        DurationHistogram slow = new DurationHistogram();
+        for (int i = 0; i < 50; i++) {
+            quick.record(10);
+            slow.record(600);
+        }
+
+        quick.merge(slow);
+
+        assertEquals(100, quick.getTotalCount());
+        assertEquals(10, quick.getValueAtPercentile(50));
+        assertTrue(quick.getValueAtPercentile(51) >= 600);
+    }
+
+    @Test
+    public void countsSlowerAttemptsAsBeaten() {
+        DurationHistogram histogram = new DurationHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        histogram.record(30);
+        assertEquals(0, histogram.getPercentFasterThan(30), 0);
+
+        histogram.record(30);
+        histogram.record(60);
+        histogram.record(90);
+        histogram.record(120);
+
+        // 3 of the 4 other attempts were slower; the other one at 30 s is a tie
+        assertEquals(75, histogram.getPercentFasterThan(30), 0.001);
+        assertEquals(0, histogram.getPercentFasterThan(120), 0.001);
+    }
+
+    @Test
+    public void comparesUnsavedAttemptWithAllAttempts() {
+        DurationHistogram histogram = new DurationHistogram();
+        assertEquals(0, histogram.getPercentFasterThan(30, false), 0);
+
+        histogram.record(60);
+        histogram.record(90);
+        assertEquals(100, histogram.getPercentFasterThan(30, false), 0.001);
+
+        histogram.record(20);
+        histogram.record(30);
+        // 2 of the 4 attempts were slower; the one at 30 s is a tie
+        assertEquals(50, histogram.getPercentFasterThan(30, false), 0.001);
+    }
+}
@@ -0,0 +1,81 @@
+package com.quizapp.util;
+
+import com.quizapp.util.TimingWheel.Timeout;
+
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TimingWheelTest {
+
+    @Test
+    public void expiresAfterTheDelay() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(10, 8);
+        CountDownLatch fired = new CountDownLatch(1);
+        long start = System.nanoTime();
+
+        Timeout timeout = wheel.newTimeout(fired::countDown, 150, TimeUnit.MILLISECONDS);
+
+        assertTrue("timeout did not fire", fired.await(5, TimeUnit.SECONDS));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("fired after " + elapsedMillis + " ms", elapsedMillis >= 140);
+        assertTrue(timeout.isExpired());
+        assertFalse("an expired timeout cannot be cancelled", timeout.cancel());
+    }
+
+    @Test
+    public void expiresInOrderAcrossRounds() throws InterruptedException {
+        // 8 slots of 10 ms, so the later delays go around the wheel more than once
+        TimingWheel wheel = new TimingWheel(10, 8);
+        List<Integer> order = new CopyOnWriteArrayList<>();
+        CountDownLatch fired = new CountDownLatch(3);
+
+        for (int delay : new int[] {250, 30, 120}) {
+            wheel.newTimeout(() -> {
+                order.add(delay);
+                fired.countDown();
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+
+        assertTrue("timeouts did not fire", fired.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(30, 120, 250), order);
+    }
+
+    @Test
+    public void doesNotRunCancelledTimeouts() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(10, 8);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch later = new CountDownLatch(1);
+
+        Timeout cancelled = wheel.newTimeout(runs::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        wheel.newTimeout(later::countDown, 150, TimeUnit.MILLISECONDS);
+
+        assertTrue(cancelled.cancel());
+        assertFalse(cancelled.cancel());
+        assertTrue("later timeout did not fire", later.await(5, TimeUnit.SECONDS));
+        assertEquals(0, runs.get());
+        assertTrue(cancelled.isCancelled());
+        assertFalse(cancelled.isExpired());
+    }
+
+    @Test
+    public void keepsRunningAfterFailingTask() throws InterruptedException {
+        TimingWheel wheel = new TimingWheel(10, 8);
+        CountDownLatch fired = new CountDownLatch(1);
+
+        wheel.newTimeout(() -> {
+            throw new IllegalStateException("Expected by the test");
+        }, 10, TimeUnit.MILLISECONDS);
+        wheel.newTimeout(fired::countDown, 60, TimeUnit.MILLISECONDS);
+
+        assertTrue("timeout after the failing one did not fire", fired.await(5, TimeUnit.SECONDS));
+    }
+}